@@ -44,6 +44,7 @@ import com.microsoft.identity.common.java.commands.parameters.RemoveAccountComma
 import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
 import com.microsoft.identity.common.java.controllers.BaseController;
 import com.microsoft.identity.common.java.controllers.CommandDispatcher;
+import com.microsoft.identity.common.java.controllers.CommandExecutorConfiguration;
 import com.microsoft.identity.common.java.controllers.CommandResult;
 import com.microsoft.identity.common.java.dto.AccessTokenRecord;
 import com.microsoft.identity.common.java.dto.AccountRecord;
@@ -368,6 +369,85 @@ public class CommandDispatcherTest {
         Assert.assertFalse(CommandDispatcher.isCommandOutstanding(testCommand));
     }
 
+    @Test
+    public void testSubmitSilentNotCoalescedWhenOnlyHashCodeMatches() throws Exception {
+        final CountDownLatch submitLatch = new CountDownLatch(1);
+        final CountDownLatch executionStartLatch = new CountDownLatch(2);
+        final AtomicInteger executionCount = new AtomicInteger(0);
+
+        final TestCommand testCommand = new CollidingTestCommand(
+                getEmptyTestParams(), 1, submitLatch, executionStartLatch, executionCount);
+        final TestCommand testCommand2 = new CollidingTestCommand(
+                getEmptyTestParams(), 2, submitLatch, executionStartLatch, executionCount);
+        Assert.assertEquals(testCommand.hashCode(), testCommand2.hashCode());
+        Assert.assertNotEquals(testCommand, testCommand2);
+
+        final FinalizableResultFuture<CommandResult> f = CommandDispatcher.submitSilentReturningFuture(testCommand);
+        final FinalizableResultFuture<CommandResult> f2 = CommandDispatcher.submitSilentReturningFuture(testCommand2);
+        Assert.assertNotSame(f, f2);
+
+        // Both commands run, rather than the second joining the first.
+        Assert.assertTrue(executionStartLatch.await(5, TimeUnit.SECONDS));
+        submitLatch.countDown();
+        Assert.assertEquals(TEST_RESULT_STR, f.get(5, TimeUnit.SECONDS).getResult());
+        Assert.assertEquals(TEST_RESULT_STR, f2.get(5, TimeUnit.SECONDS).getResult());
+        Assert.assertEquals(2, executionCount.get());
+    }
+
+    @Test
+    public void testSubmitSilentCancellingOneCoalescedCallerKeepsTheOthers() throws Exception {
+        final CountDownLatch submitLatch = new CountDownLatch(1);
+        final CountDownLatch executionStartLatch = new CountDownLatch(1);
+        final TestCommand testCommand = getCacheableLatchedTestCommand(submitLatch, executionStartLatch);
+        final TestCommand testCommand2 = getCacheableLatchedTestCommand(submitLatch, executionStartLatch);
+
+        final FinalizableResultFuture<CommandResult> f = CommandDispatcher.submitSilentReturningFuture(testCommand);
+        final FinalizableResultFuture<CommandResult> f2 = CommandDispatcher.submitSilentReturningFuture(testCommand2);
+        Assert.assertNotSame(f, f2);
+        Assert.assertTrue(executionStartLatch.await(5, TimeUnit.SECONDS));
+
+        Assert.assertTrue(f.cancel(true));
+        Assert.assertTrue(f.isCancelled());
+        Assert.assertTrue(CommandDispatcher.isCommandOutstanding(testCommand));
+
+        submitLatch.countDown();
+        Assert.assertEquals(TEST_RESULT_STR, f2.get(5, TimeUnit.SECONDS).getResult());
+        f2.isCleanedUp();
+        Assert.assertFalse(CommandDispatcher.isCommandOutstanding(testCommand));
+    }
+
+    @Test
+    public void testSubmitSilentCancellingEveryCoalescedCallerReleasesTheCommand() throws Exception {
+        final CountDownLatch submitLatch = new CountDownLatch(1);
+        final CountDownLatch executionStartLatch = new CountDownLatch(1);
+        final TestCommand testCommand = getCacheableLatchedTestCommand(submitLatch, executionStartLatch);
+        final TestCommand testCommand2 = getCacheableLatchedTestCommand(submitLatch, executionStartLatch);
+
+        final FinalizableResultFuture<CommandResult> f = CommandDispatcher.submitSilentReturningFuture(testCommand);
+        final FinalizableResultFuture<CommandResult> f2 = CommandDispatcher.submitSilentReturningFuture(testCommand2);
+        Assert.assertTrue(executionStartLatch.await(5, TimeUnit.SECONDS));
+
+        Assert.assertTrue(f.cancel(true));
+        Assert.assertTrue(CommandDispatcher.isCommandOutstanding(testCommand));
+        Assert.assertTrue(f2.cancel(true));
+        // With nobody waiting, an identical request no longer joins the abandoned one.
+        Assert.assertFalse(CommandDispatcher.isCommandOutstanding(testCommand));
+
+        submitLatch.countDown();
+        f.isCleanedUp();
+        f2.isCleanedUp();
+    }
+
+    private static TestCommand getCacheableLatchedTestCommand(@NonNull final CountDownLatch submitLatch,
+                                                             @NonNull final CountDownLatch executionStartLatch) {
+        return new LatchedTestCommand(getEmptyTestParams(), new EmptyCommandCallback(), 1, submitLatch, executionStartLatch) {
+            @Override
+            public boolean isEligibleForCaching() {
+                return true;
+            }
+        };
+    }
+
     @Test
     public void testStopSilentRequestExecutor() throws Exception {
         LongRunningTestCommand testCommand = new LongRunningTestCommand(getEmptyTestParams(), new EmptyCommandCallback());
@@ -393,6 +473,42 @@ public class CommandDispatcherTest {
         CommandDispatcher.resetSilentRequestExecutor();
     }
 
+    @Test
+    public void testSubmitSilentWithFullQueueFailsThroughCallback() throws Exception {
+        CommandDispatcher.setExecutorConfiguration(CommandExecutorConfiguration.builder()
+                .silentPoolSize(1)
+                .silentQueueCapacity(1)
+                .build());
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        final CountDownLatch executionStartLatch = new CountDownLatch(1);
+        final CountDownLatch errorLatch = new CountDownLatch(1);
+        try {
+            CommandDispatcher.submitSilentReturningFuture(new LatchedTestCommand(
+                    getEmptyTestParams(), new EmptyCommandCallback(), 1, releaseLatch, executionStartLatch));
+            Assert.assertTrue(executionStartLatch.await(5, TimeUnit.SECONDS));
+            CommandDispatcher.submitSilentReturningFuture(new LatchedTestCommand(
+                    getEmptyTestParams(), new EmptyCommandCallback(), 2, releaseLatch, new CountDownLatch(1)));
+
+            // The third command does not fit in the queue; it fails through its callback instead of throwing.
+            final FinalizableResultFuture<CommandResult> future = CommandDispatcher.submitSilentReturningFuture(new TestCommand(
+                    getEmptyTestParams(),
+                    new EmptyCommandCallback<String, Exception>() {
+                        @Override
+                        public void onError(Exception error) {
+                            errorLatch.countDown();
+                        }
+                    }, 3));
+
+            final CommandResult result = future.get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(ICommandResult.ResultStatus.ERROR, result.getStatus());
+            Assert.assertEquals(ClientException.EXECUTOR_ERROR, ((ClientException) result.getResult()).getErrorCode());
+            Assert.assertTrue(errorLatch.await(5, TimeUnit.SECONDS));
+        } finally {
+            releaseLatch.countDown();
+            CommandDispatcher.setExecutorConfiguration(CommandExecutorConfiguration.getDefault());
+        }
+    }
+
     @Test
     public void testResetSilentRequestExecutor() throws Exception {
         LongRunningTestCommand testCommand = new LongRunningTestCommand(getEmptyTestParams(), new EmptyCommandCallback());
@@ -841,6 +957,33 @@ public class CommandDispatcherTest {
         }
     }
 
+    /**
+     * Commands with different values that share a hash code.
+     */
+    public static class CollidingTestCommand extends LatchedTestCommand {
+        private final AtomicInteger mExecutionCount;
+
+        public CollidingTestCommand(@NonNull final CommandParameters parameters,
+                                    final int value,
+                                    @NonNull final CountDownLatch testStartLatch,
+                                    @NonNull final CountDownLatch executionStartLatch,
+                                    @NonNull final AtomicInteger executionCount) {
+            super(parameters, new EmptyCommandCallback(), value, testStartLatch, executionStartLatch);
+            mExecutionCount = executionCount;
+        }
+
+        @Override
+        public String execute() {
+            mExecutionCount.incrementAndGet();
+            return super.execute();
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
     public static class LatchedRefreshInTestCommand extends BaseCommand {
         final CountDownLatch tryLatch;
         final CountDownLatch executeMethodEntranceVerifierLatch;
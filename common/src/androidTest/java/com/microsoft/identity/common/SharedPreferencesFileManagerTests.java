@@ -32,6 +32,8 @@ import com.microsoft.identity.common.adal.internal.AndroidSecretKeyEnabledHelper
 import com.microsoft.identity.common.crypto.AndroidAuthSdkStorageEncryptionManager;
 import com.microsoft.identity.common.internal.cache.SharedPreferencesFileManager;
 import com.microsoft.identity.common.java.crypto.IKeyAccessor;
+import com.microsoft.identity.common.java.storage.ParallelEntryMapper;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
 import org.junit.After;
@@ -275,6 +277,36 @@ public class SharedPreferencesFileManagerTests extends AndroidSecretKeyEnabledHe
         assertEquals("b", allMap.get("2"));
     }
 
+    @Test
+    public void testBulkGetAllFilteredByKey() {
+        final int entryCount = 500;
+        for (int i = 0; i < entryCount; i++) {
+            mSharedPreferencesFileManager.putString("key" + i, "value" + i);
+        }
+        mSharedPreferencesFileManager.putString("other", "value");
+
+        final Map<String, Integer> result = mSharedPreferencesFileManager.getAllFilteredByKey(
+                new Predicate<String>() {
+                    @Override
+                    public boolean test(String value) {
+                        return value.startsWith("key");
+                    }
+                },
+                new Function<Map.Entry<String, String>, Integer>() {
+                    @Override
+                    public Integer apply(Map.Entry<String, String> entry) {
+                        return Integer.parseInt(entry.getValue().substring("value".length()));
+                    }
+                },
+                ParallelEntryMapper.getDefaultExecutor()
+        );
+
+        assertEquals(entryCount, result.size());
+        for (int i = 0; i < entryCount; i++) {
+            assertEquals(Integer.valueOf(i), result.get("key" + i));
+        }
+    }
+
     @Test
     public void testContainsTrue() {
         mSharedPreferencesFileManager.putString(sTEST_KEY, sTEST_VALUE);
@@ -605,7 +605,7 @@ public final class AuthenticationConstants {
          *
          * @see <a href="https://identitydivision.visualstudio.com/DevEx/_git/AuthLibrariesApiReview?path=/%5BAndroid%5D%20Broker%20API/broker_protocol_versions.md">Android Auth Broker Protocol Versions</a>
          */
-        public static final String LATEST_MSAL_TO_BROKER_PROTOCOL_VERSION_CODE = "16.0";
+        public static final String LATEST_MSAL_TO_BROKER_PROTOCOL_VERSION_CODE = "17.0";
 
         /**
          * The maximum msal-to-broker protocol version known by clients such as MSAL Android.
@@ -1258,6 +1258,11 @@ public final class AuthenticationConstants {
          */
         public static final String BROKER_REQUEST_V2_COMPRESSED = "broker_request_v2_compressed";
 
+        /**
+         * String to send MSAL V2 Request params as gzip compressed byte array, with the preset dictionary.
+         */
+        public static final String BROKER_REQUEST_V2_COMPRESSED_WITH_DICTIONARY = "broker_request_v2_compressed_dictionary";
+
         /**
          * String to return Msal V2 response.
          */
@@ -1268,6 +1273,11 @@ public final class AuthenticationConstants {
          */
         public static final String BROKER_RESULT_V2_COMPRESSED = "broker_result_v2_compressed";
 
+        /**
+         * String to return MSAL V2 response as gzip compressed byte array, with the preset dictionary.
+         */
+        public static final String BROKER_RESULT_V2_COMPRESSED_WITH_DICTIONARY = "broker_result_v2_compressed_dictionary";
+
         /**
          * Represents the broker device mode boolean (true = shared device mode).
          * This is used to determine what PublicClientApplication MSAL will return to its caller.
@@ -1365,6 +1375,11 @@ public final class AuthenticationConstants {
          */
         public static final String BROKER_ACCOUNTS_COMPRESSED = "broker_accounts_compressed";
 
+        /**
+         * String to return account list as compressed json, with the preset dictionary.
+         */
+        public static final String BROKER_ACCOUNTS_COMPRESSED_WITH_DICTIONARY = "broker_accounts_compressed_dictionary";
+
         public static final String BROKER_KEYSTORE_SYMMETRIC_KEY = "broker_keystore_symmetric_key";
 
         /**
@@ -23,14 +23,17 @@
 package com.microsoft.identity.common.adal.internal.util;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.microsoft.identity.common.internal.broker.BrokerResult;
+import com.microsoft.identity.common.internal.util.GzipUtil;
 import com.microsoft.identity.common.internal.util.ICacheRecordGsonAdapter;
 import com.microsoft.identity.common.java.cache.ICacheRecord;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
 
@@ -83,4 +86,59 @@ public final class JsonExtensions {
                         BrokerResult.class
                 );
     }
+
+    /**
+     * Extract gzip compressed JSON into BrokerResult, decompressing it as it is parsed.
+     *
+     * @param compressedJson gzip compressed JSON
+     * @param dictionary     the preset dictionary the JSON was compressed with, if any
+     * @return BrokerResult
+     */
+    @Nullable
+    public static BrokerResult getBrokerResultFromCompressedJson(@NonNull final byte[] compressedJson,
+                                                                 @Nullable final byte[] dictionary) throws IOException {
+        return GzipUtil.decompressFromJson(
+                new GsonBuilder()
+                        .registerTypeAdapter(ICacheRecord.class, new ICacheRecordGsonAdapter())
+                        .create(),
+                compressedJson,
+                BrokerResult.class,
+                dictionary
+        );
+    }
+
+    /**
+     * Extract gzip compressed JSON into List<ICacheRecord>, decompressing it as it is parsed.
+     *
+     * @param compressedJson gzip compressed JSON
+     * @param dictionary     the preset dictionary the JSON was compressed with, if any
+     * @return List
+     */
+    @Nullable
+    public static List<ICacheRecord> getICacheRecordListFromCompressedJson(@NonNull final byte[] compressedJson,
+                                                                           @Nullable final byte[] dictionary) throws IOException {
+        final Type listOfCacheRecords = TypeToken.getParameterized(List.class, ICacheRecord.class).getType();
+        return GzipUtil.decompressFromJson(
+                new GsonBuilder()
+                        .registerTypeAdapter(ICacheRecord.class, new ICacheRecordGsonAdapter())
+                        .create(),
+                compressedJson,
+                listOfCacheRecords,
+                dictionary
+        );
+    }
+
+    /**
+     * Converts List<ICacheRecord> into gzip compressed JSON, compressing it as it is serialized.
+     *
+     * @param cacheRecords the records to convert
+     * @param dictionary   an optional preset dictionary to compress with
+     * @return the compressed JSON
+     */
+    @NonNull
+    public static GzipUtil.CompressedJson getCompressedJsonFromICacheRecordList(@NonNull final List<ICacheRecord> cacheRecords,
+                                                                                @Nullable final byte[] dictionary) throws IOException {
+        final Type listOfCacheRecords = TypeToken.getParameterized(List.class, ICacheRecord.class).getType();
+        return GzipUtil.compressToJson(new Gson(), cacheRecords, listOfCacheRecords, dictionary);
+    }
 }
@@ -36,6 +36,7 @@ import com.microsoft.identity.common.internal.platform.AndroidPlatformUtil;
 import com.microsoft.identity.common.internal.providers.oauth2.AndroidTaskStateGenerator;
 import com.microsoft.identity.common.internal.ui.AndroidAuthorizationStrategyFactory;
 import com.microsoft.identity.common.java.WarningType;
+import com.microsoft.identity.common.java.cache.MetadataCache;
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.interfaces.PlatformComponents;
 import com.microsoft.identity.common.java.net.DefaultHttpClientWrapper;
@@ -67,6 +68,8 @@ public class AndroidPlatformComponentsFactory {
             HttpCache.initialize(context);
             Device.setDeviceMetadata(new AndroidDeviceMetadata());
             Logger.setAndroidLogger();
+            MetadataCache.initializePersistentStorage(new AndroidStorageSupplier(context,
+                    new AndroidAuthSdkStorageEncryptionManager(context)));
 
             final File cacheDir = context.getCacheDir();
             if (cacheDir != null) {
@@ -32,6 +32,7 @@ import com.microsoft.identity.common.internal.broker.ipc.BrokerOperationBundle
 import com.microsoft.identity.common.internal.broker.ipc.ContentProviderStrategy
 import com.microsoft.identity.common.internal.broker.ipc.IIpcStrategy
 import com.microsoft.identity.common.internal.cache.IClientActiveBrokerCache
+import com.microsoft.identity.common.internal.controllers.BrokerSilentResultCache
 import com.microsoft.identity.common.java.exception.ClientException
 import com.microsoft.identity.common.java.exception.ClientException.ONLY_SUPPORTS_ACCOUNT_MANAGER_ERROR_CODE
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents
@@ -179,6 +180,14 @@ class BrokerDiscoveryClient(private val brokerCandidates: Set<BrokerData>,
             BrokerValidator(context).isSignedByKnownKeys(brokerData)
         })
 
+    /**
+     * Clears the cached active broker, along with any broker results cached from it.
+     **/
+    private fun clearCachedActiveBroker() {
+        cache.clearCachedActiveBroker()
+        BrokerSilentResultCache.getInstance().clear()
+    }
+
     override fun getActiveBroker(shouldSkipCache: Boolean): BrokerData? {
         return runBlocking {
             return@runBlocking getActiveBrokerAsync(shouldSkipCache)
@@ -198,7 +207,7 @@ class BrokerDiscoveryClient(private val brokerCandidates: Set<BrokerData>,
                             methodTag,
                             "There is a cached broker: $it, but the app is no longer installed."
                         )
-                        cache.clearCachedActiveBroker()
+                        clearCachedActiveBroker()
                         return@let
                     }
 
@@ -207,7 +216,7 @@ class BrokerDiscoveryClient(private val brokerCandidates: Set<BrokerData>,
                             methodTag,
                             "Clearing cache as the installed app does not have a matching signature hash."
                         )
-                        cache.clearCachedActiveBroker()
+                        clearCachedActiveBroker()
                         return@let
                     }
 
@@ -216,7 +225,7 @@ class BrokerDiscoveryClient(private val brokerCandidates: Set<BrokerData>,
                             methodTag,
                             "Clearing cache as the installed app does not provide any IPC mechanism to communicate to. (e.g. the broker code isn't shipped with this apk)"
                         )
-                        cache.clearCachedActiveBroker()
+                        clearCachedActiveBroker()
                         return@let
                     }
 
@@ -233,6 +242,10 @@ class BrokerDiscoveryClient(private val brokerCandidates: Set<BrokerData>,
             )
 
             if (brokerData != null) {
+                if (brokerData.packageName != cache.getCachedActiveBroker()?.packageName) {
+                    // Results cached from the previous broker must not be served any more.
+                    BrokerSilentResultCache.getInstance().clear()
+                }
                 cache.setCachedActiveBroker(brokerData)
                 return brokerData
             }
@@ -242,7 +255,7 @@ class BrokerDiscoveryClient(private val brokerCandidates: Set<BrokerData>,
                 "Will skip broker discovery via IPC and fall back to AccountManager " +
                         "for the next 60 minutes."
             )
-            cache.clearCachedActiveBroker()
+            clearCachedActiveBroker()
             cache.setShouldUseAccountManagerForTheNextMilliseconds(
                 TimeUnit.MINUTES.toMillis(
                     60
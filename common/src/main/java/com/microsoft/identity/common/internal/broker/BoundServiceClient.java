@@ -27,6 +27,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ResolveInfo;
 import android.os.Bundle;
+import android.os.DeadObjectException;
 import android.os.IBinder;
 import android.os.IInterface;
 import android.os.RemoteException;
@@ -36,12 +37,13 @@ import androidx.annotation.Nullable;
 
 import com.microsoft.identity.common.exception.BrokerCommunicationException;
 import com.microsoft.identity.common.internal.broker.ipc.BrokerOperationBundle;
-import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.logging.Logger;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static com.microsoft.identity.common.exception.BrokerCommunicationException.Category.OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE;
@@ -50,19 +52,44 @@ import static com.microsoft.identity.common.internal.broker.ipc.IIpcStrategy.Typ
 /**
  * Interface for a Bound Service client.
  * A separate implementation is required for each AIDL interface (android.os.IInterface)
+ * <p>
+ * Bindings are shared through {@link BoundServiceConnection}, so a burst of operations against the
+ * same service only binds once. A client can be used by concurrent callers: the connection is
+ * tracked per thread, so each caller must {@link #disconnect()} on the thread that connected.
  */
 public abstract class BoundServiceClient<T extends IInterface> {
     private static final String TAG = BoundServiceClient.class.getSimpleName();
 
     private static final int DEFAULT_BIND_TIMEOUT_IN_SECONDS = 30;
 
+    /**
+     * How long an unused binding is kept before unbinding from the service.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT_IN_MILLISECONDS = 10_000;
+
+    /**
+     * Operations that only read from the service. Only these are retried after the service died
+     * during the call, as it may have performed the operation before dying.
+     */
+    private static final Set<BrokerOperationBundle.Operation> RETRYABLE_OPERATIONS = Collections.unmodifiableSet(EnumSet.of(
+            BrokerOperationBundle.Operation.MSAL_HELLO,
+            BrokerOperationBundle.Operation.MSAL_GET_ACCOUNTS,
+            BrokerOperationBundle.Operation.MSAL_GET_DEVICE_MODE,
+            BrokerOperationBundle.Operation.MSAL_GET_CURRENT_ACCOUNT_IN_SHARED_DEVICE,
+            BrokerOperationBundle.Operation.BROKER_API_HELLO,
+            BrokerOperationBundle.Operation.BROKER_API_GET_BROKER_ACCOUNTS,
+            BrokerOperationBundle.Operation.BROKER_GET_FLIGHTS,
+            BrokerOperationBundle.Operation.MSAL_GET_PREFERRED_AUTH_METHOD
+    ));
+
     protected final Context mContext;
     private final int mTimeOutInSeconds;
     private final String mTargetServiceClassName;
     private final String mTargetServiceIntentFilter;
+    private final long mIdleTimeoutInMilliseconds;
 
-    private BoundServiceConnection mConnection;
-    private boolean mHasStartedBinding;
+    // The connection held by each thread between connect() and disconnect().
+    private final ThreadLocal<BoundServiceConnection> mConnection = new ThreadLocal<>();
 
     /**
      * Perform the given operation with the given .aidl {@link IInterface}
@@ -101,10 +128,28 @@ public abstract class BoundServiceClient<T extends IInterface> {
                               @NonNull final String targetServiceClassName,
                               @NonNull final String targetServiceIntentFilter,
                               final int timeOutInSeconds) {
+        this(context, targetServiceClassName, targetServiceIntentFilter, timeOutInSeconds, DEFAULT_IDLE_TIMEOUT_IN_MILLISECONDS);
+    }
+
+    /**
+     * BoundServiceClient's constructor.
+     *
+     * @param context                   application context.
+     * @param targetServiceClassName    Full class name of the service that implements the AIDL interface.
+     * @param targetServiceIntentFilter Intent filter of the service that implements the AIDL interface.
+     * @param timeOutInSeconds          the client will terminates its connection if it can't connect to the service by this time out.
+     * @param idleTimeoutInMilliseconds how long an unused binding is kept for reuse. 0 unbinds on every disconnect.
+     */
+    public BoundServiceClient(@NonNull final Context context,
+                              @NonNull final String targetServiceClassName,
+                              @NonNull final String targetServiceIntentFilter,
+                              final int timeOutInSeconds,
+                              final long idleTimeoutInMilliseconds) {
         mContext = context;
         mTimeOutInSeconds = timeOutInSeconds;
         mTargetServiceClassName = targetServiceClassName;
         mTargetServiceIntentFilter = targetServiceIntentFilter;
+        mIdleTimeoutInMilliseconds = idleTimeoutInMilliseconds;
     }
 
     /**
@@ -117,8 +162,28 @@ public abstract class BoundServiceClient<T extends IInterface> {
      */
     public @Nullable Bundle performOperation(@NonNull final BrokerOperationBundle inputBundle)
             throws RemoteException, BrokerCommunicationException, InterruptedException, ExecutionException, TimeoutException {
+        final String methodTag = TAG + ":performOperation";
+
         final T aidlInterface = connect(inputBundle.getTargetBrokerAppPackageName());
-        return performOperationInternal(inputBundle, aidlInterface);
+        try {
+            return performOperationInternal(inputBundle, aidlInterface);
+        } catch (final DeadObjectException e) {
+            // A reused binding may have outlived the service. Drop it, so that the next call binds again.
+            final BoundServiceConnection connection = mConnection.get();
+            if (connection == null) {
+                throw e;
+            }
+
+            connection.invalidate(aidlInterface.asBinder());
+            disconnect();
+            if (!RETRYABLE_OPERATIONS.contains(inputBundle.getOperation())) {
+                Logger.warn(methodTag, "The bound service is dead, not retrying " + inputBundle.getOperation().name() + ".");
+                throw e;
+            }
+
+            Logger.warn(methodTag, "The bound service is dead, reconnecting.");
+            return performOperationInternal(inputBundle, connect(inputBundle.getTargetBrokerAppPackageName()));
+        }
     }
 
     /**
@@ -140,41 +205,26 @@ public abstract class BoundServiceClient<T extends IInterface> {
                     null);
         }
 
-        final ResultFuture<IBinder> future = new ResultFuture<>();
-        mConnection = new BoundServiceConnection(future);
-        mHasStartedBinding = mContext.bindService(getIntentForBoundService(targetServicePackageName), mConnection, Context.BIND_AUTO_CREATE);
+        // Release a connection this thread did not disconnect from, rather than leaking its reference.
+        disconnect();
 
-        if (!mHasStartedBinding) {
-            final String errorMessage = "failed to bind. The service is not available.";
-            Logger.info(methodTag, errorMessage);
-            throw new BrokerCommunicationException(
-                    OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE,
-                    BOUND_SERVICE,
-                    errorMessage,
-                    null);
-        }
+        final BoundServiceConnection connection = BoundServiceConnection.acquire(
+                mContext, getIntentForBoundService(targetServicePackageName));
+        mConnection.set(connection);
 
-        Logger.info(methodTag, "Android is establishing the bound service connection.");
-        final IBinder binder = future.get(mTimeOutInSeconds, TimeUnit.SECONDS);
+        final IBinder binder = connection.getBinder(mTimeOutInSeconds);
         return getInterfaceFromIBinder(binder);
     }
 
     /**
-     * Disconnects (unbinds) from the service.
+     * Disconnects the calling thread from the service. The service is unbound once no caller has
+     * used the binding for the idle timeout.
      */
     public void disconnect() {
-        final String methodTag = TAG + ":disconnect";
-        if (mHasStartedBinding) {
-            try {
-                mContext.unbindService(mConnection);
-            } catch (final IllegalArgumentException e) {
-                // This is coming from LoadedApk framework code when there is some error unbinding the service,
-                // possibly due to it not having been registered correctly in the first place, or already unregistered.
-                // Since this is the cleanup path, just handle log this and move on.
-                final String errorDescription = "Error occurred while unbinding bound Service with " + getClass().getSimpleName();
-                Logger.error(methodTag, errorDescription, e);
-            }
-            mHasStartedBinding = false;
+        final BoundServiceConnection connection = mConnection.get();
+        if (connection != null) {
+            mConnection.remove();
+            connection.release(mIdleTimeoutInMilliseconds);
         }
     }
 
@@ -20,52 +20,335 @@
 //  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
 //  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
 //  THE SOFTWARE.
-
 package com.microsoft.identity.common.internal.broker;
 
 import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
 import android.os.IBinder;
+import android.os.RemoteException;
 
 import androidx.annotation.NonNull;
 
+import com.microsoft.identity.common.exception.BrokerCommunicationException;
 import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.ThreadUtils;
 import com.microsoft.identity.common.logging.Logger;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.microsoft.identity.common.exception.BrokerCommunicationException.Category.OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE;
+import static com.microsoft.identity.common.internal.broker.ipc.IIpcStrategy.Type.BOUND_SERVICE;
+
 /**
- * A bound service connection.
+ * A bound service connection, shared by every {@link BoundServiceClient} targeting the same service.
+ * <p>
+ * The connection is reference counted. The first caller binds to the service, concurrent and
+ * subsequent callers reuse the binding, and it is only unbound once it has been unused for the idle
+ * timeout. If the service dies or disconnects, the binding is dropped and the next caller binds again.
  */
-public class BoundServiceConnection implements android.content.ServiceConnection {
+public class BoundServiceConnection implements android.content.ServiceConnection, IBinder.DeathRecipient {
     private static final String TAG = BoundServiceConnection.class.getSimpleName();
-    private final ResultFuture<IBinder> mFuture;
 
-    public BoundServiceConnection(@NonNull final ResultFuture<IBinder> future) {
-        mFuture = future;
+    // Every shared connection, by target. Also guards the state of each connection.
+    private static final Map<String, BoundServiceConnection> sConnections = new HashMap<>();
+
+    private static final class IdleSchedulerHolder {
+        private static final ScheduledExecutorService INSTANCE = ThreadUtils.getNamedScheduledThreadPoolExecutor(
+                1, 60, TimeUnit.SECONDS, "bound-service-idle");
+    }
+
+    private final Context mContext;
+    private final Intent mIntent;
+    private final String mKey;
+
+    private int mReferenceCount;
+    // Null while not bound.
+    private ResultFuture<IBinder> mBinderFuture;
+    private IBinder mBinder;
+    private ScheduledFuture<?> mIdleUnbind;
+    private long mIdleUnbindToken;
+
+    private BoundServiceConnection(@NonNull final Context context,
+                                   @NonNull final Intent intent,
+                                   @NonNull final String key) {
+        mContext = context;
+        mIntent = intent;
+        mKey = key;
+    }
+
+    /**
+     * Takes a reference on the connection to the service targeted by the given intent, binding to
+     * it if it is not bound yet. Every reference must be given back with {@link #release(long)}.
+     *
+     * @param context any context of the app; the shared binding is held on its application
+     *                context, so it never keeps an activity or service of the first caller alive.
+     * @param intent  an intent targeting the service.
+     * @return the shared connection.
+     * @throws BrokerCommunicationException if the service cannot be bound to.
+     */
+    static @NonNull BoundServiceConnection acquire(@NonNull final Context context,
+                                                   @NonNull final Intent intent)
+            throws BrokerCommunicationException {
+        final String key = getKey(intent);
+        synchronized (sConnections) {
+            BoundServiceConnection connection = sConnections.get(key);
+            if (connection == null) {
+                connection = new BoundServiceConnection(context.getApplicationContext(), intent, key);
+                sConnections.put(key, connection);
+            }
+
+            connection.mReferenceCount++;
+            connection.cancelIdleUnbindLocked();
+            try {
+                connection.bindLocked();
+            } catch (final BrokerCommunicationException | RuntimeException e) {
+                // We know for a fact that in some OEM, bind service might throw a runtime exception.
+                connection.releaseLocked(0);
+                throw e;
+            }
+            return connection;
+        }
+    }
+
+    /**
+     * Waits for the service to be connected.
+     * If it does not connect in time, the binding is dropped so that the next caller binds again.
+     *
+     * @param timeOutInSeconds how long to wait for.
+     * @return the {@link IBinder} of the service.
+     */
+    @NonNull IBinder getBinder(final int timeOutInSeconds)
+            throws InterruptedException, TimeoutException, ExecutionException {
+        final ResultFuture<IBinder> future;
+        synchronized (sConnections) {
+            future = mBinderFuture;
+        }
+
+        if (future == null) {
+            throw new ExecutionException(new IllegalStateException("The bound service connection was closed."));
+        }
+
+        try {
+            return future.get(timeOutInSeconds, TimeUnit.SECONDS);
+        } catch (final TimeoutException e) {
+            synchronized (sConnections) {
+                if (mBinderFuture == future) {
+                    unbindLocked();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the binding if the given binder is still the current one, so that the next caller binds
+     * again. Used when a call fails because the binder is no longer alive.
+     */
+    void invalidate(@NonNull final IBinder binder) {
+        synchronized (sConnections) {
+            if (mBinder == binder) {
+                unbindLocked();
+            }
+        }
+    }
+
+    /**
+     * Gives back a reference taken by {@link #acquire(Context, Intent)}. Once no reference is left,
+     * the service is unbound after the given idle timeout, unless the connection is acquired again.
+     *
+     * @param idleTimeoutInMilliseconds how long to keep an unused binding. 0 unbinds right away.
+     */
+    void release(final long idleTimeoutInMilliseconds) {
+        synchronized (sConnections) {
+            releaseLocked(idleTimeoutInMilliseconds);
+        }
     }
 
     @Override
-    public void onServiceConnected(ComponentName name, IBinder service) {
+    public void onServiceConnected(@NonNull final ComponentName name, @NonNull final IBinder service) {
         final String methodTag = TAG + ":onServiceConnected";
         Logger.info(methodTag, name.getClassName() + " is connected.");
-        mFuture.setResult(service);
+
+        synchronized (sConnections) {
+            if (mBinderFuture == null) {
+                // The connection was closed while this callback was pending.
+                return;
+            }
+
+            try {
+                service.linkToDeath(this, 0);
+            } catch (final RemoteException e) {
+                Logger.error(methodTag, "The service died while connecting.", e);
+                unbindLocked();
+                return;
+            }
+
+            if (mBinderFuture.isDone()) {
+                mBinderFuture = new ResultFuture<>();
+            }
+            mBinder = service;
+            mBinderFuture.setResult(service);
+        }
     }
 
-    /*
-    //Needed for API level 26 and above
     @Override
-    public void onBindingDied(ComponentName name){
+    public void onServiceDisconnected(@NonNull final ComponentName name) {
+        final String methodTag = TAG + ":onServiceDisconnected";
+        Logger.info(methodTag, name.getClassName() + " is disconnected.");
 
+        synchronized (sConnections) {
+            unbindLocked();
+        }
     }
 
-    //Needed for API level 28 and above
     @Override
-    public void onNullBinding(ComponentName name){
+    public void onBindingDied(@NonNull final ComponentName name) {
+        final String methodTag = TAG + ":onBindingDied";
+        Logger.info(methodTag, name.getClassName() + " binding died.");
 
+        synchronized (sConnections) {
+            unbindLocked();
+        }
     }
-    */
 
     @Override
-    public void onServiceDisconnected(@NonNull final ComponentName name) {
-        final String methodTag = TAG + ":onServiceDisconnected";
-        Logger.info(methodTag, name.getClassName() + " is disconnected.");
+    public void onNullBinding(@NonNull final ComponentName name) {
+        final String methodTag = TAG + ":onNullBinding";
+        Logger.info(methodTag, name.getClassName() + " returned a null binding.");
+
+        synchronized (sConnections) {
+            unbindLocked();
+        }
+    }
+
+    @Override
+    public void binderDied() {
+        final String methodTag = TAG + ":binderDied";
+        Logger.info(methodTag, "The bound service died.");
+
+        synchronized (sConnections) {
+            unbindLocked();
+        }
+    }
+
+    //@VisibleForTesting
+    static int getReferenceCount(@NonNull final Intent intent) {
+        synchronized (sConnections) {
+            final BoundServiceConnection connection = sConnections.get(getKey(intent));
+            return connection == null ? 0 : connection.mReferenceCount;
+        }
+    }
+
+    //@VisibleForTesting
+    static boolean isBound(@NonNull final Intent intent) {
+        synchronized (sConnections) {
+            final BoundServiceConnection connection = sConnections.get(getKey(intent));
+            return connection != null && connection.mBinderFuture != null;
+        }
+    }
+
+    private void bindLocked() throws BrokerCommunicationException {
+        final String methodTag = TAG + ":bind";
+
+        if (mBinderFuture != null) {
+            return;
+        }
+
+        mBinderFuture = new ResultFuture<>();
+        if (!mContext.bindService(mIntent, this, Context.BIND_AUTO_CREATE)) {
+            final String errorMessage = "failed to bind. The service is not available.";
+            Logger.info(methodTag, errorMessage);
+            unbindLocked();
+            throw new BrokerCommunicationException(
+                    OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE,
+                    BOUND_SERVICE,
+                    errorMessage,
+                    null);
+        }
+
+        Logger.info(methodTag, "Android is establishing the bound service connection.");
+    }
+
+    private void releaseLocked(final long idleTimeoutInMilliseconds) {
+        mReferenceCount--;
+        if (mReferenceCount > 0) {
+            return;
+        }
+
+        if (mBinderFuture == null || idleTimeoutInMilliseconds <= 0) {
+            unbindLocked();
+            return;
+        }
+
+        final long token = ++mIdleUnbindToken;
+        mIdleUnbind = IdleSchedulerHolder.INSTANCE.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (sConnections) {
+                    if (mReferenceCount == 0 && mIdleUnbindToken == token) {
+                        Logger.info(TAG + ":idleUnbind", "Unbinding the unused bound service connection.");
+                        unbindLocked();
+                    }
+                }
+            }
+        }, idleTimeoutInMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelIdleUnbindLocked() {
+        mIdleUnbindToken++;
+        if (mIdleUnbind != null) {
+            mIdleUnbind.cancel(false);
+            mIdleUnbind = null;
+        }
+    }
+
+    /**
+     * Unbinds from the service, and forgets the connection once nobody references it.
+     */
+    private void unbindLocked() {
+        final String methodTag = TAG + ":unbind";
+
+        cancelIdleUnbindLocked();
+        if (mBinderFuture != null) {
+            if (mBinder != null) {
+                try {
+                    mBinder.unlinkToDeath(this, 0);
+                } catch (final NoSuchElementException e) {
+                    // Already unlinked, as the binder died.
+                }
+            }
+
+            try {
+                mContext.unbindService(this);
+            } catch (final IllegalArgumentException e) {
+                // This is coming from LoadedApk framework code when there is some error unbinding the service,
+                // possibly due to it not having been registered correctly in the first place, or already unregistered.
+                // Since this is the cleanup path, just handle log this and move on.
+                Logger.error(methodTag, "Error occurred while unbinding bound Service.", e);
+            }
+
+            if (!mBinderFuture.isDone()) {
+                mBinderFuture.setException(new IllegalStateException("The bound service connection was closed."));
+            }
+            mBinderFuture = null;
+            mBinder = null;
+        }
+
+        if (mReferenceCount <= 0 && sConnections.get(mKey) == this) {
+            sConnections.remove(mKey);
+        }
+    }
+
+    private static @NonNull String getKey(@NonNull final Intent intent) {
+        final ComponentName component = intent.getComponent();
+        return (component == null ? intent.getPackage() : component.flattenToString()) + "#" + intent.getAction();
     }
-}
\ No newline at end of file
+}
@@ -22,14 +22,20 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.common.internal.cache
 
+import android.content.BroadcastReceiver
 import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
 import android.content.pm.PackageManager
 import android.os.Build
 import androidx.annotation.VisibleForTesting
 import com.microsoft.identity.common.java.interfaces.INameValueStorage
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents
 import com.microsoft.identity.common.logging.Logger
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * Persisted cache for the IPC hello() protocol.
@@ -42,6 +48,10 @@ import java.util.concurrent.TimeUnit
  * 2. Client bumps up protocol version.
  * 3. The targeted app is updated, uninstalled, reinstalled.
  * 4. Cache entry is expired.
+ *
+ * Entries are also kept in a process-wide in-memory tier keyed the same way, and the targeted
+ * app's version code is remembered, so a cache hit costs neither a SharedPreferences read nor a
+ * [PackageManager] call. Both are dropped when the package is updated or removed.
  */
 /**
  * @param context              application context.
@@ -78,6 +88,110 @@ open class HelloCache (
                 sIsEnabled = value
             }
         }
+
+        /**
+         * In-memory tier, keyed by target package name and then by the persisted cache key
+         * (protocol name, client protocol versions, target package name and version code).
+         */
+        private val sMemoryCache = ConcurrentHashMap<String, ConcurrentHashMap<String, HelloCacheResult>>()
+
+        /**
+         * Version codes of the targeted packages. Only used once [sPackageMonitor] is registered,
+         * since that is what tells us when a version code goes stale.
+         */
+        private val sVersionCodes = ConcurrentHashMap<String, String>()
+
+        /**
+         * Bumped on every package change, so that a version code read concurrently with a change is not kept.
+         */
+        private val sPackageChangeCount = AtomicInteger()
+
+        private val sMemoryHitCount = AtomicLong()
+        private val sPersistedHitCount = AtomicLong()
+        private val sMissCount = AtomicLong()
+
+        @Volatile
+        private var sPackageMonitor: BroadcastReceiver? = null
+
+        /**
+         * Number of lookups served from the in-memory tier.
+         */
+        @JvmStatic
+        fun getMemoryHitCount(): Long {
+            return sMemoryHitCount.get()
+        }
+
+        /**
+         * Number of lookups served from the persisted cache after missing the in-memory tier.
+         */
+        @JvmStatic
+        fun getPersistedHitCount(): Long {
+            return sPersistedHitCount.get()
+        }
+
+        /**
+         * Number of lookups that found no valid entry in either tier.
+         */
+        @JvmStatic
+        fun getMissCount(): Long {
+            return sMissCount.get()
+        }
+
+        /**
+         * Fraction of lookups served from the in-memory tier, or 0 if there has been no lookup yet.
+         */
+        @JvmStatic
+        fun getMemoryHitRate(): Double {
+            val memoryHits = sMemoryHitCount.get()
+            val total = memoryHits + sPersistedHitCount.get() + sMissCount.get()
+            return if (total == 0L) 0.0 else memoryHits.toDouble() / total
+        }
+
+        /**
+         * Drops everything kept in memory for the given package.
+         * Invoked when the package is installed, updated or removed.
+         */
+        @JvmStatic
+        @VisibleForTesting
+        fun onPackageChanged(packageName: String) {
+            sPackageChangeCount.incrementAndGet()
+            sVersionCodes.remove(packageName)
+            sMemoryCache.remove(packageName)
+        }
+
+        private fun registerPackageMonitor(context: Context) {
+            if (sPackageMonitor != null) {
+                return
+            }
+            synchronized(HelloCache::class.java) {
+                if (sPackageMonitor != null) {
+                    return
+                }
+                val methodTag = "$TAG:registerPackageMonitor"
+                val monitor = object : BroadcastReceiver() {
+                    override fun onReceive(context: Context, intent: Intent) {
+                        val packageName = intent.data?.schemeSpecificPart ?: return
+                        Logger.info(methodTag, "Package changed: $packageName (${intent.action})")
+                        onPackageChanged(packageName)
+                    }
+                }
+                val filter = IntentFilter().apply {
+                    addAction(Intent.ACTION_PACKAGE_ADDED)
+                    addAction(Intent.ACTION_PACKAGE_REPLACED)
+                    addAction(Intent.ACTION_PACKAGE_CHANGED)
+                    addAction(Intent.ACTION_PACKAGE_REMOVED)
+                    addAction(Intent.ACTION_PACKAGE_FULLY_REMOVED)
+                    addDataScheme("package")
+                }
+                try {
+                    context.applicationContext.registerReceiver(monitor, filter)
+                    sPackageMonitor = monitor
+                } catch (e: RuntimeException) {
+                    // Without the monitor, version codes are looked up on every call as before.
+                    Logger.error(methodTag, "Failed to register package monitor", e)
+                }
+            }
+        }
     }
 
     private val fileManager: INameValueStorage<String>
@@ -86,6 +200,7 @@ open class HelloCache (
         fileManager = components.storageSupplier.getUnencryptedNameValueStore(
             SHARED_PREFERENCE_NAME, String::class.java
         )
+        registerPackageMonitor(context)
     }
 
     /**
@@ -116,23 +231,41 @@ open class HelloCache (
             Logger.error(methodTag, "Failed to retrieve key", e)
             return null
         }
+
+        val memoryResult = sMemoryCache[targetAppPackageName]?.get(key)
+        if (memoryResult != null) {
+            if (isExpired(memoryResult)) {
+                Logger.info(methodTag, "Cache entry is expired.")
+                removeEntry(key)
+                sMissCount.incrementAndGet()
+                return null
+            }
+            sMemoryHitCount.incrementAndGet()
+            return memoryResult
+        }
+
         val cachedRawValue = fileManager[key]
         if (cachedRawValue.isNullOrEmpty()) {
+            sMissCount.incrementAndGet()
             return null
         }
         val cacheResult = HelloCacheResult.deserialize(cachedRawValue)
         if (cacheResult == null) {
             Logger.info(methodTag, "Legacy or invalid cache value.")
             fileManager.remove(key)
+            sMissCount.incrementAndGet()
             return null
         }
 
         // check if expired. Delete entry and return null.
-        if ((System.currentTimeMillis() - cacheResult.timeStamp) > cacheExpiryTimeInMs) {
+        if (isExpired(cacheResult)) {
             Logger.info(methodTag, "Cache entry is expired.")
             fileManager.remove(key)
+            sMissCount.incrementAndGet()
             return null
         }
+        sPersistedHitCount.incrementAndGet()
+        putInMemory(key, cacheResult)
         return cacheResult
     }
 
@@ -204,6 +337,25 @@ open class HelloCache (
             return
         }
         fileManager.put(key, result.serialize())
+        putInMemory(key, result)
+    }
+
+    private fun isExpired(result: HelloCacheResult): Boolean {
+        return (System.currentTimeMillis() - result.timeStamp) > cacheExpiryTimeInMs
+    }
+
+    private fun putInMemory(key: String, result: HelloCacheResult) {
+        var entries = sMemoryCache[targetAppPackageName]
+        if (entries == null) {
+            entries = ConcurrentHashMap()
+            entries = sMemoryCache.putIfAbsent(targetAppPackageName, entries) ?: entries
+        }
+        entries[key] = result
+    }
+
+    private fun removeEntry(key: String) {
+        sMemoryCache[targetAppPackageName]?.remove(key)
+        fileManager.remove(key)
     }
 
     /**
@@ -225,17 +377,36 @@ open class HelloCache (
     @VisibleForTesting
     fun clearCache() {
         fileManager.clear()
+        sMemoryCache.clear()
+        sVersionCodes.clear()
     }
 
     @get:Throws(PackageManager.NameNotFoundException::class)
     @get:VisibleForTesting
     open val versionCode: String
         get() {
-            val packageInfo = context.packageManager.getPackageInfo(targetAppPackageName, 0)
-            return if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-                packageInfo.longVersionCode.toString()
-            } else {
-                packageInfo.versionCode.toString()
+            if (sPackageMonitor == null) {
+                return readVersionCode()
             }
+            sVersionCodes[targetAppPackageName]?.let { return it }
+
+            val packageChangeCount = sPackageChangeCount.get()
+            val code = readVersionCode()
+            sVersionCodes[targetAppPackageName] = code
+            if (sPackageChangeCount.get() != packageChangeCount) {
+                // The package changed while we were reading it; don't keep a possibly stale value.
+                sVersionCodes.remove(targetAppPackageName, code)
+            }
+            return code
+        }
+
+    @Throws(PackageManager.NameNotFoundException::class)
+    private fun readVersionCode(): String {
+        val packageInfo = context.packageManager.getPackageInfo(targetAppPackageName, 0)
+        return if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            packageInfo.longVersionCode.toString()
+        } else {
+            packageInfo.versionCode.toString()
         }
+    }
 }
\ No newline at end of file
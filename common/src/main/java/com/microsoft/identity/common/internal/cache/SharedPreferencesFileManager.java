@@ -24,7 +24,6 @@ package com.microsoft.identity.common.internal.cache;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.LruCache;
 
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
@@ -33,20 +32,33 @@ import androidx.annotation.VisibleForTesting;
 
 import com.microsoft.identity.common.java.WarningType;
 import com.microsoft.identity.common.java.cache.IMultiTypeNameValueStorage;
+import com.microsoft.identity.common.java.cache.StripedLruCache;
 import com.microsoft.identity.common.java.crypto.IKeyAccessor;
 import com.microsoft.identity.common.java.crypto.KeyAccessorStringAdapter;
 import com.microsoft.identity.common.java.exception.ClientException;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
+import com.microsoft.identity.common.java.storage.AbstractNameValueStorageEditor;
+import com.microsoft.identity.common.java.storage.ParallelEntryMapper;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 import com.microsoft.identity.common.logging.Logger;
 
 import java.security.ProviderException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Convenience class for accessing {@link SharedPreferences}.
@@ -55,9 +67,17 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
 
     private static final String TAG = SharedPreferencesFileManager.class.getSimpleName();
 
+    /**
+     * The default budget of the in-memory cache, in characters of stored (i.e. encrypted) values.
+     */
+    public static final long DEFAULT_CACHE_MAX_WEIGHT = 1024 * 1024;
+
+    // Serializes writes, and the cache updates that go with them. Cache hits only lock a stripe
+    // of fileCache, and values are decrypted without holding any lock.
     private final Object cacheLock = new Object();
-    @GuardedBy("cacheLock")
-    private final LruCache<String, String> fileCache = new LruCache<>(256);
+    private final StripedLruCache<String> fileCache;
+    // Single-flight decryption of the stored value of a key.
+    private final ConcurrentMap<String, Decryption> mInFlightDecryptions = new ConcurrentHashMap<>();
     @GuardedBy("cacheLock")
     private final SharedPreferences mSharedPreferences;
     private final KeyAccessorStringAdapter mEncryptionManager;
@@ -113,6 +133,25 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
             final Context context,
             final String name,
             final IKeyAccessor encryptionManager) {
+        this(context, name, encryptionManager, DEFAULT_CACHE_MAX_WEIGHT);
+    }
+
+    /**
+     * Constructs an instance of SharedPreferencesFileManager.
+     * The default operating mode is {@link Context#MODE_PRIVATE}
+     *
+     * @param context           Interface to global information about an application environment.
+     * @param name              The desired {@link android.content.SharedPreferences} file. It will be created
+     *                          if it does not exist.
+     * @param encryptionManager The {@link IKeyAccessor} to handle encryption/decryption of values.
+     * @param cacheMaxWeight    The budget of the in-memory cache of decrypted values, in characters
+     *                          of the stored (encrypted) values.
+     */
+    public SharedPreferencesFileManager(
+            final Context context,
+            final String name,
+            final IKeyAccessor encryptionManager,
+            final long cacheMaxWeight) {
         if (encryptionManager == null) {
             Logger.verbose(TAG, "Init: ");
         } else {
@@ -120,6 +159,7 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
         }
         mSharedPreferences = context.getSharedPreferences(name, Context.MODE_PRIVATE);
         mSharedPreferencesFileName = name;
+        fileCache = new StripedLruCache<>(cacheMaxWeight);
 
         if (encryptionManager != null) {
             mEncryptionManager = new KeyAccessorStringAdapter(encryptionManager);
@@ -136,39 +176,70 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
     public final void putString(
             final String key,
             final String value) {
-        final String methodTag = TAG + ":putString";
+        edit().put(key, value).commit();
+    }
 
-        synchronized (cacheLock) {
-            if (value != null) {
-                fileCache.put(key, value);
-            } else {
-                fileCache.remove(key);
-            }
+    /**
+     * Values are encrypted outside of the cache lock, then the in-memory cache is updated and
+     * all the changes are handed to a single {@link SharedPreferences.Editor#apply()}, so the
+     * backing file is rewritten once per batch rather than once per key.
+     */
+    @Override
+    public final INameValueStorageEditor<String> edit() {
+        return new AbstractNameValueStorageEditor<String>() {
+            @Override
+            protected void onCommit(@NonNull final Set<String> removals,
+                                    @NonNull final Map<String, String> puts) {
+                final Map<String, String> storedValues = new LinkedHashMap<>(puts.size());
+                for (final Map.Entry<String, String> entry : puts.entrySet()) {
+                    storedValues.put(entry.getKey(), toStoredValue(entry.getValue()));
+                }
 
-            final SharedPreferences.Editor editor = mSharedPreferences.edit();
+                synchronized (cacheLock) {
+                    final SharedPreferences.Editor editor = mSharedPreferences.edit();
+                    for (final String key : removals) {
+                        fileCache.remove(key);
+                        editor.remove(key);
+                    }
 
-            if (null == mEncryptionManager || StringUtil.isNullOrEmpty(value)) {
-                editor.putString(key, value).apply();
-                return;
-            }
+                    for (final Map.Entry<String, String> entry : puts.entrySet()) {
+                        if (entry.getValue() != null) {
+                            fileCache.put(entry.getKey(), entry.getValue(),
+                                    weightOf(storedValues.get(entry.getKey()), entry.getValue()));
+                        } else {
+                            fileCache.remove(entry.getKey());
+                        }
+                        editor.putString(entry.getKey(), storedValues.get(entry.getKey()));
+                    }
 
-            // What this does is that if the encryption fails, we would still write "null" to the storage.
-            // This might not be the right behavior, but changing this could break stuff.
-            // e.g.
-            //      1. In putString(), we would store data in the in-memory cache first, then try encrypting data.
-            //      2. Assuming the encryption fails, this will persist the key.
-            //      3. the getAll() and getAllFilteredByKey() below relies on the key "in the storage".
-            //         If we don't persist the key to the storage, getAll() will not have any key to pull data from in-memory storage.
-            //
-            // Therefore. i'm leaving this untouched.
-            String encryptedValue = null;
-            try {
-                encryptedValue = mEncryptionManager.encrypt(value);
-            } catch (final ClientException e){
-                Logger.error(methodTag, "Failed to store encrypted value", null);
+                    editor.apply();
+                }
             }
+        };
+    }
+
+    @Nullable
+    private String toStoredValue(@Nullable final String value) {
+        final String methodTag = TAG + ":toStoredValue";
 
-            editor.putString(key, encryptedValue).apply();
+        if (null == mEncryptionManager || StringUtil.isNullOrEmpty(value)) {
+            return value;
+        }
+
+        // What this does is that if the encryption fails, we would still write "null" to the storage.
+        // This might not be the right behavior, but changing this could break stuff.
+        // e.g.
+        //      1. In edit(), we would store the plain value in the in-memory cache even if encrypting it fails.
+        //      2. Assuming the encryption fails, this will persist the key.
+        //      3. the getAll() and getAllFilteredByKey() below relies on the key "in the storage".
+        //         If we don't persist the key to the storage, getAll() will not have any key to pull data from in-memory storage.
+        //
+        // Therefore. i'm leaving this untouched.
+        try {
+            return mEncryptionManager.encrypt(value);
+        } catch (final ClientException e){
+            Logger.error(methodTag, "Failed to store encrypted value", null);
+            return null;
         }
     }
 
@@ -177,29 +248,116 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
     public final String getString(final String key) {
         final String methodTag = TAG + ":getString";
 
-        synchronized (cacheLock) {
-            String memCache = fileCache.get(key);
-            if (memCache != null) {
-                return memCache;
-            }
+        final String memCache = fileCache.get(key);
+        if (memCache != null) {
+            return memCache;
+        }
 
-            final String storedValue = mSharedPreferences.getString(key, null);
-            if (StringUtil.isNullOrEmpty(storedValue)) {
-                Logger.info(methodTag, "Data associated to the given key is null or empty", null);
-                return null;
-            }
+        final String storedValue = mSharedPreferences.getString(key, null);
+        if (StringUtil.isNullOrEmpty(storedValue)) {
+            Logger.info(methodTag, "Data associated to the given key is null or empty", null);
+            return null;
+        }
 
-            if (mEncryptionManager == null){
-                return storedValue;
-            }
+        if (mEncryptionManager == null){
+            return storedValue;
+        }
+
+        return decryptOnce(key, storedValue);
+    }
+
+    /**
+     * Decrypts the stored value of a key, unless another thread is already decrypting the same
+     * stored value, in which case its result is used. The decrypted value is cached.
+     */
+    @Nullable
+    private String decryptOnce(@NonNull final String key, @NonNull final String storedValue) {
+        final String methodTag = TAG + ":decryptOnce";
 
+        final Decryption decryption = new Decryption(storedValue);
+        final Decryption inFlightDecryption = mInFlightDecryptions.putIfAbsent(key, decryption);
+        if (inFlightDecryption != null && inFlightDecryption.mStoredValue.equals(storedValue)) {
             try {
-                return mEncryptionManager.decrypt(storedValue);
-            } catch (final ClientException e){
-                Logger.error(methodTag, "Failed to decrypt value", null);
-                return null;
+                return inFlightDecryption.mResult.get();
+            } catch (final InterruptedException e) {
+                Logger.warn(methodTag, "Interrupted while waiting for another decryption, decrypting directly.");
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                Logger.warn(methodTag, "Another decryption failed, decrypting directly.");
             }
+            return decryptAndCache(key, storedValue);
+        } else if (inFlightDecryption != null) {
+            // The value was overwritten since; don't wait on a stale decryption.
+            return decryptAndCache(key, storedValue);
         }
+
+        try {
+            final String value = decryptAndCache(key, storedValue);
+            decryption.mResult.setResult(value);
+            return value;
+        } catch (final RuntimeException e) {
+            decryption.mResult.setException(e);
+            throw e;
+        } catch (final Error e) {
+            decryption.mResult.setException(e);
+            throw e;
+        } finally {
+            mInFlightDecryptions.remove(key, decryption);
+        }
+    }
+
+    @Nullable
+    private String decryptAndCache(@NonNull final String key, @NonNull final String storedValue) {
+        final String methodTag = TAG + ":decryptAndCache";
+
+        final String value;
+        try {
+            value = mEncryptionManager.decrypt(storedValue);
+        } catch (final ClientException e){
+            Logger.error(methodTag, "Failed to decrypt value", null);
+            return null;
+        }
+
+        if (!StringUtil.isNullOrEmpty(value)) {
+            cacheDecryptedValue(key, storedValue, value);
+        }
+        return value;
+    }
+
+    private void cacheDecryptedValue(@NonNull final String key,
+                                     @NonNull final String storedValue,
+                                     @NonNull final String value) {
+        synchronized (cacheLock) {
+            // Writes hold cacheLock, so this skips values overwritten or removed while being decrypted.
+            if (storedValue.equals(mSharedPreferences.getString(key, null))) {
+                fileCache.putIfAbsent(key, value, weightOf(storedValue, value));
+            }
+        }
+    }
+
+    private static int weightOf(@Nullable final String storedValue, @NonNull final String value) {
+        return storedValue != null ? storedValue.length() : value.length();
+    }
+
+    /**
+     * @return the number of reads served from the in-memory cache.
+     */
+    public long getCacheHitCount() {
+        return fileCache.getHitCount();
+    }
+
+    /**
+     * @return the number of reads that missed the in-memory cache.
+     */
+    public long getCacheMissCount() {
+        return fileCache.getMissCount();
+    }
+
+    /**
+     * @return the number of values evicted from the in-memory cache to stay within its budget.
+     */
+    public long getCacheEvictionCount() {
+        return fileCache.getEvictionCount();
     }
 
     @Override
@@ -288,6 +446,56 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
         };
     }
 
+    /**
+     * Decrypts the matching entries in parallel on the given executor, instead of one at a time
+     * as {@link #getAllFilteredByKey(Predicate)} does. Values already held in the in-memory cache
+     * are not decrypted again, and decrypted values are added to it.
+     */
+    @Override
+    public final <R> Map<String, R> getAllFilteredByKey(@NonNull final Predicate<String> keyFilter,
+                                                         @NonNull final Function<Map.Entry<String, String>, R> entryMapper,
+                                                         @NonNull final ExecutorService executor) {
+        // Suppressing unchecked warnings due to casting Map<String,?> to Map<String,String>
+        @SuppressWarnings(WarningType.unchecked_warning) final Map<String, String> entries = (Map<String, String>) mSharedPreferences.getAll();
+
+        final List<Map.Entry<String, String>> storedEntries = new ArrayList<>();
+        final Set<String> plainTextKeys = new HashSet<>();
+        for (final Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!keyFilter.test(entry.getKey())) {
+                continue;
+            }
+
+            if (mEncryptionManager == null) {
+                storedEntries.add(entry);
+                continue;
+            }
+
+            final String memCache = fileCache.get(entry.getKey());
+            if (memCache != null) {
+                plainTextKeys.add(entry.getKey());
+                storedEntries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), memCache));
+            } else if (!StringUtil.isNullOrEmpty(entry.getValue())) {
+                storedEntries.add(entry);
+            }
+        }
+
+        return ParallelEntryMapper.mapEntries(storedEntries, new Function<Map.Entry<String, String>, R>() {
+            @Override
+            public R apply(@NonNull final Map.Entry<String, String> entry) {
+                if (mEncryptionManager == null || plainTextKeys.contains(entry.getKey())) {
+                    return entryMapper.apply(entry);
+                }
+
+                final String decryptedValue = decryptAndCache(entry.getKey(), entry.getValue());
+                if (StringUtil.isNullOrEmpty(decryptedValue)) {
+                    return null;
+                }
+
+                return entryMapper.apply(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), decryptedValue));
+            }
+        }, executor);
+    }
+
 
     @Override
     public final boolean contains(final String key) {
@@ -299,7 +507,7 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
         synchronized (cacheLock) {
             final SharedPreferences.Editor editor = mSharedPreferences.edit();
             editor.clear();
-            fileCache.evictAll();
+            fileCache.clear();
             editor.apply();
         }
     }
@@ -339,4 +547,13 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
             return editor.commit();
         }
     }
+
+    private static final class Decryption {
+        private final String mStoredValue;
+        private final ResultFuture<String> mResult = new ResultFuture<>();
+
+        private Decryption(@NonNull final String storedValue) {
+            mStoredValue = storedValue;
+        }
+    }
 }
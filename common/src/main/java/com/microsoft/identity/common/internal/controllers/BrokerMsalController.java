@@ -644,6 +644,19 @@ public class BrokerMsalController extends BaseController {
     @Override
     public @NonNull
     AcquireTokenResult acquireTokenSilent(final @NonNull SilentTokenCommandParameters parameters) throws BaseException {
+        final String methodTag = TAG + ":acquireTokenSilent";
+        final BrokerSilentResultCache resultCache = BrokerSilentResultCache.isEnabled()
+                ? BrokerSilentResultCache.getInstance()
+                : null;
+
+        if (resultCache != null) {
+            final Bundle cachedResultBundle = resultCache.get(mActiveBrokerPackageName, parameters);
+            if (cachedResultBundle != null) {
+                Logger.info(methodTag, "Returning broker result from the silent result cache.");
+                return mResultAdapter.getAcquireTokenResultFromResultBundle(cachedResultBundle);
+            }
+        }
+
         return getBrokerOperationExecutor().execute(parameters,
                 new BrokerOperation<AcquireTokenResult>() {
                     private String negotiatedBrokerProtocolVersion;
@@ -674,7 +687,11 @@ public class BrokerMsalController extends BaseController {
                         }
 
                         verifyBrokerVersionIsSupported(resultBundle, parameters.getRequiredBrokerProtocolVersion());
-                        return mResultAdapter.getAcquireTokenResultFromResultBundle(resultBundle);
+                        final AcquireTokenResult result = mResultAdapter.getAcquireTokenResultFromResultBundle(resultBundle);
+                        if (resultCache != null) {
+                            resultCache.put(mActiveBrokerPackageName, parameters, resultBundle, result);
+                        }
+                        return result;
                     }
 
                     @Override
@@ -791,6 +808,8 @@ public class BrokerMsalController extends BaseController {
                     Boolean extractResultBundle(final @Nullable Bundle resultBundle) throws BaseException {
                         verifyBrokerVersionIsSupported(resultBundle, parameters.getRequiredBrokerProtocolVersion());
                         mResultAdapter.verifyRemoveAccountResultFromBundle(resultBundle);
+                        BrokerSilentResultCache.getInstance().removeAccount(
+                                parameters.getAccount() == null ? null : parameters.getAccount().getHomeAccountId());
                         return true;
                     }
 
@@ -1047,6 +1066,8 @@ public class BrokerMsalController extends BaseController {
                     Boolean extractResultBundle(final @Nullable Bundle resultBundle) throws BaseException {
                         verifyBrokerVersionIsSupported(resultBundle, parameters.getRequiredBrokerProtocolVersion());
                         mResultAdapter.verifyRemoveAccountResultFromBundle(resultBundle);
+                        // Signing out of a shared device signs every account out.
+                        BrokerSilentResultCache.getInstance().clear();
                         return true;
                     }
 
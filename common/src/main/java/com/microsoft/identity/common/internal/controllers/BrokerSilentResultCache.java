@@ -0,0 +1,511 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.internal.controllers;
+
+import android.os.Bundle;
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.microsoft.identity.common.java.authscheme.AbstractAuthenticationScheme;
+import com.microsoft.identity.common.java.authscheme.BearerAuthenticationSchemeInternal;
+import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.IAccountRecord;
+import com.microsoft.identity.common.java.flighting.CommonFlight;
+import com.microsoft.identity.common.java.flighting.CommonFlightsManager;
+import com.microsoft.identity.common.java.result.AcquireTokenResult;
+import com.microsoft.identity.common.java.result.ILocalAuthenticationResult;
+import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+import com.microsoft.identity.common.logging.Logger;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * A process-wide, short-lived cache of broker silent token results, so that identical silent
+ * requests made within a few seconds of each other do not each cross into the broker process.
+ * <p>
+ * Results are kept as the broker's result {@link Bundle}, marshalled and encrypted with a key that
+ * only ever lives in this process, and are parsed again on every hit so callers never share
+ * result objects. An entry expires after the cache's time to live, or a minute before the access
+ * token's refresh_on (expires_on if there is none), whichever comes first.
+ * <p>
+ * Entries are keyed by broker package, client, account, scopes, authority, claims and
+ * authentication scheme. Proof-of-possession and force-refresh requests are never served from,
+ * nor stored in, the cache. The cache is only used when
+ * {@link CommonFlight#ENABLE_BROKER_SILENT_RESULT_CACHE} is on.
+ */
+public class BrokerSilentResultCache {
+
+    private static final String TAG = BrokerSilentResultCache.class.getSimpleName();
+
+    /**
+     * Default time to live of a cached result, in milliseconds.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Entries expire at least this long before the access token's refresh_on, so that the broker
+     * gets a chance to refresh it.
+     */
+    static final long REFRESH_ON_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int DEFAULT_MAX_ITEM_COUNT = 100;
+    private static final char SEPARATOR = '|';
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final int IV_LENGTH = 16;
+    private static final int KEY_SIZE = 256;
+
+    private static final Supplier<Long> SYSTEM_CLOCK = new Supplier<Long>() {
+        @Override
+        public Long get() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static final BrokerSilentResultCache sInstance = new BrokerSilentResultCache(
+            DEFAULT_MAX_ITEM_COUNT, DEFAULT_TIME_TO_LIVE_MILLIS, SYSTEM_CLOCK);
+
+    private final int mMaxItemCount;
+    private final long mTimeToLiveMillis;
+    private final Supplier<Long> mClock;
+    private final ConcurrentMap<String, Entry> mCache = new ConcurrentHashMap<>();
+    private final SecureRandom mSecureRandom = new SecureRandom();
+
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mEvictionCount = new AtomicLong();
+
+    // Generated lazily, so that processes which never enable the cache never generate a key.
+    private volatile SecretKey mKey;
+
+    /**
+     * @return the process-wide instance.
+     */
+    @NonNull
+    public static BrokerSilentResultCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * @return true if broker silent results may be served from the cache.
+     */
+    public static boolean isEnabled() {
+        return CommonFlightsManager.INSTANCE.getFlightsProvider().isFlightEnabled(
+                CommonFlight.ENABLE_BROKER_SILENT_RESULT_CACHE);
+    }
+
+    //@VisibleForTesting
+    BrokerSilentResultCache(final int maxItemCount,
+                            final long timeToLiveMillis,
+                            @NonNull final Supplier<Long> clock) {
+        mMaxItemCount = maxItemCount;
+        mTimeToLiveMillis = timeToLiveMillis;
+        mClock = clock;
+    }
+
+    /**
+     * Returns the cached broker result bundle for the given request, if there is a valid one.
+     *
+     * @param brokerPackageName the package name of the broker the request would be sent to.
+     * @param parameters        the silent request.
+     * @return a fresh copy of the cached result bundle, or null.
+     */
+    @Nullable
+    public Bundle get(@NonNull final String brokerPackageName,
+                      @NonNull final SilentTokenCommandParameters parameters) {
+        final String methodTag = TAG + ":get";
+        final String key = getKey(brokerPackageName, parameters);
+        if (key == null) {
+            return null;
+        }
+
+        final Entry entry = mCache.get(key);
+        if (entry == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        if (entry.isExpired(mClock.get())) {
+            if (mCache.remove(key, entry)) {
+                mEvictionCount.incrementAndGet();
+            }
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        try {
+            final Bundle bundle = unmarshall(decrypt(entry.mEncryptedBundle));
+            mHitCount.incrementAndGet();
+            return bundle;
+        } catch (final GeneralSecurityException | RuntimeException e) {
+            Logger.warn(methodTag, "Failed to read cached result: " + e.getMessage());
+            mCache.remove(key, entry);
+            mMissCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Caches a successful broker silent result.
+     *
+     * @param brokerPackageName the package name of the broker the request was sent to.
+     * @param parameters        the silent request.
+     * @param resultBundle      the result bundle returned by the broker.
+     * @param result            the result parsed from resultBundle.
+     */
+    public void put(@NonNull final String brokerPackageName,
+                    @NonNull final SilentTokenCommandParameters parameters,
+                    @NonNull final Bundle resultBundle,
+                    @NonNull final AcquireTokenResult result) {
+        final String methodTag = TAG + ":put";
+        final String key = getKey(brokerPackageName, parameters);
+        if (key == null) {
+            return;
+        }
+
+        final long now = mClock.get();
+        final long expiresOnMillis = getExpiresOnMillis(result, now);
+        if (expiresOnMillis <= now) {
+            // Either not a cacheable result, or the token is already due for a refresh.
+            mCache.remove(key);
+            return;
+        }
+
+        final byte[] encryptedBundle;
+        try {
+            encryptedBundle = encrypt(marshall(resultBundle));
+        } catch (final GeneralSecurityException | RuntimeException e) {
+            Logger.warn(methodTag, "Failed to cache result: " + e.getMessage());
+            return;
+        }
+
+        mCache.put(key, new Entry(encryptedBundle, expiresOnMillis, getHomeAccountId(parameters.getAccount())));
+        if (mCache.size() > mMaxItemCount) {
+            evict(now);
+        }
+    }
+
+    /**
+     * Removes every cached result of the given account.
+     *
+     * @param homeAccountId the home account id of the account, or null to remove everything.
+     */
+    public void removeAccount(@Nullable final String homeAccountId) {
+        if (homeAccountId == null) {
+            clear();
+            return;
+        }
+
+        final Iterator<Entry> iterator = mCache.values().iterator();
+        while (iterator.hasNext()) {
+            if (homeAccountId.equalsIgnoreCase(iterator.next().mHomeAccountId)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void clear() {
+        mCache.clear();
+    }
+
+    public int getSize() {
+        return mCache.size();
+    }
+
+    /**
+     * @return the number of lookups which returned a cached result.
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return the number of lookups of cacheable requests which did not return a cached result.
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * @return the number of entries removed because they expired or the cache was full.
+     */
+    public long getEvictionCount() {
+        return mEvictionCount.get();
+    }
+
+    /**
+     * @return the ratio of lookups which returned a cached result, or 0 if there were none.
+     */
+    public double getHitRate() {
+        final long hits = mHitCount.get();
+        final long total = hits + mMissCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Computes the cache key of the given request.
+     *
+     * @return the key, or null if the request must not be served from the cache.
+     */
+    //@VisibleForTesting
+    @Nullable
+    static String getKey(@NonNull final String brokerPackageName,
+                         @NonNull final SilentTokenCommandParameters parameters) {
+        if (parameters.isForceRefresh() || parameters.getAccount() == null) {
+            return null;
+        }
+
+        final AbstractAuthenticationScheme scheme = parameters.getAuthenticationScheme();
+        if (scheme != null && !BearerAuthenticationSchemeInternal.SCHEME_BEARER.equals(scheme.getName())) {
+            // PoP results are signed for a single request, so they must not be reused.
+            return null;
+        }
+
+        final StringBuilder builder = new StringBuilder(256);
+        append(builder, brokerPackageName);
+        append(builder, parameters.getClientId());
+        append(builder, parameters.getRedirectUri());
+        append(builder, parameters.getChildClientId());
+
+        final IAccountRecord account = parameters.getAccount();
+        append(builder, account.getHomeAccountId());
+        append(builder, account.getEnvironment());
+        append(builder, account.getLocalAccountId());
+
+        if (parameters.getScopes() != null) {
+            // Sorted so that the key does not depend on the iteration order of the set.
+            final Set<String> sortedScopes = new TreeSet<>();
+            for (final String scope : parameters.getScopes()) {
+                if (scope != null) {
+                    sortedScopes.add(scope.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+            for (final String scope : sortedScopes) {
+                builder.append(scope).append(' ');
+            }
+        }
+        builder.append(SEPARATOR);
+
+        if (parameters.getAuthority() != null) {
+            String authorityUri;
+            try {
+                authorityUri = String.valueOf(parameters.getAuthority().getAuthorityUri());
+            } catch (final IllegalArgumentException e) {
+                authorityUri = parameters.getAuthority().getAuthorityTypeString();
+            }
+            append(builder, authorityUri);
+        } else {
+            append(builder, null);
+        }
+
+        append(builder, parameters.getClaimsRequestJson());
+        append(builder, scheme == null ? null : scheme.getName());
+        append(builder, parameters.getMamEnrollmentId());
+
+        final List<Map.Entry<String, String>> extraOptions = parameters.getExtraOptions();
+        if (extraOptions != null) {
+            for (final Map.Entry<String, String> option : extraOptions) {
+                builder.append(option.getKey()).append('=').append(option.getValue()).append('&');
+            }
+        }
+        builder.append(SEPARATOR);
+        return builder.toString();
+    }
+
+    private static void append(@NonNull final StringBuilder builder, @Nullable final String value) {
+        if (value != null) {
+            builder.append(value);
+        }
+        builder.append(SEPARATOR);
+    }
+
+    @Nullable
+    private static String getHomeAccountId(@Nullable final IAccountRecord account) {
+        return account == null ? null : account.getHomeAccountId();
+    }
+
+    /**
+     * @return the time at which a cached copy of the result stops being served,
+     * or 0 if the result must not be cached.
+     */
+    private long getExpiresOnMillis(@NonNull final AcquireTokenResult result, final long now) {
+        final String methodTag = TAG + ":getExpiresOnMillis";
+        final ILocalAuthenticationResult localResult = result.getLocalAuthenticationResult();
+        if (localResult == null || localResult.getAccessTokenRecord() == null) {
+            return 0;
+        }
+
+        final AccessTokenRecord accessToken = localResult.getAccessTokenRecord();
+        final String refreshOn = StringUtil.isNullOrEmpty(accessToken.getRefreshOn())
+                ? accessToken.getExpiresOn()
+                : accessToken.getRefreshOn();
+        if (StringUtil.isNullOrEmpty(refreshOn)) {
+            return 0;
+        }
+
+        try {
+            final long refreshOnMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(refreshOn));
+            return Math.min(now + mTimeToLiveMillis, refreshOnMillis - REFRESH_ON_MARGIN_MILLIS);
+        } catch (final NumberFormatException e) {
+            Logger.warn(methodTag, "Unexpected refresh_on value, result is not cached.");
+            return 0;
+        }
+    }
+
+    /**
+     * Removes expired entries, then the entries closest to expiry, until the cache is back within
+     * its size limit.
+     */
+    private void evict(final long now) {
+        final Iterator<Entry> iterator = mCache.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                mEvictionCount.incrementAndGet();
+            }
+        }
+
+        while (mCache.size() > mMaxItemCount) {
+            Map.Entry<String, Entry> eldest = null;
+            for (final Map.Entry<String, Entry> entry : mCache.entrySet()) {
+                if (eldest == null || entry.getValue().mExpiresOnMillis < eldest.getValue().mExpiresOnMillis) {
+                    eldest = entry;
+                }
+            }
+
+            if (eldest == null) {
+                return;
+            }
+
+            if (mCache.remove(eldest.getKey(), eldest.getValue())) {
+                mEvictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    @NonNull
+    private static byte[] marshall(@NonNull final Bundle bundle) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeBundle(bundle);
+            return parcel.marshall();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @NonNull
+    private static Bundle unmarshall(@NonNull final byte[] bytes) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            final Bundle bundle = parcel.readBundle(BrokerSilentResultCache.class.getClassLoader());
+            if (bundle == null) {
+                throw new IllegalStateException("Cached result bundle is missing.");
+            }
+            return bundle;
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @NonNull
+    private byte[] encrypt(@NonNull final byte[] plaintext) throws GeneralSecurityException {
+        final byte[] iv = new byte[IV_LENGTH];
+        mSecureRandom.nextBytes(iv);
+
+        final Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, getEncryptionKey(), new IvParameterSpec(iv));
+        final byte[] ciphertext = cipher.doFinal(plaintext);
+
+        final byte[] output = new byte[IV_LENGTH + ciphertext.length];
+        System.arraycopy(iv, 0, output, 0, IV_LENGTH);
+        System.arraycopy(ciphertext, 0, output, IV_LENGTH, ciphertext.length);
+        return output;
+    }
+
+    @NonNull
+    private byte[] decrypt(@NonNull final byte[] encrypted) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, getEncryptionKey(), new IvParameterSpec(encrypted, 0, IV_LENGTH));
+        return cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+    }
+
+    @NonNull
+    private SecretKey getEncryptionKey() throws GeneralSecurityException {
+        SecretKey key = mKey;
+        if (key == null) {
+            synchronized (this) {
+                key = mKey;
+                if (key == null) {
+                    final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+                    keyGenerator.init(KEY_SIZE, mSecureRandom);
+                    key = keyGenerator.generateKey();
+                    mKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    private static final class Entry {
+        private final byte[] mEncryptedBundle;
+        private final long mExpiresOnMillis;
+        private final String mHomeAccountId;
+
+        private Entry(@NonNull final byte[] encryptedBundle,
+                      final long expiresOnMillis,
+                      @Nullable final String homeAccountId) {
+            mEncryptedBundle = encryptedBundle;
+            mExpiresOnMillis = expiresOnMillis;
+            mHomeAccountId = homeAccountId;
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= mExpiresOnMillis;
+        }
+    }
+}
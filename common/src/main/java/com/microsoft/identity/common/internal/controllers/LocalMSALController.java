@@ -45,6 +45,7 @@ import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommand
 import com.microsoft.identity.common.java.configuration.LibraryConfiguration;
 import com.microsoft.identity.common.java.controllers.BaseController;
 import com.microsoft.identity.common.java.controllers.CommandDispatcher;
+import com.microsoft.identity.common.java.controllers.DeviceCodeFlowPoller;
 import com.microsoft.identity.common.java.dto.AccountRecord;
 import com.microsoft.identity.common.java.eststelemetry.PublicApiId;
 import com.microsoft.identity.common.java.exception.ArgumentException;
@@ -57,7 +58,6 @@ import com.microsoft.identity.common.java.result.AcquireTokenResult;
 import com.microsoft.identity.common.java.result.GenerateShrResult;
 import com.microsoft.identity.common.java.result.LocalAuthenticationResult;
 import com.microsoft.identity.common.java.ui.PreferredAuthMethod;
-import com.microsoft.identity.common.java.util.ThreadUtils;
 import com.microsoft.identity.common.java.providers.RawAuthorizationResult;
 import com.microsoft.identity.common.java.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationRequest;
 import com.microsoft.identity.common.java.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationResponse;
@@ -72,6 +72,7 @@ import com.microsoft.identity.common.java.providers.oauth2.OAuth2TokenCache;
 import com.microsoft.identity.common.java.providers.oauth2.TokenResult;
 import com.microsoft.identity.common.java.request.SdkType;
 import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
+import com.microsoft.identity.common.java.util.BiConsumer;
 import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.ResultUtil;
 import com.microsoft.identity.common.java.util.ported.PropertyBag;
@@ -80,8 +81,10 @@ import com.microsoft.identity.common.logging.Logger;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import lombok.EqualsAndHashCode;
 
@@ -657,9 +660,36 @@ public class LocalMSALController extends BaseController {
             @SuppressWarnings(WarningType.rawtype_warning) final AuthorizationResult authorizationResult,
             final DeviceCodeFlowCommandParameters parameters)
             throws ServiceException, ClientException, IOException {
+        try {
+            // Callers may be running on the Device Code Flow command executor, so this session must
+            // not need a thread of it to send its token requests.
+            return acquireDeviceCodeFlowTokenAsync(
+                    authorizationResult, parameters, DeviceCodeFlowPoller.getForBlockingCallers()
+            ).getResultOrThrow();
+        } catch (final ServiceException | ClientException | IOException | RuntimeException e) {
+            throw e;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException(ClientException.INTERRUPTED_OPERATION, e.getMessage(), e);
+        } catch (final Exception e) {
+            throw new ClientException(ClientException.UNKNOWN_ERROR, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ResultFuture<AcquireTokenResult> acquireDeviceCodeFlowTokenAsync(
+            @SuppressWarnings(WarningType.rawtype_warning) final AuthorizationResult authorizationResult,
+            final DeviceCodeFlowCommandParameters parameters) {
+        return acquireDeviceCodeFlowTokenAsync(authorizationResult, parameters, DeviceCodeFlowPoller.getDefault());
+    }
+
+    private ResultFuture<AcquireTokenResult> acquireDeviceCodeFlowTokenAsync(
+            @SuppressWarnings(WarningType.rawtype_warning) final AuthorizationResult authorizationResult,
+            final DeviceCodeFlowCommandParameters parameters,
+            @NonNull final DeviceCodeFlowPoller poller) {
 
         // Logging start of method
-        final String methodTag = TAG + ":acquireDeviceCodeFlowToken";
+        final String methodTag = TAG + ":acquireDeviceCodeFlowTokenAsync";
         Logger.verbose(
                 methodTag,
                 "Device Code Flow: Polling for token..."
@@ -671,6 +701,8 @@ public class LocalMSALController extends BaseController {
                         .putApiId(TelemetryEventStrings.Api.LOCAL_DEVICE_CODE_FLOW_POLLING)
         );
 
+        final ResultFuture<AcquireTokenResult> resultFuture = new ResultFuture<>();
+
         // Create empty AcquireTokenResult object
         final AcquireTokenResult acquireTokenResult = new AcquireTokenResult();
 
@@ -680,8 +712,9 @@ public class LocalMSALController extends BaseController {
         // Fetch the Authorization Response
         final MicrosoftStsAuthorizationResponse authorizationResponse = (MicrosoftStsAuthorizationResponse) authorizationResult.getAuthorizationResponse();
 
-        // DCF protocol step 2: Poll for token
-        TokenResult tokenResult = null;
+        @SuppressWarnings(WarningType.rawtype_warning) final OAuth2Strategy oAuth2Strategy;
+        final MicrosoftStsTokenRequest tokenRequest;
+        final long intervalInMilliseconds;
 
         try {
             // Create OAuth2Strategy using commandParameters and strategyParameters
@@ -690,91 +723,117 @@ public class LocalMSALController extends BaseController {
                     .authenticationScheme(parameters.getAuthenticationScheme())
                     .build();
 
-            @SuppressWarnings(WarningType.rawtype_warning) final OAuth2Strategy oAuth2Strategy = parameters
+            oAuth2Strategy = parameters
                     .getAuthority()
                     .createOAuth2Strategy(strategyParameters);
 
-            // Create token request outside of loop so it isn't re-created after every loop
+            // Create token request once so it isn't re-created for every poll
             // Suppressing unchecked warnings due to casting of AuthorizationRequest to GenericAuthorizationRequest and MicrosoftStsAuthorizationResponse to GenericAuthorizationResponse in the arguments of call to createTokenRequest method
-            @SuppressWarnings(WarningType.unchecked_warning) final MicrosoftStsTokenRequest tokenRequest = (MicrosoftStsTokenRequest) oAuth2Strategy.createTokenRequest(
+            @SuppressWarnings(WarningType.unchecked_warning) final MicrosoftStsTokenRequest createdTokenRequest = (MicrosoftStsTokenRequest) oAuth2Strategy.createTokenRequest(
                     mAuthorizationRequest,
                     authorizationResponse,
                     parameters.getAuthenticationScheme()
             );
+            tokenRequest = createdTokenRequest;
 
             // Fetch wait interval
-            final int intervalInMilliseconds = Integer.parseInt(authorizationResponse.getInterval()) * 1000;
-
-            String errorCode = ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE;
-
-            // Loop to send multiple requests checking for token
-            while (authorizationPending(errorCode)) {
-
-                // Wait between polls
-                ThreadUtils.sleepSafely(intervalInMilliseconds, TAG,
-                        "Attempting to sleep thread during Device Code Flow token polling...");
-
-                errorCode = ""; // Reset error code
-
-                // Execute Token Request
-                // Suppressing unchecked warnings due to casting of MicrosoftStsTokenRequest to GenericTokenRequest in the arguments of call to requestToken method
-                @SuppressWarnings(WarningType.unchecked_warning)
-                TokenResult tokenResultFromRequestToken = oAuth2Strategy.requestToken(tokenRequest);
+            intervalInMilliseconds = TimeUnit.SECONDS.toMillis(Long.parseLong(authorizationResponse.getInterval()));
+        } catch (final Exception error) {
+            onDeviceCodeFlowPollingFailed(resultFuture, error);
+            return resultFuture;
+        }
 
-                tokenResult = tokenResultFromRequestToken;
+        // DCF protocol step 2: Poll for token. Polls run on a shared scheduler, so this session
+        // does not hold a thread while waiting for the user.
+        final ResultFuture<TokenResult> pollingFuture = poller.poll(
+                new DeviceCodeFlowPoller.ITokenRequester() {
+                    @Override
+                    public TokenResult requestToken() throws Exception {
+                        // Suppressing unchecked warnings due to casting of MicrosoftStsTokenRequest to GenericTokenRequest in the arguments of call to requestToken method
+                        @SuppressWarnings(WarningType.unchecked_warning) final TokenResult tokenResult = oAuth2Strategy.requestToken(tokenRequest);
+                        return tokenResult;
+                    }
+                },
+                intervalInMilliseconds
+        );
 
-                // Fetch error if the request failed
-                if (tokenResult.getErrorResponse() != null) {
-                    errorCode = tokenResult.getErrorResponse().getError();
+        // Cancelling the result stops polling.
+        resultFuture.whenComplete(new BiConsumer<AcquireTokenResult, Throwable>() {
+            @Override
+            public void accept(final AcquireTokenResult result, final Throwable throwable) {
+                if (throwable instanceof CancellationException) {
+                    pollingFuture.cancel(true);
                 }
             }
+        });
+
+        pollingFuture.whenComplete(new BiConsumer<TokenResult, Throwable>() {
+            @Override
+            public void accept(final TokenResult tokenResult, final Throwable throwable) {
+                if (throwable != null) {
+                    onDeviceCodeFlowPollingFailed(resultFuture, throwable);
+                    return;
+                }
 
-            // Validate request success, may throw MsalServiceException
-            validateDeviceCodeFlowServiceResult(tokenResult);
+                try {
+                    // Validate request success, may throw MsalServiceException
+                    validateDeviceCodeFlowServiceResult(tokenResult);
+
+                    // Assign token result
+                    acquireTokenResult.setTokenResult(tokenResult);
+
+                    // If the token is valid, save it into token cache
+                    final List<ICacheRecord> records = saveTokens(
+                            oAuth2Strategy,
+                            mAuthorizationRequest,
+                            acquireTokenResult.getTokenResult().getTokenResponse(),
+                            parameters.getOAuth2TokenCache()
+                    );
+
+                    // Once the token is stored, fetch and assign the authentication result
+                    final ICacheRecord newestRecord = records.get(0);
+                    acquireTokenResult.setLocalAuthenticationResult(
+                            new LocalAuthenticationResult(
+                                    finalizeCacheRecordForResult(
+                                            newestRecord,
+                                            parameters.getAuthenticationScheme()
+                                    ),
+                                    records,
+                                    SdkType.MSAL,
+                                    false
+                            )
+                    );
+                } catch (final Exception error) {
+                    onDeviceCodeFlowPollingFailed(resultFuture, error);
+                    return;
+                }
 
-            // Assign token result
-            acquireTokenResult.setTokenResult(tokenResult);
+                ResultUtil.logResult(TAG, tokenResult);
 
-            // If the token is valid, save it into token cache
-            final List<ICacheRecord> records = saveTokens(
-                    oAuth2Strategy,
-                    mAuthorizationRequest,
-                    acquireTokenResult.getTokenResult().getTokenResponse(),
-                    parameters.getOAuth2TokenCache()
-            );
+                // End telemetry with LOCAL_DEVICE_CODE_FLOW_POLLING
+                Telemetry.emit(
+                        new ApiEndEvent()
+                                .putResult(acquireTokenResult)
+                                .putApiId(TelemetryEventStrings.Api.LOCAL_DEVICE_CODE_FLOW_POLLING)
+                );
 
-            // Once the token is stored, fetch and assign the authentication result
-            final ICacheRecord newestRecord = records.get(0);
-            acquireTokenResult.setLocalAuthenticationResult(
-                    new LocalAuthenticationResult(
-                            finalizeCacheRecordForResult(
-                                    newestRecord,
-                                    parameters.getAuthenticationScheme()
-                            ),
-                            records,
-                            SdkType.MSAL,
-                            false
-                    )
-            );
-        } catch (Exception error) {
-            Telemetry.emit(
-                    new ApiEndEvent()
-                            .putException(error)
-                            .putApiId(TelemetryEventStrings.Api.LOCAL_DEVICE_CODE_FLOW_POLLING)
-            );
-            throw error;
-        }
+                resultFuture.setResult(acquireTokenResult);
+            }
+        });
 
-        ResultUtil.logResult(TAG, tokenResult);
+        return resultFuture;
+    }
 
-        // End telemetry with LOCAL_DEVICE_CODE_FLOW_POLLING
-        Telemetry.emit(
-                new ApiEndEvent()
-                        .putResult(acquireTokenResult)
-                        .putApiId(TelemetryEventStrings.Api.LOCAL_DEVICE_CODE_FLOW_POLLING)
-        );
+    private static void onDeviceCodeFlowPollingFailed(@NonNull final ResultFuture<AcquireTokenResult> resultFuture,
+                                                      @NonNull final Throwable error) {
+        final ApiEndEvent apiEndEvent = new ApiEndEvent()
+                .putApiId(TelemetryEventStrings.Api.LOCAL_DEVICE_CODE_FLOW_POLLING);
+        if (error instanceof Exception) {
+            apiEndEvent.putException((Exception) error);
+        }
 
-        return acquireTokenResult;
+        Telemetry.emit(apiEndEvent);
+        resultFuture.setException(error);
     }
 
     @Override
@@ -813,14 +872,4 @@ public class LocalMSALController extends BaseController {
         // If we have an account for this user, then we will service this request locally
         return null != cache.getAccountByHomeAccountId(null, clientId, homeAccountId);
     }
-
-    /**
-     * Returns true if the given error shows authorization is pending.
-     *
-     * @param errorCode error from response
-     * @return true or false if error is pending
-     */
-    private boolean authorizationPending(@NonNull final String errorCode) {
-        return errorCode.equals(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE);
-    }
 }
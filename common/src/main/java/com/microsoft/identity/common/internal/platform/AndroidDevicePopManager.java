@@ -105,7 +105,8 @@ public class AndroidDevicePopManager extends AbstractDevicePopManager {
     }
 
     public AndroidDevicePopManager(@NonNull final Context context, @NonNull final String alias) throws CertificateException, NoSuchAlgorithmException, KeyStoreException, IOException {
-        super(createKeyStoreKeyManager(alias));
+        // The AndroidKeyStore is process-wide, so all instances share the cached key entry.
+        super(createKeyStoreKeyManager(alias), ANDROID_KEYSTORE);
         mContext = context;
     }
 
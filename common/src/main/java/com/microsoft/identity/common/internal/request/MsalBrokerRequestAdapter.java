@@ -29,6 +29,7 @@ import static com.microsoft.identity.common.adal.internal.AuthenticationConstant
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.AUTH_SCHEME_PARAMS_POP;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_REQUEST_V2;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_REQUEST_V2_COMPRESSED;
+import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_REQUEST_V2_COMPRESSED_WITH_DICTIONARY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.CALLER_INFO_UID;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.CAN_FOCI_APPS_CONSTRUCT_ACCOUNTS_FROM_PRT_ID_TOKEN_KEY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.CLIENT_ADVERTISED_MAXIMUM_BP_VERSION_KEY;
@@ -38,7 +39,7 @@ import static com.microsoft.identity.common.adal.internal.AuthenticationConstant
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.NEGOTIATED_BP_VERSION_KEY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.REQUEST_AUTHORITY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.SHOULD_SEND_PKEYAUTH_HEADER_TO_THE_TOKEN_ENDPOINT;
-import static com.microsoft.identity.common.internal.util.GzipUtil.compressString;
+import static com.microsoft.identity.common.java.exception.ClientException.INVALID_BROKER_BUNDLE;
 
 import android.content.Context;
 import android.os.Bundle;
@@ -49,6 +50,8 @@ import androidx.annotation.Nullable;
 
 import com.microsoft.identity.common.adal.internal.AuthenticationConstants;
 import com.microsoft.identity.common.internal.broker.BrokerRequest;
+import com.microsoft.identity.common.internal.util.BrokerPayloadDictionary;
+import com.microsoft.identity.common.internal.util.GzipUtil;
 import com.microsoft.identity.common.java.commands.parameters.AcquirePrtSsoTokenCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.DeviceCodeFlowCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.GenerateShrCommandParameters;
@@ -348,6 +351,44 @@ public class MsalBrokerRequestAdapter implements IBrokerRequestAdapter {
         return requestBundle;
     }
 
+    /**
+     * Reads the {@link BrokerRequest} of a request bundle, decompressing it as it is parsed if it
+     * was compressed.
+     *
+     * @param requestBundle the request bundle.
+     * @return the broker request, or null if the bundle does not contain one.
+     * @throws ClientException if the compressed request cannot be read.
+     */
+    @Nullable
+    public static BrokerRequest brokerRequestFromBundle(@NonNull final Bundle requestBundle) throws ClientException {
+        final String methodTag = TAG + ":brokerRequestFromBundle";
+
+        final byte[] dictionaryCompressedBytes = requestBundle.getByteArray(BROKER_REQUEST_V2_COMPRESSED_WITH_DICTIONARY);
+        final byte[] compressedBytes = dictionaryCompressedBytes != null
+                ? dictionaryCompressedBytes
+                : requestBundle.getByteArray(BROKER_REQUEST_V2_COMPRESSED);
+
+        if (compressedBytes != null) {
+            try {
+                return GzipUtil.decompressFromJson(
+                        AuthenticationSchemeTypeAdapter.getGsonInstance(),
+                        compressedBytes,
+                        BrokerRequest.class,
+                        dictionaryCompressedBytes != null ? BrokerPayloadDictionary.getBytes() : null
+                );
+            } catch (final IOException e) {
+                Logger.error(methodTag, "Failed to decompress broker request", e);
+                throw new ClientException(INVALID_BROKER_BUNDLE, "Failed to decompress broker request", e);
+            }
+        }
+
+        final String brokerRequestString = requestBundle.getString(BROKER_REQUEST_V2);
+        if (StringUtil.isNullOrEmpty(brokerRequestString)) {
+            return null;
+        }
+        return AuthenticationSchemeTypeAdapter.getGsonInstance().fromJson(brokerRequestString, BrokerRequest.class);
+    }
+
     private Bundle getRequestBundleFromBrokerRequest(@NonNull BrokerRequest brokerRequest,
                                                      @Nullable String negotiatedBrokerProtocolVersion,
                                                      @Nullable String requiredBrokerProtocolVersion) {
@@ -355,13 +396,22 @@ public class MsalBrokerRequestAdapter implements IBrokerRequestAdapter {
         final Bundle requestBundle = new Bundle();
 
         if (BrokerProtocolVersionUtil.canCompressBrokerPayloads(negotiatedBrokerProtocolVersion)) {
+            final boolean useDictionary = BrokerProtocolVersionUtil.canUseBrokerPayloadCompressionDictionary(negotiatedBrokerProtocolVersion);
             try {
-                final String jsonString = AuthenticationSchemeTypeAdapter.getGsonInstance().toJson(brokerRequest, BrokerRequest.class);
-                byte[] compressedBytes = compressString(jsonString);
-                Logger.info(methodTag, "Broker Result, raw payload size:"
-                        + jsonString.getBytes(AuthenticationConstants.CHARSET_UTF8).length + " ,compressed bytes size: " + compressedBytes.length
+                final GzipUtil.CompressedJson compressedJson = GzipUtil.compressToJson(
+                        AuthenticationSchemeTypeAdapter.getGsonInstance(),
+                        brokerRequest,
+                        BrokerRequest.class,
+                        useDictionary ? BrokerPayloadDictionary.getBytes() : null
+                );
+                Logger.info(methodTag, "Broker Request, raw payload size:"
+                        + compressedJson.getUncompressedSize() + " ,compressed bytes size: " + compressedJson.getBytes().length
+                        + " ,with dictionary: " + useDictionary
+                );
+                requestBundle.putByteArray(
+                        useDictionary ? BROKER_REQUEST_V2_COMPRESSED_WITH_DICTIONARY : BROKER_REQUEST_V2_COMPRESSED,
+                        compressedJson.getBytes()
                 );
-                requestBundle.putByteArray(BROKER_REQUEST_V2_COMPRESSED, compressedBytes);
             } catch (IOException e) {
                 Logger.error(methodTag, "Compression to bytes failed, sending broker request as json String", e);
                 requestBundle.putString(
@@ -24,17 +24,18 @@ package com.microsoft.identity.common.internal.result;
 
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_ACCOUNTS;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_ACCOUNTS_COMPRESSED;
+import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_ACCOUNTS_COMPRESSED_WITH_DICTIONARY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_ACTIVITY_NAME;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_DEVICE_MODE;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_GENERATE_SHR_RESULT;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_GENERATE_SSO_TOKEN_RESULT;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_PACKAGE_NAME;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_RESULT_V2_COMPRESSED;
+import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.BROKER_RESULT_V2_COMPRESSED_WITH_DICTIONARY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.HELLO_ERROR_CODE;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.HELLO_ERROR_MESSAGE;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.NEGOTIATED_BP_VERSION_KEY;
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.PREFERRED_AUTH_METHOD_CODE;
-import static com.microsoft.identity.common.internal.util.GzipUtil.compressString;
 import static com.microsoft.identity.common.java.exception.ClientException.INVALID_BROKER_BUNDLE;
 import static com.microsoft.identity.common.java.util.BrokerProtocolVersionUtil.isFirstVersionOlderOrEqual;
 
@@ -52,6 +53,7 @@ import com.microsoft.identity.common.adal.internal.util.HashMapExtensions;
 import com.microsoft.identity.common.adal.internal.util.JsonExtensions;
 import com.microsoft.identity.common.internal.broker.BrokerResult;
 import com.microsoft.identity.common.internal.request.AuthenticationSchemeTypeAdapter;
+import com.microsoft.identity.common.internal.util.BrokerPayloadDictionary;
 import com.microsoft.identity.common.internal.util.GzipUtil;
 import com.microsoft.identity.common.java.authorities.AzureActiveDirectoryAudience;
 import com.microsoft.identity.common.java.cache.CacheRecord;
@@ -409,36 +411,37 @@ public class MsalBrokerResultAdapter implements IBrokerResultAdapter {
                                          @Nullable final String negotiatedBrokerProtocolVersion) {
         final String methodTag = TAG + ":bundleFromBrokerResult";
         final Bundle resultBundle = new Bundle();
-        final String brokerResultString = AuthenticationSchemeTypeAdapter.getGsonInstance().toJson(
-                brokerResult,
-                BrokerResult.class
-        );
         if (BrokerProtocolVersionUtil.canCompressBrokerPayloads(negotiatedBrokerProtocolVersion)) {
+            final boolean useDictionary = BrokerProtocolVersionUtil.canUseBrokerPayloadCompressionDictionary(negotiatedBrokerProtocolVersion);
             try {
-                byte[] compressedBytes = compressString(brokerResultString);
+                final GzipUtil.CompressedJson compressedJson = GzipUtil.compressToJson(
+                        AuthenticationSchemeTypeAdapter.getGsonInstance(),
+                        brokerResult,
+                        BrokerResult.class,
+                        useDictionary ? BrokerPayloadDictionary.getBytes() : null
+                );
                 Logger.info(methodTag, "Broker Result, raw payload size:"
-                        + brokerResultString.getBytes(AuthenticationConstants.CHARSET_UTF8).length + " ,compressed bytes " + compressedBytes.length
+                        + compressedJson.getUncompressedSize() + " ,compressed bytes " + compressedJson.getBytes().length
+                        + " ,with dictionary: " + useDictionary
                 );
                 resultBundle.putByteArray(
-                        BROKER_RESULT_V2_COMPRESSED,
-                        compressedBytes
+                        useDictionary ? BROKER_RESULT_V2_COMPRESSED_WITH_DICTIONARY : BROKER_RESULT_V2_COMPRESSED,
+                        compressedJson.getBytes()
                 );
+                return resultBundle;
             } catch (IOException e) {
                 Logger.error(methodTag, "Failed to compress Broker Result, sending as jsonString ", e);
-                resultBundle.putString(
-                        AuthenticationConstants.Broker.BROKER_RESULT_V2,
-                        brokerResultString
-                );
             }
         } else {
             Logger.info(methodTag, "Broker protocol version: " + negotiatedBrokerProtocolVersion +
                     " lower than compression changes, sending as string"
             );
-            resultBundle.putString(
-                    AuthenticationConstants.Broker.BROKER_RESULT_V2,
-                    brokerResultString
-            );
         }
+
+        resultBundle.putString(
+                AuthenticationConstants.Broker.BROKER_RESULT_V2,
+                AuthenticationSchemeTypeAdapter.getGsonInstance().toJson(brokerResult, BrokerResult.class)
+        );
         return resultBundle;
     }
 
@@ -446,12 +449,18 @@ public class MsalBrokerResultAdapter implements IBrokerResultAdapter {
     public BrokerResult brokerResultFromBundle(@NonNull final Bundle resultBundle) throws ClientException {
         final String methodTag = TAG + ":brokerResultFromBundle";
 
-        String brokerResultString;
+        final byte[] dictionaryCompressedBytes = resultBundle.getByteArray(BROKER_RESULT_V2_COMPRESSED_WITH_DICTIONARY);
+        final byte[] compressedBytes = dictionaryCompressedBytes != null
+                ? dictionaryCompressedBytes
+                : resultBundle.getByteArray(BROKER_RESULT_V2_COMPRESSED);
 
-        byte[] compressedBytes = resultBundle.getByteArray(BROKER_RESULT_V2_COMPRESSED);
+        final BrokerResult brokerResult;
         if (compressedBytes != null) {
             try {
-                brokerResultString = GzipUtil.decompressBytesToString(compressedBytes);
+                brokerResult = JsonExtensions.getBrokerResultFromCompressedJson(
+                        compressedBytes,
+                        dictionaryCompressedBytes != null ? BrokerPayloadDictionary.getBytes() : null
+                );
             } catch (IOException e) {
                 // We should never hit this ideally unless the string/bytes are malformed for some unknown reason.
                 // The caller should handle the null broker result
@@ -459,15 +468,18 @@ public class MsalBrokerResultAdapter implements IBrokerResultAdapter {
                 throw new ClientException(INVALID_BROKER_BUNDLE, "Failed to decompress broker result", e);
             }
         } else {
-            brokerResultString = resultBundle.getString(AuthenticationConstants.Broker.BROKER_RESULT_V2);
+            final String brokerResultString = resultBundle.getString(AuthenticationConstants.Broker.BROKER_RESULT_V2);
+            brokerResult = StringUtil.isNullOrEmpty(brokerResultString)
+                    ? null
+                    : JsonExtensions.getBrokerResultFromJsonString(brokerResultString);
         }
 
-        if (StringUtil.isNullOrEmpty(brokerResultString)) {
+        if (brokerResult == null) {
             Logger.error(methodTag, "Broker Result not returned from Broker", null);
             throw new ClientException(INVALID_BROKER_BUNDLE, "Broker Result not returned from Broker", null);
         }
 
-        return JsonExtensions.getBrokerResultFromJsonString(brokerResultString);
+        return brokerResult;
     }
 
     @NonNull
@@ -856,50 +868,66 @@ public class MsalBrokerResultAdapter implements IBrokerResultAdapter {
         final String methodTag = TAG + ":bundleFromAccounts";
         final Bundle resultBundle = new Bundle();
 
-        final String jsonString = JsonExtensions.getJsonStringFromICacheRecordList(cacheRecords);
         if (BrokerProtocolVersionUtil.canCompressBrokerPayloads(negotiatedProtocolVersion)) {
+            final boolean useDictionary = BrokerProtocolVersionUtil.canUseBrokerPayloadCompressionDictionary(negotiatedProtocolVersion);
             try {
-                byte[] bytes = GzipUtil.compressString(jsonString);
+                final GzipUtil.CompressedJson compressedJson = JsonExtensions.getCompressedJsonFromICacheRecordList(
+                        cacheRecords,
+                        useDictionary ? BrokerPayloadDictionary.getBytes() : null
+                );
                 Logger.info(methodTag, "Get accounts, raw payload size :"
-                        + jsonString.getBytes(AuthenticationConstants.CHARSET_UTF8).length + " compressed size " + bytes.length
+                        + compressedJson.getUncompressedSize() + " compressed size " + compressedJson.getBytes().length
+                        + " with dictionary: " + useDictionary
                 );
-                resultBundle.putByteArray(BROKER_ACCOUNTS_COMPRESSED, bytes);
+                resultBundle.putByteArray(
+                        useDictionary ? BROKER_ACCOUNTS_COMPRESSED_WITH_DICTIONARY : BROKER_ACCOUNTS_COMPRESSED,
+                        compressedJson.getBytes()
+                );
+                return resultBundle;
             } catch (IOException e) {
                 Logger.error(methodTag, " Failed to compress account list to bytes, sending as jsonString", e);
-                resultBundle.putString(BROKER_ACCOUNTS, jsonString);
             }
         } else {
             Logger.info(methodTag, "Broker protocol version: " + negotiatedProtocolVersion +
                     " lower than compression changes, sending as string"
             );
-            resultBundle.putString(BROKER_ACCOUNTS, jsonString);
         }
 
+        resultBundle.putString(BROKER_ACCOUNTS, JsonExtensions.getJsonStringFromICacheRecordList(cacheRecords));
         return resultBundle;
     }
 
     @NonNull
     public List<ICacheRecord> getAccountsFromResultBundle(@NonNull final Bundle bundle) throws BaseException {
         final String methodTag = TAG + ":getAccountsFromResultBundle";
-        String accountJson;
+        final byte[] dictionaryCompressedData = bundle.getByteArray(BROKER_ACCOUNTS_COMPRESSED_WITH_DICTIONARY);
+        final byte[] compressedData = dictionaryCompressedData != null
+                ? dictionaryCompressedData
+                : bundle.getByteArray(BROKER_ACCOUNTS_COMPRESSED);
 
-        final byte[] compressedData = bundle.getByteArray(BROKER_ACCOUNTS_COMPRESSED);
+        final List<ICacheRecord> cacheRecords;
         if (compressedData != null) {
             try {
-                accountJson = GzipUtil.decompressBytesToString(compressedData);
+                cacheRecords = JsonExtensions.getICacheRecordListFromCompressedJson(
+                        compressedData,
+                        dictionaryCompressedData != null ? BrokerPayloadDictionary.getBytes() : null
+                );
             } catch (IOException e) {
                 Logger.error(methodTag, " Failed to decompress account list to bytes", e);
                 throw new ClientException(INVALID_BROKER_BUNDLE, " Failed to decompress account list to bytes.");
             }
         } else {
-            accountJson = bundle.getString(BROKER_ACCOUNTS);
+            final String accountJson = bundle.getString(BROKER_ACCOUNTS);
+            cacheRecords = StringUtil.isNullOrEmpty(accountJson)
+                    ? null
+                    : JsonExtensions.getICacheRecordListFromJsonString(accountJson);
         }
 
-        if (StringUtil.isNullOrEmpty(accountJson)) {
+        if (cacheRecords == null) {
             throw new MsalBrokerResultAdapter().getBaseExceptionFromBundle(bundle);
         }
 
-        return JsonExtensions.getICacheRecordListFromJsonString(accountJson);
+        return cacheRecords;
     }
 
     public void verifyRemoveAccountResultFromBundle(@Nullable final Bundle bundle) throws BaseException {
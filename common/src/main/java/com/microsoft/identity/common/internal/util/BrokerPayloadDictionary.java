@@ -0,0 +1,81 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.internal.util;
+
+import androidx.annotation.NonNull;
+
+import java.nio.charset.Charset;
+
+/**
+ * The preset deflate dictionary for compressed broker payloads, made of the JSON fragments that
+ * recur in broker requests, results and account lists. It saves most of the cost of the field names
+ * of small payloads, which a plain deflate stream has to spell out at least once.
+ * <p>
+ * Both sides of the IPC must use the exact same bytes, so this must never change: a new dictionary
+ * needs a new broker protocol version and new bundle keys.
+ *
+ * @see com.microsoft.identity.common.java.util.BrokerProtocolVersionUtil#canUseBrokerPayloadCompressionDictionary(String)
+ */
+public final class BrokerPayloadDictionary {
+
+    // Deflate favors the end of the dictionary, so the most common fragments come last.
+    private static final String DICTIONARY = ""
+            + "\"avatar_url\":\"\"middle_name\":\"\"alternative_account_id\":\""
+            + "\"application_identifier\":\"\"mam_enrollment_identifier\":\""
+            + "\"requested_claims\":\"\"refresh_on\":\"\"kid\":\"\"access_token_type\":\""
+            + "\"http_response_headers\":\"\"http_response_body\":\"\"http_response_code\":"
+            + "\"broker_exception_type\":\"\"broker_error_code\":\"\"broker_error_message\":\""
+            + "\"oauth_sub_error\":\"\"cli_telem_error_code\":\"\"cli_telem_suberror_code\":\""
+            + "\"spe_ring\":\"\"serviced_from_cache\":\"success\":true,"
+            + "\"extra_options\":\"\"extra_query_param\":\"\"child_redirect_uri\":\"\"child_client_id\":\""
+            + "\"prompt\":\"\"claims\":\"\"force_refresh\":false,\"client_app_name\":\"\"client_app_version\":\""
+            + "\"client_version\":\"\"client_sdk_type\":\"MSAL\"multiple_clouds_supported\":false,"
+            + "\"authorization_agent\":\"DEFAULT\"authentication_scheme\":{\"name\":\"Bearer\"}"
+            + "\"power_opt_check_enabled\":false,\"span_context\":\"\"preferred_browser\":"
+            + "\"redirect_uri\":\"msauth://\"correlation_id\":\""
+            + "\"tenant_profile_cache_records\":[{\"refresh_token_age\":\"\"token_type\":\"Bearer\""
+            + "\"family_id\":\"1\"ext_expires_on\":\"\"extended_expires_on\":\"\"cached_at\":\"\"expires_on\":\""
+            + "\"mV1IdToken\":{\"mIdToken\":{\"mRefreshToken\":{\"mAccessToken\":{\"mAccount\":{"
+            + "\"authority_type\":\"MSSTS\"first_name\":\"\"family_name\":\"\"name\":\""
+            + "\"credential_type\":\"AccessToken\"credential_type\":\"RefreshToken\"credential_type\":\"IdToken\""
+            + "\"target\":\"openid profile offline_access\"scopes\":\""
+            + "\"authority\":\"https://login.microsoftonline.com/common\"https://login.microsoftonline.com/"
+            + "\"environment\":\"login.windows.net\"environment\":\"login.microsoftonline.com\""
+            + "\"client_info\":\"eyJ1aWQiOiJ\"secret\":\"eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiIsIng1dCI6I"
+            + "\"access_token\":\"eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiIsImtpZCI6I\"id_token\":\"eyJ0eXAiOiJKV1Qi"
+            + "\"refresh_token\":\"\"realm\":\"\"tenant_id\":\"\"username\":\"\"client_id\":\""
+            + "\"local_account_id\":\"\"home_account_id\":\"";
+
+    private static final byte[] DICTIONARY_BYTES = DICTIONARY.getBytes(Charset.forName("UTF-8"));
+
+    private BrokerPayloadDictionary() {
+    }
+
+    /**
+     * @return the dictionary. The array is shared and must not be modified.
+     */
+    @NonNull
+    public static byte[] getBytes() {
+        return DICTIONARY_BYTES;
+    }
+}
@@ -24,15 +24,37 @@
 package com.microsoft.identity.common.internal.util;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 public class GzipUtil {
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    // Per-thread output buffers are only kept up to this size, so one large payload does not pin memory.
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private static final ThreadLocal<ReusableByteArrayOutputStream> sOutputBuffer = new ThreadLocal<>();
+
     /**
      * Util method which compress the input String to bytes using gzip compression.
      */
@@ -69,4 +91,155 @@ public class GzipUtil {
         byteArrayInputStream.close();
         return new String(deCompressedBytes, 0, deCompressedBytes.length, "UTF-8");
     }
+
+    /**
+     * Serializes the given object to JSON with the given {@link Gson}, compressing it with gzip as
+     * it is written, so that the JSON string is never built in memory.
+     *
+     * @param gson       the Gson instance to serialize with.
+     * @param src        the object to serialize.
+     * @param typeOfSrc  the type of the object.
+     * @param dictionary an optional preset deflate dictionary. The same one must be used to decompress.
+     * @return the gzip compressed JSON.
+     */
+    public static CompressedJson compressToJson(@NonNull final Gson gson,
+                                                @NonNull final Object src,
+                                                @NonNull final Type typeOfSrc,
+                                                @Nullable final byte[] dictionary) throws IOException {
+        ReusableByteArrayOutputStream buffer = sOutputBuffer.get();
+        if (buffer == null) {
+            buffer = new ReusableByteArrayOutputStream();
+        } else {
+            // Not reentrant: a nested call (e.g. from a type adapter) gets its own buffer.
+            sOutputBuffer.remove();
+        }
+
+        try {
+            final DictionaryGZIPOutputStream gzipOutputStream = new DictionaryGZIPOutputStream(buffer, dictionary);
+            final Writer writer = new OutputStreamWriter(gzipOutputStream, UTF8);
+            try {
+                gson.toJson(src, typeOfSrc, writer);
+            } catch (final JsonIOException e) {
+                throw new IOException("Failed to write JSON", e);
+            } finally {
+                writer.close();
+            }
+            return new CompressedJson(buffer.toByteArray(), gzipOutputStream.getUncompressedSize());
+        } finally {
+            buffer.reset();
+            if (buffer.getCapacity() <= MAX_RETAINED_BUFFER_SIZE) {
+                sOutputBuffer.set(buffer);
+            }
+        }
+    }
+
+    /**
+     * Parses gzip compressed JSON with the given {@link Gson}, decompressing it as it is read, so
+     * that the JSON string is never built in memory.
+     *
+     * @param gson            the Gson instance to deserialize with.
+     * @param compressedBytes the gzip compressed JSON.
+     * @param typeOfT         the type to deserialize into.
+     * @param dictionary      the preset deflate dictionary the JSON was compressed with, if any.
+     * @return the deserialized object, or null if the JSON is empty.
+     */
+    @Nullable
+    public static <T> T decompressFromJson(@NonNull final Gson gson,
+                                           @NonNull final byte[] compressedBytes,
+                                           @NonNull final Type typeOfT,
+                                           @Nullable final byte[] dictionary) throws IOException {
+        final Reader reader = new InputStreamReader(
+                new DictionaryGZIPInputStream(new ByteArrayInputStream(compressedBytes), dictionary),
+                UTF8
+        );
+        try {
+            return gson.fromJson(reader, typeOfT);
+        } catch (final JsonIOException | JsonSyntaxException e) {
+            throw new IOException("Failed to read JSON", e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * The result of {@link #compressToJson(Gson, Object, Type, byte[])}.
+     */
+    public static final class CompressedJson {
+        private final byte[] mBytes;
+        private final long mUncompressedSize;
+
+        CompressedJson(@NonNull final byte[] bytes, final long uncompressedSize) {
+            mBytes = bytes;
+            mUncompressedSize = uncompressedSize;
+        }
+
+        /**
+         * @return the gzip compressed JSON.
+         */
+        @NonNull
+        public byte[] getBytes() {
+            return mBytes;
+        }
+
+        /**
+         * @return the size of the JSON before compression, in UTF-8 bytes.
+         */
+        public long getUncompressedSize() {
+            return mUncompressedSize;
+        }
+    }
+
+    /**
+     * A {@link GZIPOutputStream} with an optional preset dictionary.
+     */
+    private static class DictionaryGZIPOutputStream extends GZIPOutputStream {
+        private long mUncompressedSize;
+
+        DictionaryGZIPOutputStream(@NonNull final OutputStream out,
+                                   @Nullable final byte[] dictionary) throws IOException {
+            super(out, BUFFER_SIZE);
+            // The header is written by now, but nothing has been deflated yet.
+            if (dictionary != null) {
+                def.setDictionary(dictionary);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            super.finish();
+            // Read before close() releases the deflater.
+            mUncompressedSize = def.getBytesRead();
+        }
+
+        long getUncompressedSize() {
+            return mUncompressedSize;
+        }
+    }
+
+    /**
+     * A {@link GZIPInputStream} with an optional preset dictionary.
+     */
+    private static class DictionaryGZIPInputStream extends GZIPInputStream {
+        DictionaryGZIPInputStream(@NonNull final InputStream in,
+                                  @Nullable final byte[] dictionary) throws IOException {
+            super(in, BUFFER_SIZE);
+            // The header is read by now, but nothing has been inflated yet.
+            if (dictionary != null) {
+                inf.setDictionary(dictionary);
+            }
+        }
+    }
+
+    /**
+     * A {@link ByteArrayOutputStream} whose buffer can be reused after {@link #reset()}.
+     */
+    private static class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+        ReusableByteArrayOutputStream() {
+            super(BUFFER_SIZE);
+        }
+
+        int getCapacity() {
+            return buf.length;
+        }
+    }
 }
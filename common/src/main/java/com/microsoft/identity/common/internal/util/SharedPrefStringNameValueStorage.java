@@ -24,10 +24,13 @@
 package com.microsoft.identity.common.internal.util;
 
 import com.microsoft.identity.common.java.cache.IMultiTypeNameValueStorage;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import lombok.NonNull;
 
@@ -57,4 +60,16 @@ public class SharedPrefStringNameValueStorage extends AbstractSharedPrefNameValu
     public Iterator<Map.Entry<String, String>> getAllFilteredByKey(Predicate<String> keyFilter) {
         return mManager.getAllFilteredByKey(keyFilter);
     }
+
+    @Override
+    public @NonNull <R> Map<String, R> getAllFilteredByKey(@NonNull Predicate<String> keyFilter,
+                                                           @NonNull Function<Map.Entry<String, String>, R> entryMapper,
+                                                           @NonNull ExecutorService executor) {
+        return mManager.getAllFilteredByKey(keyFilter, entryMapper, executor);
+    }
+
+    @Override
+    public @NonNull INameValueStorageEditor<String> edit() {
+        return mManager.edit();
+    }
 }
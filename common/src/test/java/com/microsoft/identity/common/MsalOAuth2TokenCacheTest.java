@@ -23,11 +23,15 @@
 package com.microsoft.identity.common;
 
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
 
 import androidx.annotation.NonNull;
 import androidx.test.core.app.ApplicationProvider;
 
 import com.microsoft.identity.common.components.AndroidPlatformComponentsFactory;
+import com.microsoft.identity.common.internal.cache.SharedPreferencesFileManager;
+import com.microsoft.identity.common.internal.util.SharedPrefStringNameValueStorage;
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.providers.microsoft.microsoftsts.MicrosoftStsOAuth2Strategy;
 import com.microsoft.identity.common.java.exception.ClientException;
@@ -57,6 +61,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
@@ -64,6 +71,7 @@ import org.robolectric.annotation.Config;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.microsoft.identity.common.MicrosoftStsAccountCredentialAdapterTest.MOCK_ID_TOKEN_WITH_CLAIMS;
 import static com.microsoft.identity.common.SharedPreferencesAccountCredentialCacheTest.APPLICATION_IDENTIFIER_SHA512;
@@ -323,6 +331,101 @@ public class MsalOAuth2TokenCacheTest {
         assertEquals(defaultTestBundleV2.mGeneratedIdToken, ids.get(0));
     }
 
+    @Test
+    public void saveTokensWritesToDiskOnce() throws Exception {
+        final AtomicInteger diskWrites = new AtomicInteger();
+        final MsalOAuth2TokenCache<
+                MicrosoftStsOAuth2Strategy,
+                MicrosoftStsAuthorizationRequest,
+                MicrosoftStsTokenResponse,
+                MicrosoftAccount,
+                MicrosoftRefreshToken> tokenCache = createDiskWriteCountingTokenCache(diskWrites);
+
+        tokenCache.save(
+                mockStrategy,
+                mockRequest,
+                mockResponse
+        );
+
+        assertEquals(1, diskWrites.get());
+    }
+
+    @Test
+    public void saveAndLoadAggregatedAccountDataWritesToDiskOnce() throws Exception {
+        final AtomicInteger diskWrites = new AtomicInteger();
+        final MsalOAuth2TokenCache<
+                MicrosoftStsOAuth2Strategy,
+                MicrosoftStsAuthorizationRequest,
+                MicrosoftStsTokenResponse,
+                MicrosoftAccount,
+                MicrosoftRefreshToken> tokenCache = createDiskWriteCountingTokenCache(diskWrites);
+
+        final List<ICacheRecord> result = tokenCache.saveAndLoadAggregatedAccountData(
+                mockStrategy,
+                mockRequest,
+                mockResponse
+        );
+
+        assertEquals(1, diskWrites.get());
+        assertEquals(1, result.size());
+        assertEquals(defaultTestBundleV2.mGeneratedAccount, result.get(0).getAccount());
+        assertEquals(defaultTestBundleV2.mGeneratedAccessToken, result.get(0).getAccessToken());
+        assertEquals(defaultTestBundleV2.mGeneratedRefreshToken, result.get(0).getRefreshToken());
+        assertEquals(defaultTestBundleV2.mGeneratedIdToken, result.get(0).getIdToken());
+    }
+
+    /**
+     * Creates a token cache whose SharedPreferences count each apply() or commit() of an editor,
+     * i.e. each rewrite of the backing file.
+     */
+    private MsalOAuth2TokenCache<
+            MicrosoftStsOAuth2Strategy,
+            MicrosoftStsAuthorizationRequest,
+            MicrosoftStsTokenResponse,
+            MicrosoftAccount,
+            MicrosoftRefreshToken> createDiskWriteCountingTokenCache(final AtomicInteger diskWrites) {
+        final Answer<Object> countingAnswer = new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                diskWrites.incrementAndGet();
+                return invocation.callRealMethod();
+            }
+        };
+        final SharedPreferences sharedPreferences = Mockito.spy(
+                mContext.getSharedPreferences("test_prefs_disk_writes", Context.MODE_PRIVATE)
+        );
+        sharedPreferences.edit().clear().commit();
+        Mockito.doAnswer(new Answer<SharedPreferences.Editor>() {
+            @Override
+            public SharedPreferences.Editor answer(final InvocationOnMock invocation) throws Throwable {
+                final SharedPreferences.Editor editor = Mockito.spy((SharedPreferences.Editor) invocation.callRealMethod());
+                Mockito.doAnswer(countingAnswer).when(editor).apply();
+                Mockito.doAnswer(countingAnswer).when(editor).commit();
+                return editor;
+            }
+        }).when(sharedPreferences).edit();
+
+        final Context context = new ContextWrapper(mContext) {
+            @Override
+            public SharedPreferences getSharedPreferences(final String name, final int mode) {
+                return sharedPreferences;
+            }
+        };
+
+        final SharedPreferencesAccountCredentialCache credentialCache = new SharedPreferencesAccountCredentialCache(
+                new CacheKeyValueDelegate(),
+                new SharedPrefStringNameValueStorage(
+                        new SharedPreferencesFileManager(context, "test_prefs_disk_writes", null)
+                )
+        );
+
+        return new MsalOAuth2TokenCache<>(
+                AndroidPlatformComponentsFactory.createFromContext(mContext),
+                credentialCache,
+                mockCredentialAdapter
+        );
+    }
+
     @Test
     public void saveTokensWithMalformedDataInCache() throws Exception {
         // Prepopulate the cache with unparseable, junk data
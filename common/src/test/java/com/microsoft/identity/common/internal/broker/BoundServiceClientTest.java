@@ -0,0 +1,367 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.internal.broker;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.DeadObjectException;
+import android.os.IBinder;
+import android.os.IInterface;
+import android.os.RemoteException;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.microsoft.identity.common.exception.BrokerCommunicationException;
+import com.microsoft.identity.common.internal.broker.ipc.BrokerOperationBundle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.NonNull;
+
+/**
+ * Tests for the shared, reference counted bindings of {@link BoundServiceClient}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = {Build.VERSION_CODES.N})
+public class BoundServiceClientTest {
+
+    private static final String SERVICE_CLASS_NAME = "com.microsoft.identity.client.TestService";
+    private static final String SERVICE_INTENT_FILTER = "com.microsoft.identity.client.Test";
+    private static final long LONG_IDLE_TIMEOUT_IN_MILLISECONDS = 60_000;
+
+    // Bindings are shared process-wide, so each test targets its own package.
+    private static final AtomicInteger sPackageCounter = new AtomicInteger();
+
+    private String mPackageName;
+    private CountingContext mContext;
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mPackageName = "com.microsoft.test.broker" + sPackageCounter.incrementAndGet();
+        mContext = new CountingContext(ApplicationProvider.<Context>getApplicationContext());
+        mExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentOperationsShareOneBinding() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+        final int callerCount = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Future<Bundle>> results = new ArrayList<>();
+        for (int i = 0; i < callerCount; i++) {
+            results.add(mExecutor.submit(new Callable<Bundle>() {
+                @Override
+                public Bundle call() throws Exception {
+                    start.await();
+                    return performOperation(client);
+                }
+            }));
+        }
+        start.countDown();
+
+        for (final Future<Bundle> result : results) {
+            Assert.assertNotNull(result.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(callerCount, client.mOperationCount.get());
+        Assert.assertEquals(1, mContext.mBindCount.get());
+        Assert.assertEquals(0, mContext.mUnbindCount.get());
+        Assert.assertEquals(0, BoundServiceConnection.getReferenceCount(client.getIntent(mPackageName)));
+        Assert.assertTrue(BoundServiceConnection.isBound(client.getIntent(mPackageName)));
+    }
+
+    @Test
+    public void testSequentialOperationsShareOneBinding() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+
+        for (int i = 0; i < 5; i++) {
+            performOperation(client);
+        }
+
+        // A new client for the same service, as a new strategy would create.
+        performOperation(new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS));
+
+        Assert.assertEquals(1, mContext.mBindCount.get());
+        Assert.assertEquals(0, mContext.mUnbindCount.get());
+    }
+
+    @Test
+    public void testIdleBindingIsUnbound() throws Exception {
+        final TestClient client = new TestClient(mContext, 50);
+
+        performOperation(client);
+        waitForUnbindCount(1);
+        Assert.assertFalse(BoundServiceConnection.isBound(client.getIntent(mPackageName)));
+
+        performOperation(client);
+        Assert.assertEquals(2, mContext.mBindCount.get());
+    }
+
+    @Test
+    public void testZeroIdleTimeoutUnbindsOnDisconnect() throws Exception {
+        final TestClient client = new TestClient(mContext, 0);
+
+        performOperation(client);
+        performOperation(client);
+
+        Assert.assertEquals(2, mContext.mBindCount.get());
+        Assert.assertEquals(2, mContext.mUnbindCount.get());
+    }
+
+    @Test
+    public void testDeadServiceIsBoundAgain() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+
+        performOperation(client);
+        ((IBinder.DeathRecipient) mContext.mLastConnection).binderDied();
+        Assert.assertEquals(1, mContext.mUnbindCount.get());
+
+        performOperation(client);
+        Assert.assertEquals(2, mContext.mBindCount.get());
+    }
+
+    @Test
+    public void testDisconnectedServiceIsBoundAgain() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+
+        performOperation(client);
+        mContext.mLastConnection.onServiceDisconnected(new ComponentName(mPackageName, SERVICE_CLASS_NAME));
+
+        performOperation(client);
+        Assert.assertEquals(2, mContext.mBindCount.get());
+    }
+
+    @Test
+    public void testDeadObjectIsRetriedOnANewBinding() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+        performOperation(client);
+
+        client.mFailuresLeft.set(1);
+        Assert.assertNotNull(performOperation(client, BrokerOperationBundle.Operation.MSAL_GET_ACCOUNTS));
+
+        Assert.assertEquals(2, mContext.mBindCount.get());
+        Assert.assertEquals(1, mContext.mUnbindCount.get());
+        Assert.assertEquals(0, BoundServiceConnection.getReferenceCount(client.getIntent(mPackageName)));
+    }
+
+    @Test
+    public void testDeadObjectIsNotRetriedForOperationsThatChangeState() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+        performOperation(client);
+
+        client.mFailuresLeft.set(1);
+        try {
+            performOperation(client, BrokerOperationBundle.Operation.MSAL_REMOVE_ACCOUNT);
+            Assert.fail("Expected the dead object to be rethrown.");
+        } catch (final DeadObjectException e) {
+            // Expected
+        }
+        Assert.assertEquals(1, mContext.mBindCount.get());
+        Assert.assertEquals(1, mContext.mUnbindCount.get());
+        Assert.assertEquals(0, BoundServiceConnection.getReferenceCount(client.getIntent(mPackageName)));
+
+        // The dead binding was dropped, so the next operation binds again.
+        Assert.assertNotNull(performOperation(client));
+        Assert.assertEquals(2, mContext.mBindCount.get());
+        Assert.assertEquals(2, client.mOperationCount.get());
+    }
+
+    @Test
+    public void testBindingIsHeldOnTheApplicationContext() throws Exception {
+        // Stands in for an activity, which the shared binding must not hold on to.
+        final Context activityContext = new ContextWrapper(mContext) {
+            @Override
+            public boolean bindService(final Intent service, final ServiceConnection conn, final int flags) {
+                throw new AssertionError("Bound on the caller's context");
+            }
+        };
+        final TestClient client = new TestClient(activityContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+
+        Assert.assertNotNull(performOperation(client));
+        Assert.assertEquals(1, mContext.mBindCount.get());
+    }
+
+    @Test
+    public void testFailedBindReleasesTheConnection() throws Exception {
+        final TestClient client = new TestClient(mContext, LONG_IDLE_TIMEOUT_IN_MILLISECONDS);
+        mContext.mBindResult = false;
+
+        try {
+            performOperation(client);
+            Assert.fail("Expected the bind to fail.");
+        } catch (final BrokerCommunicationException e) {
+            Assert.assertEquals(BrokerCommunicationException.Category.OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE, e.getCategory());
+        }
+
+        Assert.assertEquals(0, BoundServiceConnection.getReferenceCount(client.getIntent(mPackageName)));
+        Assert.assertFalse(BoundServiceConnection.isBound(client.getIntent(mPackageName)));
+
+        mContext.mBindResult = true;
+        Assert.assertNotNull(performOperation(client));
+    }
+
+    private Bundle performOperation(@NonNull final TestClient client) throws Exception {
+        return performOperation(client, BrokerOperationBundle.Operation.MSAL_ACQUIRE_TOKEN_SILENT);
+    }
+
+    // Mirrors BoundServiceStrategy.
+    private Bundle performOperation(@NonNull final TestClient client,
+                                    @NonNull final BrokerOperationBundle.Operation operation) throws Exception {
+        try {
+            return client.performOperation(new BrokerOperationBundle(
+                    operation,
+                    mPackageName,
+                    new Bundle()
+            ));
+        } finally {
+            client.disconnect();
+        }
+    }
+
+    private void waitForUnbindCount(final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (mContext.mUnbindCount.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, mContext.mUnbindCount.get());
+    }
+
+    private interface ITestService extends IInterface {
+        Bundle perform() throws RemoteException;
+    }
+
+    private static class TestClient extends BoundServiceClient<ITestService> {
+        private final AtomicInteger mOperationCount = new AtomicInteger();
+        private final AtomicInteger mFailuresLeft = new AtomicInteger();
+
+        TestClient(@NonNull final Context context, final long idleTimeoutInMilliseconds) {
+            super(context, SERVICE_CLASS_NAME, SERVICE_INTENT_FILTER, 5, idleTimeoutInMilliseconds);
+        }
+
+        @Override
+        Bundle performOperationInternal(@NonNull final BrokerOperationBundle inputBundle,
+                                        @NonNull final ITestService aidlInterface) throws RemoteException {
+            if (mFailuresLeft.getAndDecrement() > 0) {
+                throw new DeadObjectException();
+            }
+            mOperationCount.incrementAndGet();
+            return aidlInterface.perform();
+        }
+
+        @Override
+        @NonNull ITestService getInterfaceFromIBinder(@NonNull final IBinder binder) {
+            return new ITestService() {
+                @Override
+                public Bundle perform() {
+                    return new Bundle();
+                }
+
+                @Override
+                public IBinder asBinder() {
+                    return binder;
+                }
+            };
+        }
+
+        @Override
+        public boolean isBoundServiceSupported(@NonNull final String targetServicePackageName) {
+            return true;
+        }
+
+        Intent getIntent(@NonNull final String targetServicePackageName) {
+            final Intent intent = new Intent(SERVICE_INTENT_FILTER);
+            intent.setClassName(targetServicePackageName, SERVICE_CLASS_NAME);
+            return intent;
+        }
+    }
+
+    /**
+     * Counts binds and unbinds, and connects asynchronously as Android does.
+     */
+    private class CountingContext extends ContextWrapper {
+        private final AtomicInteger mBindCount = new AtomicInteger();
+        private final AtomicInteger mUnbindCount = new AtomicInteger();
+        private volatile boolean mBindResult = true;
+        private volatile ServiceConnection mLastConnection;
+
+        CountingContext(@NonNull final Context base) {
+            super(base);
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public boolean bindService(final Intent service, final ServiceConnection conn, final int flags) {
+            mBindCount.incrementAndGet();
+            if (!mBindResult) {
+                return false;
+            }
+
+            mLastConnection = conn;
+            final ComponentName name = service.getComponent();
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    conn.onServiceConnected(name, new Binder());
+                }
+            });
+            return true;
+        }
+
+        @Override
+        public void unbindService(final ServiceConnection conn) {
+            mUnbindCount.incrementAndGet();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import static com.microsoft.identity.common.adal.internal.AuthenticationConstant
 import static com.microsoft.identity.common.adal.internal.AuthenticationConstants.Broker.NEGOTIATED_BP_VERSION_KEY;
 
 import android.content.Context;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
@@ -52,6 +53,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
 
 import java.util.concurrent.TimeUnit;
@@ -449,6 +451,100 @@ public class HelloCacheTests {
         }
     }
 
+    @Test
+    public void testReadServedFromMemoryTier() {
+        final HelloCache cacheWrite = getHelloCache(protocolA);
+        final HelloCache cacheRead = getHelloCache(protocolA);
+
+        final String minimumVer = "1.0";
+        final String maximumVer = "2.5";
+        final String negotiatedVer = "2.0";
+
+        cacheWrite.saveNegotiatedProtocolVersion(minimumVer, maximumVer, negotiatedVer);
+
+        // Drop the persisted entry behind the cache's back; the in-memory tier still has it.
+        getHelloCacheFileManager().clear();
+
+        final long memoryHits = HelloCache.getMemoryHitCount();
+        final HelloCacheResult result = cacheRead.getHelloCacheResult(minimumVer, maximumVer);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(negotiatedVer, result.getNegotiatedProtocolVersion());
+        Assert.assertEquals(memoryHits + 1, HelloCache.getMemoryHitCount());
+    }
+
+    @Test
+    public void testReadFromPersistedCachePopulatesMemoryTier() {
+        final String minimumVer = "1.0";
+        final String maximumVer = "2.5";
+        final String negotiatedVer = "2.0";
+
+        getHelloCache(protocolA).saveNegotiatedProtocolVersion(minimumVer, maximumVer, negotiatedVer);
+        HelloCache.onPackageChanged(brokerAppName);
+
+        final HelloCache cacheRead = getHelloCache(protocolA);
+        final long persistedHits = HelloCache.getPersistedHitCount();
+        final long memoryHits = HelloCache.getMemoryHitCount();
+
+        Assert.assertNotNull(cacheRead.getHelloCacheResult(minimumVer, maximumVer));
+        Assert.assertEquals(persistedHits + 1, HelloCache.getPersistedHitCount());
+
+        Assert.assertNotNull(cacheRead.getHelloCacheResult(minimumVer, maximumVer));
+        Assert.assertEquals(persistedHits + 1, HelloCache.getPersistedHitCount());
+        Assert.assertEquals(memoryHits + 1, HelloCache.getMemoryHitCount());
+        Assert.assertTrue(HelloCache.getMemoryHitRate() > 0);
+    }
+
+    @Test
+    public void testPackageChangeInvalidatesMemoryTier() {
+        final HelloCache cache = getHelloCache(protocolA);
+
+        final String minimumVer = "1.0";
+        final String maximumVer = "2.5";
+        final String negotiatedVer = "2.0";
+
+        cache.saveNegotiatedProtocolVersion(minimumVer, maximumVer, negotiatedVer);
+        getHelloCacheFileManager().clear();
+        HelloCache.onPackageChanged(brokerAppName);
+
+        final long misses = HelloCache.getMissCount();
+        Assert.assertNull(cache.getHelloCacheResult(minimumVer, maximumVer));
+        Assert.assertEquals(misses + 1, HelloCache.getMissCount());
+    }
+
+    @Test
+    public void testVersionCodeIsKeptUntilPackageChanges() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = brokerAppName;
+        packageInfo.versionCode = 1;
+        Shadows.shadowOf(context.getPackageManager()).installPackage(packageInfo);
+
+        final HelloCache cache = new HelloCache(context, protocolA, brokerAppName,
+                AndroidPlatformComponentsFactory.createFromContext(context), TimeUnit.HOURS.toMillis(4));
+        try {
+            Assert.assertEquals("1", cache.getVersionCode());
+
+            final PackageInfo updatedPackageInfo = new PackageInfo();
+            updatedPackageInfo.packageName = brokerAppName;
+            updatedPackageInfo.versionCode = 2;
+            Shadows.shadowOf(context.getPackageManager()).installPackage(updatedPackageInfo);
+
+            // No package change signal yet, so the remembered version code is used.
+            Assert.assertEquals("1", cache.getVersionCode());
+
+            HelloCache.onPackageChanged(brokerAppName);
+            Assert.assertEquals("2", cache.getVersionCode());
+        } catch (final PackageManager.NameNotFoundException e) {
+            Assert.fail();
+        }
+    }
+
+    private INameValueStorage<String> getHelloCacheFileManager() {
+        final IPlatformComponents components = AndroidPlatformComponentsFactory.createFromContext(ApplicationProvider.getApplicationContext());
+        return components.getStorageSupplier().getUnencryptedNameValueStore(
+                "com.microsoft.common.ipc.hello.cache", String.class);
+    }
+
     private void setupValueInSharedHelloCacheSharedCacheStore(
             @NonNull final String protocolName,
             @Nullable final String minimumVer,
@@ -0,0 +1,247 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.internal.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.microsoft.identity.common.java.crypto.IKeyAccessor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for the in-memory cache of {@link SharedPreferencesFileManager}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = {Build.VERSION_CODES.N})
+public class SharedPreferencesFileManagerTest {
+
+    private static final String FILE_NAME = "shared_preferences_file_manager_test";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte[] PREFIX = "enc:".getBytes(UTF8);
+
+    private final AtomicInteger mDecryptCount = new AtomicInteger();
+    private volatile CountDownLatch mDecryptGate = new CountDownLatch(0);
+
+    private SharedPreferences mSharedPreferences;
+    private IKeyAccessor mKeyAccessor;
+
+    @Before
+    public void setUp() throws Exception {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mSharedPreferences = context.getSharedPreferences(FILE_NAME, Context.MODE_PRIVATE);
+        mSharedPreferences.edit().clear().commit();
+
+        // "Encrypts" by adding a prefix, and counts decryptions.
+        mKeyAccessor = mock(IKeyAccessor.class);
+        when(mKeyAccessor.encrypt(any(byte[].class))).thenAnswer(new Answer<byte[]>() {
+            @Override
+            public byte[] answer(final InvocationOnMock invocation) {
+                final byte[] plainText = invocation.getArgument(0);
+                final byte[] cipherText = Arrays.copyOf(PREFIX, PREFIX.length + plainText.length);
+                System.arraycopy(plainText, 0, cipherText, PREFIX.length, plainText.length);
+                return cipherText;
+            }
+        });
+        when(mKeyAccessor.decrypt(any(byte[].class))).thenAnswer(new Answer<byte[]>() {
+            @Override
+            public byte[] answer(final InvocationOnMock invocation) throws InterruptedException {
+                mDecryptCount.incrementAndGet();
+                Assert.assertTrue(mDecryptGate.await(10, TimeUnit.SECONDS));
+                final byte[] cipherText = invocation.getArgument(0);
+                return Arrays.copyOfRange(cipherText, PREFIX.length, cipherText.length);
+            }
+        });
+    }
+
+    @Test
+    public void testReadPopulatesCache() {
+        mSharedPreferences.edit().putString("key", "enc:value").commit();
+        final SharedPreferencesFileManager fileManager = newFileManager(SharedPreferencesFileManager.DEFAULT_CACHE_MAX_WEIGHT);
+
+        Assert.assertEquals("value", fileManager.getString("key"));
+        Assert.assertEquals("value", fileManager.getString("key"));
+
+        Assert.assertEquals(1, mDecryptCount.get());
+        Assert.assertEquals(1, fileManager.getCacheMissCount());
+        Assert.assertEquals(1, fileManager.getCacheHitCount());
+    }
+
+    @Test
+    public void testWriteIsServedFromCache() {
+        final SharedPreferencesFileManager fileManager = newFileManager(SharedPreferencesFileManager.DEFAULT_CACHE_MAX_WEIGHT);
+
+        fileManager.putString("key", "value");
+
+        Assert.assertEquals("enc:value", mSharedPreferences.getString("key", null));
+        Assert.assertEquals("value", fileManager.getString("key"));
+        Assert.assertEquals(0, mDecryptCount.get());
+    }
+
+    @Test
+    public void testConcurrentMissesDecryptOnce() throws InterruptedException {
+        final int readerCount = 8;
+        mSharedPreferences.edit().putString("key", "enc:value").commit();
+        final SharedPreferencesFileManager fileManager = newFileManager(SharedPreferencesFileManager.DEFAULT_CACHE_MAX_WEIGHT);
+        mDecryptGate = new CountDownLatch(1);
+
+        final List<String> results = new ArrayList<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < readerCount; i++) {
+            final Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final String value = fileManager.getString("key");
+                    synchronized (results) {
+                        results.add(value);
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        // Let every reader miss the cache and join the decryption in flight.
+        while (fileManager.getCacheMissCount() < readerCount) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        mDecryptGate.countDown();
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        Assert.assertEquals(1, mDecryptCount.get());
+        Assert.assertEquals(readerCount, results.size());
+        for (final String result : results) {
+            Assert.assertEquals("value", result);
+        }
+    }
+
+    @Test
+    public void testWriteDuringDecryptionIsNotOverwrittenInCache() throws InterruptedException {
+        mSharedPreferences.edit().putString("key", "enc:old").commit();
+        final SharedPreferencesFileManager fileManager = newFileManager(SharedPreferencesFileManager.DEFAULT_CACHE_MAX_WEIGHT);
+        mDecryptGate = new CountDownLatch(1);
+
+        final AtomicReference<String> staleRead = new AtomicReference<>();
+        final Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                staleRead.set(fileManager.getString("key"));
+            }
+        });
+        reader.start();
+        while (mDecryptCount.get() == 0) {
+            Thread.sleep(10);
+        }
+
+        fileManager.putString("key", "new");
+        mDecryptGate.countDown();
+        reader.join();
+
+        Assert.assertEquals("old", staleRead.get());
+        Assert.assertEquals("new", fileManager.getString("key"));
+    }
+
+    @Test
+    public void testRemoveDuringDecryptionIsNotUndoneInCache() throws InterruptedException {
+        mSharedPreferences.edit().putString("key", "enc:old").commit();
+        final SharedPreferencesFileManager fileManager = newFileManager(SharedPreferencesFileManager.DEFAULT_CACHE_MAX_WEIGHT);
+        mDecryptGate = new CountDownLatch(1);
+
+        final Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                fileManager.getString("key");
+            }
+        });
+        reader.start();
+        while (mDecryptCount.get() == 0) {
+            Thread.sleep(10);
+        }
+
+        fileManager.remove("key");
+        mDecryptGate.countDown();
+        reader.join();
+
+        Assert.assertNull(fileManager.getString("key"));
+    }
+
+    @Test
+    public void testCacheIsBoundedByStoredValueLength() {
+        // 16 stripes of 10 characters; every stored value is "enc:value-N", i.e. over 10 characters.
+        final SharedPreferencesFileManager fileManager = newFileManager(16 * 10);
+
+        fileManager.putString("key", "value-1");
+        Assert.assertEquals("value-1", fileManager.getString("key"));
+
+        Assert.assertEquals(1, mDecryptCount.get());
+        Assert.assertEquals(0, fileManager.getCacheHitCount());
+    }
+
+    @Test
+    public void testEvictionIsCounted() {
+        final SharedPreferencesFileManager fileManager = newFileManager(16 * 1000);
+
+        for (int i = 0; i < 10000; i++) {
+            fileManager.putString("key-" + i, "value-" + i);
+        }
+
+        Assert.assertTrue(fileManager.getCacheEvictionCount() > 0);
+        Assert.assertEquals("value-0", fileManager.getString("key-0"));
+        Assert.assertEquals("value-9999", fileManager.getString("key-9999"));
+    }
+
+    private SharedPreferencesFileManager newFileManager(final long cacheMaxWeight) {
+        return new SharedPreferencesFileManager(
+                ApplicationProvider.<Context>getApplicationContext(),
+                FILE_NAME,
+                mKeyAccessor,
+                cacheMaxWeight
+        );
+    }
+}
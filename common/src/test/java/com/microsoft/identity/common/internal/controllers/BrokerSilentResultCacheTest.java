@@ -0,0 +1,257 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.internal.controllers;
+
+import android.os.Bundle;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.microsoft.identity.common.components.AndroidPlatformComponentsFactory;
+import com.microsoft.identity.common.java.authorities.Authority;
+import com.microsoft.identity.common.java.authscheme.BearerAuthenticationSchemeInternal;
+import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeInternal;
+import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.result.AcquireTokenResult;
+import com.microsoft.identity.common.java.result.ILocalAuthenticationResult;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link BrokerSilentResultCache}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BrokerSilentResultCacheTest {
+
+    private static final String BROKER_PACKAGE_NAME = "com.microsoft.mock.broker";
+    private static final String AUTHORITY_URL = "https://login.microsoftonline.com/common";
+    private static final String CLIENT_ID = "4b0db8c2-9f26-4417-8bde-3f0e3656f8e0";
+    private static final String REDIRECT_URI = "msauth://com.msft.identity.client.sample.local/1wIqXSqBj7w%2Bh11ZifsnqwgyKrY%3D";
+    private static final String HOME_ACCOUNT_ID = "uid.utid";
+    private static final String OTHER_HOME_ACCOUNT_ID = "other-uid.utid";
+    private static final long TIME_TO_LIVE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private long mNow;
+    private BrokerSilentResultCache mCache;
+
+    @Before
+    public void setup() {
+        mNow = TimeUnit.DAYS.toMillis(20000);
+        mCache = new BrokerSilentResultCache(10, TIME_TO_LIVE_MILLIS, new Supplier<Long>() {
+            @Override
+            public Long get() {
+                return mNow;
+            }
+        });
+    }
+
+    @Test
+    public void testGetReturnsCachedBundle() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        final Bundle cached = mCache.get(BROKER_PACKAGE_NAME, parameters);
+        Assert.assertNotNull(cached);
+        Assert.assertEquals("token", cached.getString("result"));
+        Assert.assertEquals(1, mCache.getHitCount());
+        Assert.assertEquals(0, mCache.getMissCount());
+    }
+
+    @Test
+    public void testGetReturnsFreshCopies() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        final Bundle first = mCache.get(BROKER_PACKAGE_NAME, parameters);
+        Assert.assertNotNull(first);
+        first.putString("result", "modified");
+
+        final Bundle second = mCache.get(BROKER_PACKAGE_NAME, parameters);
+        Assert.assertNotNull(second);
+        Assert.assertEquals("token", second.getString("result"));
+    }
+
+    @Test
+    public void testScopeOrderAndCaseDoNotMatter() {
+        mCache.put(BROKER_PACKAGE_NAME, getParameters(HOME_ACCOUNT_ID, "User.Read", "Mail.Read"),
+                getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        Assert.assertNotNull(mCache.get(BROKER_PACKAGE_NAME, getParameters(HOME_ACCOUNT_ID, "mail.read", "user.read")));
+    }
+
+    @Test
+    public void testDifferentRequestsDoNotMatch() {
+        mCache.put(BROKER_PACKAGE_NAME, getParameters(HOME_ACCOUNT_ID, "User.Read"),
+                getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, getParameters(HOME_ACCOUNT_ID, "Mail.Read")));
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, getParameters(OTHER_HOME_ACCOUNT_ID, "User.Read")));
+        Assert.assertNull(mCache.get("com.microsoft.other.broker", getParameters(HOME_ACCOUNT_ID, "User.Read")));
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, getParameters(HOME_ACCOUNT_ID, "User.Read").toBuilder()
+                .claimsRequestJson("{\"access_token\":{\"deviceid\":{\"essential\":true}}}")
+                .build()));
+        Assert.assertEquals(4, mCache.getMissCount());
+    }
+
+    @Test
+    public void testEntryExpiresAfterTimeToLive() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        mNow += TIME_TO_LIVE_MILLIS - 1;
+        Assert.assertNotNull(mCache.get(BROKER_PACKAGE_NAME, parameters));
+
+        mNow += 1;
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, parameters));
+        Assert.assertEquals(0, mCache.getSize());
+        Assert.assertEquals(1, mCache.getEvictionCount());
+    }
+
+    @Test
+    public void testEntryExpiresBeforeRefreshOn() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        final long refreshOnFromNowMillis = BrokerSilentResultCache.REFRESH_ON_MARGIN_MILLIS + TimeUnit.SECONDS.toMillis(10);
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(refreshOnFromNowMillis));
+
+        mNow += TimeUnit.SECONDS.toMillis(9);
+        Assert.assertNotNull(mCache.get(BROKER_PACKAGE_NAME, parameters));
+
+        mNow += TimeUnit.SECONDS.toMillis(1);
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, parameters));
+    }
+
+    @Test
+    public void testResultDueForRefreshIsNotCached() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(BrokerSilentResultCache.REFRESH_ON_MARGIN_MILLIS));
+
+        Assert.assertEquals(0, mCache.getSize());
+    }
+
+    @Test
+    public void testForceRefreshAndPopRequestsAreNotCached() {
+        final SilentTokenCommandParameters forceRefresh = getParameters(HOME_ACCOUNT_ID, "User.Read").toBuilder()
+                .forceRefresh(true)
+                .build();
+
+        final PopAuthenticationSchemeInternal popScheme = Mockito.mock(PopAuthenticationSchemeInternal.class);
+        Mockito.when(popScheme.getName()).thenReturn(PopAuthenticationSchemeInternal.SCHEME_POP);
+        final SilentTokenCommandParameters pop = getParameters(HOME_ACCOUNT_ID, "User.Read").toBuilder()
+                .authenticationScheme(popScheme)
+                .build();
+
+        mCache.put(BROKER_PACKAGE_NAME, forceRefresh, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+        mCache.put(BROKER_PACKAGE_NAME, pop, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        Assert.assertEquals(0, mCache.getSize());
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, forceRefresh));
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, pop));
+    }
+
+    @Test
+    public void testRemoveAccountOnlyRemovesThatAccount() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        final SilentTokenCommandParameters otherParameters = getParameters(OTHER_HOME_ACCOUNT_ID, "User.Read");
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+        mCache.put(BROKER_PACKAGE_NAME, otherParameters, getResultBundle("other-token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        mCache.removeAccount(HOME_ACCOUNT_ID);
+
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, parameters));
+        final Bundle other = mCache.get(BROKER_PACKAGE_NAME, otherParameters);
+        Assert.assertNotNull(other);
+        Assert.assertEquals("other-token", other.getString("result"));
+    }
+
+    @Test
+    public void testClear() {
+        final SilentTokenCommandParameters parameters = getParameters(HOME_ACCOUNT_ID, "User.Read");
+        mCache.put(BROKER_PACKAGE_NAME, parameters, getResultBundle("token"), getResult(TimeUnit.HOURS.toMillis(1)));
+
+        mCache.clear();
+
+        Assert.assertEquals(0, mCache.getSize());
+        Assert.assertNull(mCache.get(BROKER_PACKAGE_NAME, parameters));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        for (int i = 0; i < 20; i++) {
+            mCache.put(BROKER_PACKAGE_NAME, getParameters(HOME_ACCOUNT_ID, "scope" + i),
+                    getResultBundle("token" + i), getResult(TimeUnit.HOURS.toMillis(1)));
+        }
+
+        Assert.assertEquals(10, mCache.getSize());
+        Assert.assertEquals(10, mCache.getEvictionCount());
+    }
+
+    private SilentTokenCommandParameters getParameters(final String homeAccountId, final String... scopes) {
+        final AccountRecord account = new AccountRecord();
+        account.setHomeAccountId(homeAccountId);
+        account.setEnvironment("login.microsoftonline.com");
+        account.setLocalAccountId(homeAccountId.substring(0, homeAccountId.indexOf('.')));
+
+        final Set<String> scopeSet = new HashSet<>(Arrays.asList(scopes));
+        return SilentTokenCommandParameters.builder()
+                .platformComponents(AndroidPlatformComponentsFactory.createFromContext(ApplicationProvider.getApplicationContext()))
+                .authority(Authority.getAuthorityFromAuthorityUrl(AUTHORITY_URL))
+                .clientId(CLIENT_ID)
+                .redirectUri(REDIRECT_URI)
+                .authenticationScheme(new BearerAuthenticationSchemeInternal())
+                .scopes(Collections.unmodifiableSet(scopeSet))
+                .account(account)
+                .build();
+    }
+
+    private Bundle getResultBundle(final String value) {
+        final Bundle bundle = new Bundle();
+        bundle.putString("result", value);
+        return bundle;
+    }
+
+    private AcquireTokenResult getResult(final long refreshOnFromNowMillis) {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setRefreshOn(String.valueOf(TimeUnit.MILLISECONDS.toSeconds(mNow + refreshOnFromNowMillis)));
+        accessToken.setExpiresOn(String.valueOf(TimeUnit.MILLISECONDS.toSeconds(mNow + TimeUnit.HOURS.toMillis(2))));
+
+        final ILocalAuthenticationResult localResult = Mockito.mock(ILocalAuthenticationResult.class);
+        Mockito.when(localResult.getAccessTokenRecord()).thenReturn(accessToken);
+
+        final AcquireTokenResult result = new AcquireTokenResult();
+        result.setLocalAuthenticationResult(localResult);
+        return result;
+    }
+}
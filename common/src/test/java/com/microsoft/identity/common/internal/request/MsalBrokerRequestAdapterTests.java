@@ -221,4 +221,68 @@ public class MsalBrokerRequestAdapterTests {
         assertEquals(params.getPrompt().name(), brokerRequest.getPrompt());
         assertEquals(params.isSuppressBrokerAccountPicker(), brokerRequest.isSuppressAccountPicker());
     }
+
+    @Test
+    public void test_brokerRequestRoundTripsThroughCompressedBundle() throws Exception {
+        final InteractiveTokenCommandParameters params = getInteractiveTokenCommandParameters();
+        final MsalBrokerRequestAdapter msalBrokerRequestAdapter = new MsalBrokerRequestAdapter();
+
+        final Bundle requestBundle = msalBrokerRequestAdapter.getRequestBundleForAcquireTokenInteractive(params, "16.0");
+        Assert.assertNotNull(requestBundle.getByteArray(AuthenticationConstants.Broker.BROKER_REQUEST_V2_COMPRESSED));
+        Assert.assertNull(requestBundle.getByteArray(AuthenticationConstants.Broker.BROKER_REQUEST_V2_COMPRESSED_WITH_DICTIONARY));
+
+        final BrokerRequest brokerRequest = MsalBrokerRequestAdapter.brokerRequestFromBundle(requestBundle);
+        Assert.assertNotNull(brokerRequest);
+        assertEquals(params.getCorrelationId(), brokerRequest.getCorrelationId());
+        assertEquals(params.getClientId(), brokerRequest.getClientId());
+    }
+
+    @Test
+    public void test_brokerRequestRoundTripsThroughDictionaryCompressedBundle() throws Exception {
+        final InteractiveTokenCommandParameters params = getInteractiveTokenCommandParameters();
+        final MsalBrokerRequestAdapter msalBrokerRequestAdapter = new MsalBrokerRequestAdapter();
+
+        final Bundle requestBundle = msalBrokerRequestAdapter.getRequestBundleForAcquireTokenInteractive(params, "17.0");
+        Assert.assertNull(requestBundle.getByteArray(AuthenticationConstants.Broker.BROKER_REQUEST_V2_COMPRESSED));
+        Assert.assertNotNull(requestBundle.getByteArray(AuthenticationConstants.Broker.BROKER_REQUEST_V2_COMPRESSED_WITH_DICTIONARY));
+
+        final BrokerRequest brokerRequest = MsalBrokerRequestAdapter.brokerRequestFromBundle(requestBundle);
+        Assert.assertNotNull(brokerRequest);
+        assertEquals(params.getCorrelationId(), brokerRequest.getCorrelationId());
+        assertEquals(params.getClientId(), brokerRequest.getClientId());
+        assertEquals(params.getAuthenticationScheme().getName(), brokerRequest.getAuthenticationScheme().getName());
+    }
+
+    @Test
+    public void test_brokerRequestRoundTripsThroughUncompressedBundle() throws Exception {
+        final InteractiveTokenCommandParameters params = getInteractiveTokenCommandParameters();
+        final MsalBrokerRequestAdapter msalBrokerRequestAdapter = new MsalBrokerRequestAdapter();
+
+        final Bundle requestBundle = msalBrokerRequestAdapter.getRequestBundleForAcquireTokenInteractive(params, "1.0");
+        Assert.assertNotNull(requestBundle.getString(AuthenticationConstants.Broker.BROKER_REQUEST_V2));
+
+        final BrokerRequest brokerRequest = MsalBrokerRequestAdapter.brokerRequestFromBundle(requestBundle);
+        Assert.assertNotNull(brokerRequest);
+        assertEquals(params.getCorrelationId(), brokerRequest.getCorrelationId());
+    }
+
+    private InteractiveTokenCommandParameters getInteractiveTokenCommandParameters() {
+        final Set<String> scopes = new HashSet<>();
+        scopes.add("user.read");
+
+        return InteractiveTokenCommandParameters.builder()
+                .platformComponents(MockPlatformComponentsFactory.getNonFunctionalBuilder().build())
+                .correlationId("aCorrelationId")
+                .clientId("4b0db8c2-9f26-4417-8bde-3f0e3656f8e0")
+                .applicationName(ApplicationProvider.getApplicationContext().getPackageName())
+                .applicationVersion("5.4.0")
+                .redirectUri("msauth://com.microsoft.identity.client.sample.local/1wIqXSqBj7w%2Bh11ZifsnqwgyKrY%3D")
+                .sdkType(SdkType.MSAL)
+                .sdkVersion("5.4.0")
+                .authority(new AzureActiveDirectoryB2CAuthority("https://microsoft.login.com/"))
+                .scopes(scopes)
+                .authenticationScheme(new BearerAuthenticationSchemeInternal())
+                .prompt(OpenIdConnectPromptParameter.LOGIN)
+                .build();
+    }
 }
@@ -22,6 +22,8 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.common.internal.request
 
+import com.microsoft.identity.common.adal.internal.AuthenticationConstants
+import com.microsoft.identity.common.internal.broker.BrokerResult
 import com.microsoft.identity.common.internal.result.MsalBrokerResultAdapter
 import com.microsoft.identity.common.internal.result.MsalBrokerResultAdapter.REMOVE_RT_FROM_AAD_RESULT_MSAL_PROTOCOL_VERSION
 import com.microsoft.identity.common.java.cache.CacheRecord
@@ -197,4 +199,72 @@ class MsalBrokerResultAdapterTests {
             Assert.assertNull(tenantProfile.refreshToken)
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testAccountsRoundTripThroughBundle() {
+        val cacheRecords: MutableList<ICacheRecord> = ArrayList()
+        for (i in 0 until 5) {
+            cacheRecords.add(CacheRecord.builder()
+                    .account(MockRecords.getMockAccountRecord_AAD())
+                    .idToken(MockRecords.getMockIdTokenRecord_AAD())
+                    .build())
+        }
+
+        // Protocol version -> the bundle key the accounts are expected under.
+        val expectedKeys = mapOf(
+                "4.0" to AuthenticationConstants.Broker.BROKER_ACCOUNTS,
+                "16.0" to AuthenticationConstants.Broker.BROKER_ACCOUNTS_COMPRESSED,
+                "17.0" to AuthenticationConstants.Broker.BROKER_ACCOUNTS_COMPRESSED_WITH_DICTIONARY
+        )
+
+        for ((protocolVersion, expectedKey) in expectedKeys) {
+            val bundle = getInstance().bundleFromAccounts(cacheRecords, protocolVersion)
+            Assert.assertEquals(setOf(expectedKey), bundle.keySet())
+
+            val accounts = getInstance().getAccountsFromResultBundle(bundle)
+            Assert.assertEquals(cacheRecords, accounts)
+        }
+    }
+
+    @Test
+    fun testBrokerResultRoundTripsThroughBundle() {
+        val brokerResult = BrokerResult.Builder()
+                .accessToken("anAccessToken")
+                .idToken("anIdToken")
+                .homeAccountId("aHomeAccountId")
+                .clientId("aClientId")
+                .tenantProfileRecords(listOf(CacheRecord.builder()
+                        .account(MockRecords.getMockAccountRecord_AAD())
+                        .accessToken(MockRecords.getMockAccessTokenRecord_AAD())
+                        .build()))
+                .success(true)
+                .build()
+
+        for (protocolVersion in listOf("4.0", "16.0", "17.0")) {
+            val bundle = getInstance().bundleFromBrokerResult(brokerResult, protocolVersion)
+            val result = getInstance().brokerResultFromBundle(bundle)
+
+            Assert.assertEquals(brokerResult.accessToken, result.accessToken)
+            Assert.assertEquals(brokerResult.idToken, result.idToken)
+            Assert.assertEquals(brokerResult.homeAccountId, result.homeAccountId)
+            Assert.assertEquals(brokerResult.tenantProfileData, result.tenantProfileData)
+        }
+    }
+
+    @Test
+    fun testDictionaryShrinksSmallBrokerResults() {
+        val brokerResult = BrokerResult.Builder()
+                .homeAccountId("aHomeAccountId")
+                .clientId("aClientId")
+                .environment("login.microsoftonline.com")
+                .success(true)
+                .build()
+
+        val compressed = getInstance().bundleFromBrokerResult(brokerResult, "16.0")
+                .getByteArray(AuthenticationConstants.Broker.BROKER_RESULT_V2_COMPRESSED)!!
+        val compressedWithDictionary = getInstance().bundleFromBrokerResult(brokerResult, "17.0")
+                .getByteArray(AuthenticationConstants.Broker.BROKER_RESULT_V2_COMPRESSED_WITH_DICTIONARY)!!
+
+        Assert.assertTrue(compressedWithDictionary.size < compressed.size)
+    }
+}
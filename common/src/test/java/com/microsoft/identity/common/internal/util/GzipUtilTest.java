@@ -0,0 +1,124 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.internal.util;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+@RunWith(JUnit4.class)
+public class GzipUtilTest {
+
+    private static final Type MAP_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+
+    private final Gson mGson = new Gson();
+
+    private static Map<String, String> getPayload() {
+        final Map<String, String> payload = new HashMap<>();
+        payload.put("home_account_id", "aHomeAccountId");
+        payload.put("client_id", "aClientId");
+        payload.put("environment", "login.microsoftonline.com");
+        payload.put("display_name", "Caf\u00e9 \u65e5\u672c");
+        return payload;
+    }
+
+    @Test
+    public void testRoundTripWithoutDictionary() throws IOException {
+        final GzipUtil.CompressedJson compressed = GzipUtil.compressToJson(mGson, getPayload(), MAP_TYPE, null);
+        final Map<String, String> result = GzipUtil.decompressFromJson(mGson, compressed.getBytes(), MAP_TYPE, null);
+
+        Assert.assertEquals(getPayload(), result);
+    }
+
+    @Test
+    public void testRoundTripWithDictionary() throws IOException {
+        final byte[] dictionary = BrokerPayloadDictionary.getBytes();
+        final GzipUtil.CompressedJson compressed = GzipUtil.compressToJson(mGson, getPayload(), MAP_TYPE, dictionary);
+        final Map<String, String> result = GzipUtil.decompressFromJson(mGson, compressed.getBytes(), MAP_TYPE, dictionary);
+
+        Assert.assertEquals(getPayload(), result);
+    }
+
+    @Test
+    public void testDictionaryShrinksSmallPayloads() throws IOException {
+        final GzipUtil.CompressedJson plain = GzipUtil.compressToJson(mGson, getPayload(), MAP_TYPE, null);
+        final GzipUtil.CompressedJson withDictionary = GzipUtil.compressToJson(
+                mGson, getPayload(), MAP_TYPE, BrokerPayloadDictionary.getBytes());
+
+        Assert.assertTrue(withDictionary.getBytes().length < plain.getBytes().length);
+    }
+
+    @Test
+    public void testUncompressedSizeIsUtf8JsonLength() throws IOException {
+        final String json = mGson.toJson(getPayload(), MAP_TYPE);
+        final GzipUtil.CompressedJson compressed = GzipUtil.compressToJson(mGson, getPayload(), MAP_TYPE, null);
+
+        Assert.assertEquals(json.getBytes(Charset.forName("UTF-8")).length, compressed.getUncompressedSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMismatchedDictionaryFails() throws IOException {
+        final GzipUtil.CompressedJson compressed = GzipUtil.compressToJson(
+                mGson, getPayload(), MAP_TYPE, BrokerPayloadDictionary.getBytes());
+
+        GzipUtil.decompressFromJson(mGson, compressed.getBytes(), MAP_TYPE, "not the dictionary".getBytes(Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void testCompatibleWithStringCompression() throws IOException {
+        final String json = mGson.toJson(getPayload(), MAP_TYPE);
+
+        final Map<String, String> fromString = GzipUtil.decompressFromJson(
+                mGson, GzipUtil.compressString(json), MAP_TYPE, null);
+        Assert.assertEquals(getPayload(), fromString);
+
+        final GzipUtil.CompressedJson compressed = GzipUtil.compressToJson(mGson, getPayload(), MAP_TYPE, null);
+        Assert.assertEquals(json, GzipUtil.decompressBytesToString(compressed.getBytes()));
+    }
+
+    @Test
+    public void testLargePayloadRoundTrips() throws IOException {
+        final Map<String, String> payload = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            payload.put("key" + i, "value" + i);
+        }
+
+        // Larger than the retained buffer, so the thread-local buffer is dropped and regrown.
+        for (int i = 0; i < 2; i++) {
+            final GzipUtil.CompressedJson compressed = GzipUtil.compressToJson(mGson, payload, MAP_TYPE, null);
+            final Map<String, String> result = GzipUtil.decompressFromJson(mGson, compressed.getBytes(), MAP_TYPE, null);
+            Assert.assertEquals(payload, result);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.authorities;
+
+import com.microsoft.identity.common.java.providers.microsoft.azureactivedirectory.AzureActiveDirectory;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link Authority#getKnownAuthorityResult(Authority)} on several threads while another
+ * thread keeps re-running a simulated cloud discovery.
+ * <p>
+ * The "snapshot" group uses the current {@link AzureActiveDirectory}, where the discovery only
+ * takes a lock to publish its result. The "legacy" group reproduces the previous behavior, where
+ * every lookup and the whole discovery, network call included, held the same class lock.
+ * The network call is simulated by a sleep so that the benchmark runs offline.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KnownAuthorityContentionBenchmark {
+
+    private static final String AUTHORITY_HOST = "login.microsoftonline.com";
+    private static final long DISCOVERY_LATENCY_MILLIS = 5;
+    private static final Object LEGACY_CLASS_LOCK = new Object();
+
+    private Authority mAuthority;
+    private Map<String, String> mDiscoveryResponse;
+
+    @Setup
+    public void setUp() throws JSONException {
+        mAuthority = Authority.getAuthorityFromAuthorityUrl("https://" + AUTHORITY_HOST + "/common");
+        mDiscoveryResponse = new HashMap<>();
+        mDiscoveryResponse.put("tenant_discovery_endpoint",
+                "https://" + AUTHORITY_HOST + "/common/v2.0/.well-known/openid-configuration");
+        mDiscoveryResponse.put("metadata", "[{"
+                + "\"preferred_network\":\"" + AUTHORITY_HOST + "\","
+                + "\"preferred_cache\":\"login.windows.net\","
+                + "\"aliases\":[\"" + AUTHORITY_HOST + "\",\"login.windows.net\",\"login.microsoft.com\"]"
+                + "}]");
+
+        // Seed the metadata so that lookups take the initialized path, as they would after the
+        // first discovery of the process.
+        AzureActiveDirectory.initializeCloudMetadata(AUTHORITY_HOST, mDiscoveryResponse);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(7)
+    public Authority.KnownAuthorityResult snapshotLookup() {
+        return Authority.getKnownAuthorityResult(mAuthority);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void snapshotDiscovery() throws InterruptedException, JSONException {
+        Thread.sleep(DISCOVERY_LATENCY_MILLIS);
+        AzureActiveDirectory.initializeCloudMetadata(AUTHORITY_HOST, mDiscoveryResponse);
+    }
+
+    @Benchmark
+    @Group("legacy")
+    @GroupThreads(7)
+    public Authority.KnownAuthorityResult legacyLookup() {
+        synchronized (LEGACY_CLASS_LOCK) {
+            return Authority.getKnownAuthorityResult(mAuthority);
+        }
+    }
+
+    @Benchmark
+    @Group("legacy")
+    @GroupThreads(1)
+    public void legacyDiscovery() throws InterruptedException, JSONException {
+        synchronized (LEGACY_CLASS_LOCK) {
+            Thread.sleep(DISCOVERY_LATENCY_MILLIS);
+            AzureActiveDirectory.initializeCloudMetadata(AUTHORITY_HOST, mDiscoveryResponse);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountCredentialBase;
+import com.microsoft.identity.common.java.dto.Credential;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serializing and parsing an access token cache value with Gson JSON against the
+ * compact format of {@link CompactCacheValueCodec}. The encoded sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheValueSerializationBenchmark {
+
+    @Param({"json", "compact"})
+    public String format;
+
+    private CacheKeyValueDelegate mDelegate;
+    private AccessTokenRecord mAccessToken;
+    private String mCacheValue;
+
+    @Setup
+    public void setUp() {
+        mDelegate = new CacheKeyValueDelegate("compact".equals(format));
+
+        for (final Credential credential : CredentialCacheLookupBenchmark.createCredentialsForAccount(
+                CredentialCacheLookupBenchmark.homeAccountIdFor(0))) {
+            if (credential instanceof AccessTokenRecord) {
+                mAccessToken = (AccessTokenRecord) credential;
+                break;
+            }
+        }
+
+        mCacheValue = mDelegate.generateCacheValue(mAccessToken);
+        System.out.println(format + " access token cache value size: " + mCacheValue.length() + " chars");
+    }
+
+    @Benchmark
+    public String serialize() {
+        return mDelegate.generateCacheValue(mAccessToken);
+    }
+
+    @Benchmark
+    public AccountCredentialBase parse() {
+        return mDelegate.fromCacheValue(mCacheValue, AccessTokenRecord.class);
+    }
+}
@@ -0,0 +1,183 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.crypto.StorageEncryptionManager;
+import com.microsoft.identity.common.java.crypto.key.AbstractSecretKeyLoader;
+import com.microsoft.identity.common.java.crypto.key.PredefinedKeyLoader;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.storage.EncryptedNameValueStorage;
+import com.microsoft.identity.common.java.storage.IGenericTypeStringAdapter;
+import com.microsoft.identity.common.java.storage.ParallelEntryMapper;
+import com.microsoft.identity.common.java.util.ported.Function;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+import com.microsoft.identity.common.java.util.ported.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Measures a cold load of a synthetic 5k-entry encrypted credential store, decrypting and
+ * deserializing one entry at a time on the calling thread versus in bulk on
+ * {@link ParallelEntryMapper#getDefaultExecutor()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColdCacheLoadBenchmark {
+
+    private static final int ENTRY_COUNT = 5000;
+
+    private static final Predicate<String> ALL_KEYS = new Predicate<String>() {
+        @Override
+        public boolean test(String value) {
+            return true;
+        }
+    };
+
+    private final CacheKeyValueDelegate mCacheValueDelegate = new CacheKeyValueDelegate();
+    private INameValueStorage<String> mEncryptedStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final byte[] rawKey = new byte[32];
+        new SecureRandom().nextBytes(rawKey);
+        mEncryptedStorage = new EncryptedNameValueStorage<>(
+                new InMemoryStorage<String>(),
+                new SingleKeyStorageEncryptionManager(new PredefinedKeyLoader("benchmark", rawKey)),
+                new IGenericTypeStringAdapter<String>() {
+                    @Override
+                    public String adapt(String value) {
+                        return value;
+                    }
+                }
+        );
+
+        final int accountCount = ENTRY_COUNT / CredentialCacheLookupBenchmark.CREDENTIALS_PER_ACCOUNT;
+        for (int i = 0; i < accountCount; i++) {
+            final String homeAccountId = CredentialCacheLookupBenchmark.homeAccountIdFor(i);
+            for (final Credential credential : CredentialCacheLookupBenchmark.createCredentialsForAccount(homeAccountId)) {
+                mEncryptedStorage.put(
+                        mCacheValueDelegate.generateCacheKey(credential),
+                        mCacheValueDelegate.generateCacheValue(credential)
+                );
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Credential> sequentialLoad() {
+        final Map<String, Credential> credentials = new HashMap<>();
+        final Iterator<Map.Entry<String, String>> iterator = mEncryptedStorage.getAllFilteredByKey(ALL_KEYS);
+        while (iterator.hasNext()) {
+            final Map.Entry<String, String> entry = iterator.next();
+            credentials.put(entry.getKey(), deserialize(entry));
+        }
+        return credentials;
+    }
+
+    @Benchmark
+    public Map<String, Credential> bulkLoad() {
+        return mEncryptedStorage.getAllFilteredByKey(
+                ALL_KEYS,
+                new Function<Map.Entry<String, String>, Credential>() {
+                    @Override
+                    public Credential apply(Map.Entry<String, String> entry) {
+                        return deserialize(entry);
+                    }
+                },
+                ParallelEntryMapper.getDefaultExecutor()
+        );
+    }
+
+    @Benchmark
+    public List<Credential> memoryCacheFirstRead() {
+        return new SharedPreferencesAccountCredentialCacheWithMemoryCache(
+                mCacheValueDelegate,
+                mEncryptedStorage,
+                false
+        ).getCredentials();
+    }
+
+    private Credential deserialize(@NonNull final Map.Entry<String, String> entry) {
+        final CredentialType type = SharedPreferencesAccountCredentialCacheWithMemoryCache
+                .getCredentialTypeForCredentialCacheKey(entry.getKey());
+        return mCacheValueDelegate.fromCacheValue(entry.getValue(), credentialClassFor(type));
+    }
+
+    private static Class<? extends Credential> credentialClassFor(@NonNull final CredentialType type) {
+        switch (type) {
+            case RefreshToken:
+                return RefreshTokenRecord.class;
+            case IdToken:
+                return IdTokenRecord.class;
+            default:
+                return AccessTokenRecord.class;
+        }
+    }
+
+    private static final class SingleKeyStorageEncryptionManager extends StorageEncryptionManager {
+        private final AbstractSecretKeyLoader mKeyLoader;
+
+        SingleKeyStorageEncryptionManager(@NonNull final AbstractSecretKeyLoader keyLoader) {
+            mKeyLoader = keyLoader;
+        }
+
+        @Override
+        public @NonNull AbstractSecretKeyLoader getKeyLoaderForEncryption() {
+            return mKeyLoader;
+        }
+
+        @Override
+        public @NonNull List<AbstractSecretKeyLoader> getKeyLoaderForDecryption(@NonNull final byte[] cipherText) {
+            return Collections.singletonList(mKeyLoader);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares indexed credential lookups in {@link SharedPreferencesAccountCredentialCacheWithMemoryCache}
+ * against the linear scan over {@link IAccountCredentialCache#getCredentials()} that callers used
+ * to preload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CredentialCacheLookupBenchmark {
+
+    static final String CLIENT_ID = "4b0db8c2-9f26-4417-8bde-3f0e3656f8e0";
+    static final String ENVIRONMENT = "login.microsoftonline.com";
+    static final String REALM = "f645ad92-e38d-4d1a-b510-d1b09a74a8ca";
+    static final String SCOPES_SUFFIX = " offline_access openid profile";
+
+    // Each account holds one RT, one IdToken and 8 ATs (one per resource).
+    static final int RESOURCES_PER_ACCOUNT = 8;
+    static final int CREDENTIALS_PER_ACCOUNT = RESOURCES_PER_ACCOUNT + 2;
+
+    @Param({"100", "1000", "10000"})
+    public int credentialCount;
+
+    private SharedPreferencesAccountCredentialCacheWithMemoryCache mCache;
+    private String mHomeAccountId;
+    private String mTarget;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mCache = new SharedPreferencesAccountCredentialCacheWithMemoryCache(
+                new CacheKeyValueDelegate(),
+                new InMemoryStorage<String>()
+        );
+
+        final int accountCount = Math.max(1, credentialCount / CREDENTIALS_PER_ACCOUNT);
+        for (int i = 0; i < accountCount; i++) {
+            for (final Credential credential : createCredentialsForAccount(homeAccountIdFor(i))) {
+                mCache.saveCredential(credential);
+            }
+        }
+
+        mHomeAccountId = homeAccountIdFor(accountCount / 2);
+        mTarget = targetFor(RESOURCES_PER_ACCOUNT / 2);
+    }
+
+    @Benchmark
+    public List<Credential> indexedAccessTokenLookup() {
+        return mCache.getCredentialsFilteredBy(
+                mHomeAccountId,
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                null,
+                null,
+                REALM,
+                mTarget,
+                null
+        );
+    }
+
+    @Benchmark
+    public List<Credential> linearAccessTokenLookup() {
+        return mCache.getCredentialsFilteredBy(
+                mHomeAccountId,
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                null,
+                null,
+                REALM,
+                mTarget,
+                null,
+                mCache.getCredentials()
+        );
+    }
+
+    static String homeAccountIdFor(final int accountIndex) {
+        return "uid" + accountIndex + "." + REALM;
+    }
+
+    static String targetFor(final int resourceIndex) {
+        return "https://resource" + resourceIndex + ".microsoft.com/.default" + SCOPES_SUFFIX;
+    }
+
+    static Credential[] createCredentialsForAccount(final String homeAccountId) {
+        final Credential[] credentials = new Credential[CREDENTIALS_PER_ACCOUNT];
+        final String now = String.valueOf(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        final String expiresOn = String.valueOf(Long.parseLong(now) + TimeUnit.HOURS.toSeconds(1));
+
+        for (int i = 0; i < RESOURCES_PER_ACCOUNT; i++) {
+            final AccessTokenRecord accessToken = new AccessTokenRecord();
+            populate(accessToken, homeAccountId, CredentialType.AccessToken, now);
+            accessToken.setRealm(REALM);
+            accessToken.setTarget(targetFor(i));
+            accessToken.setAccessTokenType("Bearer");
+            accessToken.setExpiresOn(expiresOn);
+            accessToken.setExtendedExpiresOn(expiresOn);
+            credentials[i] = accessToken;
+        }
+
+        final RefreshTokenRecord refreshToken = new RefreshTokenRecord();
+        populate(refreshToken, homeAccountId, CredentialType.RefreshToken, now);
+        refreshToken.setTarget(targetFor(0));
+        credentials[RESOURCES_PER_ACCOUNT] = refreshToken;
+
+        final IdTokenRecord idToken = new IdTokenRecord();
+        populate(idToken, homeAccountId, CredentialType.IdToken, now);
+        idToken.setRealm(REALM);
+        credentials[RESOURCES_PER_ACCOUNT + 1] = idToken;
+
+        return credentials;
+    }
+
+    private static void populate(final Credential credential,
+                                 final String homeAccountId,
+                                 final CredentialType credentialType,
+                                 final String cachedAt) {
+        credential.setHomeAccountId(homeAccountId);
+        credential.setEnvironment(ENVIRONMENT);
+        credential.setCredentialType(credentialType.name());
+        credential.setClientId(CLIENT_ID);
+        credential.setSecret("secret-" + homeAccountId + "-" + credentialType.name());
+        credential.setCachedAt(cachedAt);
+    }
+}
@@ -0,0 +1,116 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import static com.microsoft.identity.common.java.AuthenticationConstants.DEFAULT_SCOPES;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.util.ScopeUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching a requested target against a cached credential's target by re-splitting both
+ * strings (the previous behavior of {@link AbstractAccountCredentialCache}), against the
+ * pre-tokenized scopes cached on {@link AccessTokenRecord}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScopeMatchingBenchmark {
+
+    @Param({
+            "https://graph.microsoft.com/User.Read offline_access openid profile",
+            "https://graph.microsoft.com/User.Read https://graph.microsoft.com/Mail.ReadWrite "
+                    + "https://graph.microsoft.com/Calendars.ReadWrite https://graph.microsoft.com/Files.ReadWrite.All "
+                    + "https://graph.microsoft.com/Sites.Read.All offline_access openid profile"
+    })
+    public String credentialTarget;
+
+    private String mRequestedTarget;
+    private AccessTokenRecord mAccessToken;
+
+    @Setup
+    public void setUp() {
+        mRequestedTarget = "https://graph.microsoft.com/user.read openid profile";
+        mAccessToken = new AccessTokenRecord();
+        mAccessToken.setTarget(credentialTarget);
+    }
+
+    @Benchmark
+    public boolean splitPerLookup() {
+        return legacyTargetsIntersect(mRequestedTarget, mAccessToken.getTarget());
+    }
+
+    @Benchmark
+    public boolean preTokenized() {
+        return ScopeUtil.containsAllScopes(
+                mAccessToken.getNormalizedScopes(),
+                ScopeUtil.getNormalizedScopesWithoutDefaults(mRequestedTarget)
+        );
+    }
+
+    /**
+     * The implementation of {@link AbstractAccountCredentialCache#targetsIntersect} prior to
+     * scopes being pre-tokenized, with default scopes omitted.
+     */
+    private static boolean legacyTargetsIntersect(final String targetToMatch, final String credentialTarget) {
+        final String splitCriteria = "\\s+";
+        final String[] targetToMatchArray = targetToMatch.trim().split(splitCriteria);
+        final String[] credentialTargetArray = credentialTarget.trim().split(splitCriteria);
+
+        final Set<String> soughtTargetSet = new HashSet<>();
+        final Set<String> credentialTargetSet = new HashSet<>();
+
+        for (final String target : targetToMatchArray) {
+            soughtTargetSet.add(target.toLowerCase(Locale.ROOT));
+        }
+
+        for (final String target : credentialTargetArray) {
+            credentialTargetSet.add(target.toLowerCase(Locale.ROOT));
+        }
+
+        soughtTargetSet.removeAll(DEFAULT_SCOPES);
+        credentialTargetSet.removeAll(DEFAULT_SCOPES);
+
+        return credentialTargetSet.containsAll(soughtTargetSet);
+    }
+}
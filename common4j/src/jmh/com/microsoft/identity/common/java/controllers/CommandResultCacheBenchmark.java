@@ -0,0 +1,173 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.components.MockPlatformComponentsFactory;
+import com.microsoft.identity.common.java.WarningType;
+import com.microsoft.identity.common.java.commands.BaseCommand;
+import com.microsoft.identity.common.java.commands.EmptyCommandCallback;
+import com.microsoft.identity.common.java.commands.SilentTokenCommand;
+import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
+import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires lookups for concurrent {@link SilentTokenCommand}s at {@link CommandResultCache}, against
+ * the previous implementation: a synchronized, access-ordered {@link LinkedHashMap} keyed by
+ * the command itself. Misses store a result, as the dispatcher does after executing a command.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CommandResultCacheBenchmark {
+
+    private static final int MAX_ITEM_COUNT = 250;
+
+    /**
+     * Number of distinct requests; above {@link #MAX_ITEM_COUNT} some lookups miss and evict.
+     */
+    @Param({"50", "500"})
+    public int distinctRequests;
+
+    private SilentTokenCommand[] mCommands;
+    private CommandResult mResult;
+    private CommandResultCache mCache;
+    private LegacyCommandResultCache mLegacyCache;
+
+    @Setup
+    public void setUp() {
+        final IPlatformComponents platformComponents = MockPlatformComponentsFactory.getNonFunctionalBuilder().build();
+        final IControllerFactory controllerFactory = new IControllerFactory() {
+            @Override
+            public BaseController getDefaultController() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<BaseController> getAllControllers() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        mCommands = new SilentTokenCommand[distinctRequests];
+        for (int i = 0; i < distinctRequests; i++) {
+            final SilentTokenCommandParameters parameters = SilentTokenCommandParameters.builder()
+                    .platformComponents(platformComponents)
+                    .clientId("client-id")
+                    .scopes(Collections.singleton("https://graph.microsoft.com/scope" + i))
+                    .build();
+            mCommands[i] = new SilentTokenCommand(parameters, controllerFactory, new EmptyCommandCallback<>(), "public-api-id");
+        }
+
+        mResult = CommandResult.of(CommandResult.ResultStatus.COMPLETED, "token", null);
+        mCache = new CommandResultCache(MAX_ITEM_COUNT);
+        mLegacyCache = new LegacyCommandResultCache(MAX_ITEM_COUNT);
+    }
+
+    @Benchmark
+    public CommandResult concurrentCache() {
+        final SilentTokenCommand command = nextCommand();
+        final CommandResult cached = mCache.get(command);
+        if (cached != null) {
+            return cached;
+        }
+        mCache.put(command, mResult);
+        return mResult;
+    }
+
+    @Benchmark
+    public CommandResult legacySynchronizedCache() {
+        final SilentTokenCommand command = nextCommand();
+        final CommandResult cached = mLegacyCache.get(command);
+        if (cached != null) {
+            return cached;
+        }
+        mLegacyCache.put(command, mResult);
+        return mResult;
+    }
+
+    private SilentTokenCommand nextCommand() {
+        return mCommands[ThreadLocalRandom.current().nextInt(mCommands.length)];
+    }
+
+    /**
+     * The previous CommandResultCache implementation, kept here as a baseline.
+     */
+    @SuppressWarnings(WarningType.rawtype_warning)
+    private static final class LegacyCommandResultCache {
+        private final Object mLock = new Object();
+        private final Map<BaseCommand, CommandResultCacheItem> mCache;
+
+        LegacyCommandResultCache(final int maxItemCount) {
+            mCache = new LinkedHashMap<BaseCommand, CommandResultCacheItem>(maxItemCount + 1, .75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<BaseCommand, CommandResultCacheItem> eldest) {
+                    return size() > maxItemCount;
+                }
+            };
+        }
+
+        CommandResult get(final BaseCommand key) {
+            synchronized (mLock) {
+                final CommandResultCacheItem item = mCache.get(key);
+                if (item == null) {
+                    return null;
+                }
+                if (item.isExpired()) {
+                    mCache.remove(key);
+                    return null;
+                }
+                return item.getValue();
+            }
+        }
+
+        void put(final BaseCommand key, final CommandResult value) {
+            synchronized (mLock) {
+                mCache.put(key, new CommandResultCacheItem(value));
+            }
+        }
+    }
+}
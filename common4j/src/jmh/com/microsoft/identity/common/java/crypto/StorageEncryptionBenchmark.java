@@ -0,0 +1,108 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.crypto;
+
+import com.microsoft.identity.common.java.crypto.key.AbstractSecretKeyLoader;
+import com.microsoft.identity.common.java.crypto.key.PredefinedKeyLoader;
+import com.microsoft.identity.common.java.exception.ClientException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Measures {@link StorageEncryptionManager} encrypt/decrypt throughput for token-sized blobs
+ * (2 KB and 8 KB) from several threads, as when an encrypted cache is loaded cold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class StorageEncryptionBenchmark {
+
+    @Param({"2048", "8192"})
+    public int blobSize;
+
+    private StorageEncryptionManager mManager;
+    private byte[] mPlainText;
+    private byte[] mCipherText;
+
+    @Setup
+    public void setUp() throws ClientException {
+        final SecureRandom random = new SecureRandom();
+        final byte[] rawKey = new byte[32];
+        random.nextBytes(rawKey);
+        mManager = new SingleKeyStorageEncryptionManager(new PredefinedKeyLoader("benchmark", rawKey));
+
+        mPlainText = new byte[blobSize];
+        random.nextBytes(mPlainText);
+        mCipherText = mManager.encrypt(mPlainText);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws ClientException {
+        return mManager.encrypt(mPlainText);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws ClientException {
+        return mManager.decrypt(mCipherText);
+    }
+
+    private static final class SingleKeyStorageEncryptionManager extends StorageEncryptionManager {
+        private final AbstractSecretKeyLoader mKeyLoader;
+
+        SingleKeyStorageEncryptionManager(@NonNull final AbstractSecretKeyLoader keyLoader) {
+            mKeyLoader = keyLoader;
+        }
+
+        @Override
+        public @NonNull AbstractSecretKeyLoader getKeyLoaderForEncryption() {
+            return mKeyLoader;
+        }
+
+        @Override
+        public @NonNull List<AbstractSecretKeyLoader> getKeyLoaderForDecryption(@NonNull final byte[] cipherText) {
+            return Collections.singletonList(mKeyLoader);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.logging;
+
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the caller-side cost of a {@link Logger} call, both when the level filters the line out
+ * ("suppressed", the logger level is ERROR) and when it is emitted to a no-op callback ("emitted").
+ * Emitted lines beyond the log buffer capacity are dropped; the dropped count is printed on tear down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggerBenchmark {
+
+    private static final String TAG = LoggerBenchmark.class.getSimpleName();
+
+    @Param({"suppressed", "emitted"})
+    public String mode;
+
+    private String mHomeAccountId;
+    private int mCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Logger.resetLogger();
+        Logger.setLogLevel("emitted".equals(mode) ? Logger.LogLevel.VERBOSE : Logger.LogLevel.ERROR);
+        Logger.setLogger("benchmark", new ILoggerCallback() {
+            @Override
+            public void log(String tag, Logger.LogLevel logLevel, String message, boolean containsPII) {
+                // Discard.
+            }
+        });
+        mHomeAccountId = "uid.utid-benchmark";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(mode + ": dropped log lines = " + Logger.getDroppedLogCount());
+        Logger.resetLogger();
+    }
+
+    @Benchmark
+    public void eagerMessage() {
+        Logger.verbose(TAG, "Looking up credentials for " + mHomeAccountId + ", attempt " + (mCounter++));
+    }
+
+    @Benchmark
+    public void guardedMessage() {
+        if (Logger.isLoggable(Logger.LogLevel.VERBOSE)) {
+            Logger.verbose(TAG, "Looking up credentials for " + mHomeAccountId + ", attempt " + (mCounter++));
+        }
+    }
+
+    @Benchmark
+    public void supplierMessage() {
+        Logger.verboseLazy(TAG, new Supplier<String>() {
+            @Override
+            public String get() {
+                return "Looking up credentials for " + mHomeAccountId + ", attempt " + (mCounter++);
+            }
+        });
+    }
+}
@@ -0,0 +1,201 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.platform;
+
+import com.microsoft.identity.common.java.crypto.SecureHardwareState;
+import com.microsoft.identity.common.java.crypto.SigningAlgorithm;
+import com.microsoft.identity.common.java.exception.ClientException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures SHR minting and signing throughput of {@link AbstractDevicePopManager} over a software
+ * (JKS) KeyStore, whose password-protected entries are decrypted on every retrieval, much like a
+ * hardware-backed store is slow to hand out key handles.
+ * <p>
+ * The "coldKeyHandle" variant drops the cached key entry before every operation, which is a lower
+ * bound of the previous cost (it used to be retrieved several times per SHR). "legacySign"
+ * reproduces the previous signing path: a KeyStore lookup and a new {@link Signature} per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class DevicePopManagerBenchmark {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String KEY_ALIAS = "benchmark-device-pop";
+    private static final KeyStore.PasswordProtection PASSWORD =
+            new KeyStore.PasswordProtection("benchmark".toCharArray());
+
+    private SoftwareDevicePopManager mPopManager;
+    private SoftwareKeyManager mKeyManager;
+    private URL mRequestUrl;
+    private byte[] mPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance("JKS");
+        keyStore.load(null);
+        mKeyManager = new SoftwareKeyManager(keyStore);
+        mPopManager = new SoftwareDevicePopManager(mKeyManager);
+        mPopManager.generateAsymmetricKey();
+        mRequestUrl = new URL("https://graph.microsoft.com/v1.0/me?$select=displayName");
+        mPayload = "header.payload".getBytes(UTF8);
+    }
+
+    @Benchmark
+    public String mintSignedHttpRequest() throws ClientException {
+        return mPopManager.mintSignedHttpRequest("GET", System.currentTimeMillis() / 1000, mRequestUrl, "nonce", null);
+    }
+
+    @Benchmark
+    public String mintSignedHttpRequestColdKeyHandle() throws ClientException {
+        mPopManager.invalidateKeyEntryCache();
+        return mPopManager.mintSignedHttpRequest("GET", System.currentTimeMillis() / 1000, mRequestUrl, "nonce", null);
+    }
+
+    @Benchmark
+    public byte[] sign() throws ClientException {
+        return mPopManager.sign(SigningAlgorithm.SHA_256_WITH_RSA, mPayload);
+    }
+
+    @Benchmark
+    public byte[] legacySign() throws Exception {
+        final KeyStore.PrivateKeyEntry entry = mKeyManager.getEntry();
+        final Signature signature = Signature.getInstance(SigningAlgorithm.SHA_256_WITH_RSA.toString());
+        signature.initSign(entry.getPrivateKey());
+        signature.update(mPayload);
+        return signature.sign();
+    }
+
+    private static final class SoftwareKeyManager extends AbstractKeyStoreKeyManager<KeyStore.PrivateKeyEntry> {
+
+        SoftwareKeyManager(final KeyStore keyStore) throws KeyStoreException {
+            super(keyStore, KEY_ALIAS, PASSWORD);
+        }
+
+        @Override
+        public void storeAsymmetricKey(final PrivateKey privateKey, final Certificate[] certChain) throws KeyStoreException {
+            mKeyStore.setKeyEntry(getKeyAlias(), privateKey, PASSWORD.getPassword(), certChain);
+        }
+
+        @Override
+        public SecureHardwareState getSecureHardwareState() {
+            return SecureHardwareState.FALSE;
+        }
+    }
+
+    private static final class SoftwareDevicePopManager extends AbstractDevicePopManager {
+
+        SoftwareDevicePopManager(final SoftwareKeyManager keyManager)
+                throws KeyStoreException, CertificateException, NoSuchAlgorithmException, IOException {
+            super(keyManager);
+        }
+
+        @Override
+        public KeyPair generateNewRsaKeyPair(final int keySize) throws NoSuchAlgorithmException, KeyStoreException, ClientException {
+            final KeyPairGenerator generator = KeyPairGenerator.getInstance(KeyPairGeneratorAlgorithms.RSA);
+            generator.initialize(keySize);
+            final KeyPair keyPair = generator.generateKeyPair();
+            mKeyManager.storeAsymmetricKey(
+                    keyPair.getPrivate(),
+                    new Certificate[]{new PublicKeyCertificate(keyPair.getPublic())}
+            );
+            return keyPair;
+        }
+
+        @Override
+        protected SecureHardwareState getSecureHardwareState(final KeyPair kp) {
+            return SecureHardwareState.FALSE;
+        }
+
+        @Override
+        protected void performCleanupIfMintShrFails(final Exception e) {
+        }
+    }
+
+    /**
+     * Minimal certificate carrying the public key; JKS keeps it as is and this benchmark never
+     * validates it.
+     */
+    private static final class PublicKeyCertificate extends Certificate {
+        private final PublicKey mPublicKey;
+
+        PublicKeyCertificate(final PublicKey publicKey) {
+            super("X.509");
+            mPublicKey = publicKey;
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            return mPublicKey.getEncoded();
+        }
+
+        @Override
+        public void verify(final PublicKey key) {
+        }
+
+        @Override
+        public void verify(final PublicKey key, final String sigProvider) {
+        }
+
+        @Override
+        public String toString() {
+            return "PublicKeyCertificate";
+        }
+
+        @Override
+        public PublicKey getPublicKey() {
+            return mPublicKey;
+        }
+    }
+}
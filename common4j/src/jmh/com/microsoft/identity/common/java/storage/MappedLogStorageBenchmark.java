@@ -0,0 +1,153 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Compares a single write to, and a cold open of, a large cache stored in a
+ * {@link MappedLogNameValueStorage} versus an XML file rewritten as a whole on every write, as
+ * SharedPreferences does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedLogStorageBenchmark {
+
+    private static final int ENTRY_COUNT = 5000;
+    private static final String STORE_NAME = "benchmark";
+
+    private File mDirectory;
+    private File mXmlFile;
+    private MappedLogNameValueStorage mMappedLog;
+    private Properties mXmlEntries;
+    private String mValue;
+    private int mWriteCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mDirectory = File.createTempFile("mlog-benchmark", "");
+        if (!mDirectory.delete() || !mDirectory.mkdirs()) {
+            throw new IOException("Failed to create " + mDirectory);
+        }
+        mXmlFile = new File(mDirectory, STORE_NAME + ".xml");
+
+        // Roughly the size of an encrypted access token cache entry.
+        final StringBuilder value = new StringBuilder();
+        while (value.length() < 2048) {
+            value.append("0123456789abcdef");
+        }
+        mValue = value.toString();
+
+        mMappedLog = new MappedLogNameValueStorage(mDirectory, STORE_NAME);
+        mXmlEntries = new Properties();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            mMappedLog.put(keyFor(i), mValue);
+            mXmlEntries.setProperty(keyFor(i), mValue);
+        }
+        storeXml(mXmlEntries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mMappedLog.close();
+        final File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    @Benchmark
+    public void mappedLogWrite() {
+        mMappedLog.put(keyFor(mWriteCount++ % ENTRY_COUNT), mValue);
+    }
+
+    @Benchmark
+    public void xmlWrite() throws IOException {
+        mXmlEntries.setProperty(keyFor(mWriteCount++ % ENTRY_COUNT), mValue);
+        storeXml(mXmlEntries);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int mappedLogColdOpen() throws IOException {
+        // The log is shared with the write benchmark, so it can only be opened once it is closed.
+        mMappedLog.close();
+        mMappedLog = new MappedLogNameValueStorage(mDirectory, STORE_NAME);
+        return mMappedLog.keySet().size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int xmlColdOpen() throws IOException {
+        final Properties entries = new Properties();
+        final InputStream in = new FileInputStream(mXmlFile);
+        try {
+            entries.loadFromXML(in);
+        } finally {
+            in.close();
+        }
+        return entries.size();
+    }
+
+    private void storeXml(@NonNull final Properties entries) throws IOException {
+        final OutputStream out = new FileOutputStream(mXmlFile);
+        try {
+            entries.storeToXML(out, null);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String keyFor(final int i) {
+        return "home-account-id-" + i + "-login.microsoftonline.com-accesstoken-client-id-tenant-id-scope";
+    }
+}
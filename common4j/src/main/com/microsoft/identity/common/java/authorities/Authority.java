@@ -40,9 +40,9 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -299,8 +299,7 @@ public abstract class Authority {
      * application.  In order for the public client application to make a request to an authority.  That authority must be known by Microsoft or the developer
      * configuring the public client application.
      */
-    private static final List<Authority> knownAuthorities = new ArrayList<>();
-    private static final Object sLock = new Object();
+    private static final List<Authority> knownAuthorities = new CopyOnWriteArrayList<>();
 
     private static void performCloudDiscovery()
             throws IOException, URISyntaxException {
@@ -309,19 +308,17 @@ public abstract class Authority {
                 TAG + methodName,
                 "Performing cloud discovery..."
         );
-        synchronized (sLock) {
-            if (!AzureActiveDirectory.isInitialized()) {
-                Logger.verbose(TAG + methodName, "Not initialized. Starting request.");
-                AzureActiveDirectory.performCloudDiscovery();
-                Logger.info(TAG + methodName, "Loaded cloud metadata.");
-            }
+        // No lock needed: concurrent discoveries are collapsed into a single request by
+        // AzureActiveDirectory, and lookups are served from its published snapshot meanwhile.
+        if (!AzureActiveDirectory.isInitialized()) {
+            Logger.verbose(TAG + methodName, "Not initialized. Starting request.");
+            AzureActiveDirectory.performCloudDiscovery();
+            Logger.info(TAG + methodName, "Loaded cloud metadata.");
         }
     }
 
     public static void addKnownAuthorities(List<Authority> authorities) {
-        synchronized (sLock) {
-            knownAuthorities.addAll(authorities);
-        }
+        knownAuthorities.addAll(authorities);
     }
 
     /**
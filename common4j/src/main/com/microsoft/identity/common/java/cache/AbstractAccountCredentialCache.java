@@ -22,8 +22,6 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.cache;
 
-import static com.microsoft.identity.common.java.AuthenticationConstants.DEFAULT_SCOPES;
-
 import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeInternal;
 import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeWithClientKeyInternal;
 import com.microsoft.identity.common.java.dto.AccessTokenRecord;
@@ -36,9 +34,11 @@ import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
 import com.microsoft.identity.common.java.interfaces.INameValueStorage;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.providers.oauth2.TokenRequest;
+import com.microsoft.identity.common.java.util.ScopeUtil;
 import com.microsoft.identity.common.java.util.StringUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -188,6 +188,11 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
                         + "Credential lookup filtered by requested claims? [" + mustMatchOnRequestedClaims + "]"
         );
 
+        // Normalize the sought target once, rather than once per candidate credential.
+        final Set<String> soughtScopes = mustMatchOnTarget
+                ? ScopeUtil.getNormalizedScopesWithoutDefaults(target)
+                : Collections.<String>emptySet();
+
         final List<Credential> matchingCredentials = new ArrayList<>();
 
         for (final Credential credential : allCredentials) {
@@ -240,10 +245,10 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
             if (mustMatchOnTarget) {
                 if (credential instanceof AccessTokenRecord) {
                     final AccessTokenRecord accessToken = (AccessTokenRecord) credential;
-                    matches = matches && targetsIntersect(target, accessToken.getTarget(), true);
+                    matches = matches && ScopeUtil.containsAllScopes(accessToken.getNormalizedScopes(), soughtScopes);
                 } else if (credential instanceof RefreshTokenRecord) {
                     final RefreshTokenRecord refreshToken = (RefreshTokenRecord) credential;
-                    matches = matches && targetsIntersect(target, refreshToken.getTarget(), true);
+                    matches = matches && ScopeUtil.containsAllScopes(refreshToken.getNormalizedScopes(), soughtScopes);
                 } else {
                     Logger.verbose(TAG, "Query specified target-match, but no target to match.");
                 }
@@ -307,6 +312,13 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
         // The credentialTarget must contain all of the scopes in the targetToMatch
         // It may contain more, but it must contain minimally those
         // Matching is case-insensitive
+        if (omitDefaultScopes) {
+            return ScopeUtil.containsAllScopes(
+                    ScopeUtil.getNormalizedScopesWithoutDefaults(credentialTarget),
+                    ScopeUtil.getNormalizedScopesWithoutDefaults(targetToMatch)
+            );
+        }
+
         final String splitCriteria = "\\s+";
         final String[] targetToMatchArray = targetToMatch.trim().split(splitCriteria);
         final String[] credentialTargetArray = credentialTarget.trim().split(splitCriteria);
@@ -324,11 +336,6 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
             credentialTargetSet.add(target.toLowerCase(Locale.ROOT));
         }
 
-        if (omitDefaultScopes) {
-            soughtTargetSet.removeAll(DEFAULT_SCOPES);
-            credentialTargetSet.removeAll(DEFAULT_SCOPES);
-        }
-
         return credentialTargetSet.containsAll(soughtTargetSet);
     }
 }
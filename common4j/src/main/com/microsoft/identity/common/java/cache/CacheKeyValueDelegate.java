@@ -25,6 +25,7 @@ package com.microsoft.identity.common.java.cache;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.annotations.SerializedName;
@@ -36,6 +37,8 @@ import com.microsoft.identity.common.java.dto.Credential;
 import com.microsoft.identity.common.java.dto.IdTokenRecord;
 import com.microsoft.identity.common.java.dto.PrimaryRefreshTokenRecord;
 import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.flighting.CommonFlight;
+import com.microsoft.identity.common.java.flighting.CommonFlightsManager;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.providers.oauth2.TokenRequest;
 import com.microsoft.identity.common.java.util.StringUtil;
@@ -64,6 +67,9 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 
 /**
  * Uses Gson to serialize instances into {@link String}s.
+ * <p>
+ * Values may optionally be written in a compact, schema-versioned format
+ * (see {@link CompactCacheValueCodec}); values in either format are always readable.
  */
 public class CacheKeyValueDelegate implements ICacheKeyValueDelegate {
 
@@ -77,11 +83,26 @@ public class CacheKeyValueDelegate implements ICacheKeyValueDelegate {
 
     private final Gson mGson;
 
+    private final boolean mWriteCompactValues;
+
     /**
      * Default constructor of CacheKeyValueDelegate.
+     * The value format written is controlled by {@link CommonFlight#WRITE_COMPACT_CREDENTIAL_CACHE_VALUES}.
      */
     public CacheKeyValueDelegate() {
+        this(CommonFlightsManager.INSTANCE.getFlightsProvider().isFlightEnabled(
+                CommonFlight.WRITE_COMPACT_CREDENTIAL_CACHE_VALUES
+        ));
+    }
+
+    /**
+     * Constructor of CacheKeyValueDelegate.
+     *
+     * @param writeCompactValues true to write values in the compact format, false to write Gson JSON.
+     */
+    public CacheKeyValueDelegate(final boolean writeCompactValues) {
         mGson = new Gson();
+        mWriteCompactValues = writeCompactValues;
         Logger.verbose(TAG, "Init: " + TAG);
     }
 
@@ -113,6 +134,10 @@ public class CacheKeyValueDelegate implements ICacheKeyValueDelegate {
     }
 
     private String generateCacheValueInternal(final Object baseObject) {
+        if (mWriteCompactValues && CompactCacheValueCodec.supports(baseObject.getClass())) {
+            return CompactCacheValueCodec.encode((AccountCredentialBase) baseObject);
+        }
+
         JsonElement outboundElement = mGson.toJsonTree(baseObject);
         JsonObject outboundObject = outboundElement.getAsJsonObject();
 
@@ -219,6 +244,19 @@ public class CacheKeyValueDelegate implements ICacheKeyValueDelegate {
     public <T extends AccountCredentialBase> T fromCacheValue(String string, Class<? extends AccountCredentialBase> t) {
         final String methodName = "fromCacheValue";
 
+        if (CompactCacheValueCodec.isCompactValue(string)) {
+            try {
+                return CompactCacheValueCodec.decode(string, t);
+            } catch (final IllegalArgumentException | JsonParseException e) {
+                Logger.error(
+                        TAG + ":" + methodName,
+                        "Failed to parse compact cache value.",
+                        e
+                );
+                return null;
+            }
+        }
+
         try {
             @SuppressWarnings(WarningType.unchecked_warning)
             final T resultObject = (T) mGson.fromJson(string, t);
@@ -0,0 +1,421 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountCredentialBase;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.dto.PrimaryRefreshTokenRecord;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.util.BiConsumer;
+import com.microsoft.identity.common.java.util.ported.Function;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Compact, schema-versioned encoding for cache records, used as an alternative to reflective
+ * Gson JSON.
+ * <p>
+ * Cache values are persisted as {@link String}s (possibly encrypted, possibly inside
+ * SharedPreferences XML), so the format is a text-safe sequence of length-prefixed,
+ * tagged fields:
+ * <pre>
+ *     c1;&lt;tag&gt;:&lt;length&gt;:&lt;value&gt;&lt;tag&gt;:&lt;length&gt;:&lt;value&gt;...
+ * </pre>
+ * Each record type has a fixed table of numeric tags for its known fields. Tags are
+ * append-only: a tag is never reused or renumbered, so records written by a newer schema
+ * remain readable. Null fields are omitted.
+ * <ul>
+ *     <li>Tag {@value #ADDITIONAL_FIELD_TAG} carries an entry of
+ *     {@link AccountCredentialBase#getAdditionalFields()} as
+ *     {@code <nameLength>:<name><json>}.</li>
+ *     <li>Tags unknown to this schema are kept in the additional fields under
+ *     {@code #<tag>} and written back under the same tag, so a round-trip through an
+ *     older client does not drop data.</li>
+ * </ul>
+ * Legacy values are JSON objects and therefore never start with {@link #PREFIX}.
+ */
+final class CompactCacheValueCodec {
+
+    /**
+     * Marker (and format version) prefixed to every compact cache value.
+     */
+    static final String PREFIX = "c1;";
+
+    /**
+     * Tag used to carry additional (unmapped) JSON fields.
+     */
+    static final int ADDITIONAL_FIELD_TAG = 0;
+
+    /**
+     * Prefix of the additional-field key used to preserve tags unknown to this schema.
+     */
+    static final String UNKNOWN_TAG_PREFIX = "#";
+
+    private static final char SEPARATOR = ':';
+
+    private static final Map<Class<?>, Schema<?>> SCHEMAS;
+
+    static {
+        final Map<Class<?>, Schema<?>> schemas = new HashMap<>();
+        schemas.put(AccountRecord.class, accountRecordSchema());
+        schemas.put(AccessTokenRecord.class, accessTokenSchema());
+        schemas.put(RefreshTokenRecord.class, refreshTokenSchema());
+        schemas.put(IdTokenRecord.class, idTokenSchema());
+        schemas.put(PrimaryRefreshTokenRecord.class, primaryRefreshTokenSchema());
+        SCHEMAS = Collections.unmodifiableMap(schemas);
+    }
+
+    private CompactCacheValueCodec() {
+        // Utility class.
+    }
+
+    /**
+     * Returns true if the supplied cache value was written by this codec.
+     *
+     * @param cacheValue The cache value to inspect.
+     * @return True if the value is in the compact format.
+     */
+    static boolean isCompactValue(@Nullable final String cacheValue) {
+        return cacheValue != null && cacheValue.startsWith(PREFIX);
+    }
+
+    /**
+     * Returns true if the supplied record type has a compact schema.
+     *
+     * @param clazz The record type.
+     * @return True if {@link #encode(AccountCredentialBase)} supports the type.
+     */
+    static boolean supports(@NonNull final Class<?> clazz) {
+        return SCHEMAS.containsKey(clazz);
+    }
+
+    /**
+     * Encodes the supplied record.
+     *
+     * @param record The record to encode. Its type must be {@link #supports(Class) supported}.
+     * @return The compact cache value.
+     */
+    @SuppressWarnings("unchecked")
+    static String encode(@NonNull final AccountCredentialBase record) {
+        final Schema<AccountCredentialBase> schema = (Schema<AccountCredentialBase>) SCHEMAS.get(record.getClass());
+        if (schema == null) {
+            throw new IllegalArgumentException("No compact schema for " + record.getClass().getSimpleName());
+        }
+
+        final StringBuilder builder = new StringBuilder(256);
+        builder.append(PREFIX);
+
+        for (final FieldSpec<? super AccountCredentialBase> field : schema.mFields) {
+            final String value = field.mGetter.apply(record);
+            if (value != null) {
+                appendField(builder, field.mTag, value);
+            }
+        }
+
+        final Map<String, JsonElement> additionalFields = record.getAdditionalFields();
+        if (additionalFields != null) {
+            for (final Map.Entry<String, JsonElement> entry : additionalFields.entrySet()) {
+                final int preservedTag = getPreservedTag(entry.getKey(), entry.getValue());
+                if (preservedTag > ADDITIONAL_FIELD_TAG && schema.getField(preservedTag) == null) {
+                    appendField(builder, preservedTag, entry.getValue().getAsString());
+                } else {
+                    final String name = entry.getKey();
+                    final String json = String.valueOf(entry.getValue());
+                    appendField(
+                            builder,
+                            ADDITIONAL_FIELD_TAG,
+                            name.length() + String.valueOf(SEPARATOR) + name + json
+                    );
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Decodes a compact cache value.
+     *
+     * @param cacheValue The value to decode; must be {@link #isCompactValue(String) compact}.
+     * @param clazz      The expected record type.
+     * @param <T>        The record type.
+     * @return The decoded record.
+     * @throws IllegalArgumentException if the value is malformed or the type is unsupported.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends AccountCredentialBase> T decode(@NonNull final String cacheValue,
+                                                      @NonNull final Class<? extends AccountCredentialBase> clazz) {
+        final Schema<T> schema = (Schema<T>) SCHEMAS.get(clazz);
+        if (schema == null) {
+            throw new IllegalArgumentException("No compact schema for " + clazz.getSimpleName());
+        }
+
+        if (!isCompactValue(cacheValue)) {
+            throw new IllegalArgumentException("Not a compact cache value.");
+        }
+
+        final T record = schema.mFactory.get();
+        final Map<String, JsonElement> additionalFields = new HashMap<>();
+        final int length = cacheValue.length();
+        int position = PREFIX.length();
+
+        while (position < length) {
+            final int tagEnd = indexOfSeparator(cacheValue, position);
+            final int tag = parseNonNegativeInt(cacheValue, position, tagEnd);
+            final int lengthEnd = indexOfSeparator(cacheValue, tagEnd + 1);
+            final int valueLength = parseNonNegativeInt(cacheValue, tagEnd + 1, lengthEnd);
+            final int valueStart = lengthEnd + 1;
+            final int valueEnd = valueStart + valueLength;
+            if (valueEnd > length || valueEnd < valueStart) {
+                throw new IllegalArgumentException("Truncated compact cache value.");
+            }
+
+            if (tag == ADDITIONAL_FIELD_TAG) {
+                final int nameLengthEnd = indexOfSeparator(cacheValue, valueStart);
+                final int nameLength = parseNonNegativeInt(cacheValue, valueStart, nameLengthEnd);
+                final int nameEnd = nameLengthEnd + 1 + nameLength;
+                if (nameEnd > valueEnd || nameEnd < nameLengthEnd) {
+                    throw new IllegalArgumentException("Malformed additional field.");
+                }
+                additionalFields.put(
+                        cacheValue.substring(nameLengthEnd + 1, nameEnd),
+                        new JsonParser().parse(cacheValue.substring(nameEnd, valueEnd))
+                );
+            } else {
+                final String value = cacheValue.substring(valueStart, valueEnd);
+                final FieldSpec<? super T> field = schema.getField(tag);
+                if (field != null) {
+                    field.mSetter.accept(record, value);
+                } else {
+                    additionalFields.put(UNKNOWN_TAG_PREFIX + tag, new JsonPrimitive(value));
+                }
+            }
+
+            position = valueEnd;
+        }
+
+        record.setAdditionalFields(additionalFields);
+        return record;
+    }
+
+    private static void appendField(@NonNull final StringBuilder builder,
+                                    final int tag,
+                                    @NonNull final String value) {
+        builder.append(tag)
+                .append(SEPARATOR)
+                .append(value.length())
+                .append(SEPARATOR)
+                .append(value);
+    }
+
+    /**
+     * Returns the tag preserved under the supplied additional field, or -1 if the field
+     * is an ordinary additional field.
+     */
+    private static int getPreservedTag(@NonNull final String key, @Nullable final JsonElement value) {
+        if (!key.startsWith(UNKNOWN_TAG_PREFIX)
+                || key.length() == UNKNOWN_TAG_PREFIX.length()
+                || value == null
+                || !value.isJsonPrimitive()
+                || !value.getAsJsonPrimitive().isString()) {
+            return -1;
+        }
+
+        int tag = 0;
+        for (int i = UNKNOWN_TAG_PREFIX.length(); i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c < '0' || c > '9' || tag > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            tag = tag * 10 + (c - '0');
+        }
+
+        return tag;
+    }
+
+    private static int indexOfSeparator(@NonNull final String value, final int from) {
+        final int index = value.indexOf(SEPARATOR, from);
+        if (index < 0) {
+            throw new IllegalArgumentException("Missing separator in compact cache value.");
+        }
+        return index;
+    }
+
+    private static int parseNonNegativeInt(@NonNull final String value, final int start, final int end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("Missing number in compact cache value.");
+        }
+
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9' || result > (Integer.MAX_VALUE - 9) / 10) {
+                throw new IllegalArgumentException("Invalid number in compact cache value.");
+            }
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    //region Schemas
+    // Tags are persisted: never change or reuse an existing tag, only append new ones.
+
+    private static Schema<AccountRecord> accountRecordSchema() {
+        final List<FieldSpec<? super AccountRecord>> fields = new ArrayList<>();
+        fields.add(new FieldSpec<>(1, AccountRecord::getHomeAccountId, AccountRecord::setHomeAccountId));
+        fields.add(new FieldSpec<>(2, AccountRecord::getEnvironment, AccountRecord::setEnvironment));
+        fields.add(new FieldSpec<>(3, AccountRecord::getRealm, AccountRecord::setRealm));
+        fields.add(new FieldSpec<>(4, AccountRecord::getLocalAccountId, AccountRecord::setLocalAccountId));
+        fields.add(new FieldSpec<>(5, AccountRecord::getUsername, AccountRecord::setUsername));
+        fields.add(new FieldSpec<>(6, AccountRecord::getAuthorityType, AccountRecord::setAuthorityType));
+        fields.add(new FieldSpec<>(7, AccountRecord::getAlternativeAccountId, AccountRecord::setAlternativeAccountId));
+        fields.add(new FieldSpec<>(8, AccountRecord::getFirstName, AccountRecord::setFirstName));
+        fields.add(new FieldSpec<>(9, AccountRecord::getFamilyName, AccountRecord::setFamilyName));
+        fields.add(new FieldSpec<>(10, AccountRecord::getMiddleName, AccountRecord::setMiddleName));
+        fields.add(new FieldSpec<>(11, AccountRecord::getName, AccountRecord::setName));
+        fields.add(new FieldSpec<>(12, AccountRecord::getAvatarUrl, AccountRecord::setAvatarUrl));
+        fields.add(new FieldSpec<>(13, AccountRecord::getClientInfo, AccountRecord::setClientInfo));
+        return new Schema<>(AccountRecord::new, fields);
+    }
+
+    /**
+     * Fields shared by all {@link Credential} types use tags 1-15; type-specific fields
+     * start at 16.
+     */
+    private static void addCredentialFields(@NonNull final List<FieldSpec<? super Credential>> fields) {
+        fields.add(new FieldSpec<>(1, Credential::getClientId, Credential::setClientId));
+        fields.add(new FieldSpec<>(2, Credential::getCredentialType, Credential::setCredentialType));
+        fields.add(new FieldSpec<>(3, Credential::getEnvironment, Credential::setEnvironment));
+        fields.add(new FieldSpec<>(4, Credential::getSecret, Credential::setSecret));
+        fields.add(new FieldSpec<>(5, Credential::getHomeAccountId, Credential::setHomeAccountId));
+        fields.add(new FieldSpec<>(6, Credential::getCachedAt, Credential::setCachedAt));
+    }
+
+    private static <T extends Credential> List<FieldSpec<? super T>> newCredentialFieldList() {
+        final List<FieldSpec<? super Credential>> credentialFields = new ArrayList<>();
+        addCredentialFields(credentialFields);
+        return new ArrayList<FieldSpec<? super T>>(credentialFields);
+    }
+
+    private static Schema<AccessTokenRecord> accessTokenSchema() {
+        final List<FieldSpec<? super AccessTokenRecord>> fields = newCredentialFieldList();
+        fields.add(new FieldSpec<>(16, AccessTokenRecord::getRequestedClaims, AccessTokenRecord::setRequestedClaims));
+        fields.add(new FieldSpec<>(17, AccessTokenRecord::getKid, AccessTokenRecord::setKid));
+        fields.add(new FieldSpec<>(18, AccessTokenRecord::getAccessTokenType, AccessTokenRecord::setAccessTokenType));
+        fields.add(new FieldSpec<>(19, AccessTokenRecord::getAuthority, AccessTokenRecord::setAuthority));
+        fields.add(new FieldSpec<>(20, AccessTokenRecord::getExtendedExpiresOn, AccessTokenRecord::setExtendedExpiresOn));
+        fields.add(new FieldSpec<>(21, AccessTokenRecord::getRealm, AccessTokenRecord::setRealm));
+        fields.add(new FieldSpec<>(22, AccessTokenRecord::getTarget, AccessTokenRecord::setTarget));
+        fields.add(new FieldSpec<>(23, AccessTokenRecord::getExpiresOn, AccessTokenRecord::setExpiresOn));
+        fields.add(new FieldSpec<>(24, AccessTokenRecord::getRefreshOn, AccessTokenRecord::setRefreshOn));
+        fields.add(new FieldSpec<>(25, AccessTokenRecord::getApplicationIdentifier, AccessTokenRecord::setApplicationIdentifier));
+        fields.add(new FieldSpec<>(26, AccessTokenRecord::getMamEnrollmentIdentifier, AccessTokenRecord::setMamEnrollmentIdentifier));
+        return new Schema<>(AccessTokenRecord::new, fields);
+    }
+
+    private static Schema<RefreshTokenRecord> refreshTokenSchema() {
+        final List<FieldSpec<? super RefreshTokenRecord>> fields = newCredentialFieldList();
+        fields.add(new FieldSpec<>(16, RefreshTokenRecord::getFamilyId, RefreshTokenRecord::setFamilyId));
+        fields.add(new FieldSpec<>(17, RefreshTokenRecord::getTarget, RefreshTokenRecord::setTarget));
+        return new Schema<>(RefreshTokenRecord::new, fields);
+    }
+
+    private static Schema<IdTokenRecord> idTokenSchema() {
+        final List<FieldSpec<? super IdTokenRecord>> fields = newCredentialFieldList();
+        fields.add(new FieldSpec<>(16, IdTokenRecord::getRealm, IdTokenRecord::setRealm));
+        fields.add(new FieldSpec<>(17, IdTokenRecord::getAuthority, IdTokenRecord::setAuthority));
+        return new Schema<>(IdTokenRecord::new, fields);
+    }
+
+    private static Schema<PrimaryRefreshTokenRecord> primaryRefreshTokenSchema() {
+        final List<FieldSpec<? super PrimaryRefreshTokenRecord>> fields = newCredentialFieldList();
+        fields.add(new FieldSpec<>(16, PrimaryRefreshTokenRecord::getFamilyId, PrimaryRefreshTokenRecord::setFamilyId));
+        fields.add(new FieldSpec<>(17, PrimaryRefreshTokenRecord::getExpiresOn, PrimaryRefreshTokenRecord::setExpiresOn));
+        fields.add(new FieldSpec<>(18, PrimaryRefreshTokenRecord::getSessionKey, PrimaryRefreshTokenRecord::setSessionKey));
+        fields.add(new FieldSpec<>(19, PrimaryRefreshTokenRecord::getPrtProtocolVersion, PrimaryRefreshTokenRecord::setPrtProtocolVersion));
+        fields.add(new FieldSpec<>(20, PrimaryRefreshTokenRecord::getSessionKeyRollingDate, PrimaryRefreshTokenRecord::setSessionKeyRollingDate));
+        return new Schema<>(PrimaryRefreshTokenRecord::new, fields);
+    }
+
+    //endregion
+
+    private static final class FieldSpec<T> {
+        final int mTag;
+        final Function<T, String> mGetter;
+        final BiConsumer<T, String> mSetter;
+
+        FieldSpec(final int tag,
+                  @NonNull final Function<T, String> getter,
+                  @NonNull final BiConsumer<T, String> setter) {
+            mTag = tag;
+            mGetter = getter;
+            mSetter = setter;
+        }
+    }
+
+    private static final class Schema<T> {
+        final Supplier<T> mFactory;
+        final List<FieldSpec<? super T>> mFields;
+        private final FieldSpec<? super T>[] mFieldsByTag;
+
+        @SuppressWarnings("unchecked")
+        Schema(@NonNull final Supplier<T> factory,
+               @NonNull final List<FieldSpec<? super T>> fields) {
+            mFactory = factory;
+            mFields = Collections.unmodifiableList(fields);
+
+            int maxTag = 0;
+            for (final FieldSpec<? super T> field : fields) {
+                maxTag = Math.max(maxTag, field.mTag);
+            }
+
+            mFieldsByTag = (FieldSpec<? super T>[]) new FieldSpec<?>[maxTag + 1];
+            for (final FieldSpec<? super T> field : fields) {
+                if (field.mTag <= ADDITIONAL_FIELD_TAG || mFieldsByTag[field.mTag] != null) {
+                    throw new IllegalStateException("Invalid or duplicate compact cache tag: " + field.mTag);
+                }
+                mFieldsByTag[field.mTag] = field;
+            }
+        }
+
+        @Nullable
+        FieldSpec<? super T> getField(final int tag) {
+            return tag < mFieldsByTag.length ? mFieldsByTag[tag] : null;
+        }
+    }
+}
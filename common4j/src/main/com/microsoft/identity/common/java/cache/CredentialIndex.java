@@ -0,0 +1,241 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.util.StringUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Secondary indexes over the credentials held in memory by
+ * {@link SharedPreferencesAccountCredentialCacheWithMemoryCache}.
+ * <p>
+ * Credentials are indexed by (home_account_id, environment, credential_type, client_id) and by
+ * realm, so that filtered lookups only need to visit candidate entries rather than every cached
+ * credential. The candidates returned are a superset of the matches; callers still need to run
+ * the full filter on them.
+ * <p>
+ * This class is not thread safe. Callers must guard it with the same lock as the map it indexes.
+ */
+class CredentialIndex {
+
+    private static final String KEY_SEPARATOR = "|";
+
+    private final Map<String, Set<String>> mCacheKeysByPrimaryKey;
+    private final Map<String, Set<String>> mCacheKeysByRealm;
+
+    /**
+     * Creates an empty index.
+     */
+    CredentialIndex() {
+        mCacheKeysByPrimaryKey = new HashMap<>();
+        mCacheKeysByRealm = new HashMap<>();
+    }
+
+    /**
+     * Creates a copy of the supplied index, which can be modified independently of it.
+     *
+     * @param other The index to copy.
+     */
+    CredentialIndex(@NonNull final CredentialIndex other) {
+        mCacheKeysByPrimaryKey = deepCopy(other.mCacheKeysByPrimaryKey);
+        mCacheKeysByRealm = deepCopy(other.mCacheKeysByRealm);
+    }
+
+    /**
+     * Adds a credential to the index.
+     *
+     * @param cacheKey   The key under which the credential is cached.
+     * @param credential The cached credential.
+     */
+    void add(@NonNull final String cacheKey, @NonNull final Credential credential) {
+        addTo(mCacheKeysByPrimaryKey, primaryKeyOf(credential), cacheKey);
+
+        final String realm = realmOf(credential);
+        if (null != realm) {
+            addTo(mCacheKeysByRealm, realm, cacheKey);
+        }
+    }
+
+    /**
+     * Removes a credential from the index.
+     *
+     * @param cacheKey   The key under which the credential is cached.
+     * @param credential The cached credential, as it was when it was added.
+     */
+    void remove(@NonNull final String cacheKey, @NonNull final Credential credential) {
+        removeFrom(mCacheKeysByPrimaryKey, primaryKeyOf(credential), cacheKey);
+
+        final String realm = realmOf(credential);
+        if (null != realm) {
+            removeFrom(mCacheKeysByRealm, realm, cacheKey);
+        }
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    void clear() {
+        mCacheKeysByPrimaryKey.clear();
+        mCacheKeysByRealm.clear();
+    }
+
+    /**
+     * Returns the cache keys of the credentials that may match the supplied criteria.
+     *
+     * @return The candidate cache keys, or null if the criteria are too broad for the index to
+     * narrow down and every credential must be considered.
+     */
+    @Nullable
+    Set<String> getCandidateCacheKeys(@Nullable final String homeAccountId,
+                                      @Nullable final String environment,
+                                      @Nullable final CredentialType credentialType,
+                                      @Nullable final String clientId,
+                                      @Nullable final String realm) {
+        Set<String> candidates = null;
+
+        if (!StringUtil.isNullOrEmpty(homeAccountId)
+                && !StringUtil.isNullOrEmpty(environment)
+                && null != credentialType
+                && !StringUtil.isNullOrEmpty(clientId)) {
+            candidates = getOrEmpty(
+                    mCacheKeysByPrimaryKey,
+                    primaryKeyOf(homeAccountId, environment, credentialType.name(), clientId)
+            );
+        }
+
+        // Realm is only matched on AccessTokens and IdTokens, so the realm index can only be
+        // used when the lookup is restricted to one of those types.
+        if (!StringUtil.isNullOrEmpty(realm) && isRealmScoped(credentialType)) {
+            final Set<String> realmCandidates = getOrEmpty(mCacheKeysByRealm, normalize(realm));
+            if (null == candidates || realmCandidates.size() < candidates.size()) {
+                candidates = realmCandidates;
+            }
+        }
+
+        return candidates;
+    }
+
+    private static boolean isRealmScoped(@Nullable final CredentialType credentialType) {
+        return CredentialType.AccessToken == credentialType
+                || CredentialType.AccessToken_With_AuthScheme == credentialType
+                || CredentialType.IdToken == credentialType
+                || CredentialType.V1IdToken == credentialType;
+    }
+
+    @Nullable
+    private static String realmOf(@NonNull final Credential credential) {
+        String realm = null;
+
+        if (credential instanceof AccessTokenRecord) {
+            realm = ((AccessTokenRecord) credential).getRealm();
+        } else if (credential instanceof IdTokenRecord) {
+            realm = ((IdTokenRecord) credential).getRealm();
+        }
+
+        return null == realm ? null : normalize(realm);
+    }
+
+    @NonNull
+    private static String primaryKeyOf(@NonNull final Credential credential) {
+        return primaryKeyOf(
+                credential.getHomeAccountId(),
+                credential.getEnvironment(),
+                credential.getCredentialType(),
+                credential.getClientId()
+        );
+    }
+
+    @NonNull
+    private static String primaryKeyOf(@Nullable final String homeAccountId,
+                                       @Nullable final String environment,
+                                       @Nullable final String credentialType,
+                                       @Nullable final String clientId) {
+        return normalize(homeAccountId)
+                + KEY_SEPARATOR + normalize(environment)
+                + KEY_SEPARATOR + normalize(credentialType)
+                + KEY_SEPARATOR + normalize(clientId);
+    }
+
+    /**
+     * Mirrors {@link StringUtil#equalsIgnoreCaseTrimBoth(String, String)}, which is what the
+     * filtered lookups use to compare these fields.
+     */
+    @NonNull
+    private static String normalize(@Nullable final String value) {
+        return null == value ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void addTo(@NonNull final Map<String, Set<String>> index,
+                              @NonNull final String indexKey,
+                              @NonNull final String cacheKey) {
+        Set<String> cacheKeys = index.get(indexKey);
+        if (null == cacheKeys) {
+            cacheKeys = new HashSet<>();
+            index.put(indexKey, cacheKeys);
+        }
+        cacheKeys.add(cacheKey);
+    }
+
+    private static void removeFrom(@NonNull final Map<String, Set<String>> index,
+                                   @NonNull final String indexKey,
+                                   @NonNull final String cacheKey) {
+        final Set<String> cacheKeys = index.get(indexKey);
+        if (null != cacheKeys) {
+            cacheKeys.remove(cacheKey);
+            if (cacheKeys.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+
+    @NonNull
+    private static Map<String, Set<String>> deepCopy(@NonNull final Map<String, Set<String>> index) {
+        final Map<String, Set<String>> copy = new HashMap<>(index.size());
+        for (final Map.Entry<String, Set<String>> entry : index.entrySet()) {
+            copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    @NonNull
+    private static Set<String> getOrEmpty(@NonNull final Map<String, Set<String>> index,
+                                          @NonNull final String indexKey) {
+        final Set<String> cacheKeys = index.get(indexKey);
+        return null == cacheKeys
+                ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(cacheKeys);
+    }
+}
@@ -48,6 +48,23 @@ public interface IAccountCredentialCache {
      */
     void saveCredential(final Credential credential);
 
+    /**
+     * Saves the supplied Account and Credentials in the cache, e.g. all the records of one token
+     * response. Caches that can write them to the backing storage at once override this; by
+     * default they are saved one by one.
+     *
+     * @param account     The Account to save, or null to save only the Credentials.
+     * @param credentials The Credentials to save.
+     */
+    default void saveAccountAndCredentials(final AccountRecord account, final List<Credential> credentials) {
+        if (account != null) {
+            saveAccount(account);
+        }
+        for (final Credential credential : credentials) {
+            saveCredential(credential);
+        }
+    }
+
     /**
      * Gets the Account saved for the supplied cache key.
      *
@@ -22,10 +22,18 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.cache;
 
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
+import com.microsoft.identity.common.java.storage.AbstractNameValueStorageEditor;
+import com.microsoft.identity.common.java.storage.ParallelEntryMapper;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The interface for a key-value store with multiple types.  This should be roughly equivalent to Android
@@ -83,6 +91,28 @@ public interface IMultiTypeNameValueStorage {
      */
     Iterator<Map.Entry<String, String>> getAllFilteredByKey(Predicate<String> keyFilter);
 
+    /**
+     * Reads all String entries whose key matches the filter and maps them in bulk. Decoding the
+     * stored values is spread across the given executor, and the result is fully materialized
+     * before this method returns.
+     *
+     * @param keyFilter   A predicate to use to evaluate the key, return true to include key value pair.
+     * @param entryMapper Maps an entry to its result, or to null to omit it. Invoked concurrently.
+     * @param executor    The bounded pool to decode entries on.
+     * @return A Map of key to (non-null) mapped value.
+     */
+    default <R> Map<String, R> getAllFilteredByKey(final Predicate<String> keyFilter,
+                                                   final Function<Map.Entry<String, String>, R> entryMapper,
+                                                   final ExecutorService executor) {
+        final List<Map.Entry<String, String>> entries = new ArrayList<>();
+        final Iterator<Map.Entry<String, String>> iterator = getAllFilteredByKey(keyFilter);
+        while (iterator.hasNext()) {
+            entries.add(iterator.next());
+        }
+
+        return ParallelEntryMapper.mapEntries(entries, entryMapper, executor);
+    }
+
     /**
      * Tests if the store backed by the named resource contains an entry for the supplied key.
      *
@@ -103,4 +133,24 @@ public interface IMultiTypeNameValueStorage {
      */
     void remove(final String key);
 
+    /**
+     * Starts a batch of String changes that are persisted together on
+     * {@link INameValueStorageEditor#commit()}. Storages that cannot write a batch at once apply
+     * the changes one by one.
+     *
+     * @return an editor for this storage.
+     */
+    default INameValueStorageEditor<String> edit() {
+        return new AbstractNameValueStorageEditor<String>() {
+            @Override
+            protected void onCommit(final Set<String> removals, final Map<String, String> puts) {
+                for (final String key : removals) {
+                    remove(key);
+                }
+                for (final Map.Entry<String, String> entry : puts.entrySet()) {
+                    putString(entry.getKey(), entry.getValue());
+                }
+            }
+        };
+    }
 }
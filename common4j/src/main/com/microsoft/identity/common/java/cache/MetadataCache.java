@@ -0,0 +1,403 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.microsoft.identity.common.java.flighting.CommonFlight;
+import com.microsoft.identity.common.java.flighting.CommonFlightsManager;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.IStorageSupplier;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ThreadUtils;
+import com.microsoft.identity.common.java.util.ported.Function;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * A cache of service metadata documents (e.g. instance discovery and OpenID provider
+ * configuration), keyed by the URI they were fetched from.
+ * <p>
+ * Entries are fresh for a time to live. After that, and until the maximum staleness, they are
+ * still returned but refreshed in the background (stale-while-revalidate). Concurrent fetches of
+ * the same key are deduplicated, so only one request is made and every caller gets its result.
+ * <p>
+ * Once {@link #initializePersistentStorage(IStorageSupplier)} has been called, and while
+ * {@link CommonFlight#ENABLE_PERSISTENT_METADATA_CACHE} is enabled, the raw documents are also
+ * persisted in an unencrypted name-value store, so that they are not fetched again on every
+ * process start.
+ *
+ * @param <T> the type of the parsed document.
+ */
+@ThreadSafe
+public class MetadataCache<T> {
+
+    private static final String TAG = MetadataCache.class.getSimpleName();
+
+    /**
+     * Name of the name-value store that the documents are persisted in.
+     */
+    static final String STORE_NAME = "com.microsoft.identity.client.metadata_cache";
+
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.HOURS.toMillis(24);
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final long REFRESH_THREAD_KEEP_ALIVE_SECONDS = 30;
+    private static final Gson GSON = new Gson();
+
+    private static final Supplier<Long> SYSTEM_CLOCK = new Supplier<Long>() {
+        @Override
+        public Long get() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static volatile INameValueStorage<String> sPersistentStorage;
+
+    private static final class RefreshExecutorHolder {
+        private static final Executor INSTANCE = ThreadUtils.getNamedScheduledThreadPoolExecutor(
+                1,
+                REFRESH_THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                "metadata-refresh"
+        );
+    }
+
+    private static final Supplier<INameValueStorage<String>> FLIGHTED_PERSISTENT_STORAGE = new Supplier<INameValueStorage<String>>() {
+        @Override
+        public INameValueStorage<String> get() {
+            if (!CommonFlightsManager.INSTANCE.getFlightsProvider().isFlightEnabled(
+                    CommonFlight.ENABLE_PERSISTENT_METADATA_CACHE)) {
+                return null;
+            }
+            return sPersistentStorage;
+        }
+    };
+
+    /**
+     * Fetches a metadata document from the network.
+     */
+    public interface IMetadataFetcher<E extends Exception> {
+        /**
+         * @return the raw document, or null if the response must not be cached.
+         */
+        @Nullable
+        String fetch() throws E;
+    }
+
+    private final String mNamespace;
+    private final long mTimeToLiveMillis;
+    private final long mMaxStalenessMillis;
+    private final Function<String, T> mParser;
+    private final Supplier<INameValueStorage<String>> mStorageSupplier;
+    private final Executor mRefreshExecutor;
+    private final Supplier<Long> mClock;
+    private final ConcurrentMap<String, Entry<T>> mEntries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ResultFuture<T>> mInFlightFetches = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the storage that documents of every {@link MetadataCache} are persisted in.
+     */
+    public static void initializePersistentStorage(@NonNull final IStorageSupplier storageSupplier) {
+        sPersistentStorage = storageSupplier.getUnencryptedNameValueStore(STORE_NAME, String.class);
+    }
+
+    /**
+     * Creates a cache with the default time to live and maximum staleness.
+     *
+     * @param namespace prefix of the persisted keys, unique per type of document.
+     * @param parser    parses a raw document. It must throw a RuntimeException if it cannot.
+     */
+    public MetadataCache(@NonNull final String namespace,
+                         @NonNull final Function<String, T> parser) {
+        this(namespace, DEFAULT_TIME_TO_LIVE_MILLIS, DEFAULT_MAX_STALENESS_MILLIS, parser);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param namespace          prefix of the persisted keys, unique per type of document.
+     * @param timeToLiveMillis   how long a document is served without being refreshed.
+     * @param maxStalenessMillis how long a document is served at all. Older documents are fetched
+     *                           again before returning.
+     * @param parser             parses a raw document. It must throw a RuntimeException if it cannot.
+     */
+    public MetadataCache(@NonNull final String namespace,
+                         final long timeToLiveMillis,
+                         final long maxStalenessMillis,
+                         @NonNull final Function<String, T> parser) {
+        this(namespace, timeToLiveMillis, maxStalenessMillis, parser,
+                FLIGHTED_PERSISTENT_STORAGE, RefreshExecutorHolder.INSTANCE, SYSTEM_CLOCK);
+    }
+
+    //@VisibleForTesting
+    MetadataCache(@NonNull final String namespace,
+                  final long timeToLiveMillis,
+                  final long maxStalenessMillis,
+                  @NonNull final Function<String, T> parser,
+                  @NonNull final Supplier<INameValueStorage<String>> storageSupplier,
+                  @NonNull final Executor refreshExecutor,
+                  @NonNull final Supplier<Long> clock) {
+        if (timeToLiveMillis <= 0 || maxStalenessMillis < timeToLiveMillis) {
+            throw new IllegalArgumentException("Invalid time to live [" + timeToLiveMillis
+                    + "] or max staleness [" + maxStalenessMillis + "]");
+        }
+        mNamespace = namespace;
+        mTimeToLiveMillis = timeToLiveMillis;
+        mMaxStalenessMillis = maxStalenessMillis;
+        mParser = parser;
+        mStorageSupplier = storageSupplier;
+        mRefreshExecutor = refreshExecutor;
+        mClock = clock;
+    }
+
+    /**
+     * Returns the document for the given key, fetching it if it is not cached, or is older than
+     * the maximum staleness. A stale document is returned as is, and refreshed in the background.
+     *
+     * @param key     the URI of the document.
+     * @param fetcher fetches the document if needed.
+     * @return the parsed document, or null if the fetcher returned null.
+     * @throws E if the document had to be fetched, and the fetch failed.
+     */
+    @Nullable
+    public <E extends Exception> T get(@NonNull final String key,
+                                       @NonNull final IMetadataFetcher<E> fetcher) throws E {
+        final String methodTag = TAG + ":get";
+
+        Entry<T> entry = mEntries.get(key);
+        if (entry == null) {
+            entry = loadPersistedEntry(key);
+            if (entry != null) {
+                final Entry<T> existingEntry = mEntries.putIfAbsent(key, entry);
+                if (existingEntry != null) {
+                    entry = existingEntry;
+                }
+            }
+        }
+
+        if (entry != null) {
+            final long age = mClock.get() - entry.mFetchedAtMillis;
+            if (age >= 0 && age < mTimeToLiveMillis) {
+                return entry.mValue;
+            }
+
+            // A negative age means the clock went back. Serve the document, but refresh it.
+            if (age < mMaxStalenessMillis) {
+                Logger.info(methodTag, mNamespace + ": serving a stale document while refreshing it.");
+                refreshInBackground(key, fetcher);
+                return entry.mValue;
+            }
+        }
+
+        return fetch(key, fetcher);
+    }
+
+    /**
+     * Removes every document of this cache, in memory and persisted.
+     */
+    public void clear() {
+        mEntries.clear();
+        final INameValueStorage<String> storage = mStorageSupplier.get();
+        if (storage != null) {
+            for (final String name : storage.keySet().toArray(new String[0])) {
+                if (name.startsWith(getPersistedKeyPrefix())) {
+                    storage.remove(name);
+                }
+            }
+        }
+    }
+
+    private <E extends Exception> T fetch(@NonNull final String key,
+                                          @NonNull final IMetadataFetcher<E> fetcher) throws E {
+        final ResultFuture<T> future = new ResultFuture<>();
+        final ResultFuture<T> inFlightFetch = mInFlightFetches.putIfAbsent(key, future);
+        if (inFlightFetch != null) {
+            return awaitFetch(inFlightFetch, key, fetcher);
+        }
+
+        try {
+            final T value = fetchAndStore(key, fetcher);
+            future.setResult(value);
+            return value;
+        } catch (final Exception e) {
+            future.setException(e);
+            throw e;
+        } catch (final Error e) {
+            future.setException(e);
+            throw e;
+        } finally {
+            mInFlightFetches.remove(key, future);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> T awaitFetch(@NonNull final ResultFuture<T> inFlightFetch,
+                                               @NonNull final String key,
+                                               @NonNull final IMetadataFetcher<E> fetcher) throws E {
+        try {
+            return inFlightFetch.get();
+        } catch (final InterruptedException e) {
+            Logger.warn(TAG + ":awaitFetch", mNamespace + ": interrupted while waiting for another fetch, fetching directly.");
+            Thread.currentThread().interrupt();
+            return fetchAndStore(key, fetcher);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // Callers fetching the same key use the same fetcher, so this is an E.
+            throw (E) cause;
+        }
+    }
+
+    private void refreshInBackground(@NonNull final String key,
+                                     @NonNull final IMetadataFetcher<?> fetcher) {
+        final String methodTag = TAG + ":refreshInBackground";
+
+        final ResultFuture<T> future = new ResultFuture<>();
+        if (mInFlightFetches.putIfAbsent(key, future) != null) {
+            // Already being fetched.
+            return;
+        }
+
+        final Runnable refresh = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.setResult(fetchAndStore(key, fetcher));
+                } catch (final Throwable t) {
+                    Logger.warn(methodTag, mNamespace + ": failed to refresh a stale document: " + t.getMessage());
+                    future.setException(t);
+                } finally {
+                    mInFlightFetches.remove(key, future);
+                }
+            }
+        };
+
+        try {
+            mRefreshExecutor.execute(refresh);
+        } catch (final RejectedExecutionException e) {
+            Logger.warn(methodTag, mNamespace + ": refresh rejected, the stale document will be served again.");
+            mInFlightFetches.remove(key, future);
+            future.setException(e);
+        }
+    }
+
+    @Nullable
+    private <E extends Exception> T fetchAndStore(@NonNull final String key,
+                                                  @NonNull final IMetadataFetcher<E> fetcher) throws E {
+        final String rawValue = fetcher.fetch();
+        if (rawValue == null) {
+            return null;
+        }
+
+        final Entry<T> entry = new Entry<>(mParser.apply(rawValue), rawValue, mClock.get());
+        mEntries.put(key, entry);
+        persistEntry(key, entry);
+        return entry.mValue;
+    }
+
+    @Nullable
+    private Entry<T> loadPersistedEntry(@NonNull final String key) {
+        final String methodTag = TAG + ":loadPersistedEntry";
+
+        final INameValueStorage<String> storage = mStorageSupplier.get();
+        if (storage == null) {
+            return null;
+        }
+
+        final String persistedKey = getPersistedKeyPrefix() + key;
+        final String persistedValue = storage.get(persistedKey);
+        if (StringUtil.isNullOrEmpty(persistedValue)) {
+            return null;
+        }
+
+        try {
+            final PersistedEntry persistedEntry = GSON.fromJson(persistedValue, PersistedEntry.class);
+            return new Entry<>(mParser.apply(persistedEntry.mValue), persistedEntry.mValue, persistedEntry.mFetchedAtMillis);
+        } catch (final RuntimeException e) {
+            Logger.warn(methodTag, mNamespace + ": dropping an unreadable persisted document: " + e.getMessage());
+            storage.remove(persistedKey);
+            return null;
+        }
+    }
+
+    private void persistEntry(@NonNull final String key, @NonNull final Entry<T> entry) {
+        final INameValueStorage<String> storage = mStorageSupplier.get();
+        if (storage == null) {
+            return;
+        }
+
+        try {
+            storage.put(getPersistedKeyPrefix() + key,
+                    GSON.toJson(new PersistedEntry(entry.mRawValue, entry.mFetchedAtMillis)));
+        } catch (final RuntimeException e) {
+            Logger.warn(TAG + ":persistEntry", mNamespace + ": failed to persist a document: " + e.getMessage());
+        }
+    }
+
+    private String getPersistedKeyPrefix() {
+        return mNamespace + "|";
+    }
+
+    private static final class Entry<T> {
+        final T mValue;
+        final String mRawValue;
+        final long mFetchedAtMillis;
+
+        Entry(final T value, @NonNull final String rawValue, final long fetchedAtMillis) {
+            mValue = value;
+            mRawValue = rawValue;
+            mFetchedAtMillis = fetchedAtMillis;
+        }
+    }
+
+    private static final class PersistedEntry {
+        @SerializedName("value")
+        final String mValue;
+
+        @SerializedName("fetched_at")
+        final long mFetchedAtMillis;
+
+        PersistedEntry(@NonNull final String value, final long fetchedAtMillis) {
+            mValue = value;
+            mFetchedAtMillis = fetchedAtMillis;
+        }
+    }
+}
@@ -231,8 +231,7 @@ public class MsalOAuth2TokenCache
                 "Accounts/Credentials are valid.... proceeding"
         );
 
-        saveAccounts(accountRecord);
-        saveCredentialsInternal(idTokenRecord, accessTokenRecord);
+        saveAccountAndCredentialsInternal(accountRecord, idTokenRecord, accessTokenRecord);
 
         final CacheRecord.CacheRecordBuilder result = CacheRecord.builder();
         result.account(accountRecord);
@@ -284,8 +283,7 @@ public class MsalOAuth2TokenCache
                 "Accounts/Credentials are valid.... proceeding"
         );
 
-        saveAccounts(accountRecord);
-        saveCredentialsInternal(idTokenRecord, accessTokenRecord, refreshTokenRecord);
+        saveAccountAndCredentialsInternal(accountRecord, idTokenRecord, accessTokenRecord, refreshTokenRecord);
 
         final CacheRecord.CacheRecordBuilder result = CacheRecord.builder();
         result.account(accountRecord);
@@ -394,9 +392,8 @@ public class MsalOAuth2TokenCache
         );
 
         // Save the Account and Credentials...
-        saveAccounts(accountToSave);
         synchronized(sCacheLock) {
-            saveCredentialsInternal(accessTokenToSave, refreshTokenToSave, idTokenToSave);
+            saveAccountAndCredentialsInternal(accountToSave, accessTokenToSave, refreshTokenToSave, idTokenToSave);
             // Remove old refresh tokens (except for the one we just saved) if it's MRRT or FRT
             removeAllRefreshTokensExcept(accountToSave, refreshTokenToSave);
         }
@@ -693,8 +690,7 @@ public class MsalOAuth2TokenCache
             );
         } else {
             // Save the inputs
-            saveAccounts(accountToSave);
-            saveCredentialsInternal(idTokenToSave);
+            saveAccountAndCredentialsInternal(accountToSave, idTokenToSave);
 
             // Set them as the result outputs
             result.account(accountToSave);
@@ -721,8 +717,24 @@ public class MsalOAuth2TokenCache
                 account.getAuthorityType()
         );
 
-        // 'Preloading' our credentials to avoid repeated expensive cache hits
-        final List<Credential> allCredentials = mAccountCredentialCache.getCredentials();
+        final CredentialType accessTokenCredentialType =
+                getAccessTokenCredentialTypeForAuthenticationScheme(authScheme);
+
+        // 'Preloading' the credentials this account + client could match to avoid repeated
+        // expensive cache hits. Every lookup below filters on these same fields, so this is
+        // a superset of their results, and lets indexed caches skip unrelated credentials.
+        final List<Credential> allCredentials = mAccountCredentialCache.getCredentialsFilteredBy(
+                account.getHomeAccountId(),
+                account.getEnvironment(),
+                new HashSet<>(Arrays.asList(accessTokenCredentialType, RefreshToken, IdToken, V1IdToken)),
+                clientId,
+                null, // wildcard (*)
+                null, // wildcard (*)
+                null, // wildcard (*)
+                null, // wildcard (*)
+                null, // wildcard (*)
+                null // wildcard (*)
+        );
 
         // Load the AccessTokens
         final String kid = authScheme instanceof PopAuthenticationSchemeWithClientKeyInternal ?
@@ -732,7 +744,7 @@ public class MsalOAuth2TokenCache
                 allCredentials,
                 account.getHomeAccountId(),
                 account.getEnvironment(),
-                getAccessTokenCredentialTypeForAuthenticationScheme(authScheme),
+                accessTokenCredentialType,
                 clientId,
                 applicationIdentifier,
                 mamEnrollmentIdentifier, //Null unless Intune reports one available for this app
@@ -1628,17 +1640,23 @@ public class MsalOAuth2TokenCache
         return credentialsRemoved;
     }
 
-    private void saveAccounts(final AccountRecord... accounts) {
-        for (final AccountRecord account : accounts) {
-            mAccountCredentialCache.saveAccount(account);
-        }
+    /**
+     * Saves the Account and Credentials of a token response with a single write to the cache,
+     * after removing the access tokens the new ones supersede.
+     */
+    private void saveAccountAndCredentialsInternal(@NonNull final AccountRecord account,
+                                                   final Credential... credentials) {
+        saveAccountAndCredentialsInternal(false, account, credentials);
     }
 
-    void saveCredentialsInternal(final Credential... credentials) {
-        saveCredentialsInternal(false, credentials);
+    void saveCredentialsInternal(boolean mustMatchExactClaims, final Credential... credentials) {
+        saveAccountAndCredentialsInternal(mustMatchExactClaims, null, credentials);
     }
 
-    void saveCredentialsInternal(boolean mustMatchExactClaims, final Credential... credentials) {
+    private void saveAccountAndCredentialsInternal(final boolean mustMatchExactClaims,
+                                                   @Nullable final AccountRecord account,
+                                                   final Credential... credentials) {
+        final List<Credential> credentialsToSave = new ArrayList<>(credentials.length);
         for (final Credential credential : credentials) {
             if (credential == null) {
                 continue;
@@ -1648,8 +1666,10 @@ public class MsalOAuth2TokenCache
                 deleteAccessTokensWithIntersectingScopes((AccessTokenRecord) credential, mustMatchExactClaims);
             }
 
-            mAccountCredentialCache.saveCredential(credential);
+            credentialsToSave.add(credential);
         }
+
+        mAccountCredentialCache.saveAccountAndCredentials(account, credentialsToSave);
     }
 
 
@@ -1908,9 +1928,8 @@ public class MsalOAuth2TokenCache
                 idToken
         );
 
-        saveAccounts(accountDto);
         synchronized (sCacheLock) {
-            saveCredentialsInternal(idToken, rt);
+            saveAccountAndCredentialsInternal(accountDto, idToken, rt);
 
             removeAllRefreshTokensExcept(accountDto, rt);
         }
@@ -29,10 +29,12 @@ import com.microsoft.identity.common.java.dto.CredentialType;
 import com.microsoft.identity.common.java.dto.IdTokenRecord;
 import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
 import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -100,6 +102,35 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
 
     @Override
     public synchronized void saveAccount(@NonNull final AccountRecord accountToSave) {
+        final Map.Entry<String, String> entry = toCacheEntry(accountToSave);
+        mSharedPreferencesFileManager.put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public synchronized void saveCredential(@NonNull Credential credentialToSave) {
+        final Map.Entry<String, String> entry = toCacheEntry(credentialToSave);
+        mSharedPreferencesFileManager.put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public synchronized void saveAccountAndCredentials(@Nullable final AccountRecord accountToSave,
+                                                       @NonNull final List<Credential> credentialsToSave) {
+        final INameValueStorageEditor<String> editor = mSharedPreferencesFileManager.edit();
+
+        if (null != accountToSave) {
+            final Map.Entry<String, String> entry = toCacheEntry(accountToSave);
+            editor.put(entry.getKey(), entry.getValue());
+        }
+
+        for (final Credential credentialToSave : credentialsToSave) {
+            final Map.Entry<String, String> entry = toCacheEntry(credentialToSave);
+            editor.put(entry.getKey(), entry.getValue());
+        }
+
+        editor.commit();
+    }
+
+    private Map.Entry<String, String> toCacheEntry(@NonNull final AccountRecord accountToSave) {
         Logger.verbose(TAG, "Saving Account...");
         Logger.verbose(TAG, "Account type: [" + accountToSave.getClass().getSimpleName() + "]");
         final String cacheKey = mCacheValueDelegate.generateCacheKey(accountToSave);
@@ -113,11 +144,10 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
         }
 
         final String cacheValue = mCacheValueDelegate.generateCacheValue(accountToSave);
-        mSharedPreferencesFileManager.put(cacheKey, cacheValue);
+        return new AbstractMap.SimpleImmutableEntry<>(cacheKey, cacheValue);
     }
 
-    @Override
-    public synchronized void saveCredential(@NonNull Credential credentialToSave) {
+    private Map.Entry<String, String> toCacheEntry(@NonNull final Credential credentialToSave) {
         Logger.verbose(TAG, "Saving credential...");
         final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToSave);
         Logger.verbosePII(TAG, "Generated cache key: [" + cacheKey + "]");
@@ -130,7 +160,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
         }
 
         final String cacheValue = mCacheValueDelegate.generateCacheValue(credentialToSave);
-        mSharedPreferencesFileManager.put(cacheKey, cacheValue);
+        return new AbstractMap.SimpleImmutableEntry<>(cacheKey, cacheValue);
     }
 
     @Override
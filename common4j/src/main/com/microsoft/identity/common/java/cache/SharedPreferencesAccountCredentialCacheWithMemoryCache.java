@@ -29,12 +29,18 @@ import com.microsoft.identity.common.java.dto.Credential;
 import com.microsoft.identity.common.java.dto.CredentialType;
 import com.microsoft.identity.common.java.dto.IdTokenRecord;
 import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.flighting.CommonFlight;
+import com.microsoft.identity.common.java.flighting.CommonFlightsManager;
 import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
 import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.storage.ParallelEntryMapper;
 import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -49,6 +55,10 @@ import lombok.NonNull;
 /**
  * Alternative version of {@link SharedPreferencesAccountCredentialCache} that assumes all writes and reads
  * are done through a single-instance and can thereforce be cached in memory.
+ * <p>
+ * In copy-on-write mode, writers publish a new immutable {@link CacheSnapshot} through a volatile
+ * reference and readers never take the cache lock once the initial load has completed.
+ * Otherwise, the snapshot is modified in place and every access is guarded by the cache lock.
  */
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends AbstractAccountCredentialCache {
@@ -58,12 +68,13 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
     private final ICacheKeyValueDelegate mCacheValueDelegate;
 
     private final Object mCacheLock = new Object();
-    private boolean mLoaded = false;
-    private Map<String, AccountRecord> mCachedAccountRecordsWithKeys = new HashMap<>();
-    private Map<String, Credential> mCachedCredentialsWithKeys = new HashMap<>();
+    private final boolean mUseCopyOnWriteSnapshots;
+    private volatile boolean mLoaded = false;
+    private volatile CacheSnapshot mSnapshot = new CacheSnapshot();
 
     /**
      * Constructor of SharedPreferencesAccountCredentialCacheWithMemoryCache.
+     * Copy-on-write mode is controlled by {@link CommonFlight#USE_COPY_ON_WRITE_IN_MEMORY_CREDENTIAL_CACHE}.
      *
      * @param accountCacheValueDelegate    ICacheKeyValueDelegate
      * @param sharedPreferencesFileManager INameValueStorage
@@ -71,9 +82,31 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
     public SharedPreferencesAccountCredentialCacheWithMemoryCache(
             @NonNull final ICacheKeyValueDelegate accountCacheValueDelegate,
             @NonNull final INameValueStorage<String> sharedPreferencesFileManager) {
+        this(
+                accountCacheValueDelegate,
+                sharedPreferencesFileManager,
+                CommonFlightsManager.INSTANCE.getFlightsProvider().isFlightEnabled(
+                        CommonFlight.USE_COPY_ON_WRITE_IN_MEMORY_CREDENTIAL_CACHE
+                )
+        );
+    }
+
+    /**
+     * Constructor of SharedPreferencesAccountCredentialCacheWithMemoryCache.
+     *
+     * @param accountCacheValueDelegate    ICacheKeyValueDelegate
+     * @param sharedPreferencesFileManager INameValueStorage
+     * @param useCopyOnWriteSnapshots      True if writers should publish immutable snapshots so
+     *                                     that readers do not need to take the cache lock.
+     */
+    public SharedPreferencesAccountCredentialCacheWithMemoryCache(
+            @NonNull final ICacheKeyValueDelegate accountCacheValueDelegate,
+            @NonNull final INameValueStorage<String> sharedPreferencesFileManager,
+            final boolean useCopyOnWriteSnapshots) {
         super(sharedPreferencesFileManager);
-        Logger.verbose(TAG, "Init: " + TAG);
+        Logger.verbose(TAG, "Init: " + TAG + " copy-on-write: [" + useCopyOnWriteSnapshots + "]");
         mCacheValueDelegate = accountCacheValueDelegate;
+        mUseCopyOnWriteSnapshots = useCopyOnWriteSnapshots;
         new Thread(() -> load()).start();
     }
 
@@ -81,20 +114,52 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":load";
 
         synchronized (mCacheLock) {
+            final CacheSnapshot snapshot = new CacheSnapshot();
             try {
-                mCachedAccountRecordsWithKeys = loadAccountsWithKeys();
-                Logger.info(methodTag, "Loaded " + mCachedAccountRecordsWithKeys.size() + " AccountRecords");
-                mCachedCredentialsWithKeys = loadCredentialsWithKeys();
-                Logger.info(methodTag, "Loaded " + mCachedCredentialsWithKeys.size() + " Credentials");
+                snapshot.mAccountRecordsWithKeys.putAll(loadAccountsWithKeys());
+                Logger.info(methodTag, "Loaded " + snapshot.mAccountRecordsWithKeys.size() + " AccountRecords");
+                for (final Map.Entry<String, Credential> entry : loadCredentialsWithKeys().entrySet()) {
+                    snapshot.putCredential(entry.getKey(), entry.getValue());
+                }
+                Logger.info(methodTag, "Loaded " + snapshot.mCredentialsWithKeys.size() + " Credentials");
             } catch (final Throwable t) {
                 Logger.error(methodTag, "Failed to load initial accounts or credentials from SharedPreferences", t);
             } finally {
+                mSnapshot = snapshot;
                 mLoaded = true;
                 mCacheLock.notifyAll();
             }
         }
     }
 
+    /**
+     * Runs the supplied reader against the current snapshot. In copy-on-write mode, published
+     * snapshots are never modified, so no lock is taken once the initial load has completed.
+     * <p>
+     * Records in a snapshot are never modified in place either way, but must be cloned before
+     * they are handed out to callers.
+     */
+    private <T> T readSnapshot(@NonNull final Function<CacheSnapshot, T> reader) {
+        if (mUseCopyOnWriteSnapshots && mLoaded) {
+            return reader.apply(mSnapshot);
+        }
+
+        synchronized (mCacheLock) {
+            waitForInitialLoad();
+            return reader.apply(mSnapshot);
+        }
+    }
+
+    /**
+     * Returns the snapshot a writer should modify: a private copy in copy-on-write mode, or the
+     * current snapshot otherwise. Must be called while holding mCacheLock, and the result must
+     * then be published to mSnapshot.
+     */
+    @NonNull
+    private CacheSnapshot snapshotForWrite() {
+        return mUseCopyOnWriteSnapshots ? mSnapshot.copy() : mSnapshot;
+    }
+
     private void waitForInitialLoad() {
         final String methodTag = TAG + ":waitForInitialLoad";
 
@@ -109,66 +174,74 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
 
     @Override
     public void saveAccount(@NonNull final AccountRecord accountInput) {
-        final String methodTag = TAG + ":saveAccount";
+        saveAccountAndCredentials(accountInput, Collections.<Credential>emptyList());
+    }
+
+    @Override
+    public void saveCredential(@NonNull Credential credentialInput) {
+        saveAccountAndCredentials(null, Collections.singletonList(credentialInput));
+    }
+
+    @Override
+    public void saveAccountAndCredentials(@Nullable final AccountRecord accountInput,
+                                          @NonNull final List<Credential> credentialInputs) {
+        final String methodTag = TAG + ":saveAccountAndCredentials";
 
         AccountRecord accountToSave = null;
+        final List<Credential> credentialsToSave = new ArrayList<>(credentialInputs.size());
         try {
-            accountToSave = (AccountRecord) accountInput.clone();
+            if (null != accountInput) {
+                accountToSave = (AccountRecord) accountInput.clone();
+            }
+            for (final Credential credentialInput : credentialInputs) {
+                credentialsToSave.add((Credential) credentialInput.clone());
+            }
         } catch (final CloneNotSupportedException e) {
-            Logger.error(methodTag, "Failed to clone AccountRecord", e);
+            Logger.error(methodTag, "Failed to clone AccountRecord or Credential", e);
             return;
         }
 
-        Logger.verbose(methodTag, "Saving Account...");
-        Logger.verbose(methodTag, "Account type: [" + accountToSave.getClass().getSimpleName() + "]");
-        final String cacheKey = mCacheValueDelegate.generateCacheKey(accountToSave);
-        Logger.verbosePII(methodTag, "Generated cache key: [" + cacheKey + "]");
-
         synchronized (mCacheLock) {
             waitForInitialLoad();
 
-            // Perform any necessary field merging on the Account to save...
-            final AccountRecord existingAccount = getAccount(cacheKey);
+            final INameValueStorageEditor<String> editor = mSharedPreferencesFileManager.edit();
+            final CacheSnapshot snapshot = snapshotForWrite();
 
-            if (null != existingAccount) {
-                accountToSave.mergeAdditionalFields(existingAccount);
-            }
+            if (null != accountToSave) {
+                Logger.verbose(methodTag, "Saving Account...");
+                Logger.verbose(methodTag, "Account type: [" + accountToSave.getClass().getSimpleName() + "]");
+                final String cacheKey = mCacheValueDelegate.generateCacheKey(accountToSave);
+                Logger.verbosePII(methodTag, "Generated cache key: [" + cacheKey + "]");
 
-            final String cacheValue = mCacheValueDelegate.generateCacheValue(accountToSave);
-            mSharedPreferencesFileManager.put(cacheKey, cacheValue);
-            mCachedAccountRecordsWithKeys.put(cacheKey, accountToSave);
-        }
-    }
+                // Perform any necessary field merging on the Account to save...
+                final AccountRecord existingAccount = getAccount(cacheKey);
 
-    @Override
-    public void saveCredential(@NonNull Credential credentialInput) {
-        final String methodTag = TAG + ":saveCredential";
+                if (null != existingAccount) {
+                    accountToSave.mergeAdditionalFields(existingAccount);
+                }
 
-        Credential credentialToSave = null;
-        try {
-            credentialToSave = (Credential) credentialInput.clone();
-        } catch (final CloneNotSupportedException e) {
-            Logger.error(methodTag, "Failed to clone Credential", e);
-            return;
-        }
+                editor.put(cacheKey, mCacheValueDelegate.generateCacheValue(accountToSave));
+                snapshot.mAccountRecordsWithKeys.put(cacheKey, accountToSave);
+            }
 
-        Logger.verbose(methodTag, "Saving credential...");
-        final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToSave);
-        Logger.verbosePII(methodTag, "Generated cache key: [" + cacheKey + "]");
+            for (final Credential credentialToSave : credentialsToSave) {
+                Logger.verbose(methodTag, "Saving credential...");
+                final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToSave);
+                Logger.verbosePII(methodTag, "Generated cache key: [" + cacheKey + "]");
 
-        synchronized (mCacheLock) {
-            waitForInitialLoad();
+                // Perform any necessary field merging on the Credential to save...
+                final Credential existingCredential = getCredential(cacheKey);
 
-            // Perform any necessary field merging on the Credential to save...
-            final Credential existingCredential = getCredential(cacheKey);
+                if (null != existingCredential) {
+                    credentialToSave.mergeAdditionalFields(existingCredential);
+                }
 
-            if (null != existingCredential) {
-                credentialToSave.mergeAdditionalFields(existingCredential);
+                editor.put(cacheKey, mCacheValueDelegate.generateCacheValue(credentialToSave));
+                snapshot.putCredential(cacheKey, credentialToSave);
             }
 
-            final String cacheValue = mCacheValueDelegate.generateCacheValue(credentialToSave);
-            mSharedPreferencesFileManager.put(cacheKey, cacheValue);
-            mCachedCredentialsWithKeys.put(cacheKey, credentialToSave);
+            editor.commit();
+            mSnapshot = snapshot;
         }
     }
 
@@ -176,12 +249,12 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
     public AccountRecord getAccount(@NonNull final String cacheKey) {
         final String methodTag = TAG + ":getAccount";
 
-        AccountRecord foundValue;
-
-        synchronized (mCacheLock) {
-            waitForInitialLoad();
-            foundValue = mCachedAccountRecordsWithKeys.get(cacheKey);
-        }
+        AccountRecord foundValue = readSnapshot(new Function<CacheSnapshot, AccountRecord>() {
+            @Override
+            public AccountRecord apply(@NonNull final CacheSnapshot snapshot) {
+                return snapshot.mAccountRecordsWithKeys.get(cacheKey);
+            }
+        });
 
         try {
             if (foundValue != null) {
@@ -198,12 +271,12 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
     public Credential getCredential(@NonNull final String cacheKey) {
         final String methodTag = TAG + ":getCredential";
 
-        Credential foundValue;
-
-        synchronized (mCacheLock) {
-            waitForInitialLoad();
-            foundValue = mCachedCredentialsWithKeys.get(cacheKey);
-        }
+        Credential foundValue = readSnapshot(new Function<CacheSnapshot, Credential>() {
+            @Override
+            public Credential apply(@NonNull final CacheSnapshot snapshot) {
+                return snapshot.mCredentialsWithKeys.get(cacheKey);
+            }
+        });
 
         try {
             if (foundValue != null) {
@@ -221,30 +294,37 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":loadAccountsWithKeys";
 
         Logger.verbose(methodTag, "Loading Accounts + keys...");
-        final Iterator<Map.Entry<String, String>> cacheValues = mSharedPreferencesFileManager.getAllFilteredByKey(new Predicate<String>() {
-            @Override
-            public boolean test(String value) {
-                return isAccount(value);
-            }
-        });
-        final Map<String, AccountRecord> accounts = new HashMap<>();
-        if (cacheValues != null) {
-            while (cacheValues.hasNext()) {
-                Map.Entry<String, ?> cacheValue = cacheValues.next();
-                final String cacheKey = cacheValue.getKey();
-                final AccountRecord account = mCacheValueDelegate.fromCacheValue(
-                        cacheValue.getValue().toString(),
-                        AccountRecord.class
-                );
+        final Map<String, AccountRecord> accounts = mSharedPreferencesFileManager.getAllFilteredByKey(
+                new Predicate<String>() {
+                    @Override
+                    public boolean test(String value) {
+                        return isAccount(value);
+                    }
+                },
+                new Function<Map.Entry<String, String>, AccountRecord>() {
+                    @Override
+                    public AccountRecord apply(@NonNull final Map.Entry<String, String> cacheValue) {
+                        final AccountRecord account = mCacheValueDelegate.fromCacheValue(
+                                cacheValue.getValue(),
+                                AccountRecord.class
+                        );
+
+                        if (null == account) {
+                            Logger.warn(methodTag, SharedPreferencesAccountCredentialCache.ACCOUNT_RECORD_DESERIALIZATION_FAILED);
+                        }
+                        return account;
+                    }
+                },
+                ParallelEntryMapper.getDefaultExecutor()
+        );
 
-                if (null == account) {
-                    Logger.warn(methodTag, SharedPreferencesAccountCredentialCache.ACCOUNT_RECORD_DESERIALIZATION_FAILED);
-                } else if (SharedPreferencesAccountCredentialCache.EMPTY_ACCOUNT.equals(account)) {
-                    Logger.warn(methodTag, "The returned Account was uninitialized. Removing...");
-                    mSharedPreferencesFileManager.remove(cacheKey);
-                } else {
-                    accounts.put(cacheKey, account);
-                }
+        final Iterator<Map.Entry<String, AccountRecord>> iterator = accounts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, AccountRecord> entry = iterator.next();
+            if (SharedPreferencesAccountCredentialCache.EMPTY_ACCOUNT.equals(entry.getValue())) {
+                Logger.warn(methodTag, "The returned Account was uninitialized. Removing...");
+                mSharedPreferencesFileManager.remove(entry.getKey());
+                iterator.remove();
             }
         }
 
@@ -259,19 +339,23 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":getAccounts";
         Logger.verbose(methodTag, "Loading Accounts...(no arg)");
 
-        synchronized (mCacheLock) {
-            waitForInitialLoad();
-            final List<AccountRecord> accounts = new ArrayList<>();
-            for (AccountRecord record : mCachedAccountRecordsWithKeys.values()) {
-                try {
-                    accounts.add((AccountRecord) record.clone());
-                } catch (final CloneNotSupportedException e) {
-                    Logger.error(methodTag, "Failed to clone AccountRecord", e);
-                }
+        final List<AccountRecord> records = readSnapshot(new Function<CacheSnapshot, List<AccountRecord>>() {
+            @Override
+            public List<AccountRecord> apply(@NonNull final CacheSnapshot snapshot) {
+                return new ArrayList<>(snapshot.mAccountRecordsWithKeys.values());
+            }
+        });
+
+        final List<AccountRecord> accounts = new ArrayList<>(records.size());
+        for (final AccountRecord record : records) {
+            try {
+                accounts.add((AccountRecord) record.clone());
+            } catch (final CloneNotSupportedException e) {
+                Logger.error(methodTag, "Failed to clone AccountRecord", e);
             }
-            Logger.info(methodTag, "Found [" + accounts.size() + "] Accounts...");
-            return accounts;
         }
+        Logger.info(methodTag, "Found [" + accounts.size() + "] Accounts...");
+        return accounts;
     }
 
     @Override
@@ -302,35 +386,44 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":getCredentialsWithKeys";
         Logger.verbose(methodTag, "Loading Credentials with keys...");
 
-        final Map<String, Credential> credentials = new HashMap<>();
-        final Iterator<Map.Entry<String, String>> cacheValues = mSharedPreferencesFileManager.getAllFilteredByKey(new Predicate<String>() {
-            @Override
-            public boolean test(String value) {
-                return isCredential(value);
-            }
-        });
-
-        while (cacheValues.hasNext()) {
-            Map.Entry<String, ?> cacheValue = cacheValues.next();
-            final String cacheKey = cacheValue.getKey();
-            final Class<? extends AccountCredentialBase> clazz = credentialClassForType(cacheKey);
-            final Credential credential = mCacheValueDelegate.fromCacheValue(
-                    cacheValue.getValue().toString(),
-                    clazz
-            );
+        final Map<String, Credential> credentials = mSharedPreferencesFileManager.getAllFilteredByKey(
+                new Predicate<String>() {
+                    @Override
+                    public boolean test(String value) {
+                        return isCredential(value);
+                    }
+                },
+                new Function<Map.Entry<String, String>, Credential>() {
+                    @Override
+                    public Credential apply(@NonNull final Map.Entry<String, String> cacheValue) {
+                        final Class<? extends AccountCredentialBase> clazz = credentialClassForType(cacheValue.getKey());
+                        final Credential credential = mCacheValueDelegate.fromCacheValue(
+                                cacheValue.getValue(),
+                                clazz
+                        );
+
+                        if (null == credential) {
+                            Logger.warn(methodTag, SharedPreferencesAccountCredentialCache.CREDENTIAL_DESERIALIZATION_FAILED);
+                        }
+                        return credential;
+                    }
+                },
+                ParallelEntryMapper.getDefaultExecutor()
+        );
 
-            if (null == credential) {
-                Logger.warn(methodTag, SharedPreferencesAccountCredentialCache.CREDENTIAL_DESERIALIZATION_FAILED);
-            } else if ((AccessTokenRecord.class == clazz && SharedPreferencesAccountCredentialCache.EMPTY_AT.equals(credential))
+        final Iterator<Map.Entry<String, Credential>> iterator = credentials.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Credential> entry = iterator.next();
+            final Credential credential = entry.getValue();
+            final Class<? extends Credential> clazz = credential.getClass();
+            if ((AccessTokenRecord.class == clazz && SharedPreferencesAccountCredentialCache.EMPTY_AT.equals(credential))
                 || (RefreshTokenRecord.class == clazz && SharedPreferencesAccountCredentialCache.EMPTY_RT.equals(credential))
                 || (IdTokenRecord.class == clazz) && SharedPreferencesAccountCredentialCache.EMPTY_ID.equals(credential)) {
                 // The returned credential came back uninitialized...
-                // Remove the entry and return null...
+                // Remove the entry...
                 Logger.warn(methodTag, "The returned Credential was uninitialized. Removing...");
-                mSharedPreferencesFileManager.remove(cacheKey);
-            }
-            else {
-                credentials.put(cacheKey, credential);
+                mSharedPreferencesFileManager.remove(entry.getKey());
+                iterator.remove();
             }
         }
 
@@ -345,18 +438,68 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":getCredentials";
         Logger.verbose(methodTag, "Loading Credentials...");
 
-        synchronized (mCacheLock) {
-            waitForInitialLoad();
-            ArrayList<Credential> credentials = new ArrayList<>();
-            for (Credential credential : mCachedCredentialsWithKeys.values()) {
-                try {
-                    credentials.add((Credential)credential.clone());
-                } catch (final CloneNotSupportedException e) {
-                    Logger.error(methodTag, "Failed to clone Credential", e);
+        return cloneCredentials(readSnapshot(new Function<CacheSnapshot, List<Credential>>() {
+            @Override
+            public List<Credential> apply(@NonNull final CacheSnapshot snapshot) {
+                return new ArrayList<>(snapshot.mCredentialsWithKeys.values());
+            }
+        }));
+    }
+
+    /**
+     * Returns the cached credentials that may match the supplied criteria, consulting
+     * {@link CredentialIndex} so that only candidate entries are visited. Falls back to every
+     * cached credential when the criteria are too broad for the index.
+     * <p>
+     * The result is a superset of the matching credentials and must still be filtered. The
+     * records are not cloned, and must be cloned before they are handed out to callers.
+     */
+    @NonNull
+    private List<Credential> getCandidateCredentials(@Nullable final String homeAccountId,
+                                                     @Nullable final String environment,
+                                                     @Nullable final CredentialType credentialType,
+                                                     @Nullable final String clientId,
+                                                     @Nullable final String realm) {
+        return readSnapshot(new Function<CacheSnapshot, List<Credential>>() {
+            @Override
+            public List<Credential> apply(@NonNull final CacheSnapshot snapshot) {
+                final Set<String> candidateKeys = snapshot.mCredentialIndex.getCandidateCacheKeys(
+                        homeAccountId,
+                        environment,
+                        credentialType,
+                        clientId,
+                        realm
+                );
+
+                if (null == candidateKeys) {
+                    return new ArrayList<>(snapshot.mCredentialsWithKeys.values());
+                }
+
+                final List<Credential> candidates = new ArrayList<>(candidateKeys.size());
+                for (final String cacheKey : candidateKeys) {
+                    final Credential credential = snapshot.mCredentialsWithKeys.get(cacheKey);
+                    if (null != credential) {
+                        candidates.add(credential);
+                    }
                 }
+                return candidates;
+            }
+        });
+    }
+
+    @NonNull
+    private static List<Credential> cloneCredentials(@NonNull final List<Credential> credentials) {
+        final String methodTag = TAG + ":cloneCredentials";
+
+        final List<Credential> clones = new ArrayList<>(credentials.size());
+        for (final Credential credential : credentials) {
+            try {
+                clones.add((Credential) credential.clone());
+            } catch (final CloneNotSupportedException e) {
+                Logger.error(methodTag, "Failed to clone Credential", e);
             }
-            return credentials;
         }
+        return clones;
     }
 
     @Override
@@ -374,10 +517,16 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":getCredentialsFilteredBy";
         Logger.verbose(methodTag, "getCredentialsFilteredBy()");
 
-        final List<Credential> allCredentials = getCredentials();
+        final List<Credential> candidateCredentials = getCandidateCredentials(
+                homeAccountId,
+                environment,
+                credentialType,
+                clientId,
+                realm
+        );
 
-        final List<Credential> matchingCredentials = getCredentialsFilteredByInternal(
-                allCredentials,
+        final List<Credential> matchingCredentials = cloneCredentials(getCredentialsFilteredByInternal(
+                candidateCredentials,
                 homeAccountId,
                 environment,
                 credentialType,
@@ -390,7 +539,7 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
                 null,
                 null,
                 false
-        );
+        ));
 
         Logger.verbose(methodTag, "Found [" + matchingCredentials.size() + "] matching Credentials...");
 
@@ -449,10 +598,16 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         final String methodTag = TAG + ":getCredentialsFilteredBy";
         Logger.verbose(methodTag, "getCredentialsFilteredBy()");
 
-        final List<Credential> allCredentials = getCredentials();
+        final List<Credential> candidateCredentials = getCandidateCredentials(
+                homeAccountId,
+                environment,
+                credentialType,
+                clientId,
+                realm
+        );
 
-        final List<Credential> matchingCredentials = getCredentialsFilteredByInternal(
-                allCredentials,
+        final List<Credential> matchingCredentials = cloneCredentials(getCredentialsFilteredByInternal(
+                candidateCredentials,
                 homeAccountId,
                 environment,
                 credentialType,
@@ -465,7 +620,7 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
                 requestedClaims,
                 null,
                 false
-        );
+        ));
 
         Logger.verbose(methodTag, "Found [" + matchingCredentials.size() + "] matching Credentials...");
 
@@ -560,13 +715,19 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
                                                      @Nullable final String target,
                                                      @Nullable final String authScheme,
                                                      @Nullable final String requestedClaims) {
-        final List<Credential> allCredentials = getCredentials();
-
         final List<Credential> result = new ArrayList<>();
         for (final CredentialType type : credentialTypes) {
+            final List<Credential> candidateCredentials = getCandidateCredentials(
+                    homeAccountId,
+                    environment,
+                    type,
+                    clientId,
+                    realm
+            );
+
             result.addAll(
                     getCredentialsFilteredByInternal(
-                            allCredentials,
+                            candidateCredentials,
                             homeAccountId,
                             environment,
                             type,
@@ -583,7 +744,7 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
             );
         }
 
-        return result;
+        return cloneCredentials(result);
     }
 
     @Override
@@ -641,7 +802,9 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
             }
             Logger.info(methodTag, "Account was removed? [" + accountRemoved + "]");
 
-            mCachedAccountRecordsWithKeys.remove(cacheKey);
+            final CacheSnapshot snapshot = snapshotForWrite();
+            snapshot.mAccountRecordsWithKeys.remove(cacheKey);
+            mSnapshot = snapshot;
 
             return accountRemoved;
         }
@@ -668,7 +831,9 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
 
             Logger.info(methodTag, "Credential was removed? [" + credentialRemoved + "]");
 
-            mCachedCredentialsWithKeys.remove(cacheKey);
+            final CacheSnapshot snapshot = snapshotForWrite();
+            snapshot.removeCredential(cacheKey);
+            mSnapshot = snapshot;
 
             return credentialRemoved;
         }
@@ -682,8 +847,7 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         synchronized (mCacheLock) {
             waitForInitialLoad();
             mSharedPreferencesFileManager.clear();
-            mCachedCredentialsWithKeys.clear();
-            mCachedAccountRecordsWithKeys.clear();
+            mSnapshot = new CacheSnapshot();
         }
         Logger.info(methodTag, "SharedPreferences cleared.");
     }
@@ -770,4 +934,52 @@ public class SharedPreferencesAccountCredentialCacheWithMemoryCache extends Abst
         Logger.verbose(methodTag, "isCredential? [" + isCredential + "]");
         return isCredential;
     }
+
+    /**
+     * The in-memory contents of the cache, along with the {@link CredentialIndex} over them.
+     */
+    private static final class CacheSnapshot {
+        private final Map<String, AccountRecord> mAccountRecordsWithKeys;
+        private final Map<String, Credential> mCredentialsWithKeys;
+        private final CredentialIndex mCredentialIndex;
+
+        CacheSnapshot() {
+            this(new HashMap<String, AccountRecord>(), new HashMap<String, Credential>(), new CredentialIndex());
+        }
+
+        private CacheSnapshot(@NonNull final Map<String, AccountRecord> accountRecordsWithKeys,
+                              @NonNull final Map<String, Credential> credentialsWithKeys,
+                              @NonNull final CredentialIndex credentialIndex) {
+            mAccountRecordsWithKeys = accountRecordsWithKeys;
+            mCredentialsWithKeys = credentialsWithKeys;
+            mCredentialIndex = credentialIndex;
+        }
+
+        /**
+         * @return a copy of this snapshot. The records themselves are shared, not cloned.
+         */
+        @NonNull
+        CacheSnapshot copy() {
+            return new CacheSnapshot(
+                    new HashMap<>(mAccountRecordsWithKeys),
+                    new HashMap<>(mCredentialsWithKeys),
+                    new CredentialIndex(mCredentialIndex)
+            );
+        }
+
+        void putCredential(@NonNull final String cacheKey, @NonNull final Credential credential) {
+            final Credential replacedCredential = mCredentialsWithKeys.put(cacheKey, credential);
+            if (null != replacedCredential) {
+                mCredentialIndex.remove(cacheKey, replacedCredential);
+            }
+            mCredentialIndex.add(cacheKey, credential);
+        }
+
+        void removeCredential(@NonNull final String cacheKey) {
+            final Credential removedCredential = mCredentialsWithKeys.remove(cacheKey);
+            if (null != removedCredential) {
+                mCredentialIndex.remove(cacheKey, removedCredential);
+            }
+        }
+    }
 }
@@ -0,0 +1,256 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * A thread safe LRU cache bounded by the total weight of its entries rather than their count.
+ * <p>
+ * Keys are spread over independently locked stripes, each holding an equal share of the weight
+ * budget, so that concurrent readers of different keys rarely contend. Each stripe evicts its
+ * least recently used entries once it goes over its share.
+ *
+ * @param <V> the type of the cached values.
+ */
+public final class StripedLruCache<V> {
+
+    /**
+     * The default number of stripes.
+     */
+    public static final int DEFAULT_STRIPE_COUNT = 16;
+
+    private final Stripe<V>[] mStripes;
+    private final long mMaxWeightPerStripe;
+
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mEvictionCount = new AtomicLong();
+
+    /**
+     * @param maxWeight the maximum total weight of the cached entries.
+     */
+    public StripedLruCache(final long maxWeight) {
+        this(maxWeight, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * @param maxWeight   the maximum total weight of the cached entries.
+     * @param stripeCount the number of independently locked stripes.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLruCache(final long maxWeight, final int stripeCount) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive.");
+        }
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("stripeCount must be positive.");
+        }
+
+        mStripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            mStripes[i] = new Stripe<>();
+        }
+        mMaxWeightPerStripe = Math.max(1, maxWeight / stripeCount);
+    }
+
+    /**
+     * Returns the cached value of the key, and marks it as most recently used.
+     *
+     * @param key the key to look up.
+     * @return the cached value, or null if the key is not cached.
+     */
+    @Nullable
+    public V get(@NonNull final String key) {
+        final Stripe<V> stripe = stripeFor(key);
+        final Entry<V> entry;
+        synchronized (stripe) {
+            entry = stripe.mEntries.get(key);
+        }
+
+        if (entry == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        mHitCount.incrementAndGet();
+        return entry.mValue;
+    }
+
+    /**
+     * Caches a value, replacing any value cached for the key. A value heavier than the share of
+     * a stripe is not cached at all.
+     *
+     * @param key    the key.
+     * @param value  the value.
+     * @param weight the weight of the value, e.g. its serialized length.
+     */
+    public void put(@NonNull final String key, @NonNull final V value, final int weight) {
+        put(key, value, weight, false);
+    }
+
+    /**
+     * Caches a value unless one is already cached for the key.
+     *
+     * @param key    the key.
+     * @param value  the value.
+     * @param weight the weight of the value, e.g. its serialized length.
+     * @return true if the value was cached.
+     */
+    public boolean putIfAbsent(@NonNull final String key, @NonNull final V value, final int weight) {
+        return put(key, value, weight, true);
+    }
+
+    private boolean put(@NonNull final String key,
+                        @NonNull final V value,
+                        final int weight,
+                        final boolean onlyIfAbsent) {
+        final Stripe<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            if (onlyIfAbsent && stripe.mEntries.containsKey(key)) {
+                return false;
+            }
+
+            stripe.remove(key);
+            if (weight > mMaxWeightPerStripe) {
+                return false;
+            }
+
+            stripe.mEntries.put(key, new Entry<>(value, weight));
+            stripe.mWeight += weight;
+
+            final Iterator<Entry<V>> eldest = stripe.mEntries.values().iterator();
+            while (stripe.mWeight > mMaxWeightPerStripe && eldest.hasNext()) {
+                stripe.mWeight -= eldest.next().mWeight;
+                eldest.remove();
+                mEvictionCount.incrementAndGet();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes the value cached for the key, if any.
+     *
+     * @param key the key.
+     */
+    public void remove(@NonNull final String key) {
+        final Stripe<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /**
+     * Removes every cached value.
+     */
+    public void clear() {
+        for (final Stripe<V> stripe : mStripes) {
+            synchronized (stripe) {
+                stripe.mEntries.clear();
+                stripe.mWeight = 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached values.
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe<V> stripe : mStripes) {
+            synchronized (stripe) {
+                size += stripe.mEntries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the total weight of the cached values.
+     */
+    public long weight() {
+        long weight = 0;
+        for (final Stripe<V> stripe : mStripes) {
+            synchronized (stripe) {
+                weight += stripe.mWeight;
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * @return the number of lookups that found a cached value.
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return the number of lookups that did not find a cached value.
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * @return the number of values evicted to stay within the weight budget.
+     */
+    public long getEvictionCount() {
+        return mEvictionCount.get();
+    }
+
+    private Stripe<V> stripeFor(@NonNull final String key) {
+        // Spread the hash as HashMap does, since stripe counts are small.
+        final int hash = key.hashCode();
+        return mStripes[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % mStripes.length];
+    }
+
+    private static final class Stripe<V> {
+        // Access ordered, so that iteration starts with the least recently used entry.
+        private final LinkedHashMap<String, Entry<V>> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+        private long mWeight;
+
+        private void remove(@NonNull final String key) {
+            final Entry<V> previous = mEntries.remove(key);
+            if (previous != null) {
+                mWeight -= previous.mWeight;
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V mValue;
+        private final int mWeight;
+
+        private Entry(@NonNull final V value, final int weight) {
+            mValue = value;
+            mWeight = weight;
+        }
+    }
+}
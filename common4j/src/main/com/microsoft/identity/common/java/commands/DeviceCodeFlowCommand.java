@@ -37,6 +37,8 @@ import com.microsoft.identity.common.java.opentelemetry.SpanName;
 import com.microsoft.identity.common.java.providers.microsoft.microsoftsts.MicrosoftStsAuthorizationResponse;
 import com.microsoft.identity.common.java.providers.oauth2.AuthorizationResult;
 import com.microsoft.identity.common.java.result.AcquireTokenResult;
+import com.microsoft.identity.common.java.util.BiConsumer;
+import com.microsoft.identity.common.java.util.ResultFuture;
 
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
@@ -53,7 +55,7 @@ import lombok.NonNull;
  * Class also includes some pre-defined error codes and messages to be used in
  * exception handling.
  */
-public class DeviceCodeFlowCommand extends TokenCommand {
+public class DeviceCodeFlowCommand extends TokenCommand implements IAsyncCommand<AcquireTokenResult> {
     private static final String TAG = DeviceCodeFlowCommand.class.getSimpleName();
 
     public DeviceCodeFlowCommand(@NonNull final DeviceCodeFlowCommandParameters parameters,
@@ -65,7 +67,21 @@ public class DeviceCodeFlowCommand extends TokenCommand {
 
     @Override
     public AcquireTokenResult execute() throws Exception {
-        final String methodTag = TAG + ":execute";
+        return start(true).getResultOrThrow();
+    }
+
+    @Override
+    public ResultFuture<AcquireTokenResult> executeAsync() throws Exception {
+        return start(false);
+    }
+
+    /**
+     * @param blocking whether the caller waits for the result. The token is then acquired through
+     *                 the controller's blocking call, since the caller may hold a Device Code Flow
+     *                 command executor thread, which asynchronous polling needs for its token requests.
+     */
+    private ResultFuture<AcquireTokenResult> start(final boolean blocking) throws Exception {
+        final String methodTag = TAG + ":executeAsync";
         Logger.verbose(
                 methodTag,
                 "Device Code Flow command initiating..."
@@ -112,37 +128,59 @@ public class DeviceCodeFlowCommand extends TokenCommand {
                     expiredDate
             );
 
-            // Call acquireDeviceCodeFlowToken to get token result (Part 2 of DCF)
-            final AcquireTokenResult tokenResult = controller.acquireDeviceCodeFlowToken(authorizationResult, commandParameters);
-
-            Logger.verbose(
-                    methodTag,
-                    "Device Code Flow command exiting with token..."
-            );
-
-            if (tokenResult == null) {
-                span.setStatus(StatusCode.ERROR, "empty result");
-            } else if (tokenResult.getSucceeded()) {
-                span.setStatus(StatusCode.OK);
+            // Start polling for the token result (Part 2 of DCF); the span ends when polling does
+            final ResultFuture<AcquireTokenResult> tokenResultFuture;
+            if (blocking) {
+                tokenResultFuture = new ResultFuture<>();
+                try {
+                    tokenResultFuture.setResult(controller.acquireDeviceCodeFlowToken(authorizationResult, commandParameters));
+                } catch (final Exception e) {
+                    tokenResultFuture.setException(e);
+                }
             } else {
-                final BaseException exception = ExceptionAdapter.exceptionFromAcquireTokenResult(tokenResult, getParameters());
-                if (!(exception.getErrorCode().equals(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE))) {
-                    if (exception != null) {
-                        span.recordException(exception);
+                tokenResultFuture = controller.acquireDeviceCodeFlowTokenAsync(authorizationResult, commandParameters);
+            }
+            tokenResultFuture.whenComplete(new BiConsumer<AcquireTokenResult, Throwable>() {
+                @Override
+                public void accept(final AcquireTokenResult tokenResult, final Throwable throwable) {
+                    if (throwable != null) {
                         span.setStatus(StatusCode.ERROR);
+                        span.recordException(throwable);
+                        span.end();
+                        return;
+                    }
+
+                    Logger.verbose(
+                            methodTag,
+                            "Device Code Flow command exiting with token..."
+                    );
+
+                    if (tokenResult == null) {
+                        span.setStatus(StatusCode.ERROR, "empty result");
+                    } else if (tokenResult.getSucceeded()) {
+                        span.setStatus(StatusCode.OK);
                     } else {
-                        span.setStatus(StatusCode.ERROR, "empty exception");
+                        final BaseException exception = ExceptionAdapter.exceptionFromAcquireTokenResult(tokenResult, getParameters());
+                        if (!(exception.getErrorCode().equals(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE))) {
+                            if (exception != null) {
+                                span.recordException(exception);
+                                span.setStatus(StatusCode.ERROR);
+                            } else {
+                                span.setStatus(StatusCode.ERROR, "empty exception");
+                            }
+                        }
                     }
+
+                    span.end();
                 }
-            }
+            });
 
-            return tokenResult;
+            return tokenResultFuture;
         } catch (final Throwable throwable) {
             span.setStatus(StatusCode.ERROR);
             span.recordException(throwable);
-            throw throwable;
-        } finally {
             span.end();
+            throw throwable;
         }
     }
 
@@ -36,6 +36,8 @@ import com.microsoft.identity.common.java.opentelemetry.SpanExtension;
 import com.microsoft.identity.common.java.opentelemetry.SpanName;
 import com.microsoft.identity.common.java.providers.oauth2.AuthorizationResult;
 import com.microsoft.identity.common.java.result.AcquireTokenResult;
+import com.microsoft.identity.common.java.util.BiConsumer;
+import com.microsoft.identity.common.java.util.ResultFuture;
 
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
@@ -47,7 +49,7 @@ import lombok.NonNull;
  * Takes in a parameters object containing the  desired access scopes along with authorizationResult {@link AuthorizationResult}
  * and returns a token result.
  */
-public class DeviceCodeFlowTokenResultCommand extends TokenCommand{
+public class DeviceCodeFlowTokenResultCommand extends TokenCommand implements IAsyncCommand<AcquireTokenResult> {
     private static final String TAG = DeviceCodeFlowTokenResultCommand.class.getSimpleName();
 
     private final AuthorizationResult mAuthorizationResult;
@@ -64,7 +66,21 @@ public class DeviceCodeFlowTokenResultCommand extends TokenCommand{
 
     @Override
     public AcquireTokenResult execute() throws Exception {
-        final String methodTag = TAG + ":execute";
+        return start(true).getResultOrThrow();
+    }
+
+    @Override
+    public ResultFuture<AcquireTokenResult> executeAsync() throws Exception {
+        return start(false);
+    }
+
+    /**
+     * @param blocking whether the caller waits for the result. The token is then acquired through
+     *                 the controller's blocking call, since the caller may hold a Device Code Flow
+     *                 command executor thread, which asynchronous polling needs for its token requests.
+     */
+    private ResultFuture<AcquireTokenResult> start(final boolean blocking) throws Exception {
+        final String methodTag = TAG + ":executeAsync";
         Logger.verbose(
                 methodTag,
                 "DeviceCodeFlowTokenResultCommand initiating..."
@@ -83,35 +99,57 @@ public class DeviceCodeFlowTokenResultCommand extends TokenCommand{
             // Fetch the parameters
             final DeviceCodeFlowCommandParameters commandParameters = (DeviceCodeFlowCommandParameters) getParameters();
 
-            // Call acquireDeviceCodeFlowToken to get token result (Part 2 of DCF)
-            final AcquireTokenResult tokenResult = controller.acquireDeviceCodeFlowToken(mAuthorizationResult, commandParameters);
-
-            if (tokenResult == null) {
-                span.setStatus(StatusCode.ERROR, "empty result");
-            } else if (tokenResult.getSucceeded()) {
-                span.setStatus(StatusCode.OK);
-            } else {
-                final BaseException exception = ExceptionAdapter.exceptionFromAcquireTokenResult(tokenResult, getParameters());
-                if (exception != null && !(exception.getErrorCode().equals(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE))) {
-                    span.recordException(exception);
-                    span.setStatus(StatusCode.ERROR);
-                } else {
-                    span.setStatus(StatusCode.ERROR, "empty exception");
+            // Start polling for the token result (Part 2 of DCF); the span ends when polling does
+            final ResultFuture<AcquireTokenResult> tokenResultFuture;
+            if (blocking) {
+                tokenResultFuture = new ResultFuture<>();
+                try {
+                    tokenResultFuture.setResult(controller.acquireDeviceCodeFlowToken(mAuthorizationResult, commandParameters));
+                } catch (final Exception e) {
+                    tokenResultFuture.setException(e);
                 }
+            } else {
+                tokenResultFuture = controller.acquireDeviceCodeFlowTokenAsync(mAuthorizationResult, commandParameters);
             }
+            tokenResultFuture.whenComplete(new BiConsumer<AcquireTokenResult, Throwable>() {
+                @Override
+                public void accept(final AcquireTokenResult tokenResult, final Throwable throwable) {
+                    if (throwable != null) {
+                        span.setStatus(StatusCode.ERROR);
+                        span.recordException(throwable);
+                        span.end();
+                        return;
+                    }
+
+                    if (tokenResult == null) {
+                        span.setStatus(StatusCode.ERROR, "empty result");
+                    } else if (tokenResult.getSucceeded()) {
+                        span.setStatus(StatusCode.OK);
+                    } else {
+                        final BaseException exception = ExceptionAdapter.exceptionFromAcquireTokenResult(tokenResult, getParameters());
+                        if (exception != null && !(exception.getErrorCode().equals(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE))) {
+                            span.recordException(exception);
+                            span.setStatus(StatusCode.ERROR);
+                        } else {
+                            span.setStatus(StatusCode.ERROR, "empty exception");
+                        }
+                    }
+
+                    Logger.verbose(
+                            methodTag,
+                            "DeviceCodeFlowTokenResultCommand exiting with token..."
+                    );
 
-            Logger.verbose(
-                    methodTag,
-                    "DeviceCodeFlowTokenResultCommand exiting with token..."
-            );
+                    span.end();
+                }
+            });
 
-            return tokenResult;
+            return tokenResultFuture;
         } catch (final Throwable throwable) {
             span.setStatus(StatusCode.ERROR);
             span.recordException(throwable);
-            throw throwable;
-        } finally {
             span.end();
+            throw throwable;
         }
     }
 
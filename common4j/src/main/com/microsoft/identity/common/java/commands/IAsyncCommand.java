@@ -0,0 +1,41 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.commands;
+
+import com.microsoft.identity.common.java.util.ResultFuture;
+
+/**
+ * Implemented by commands that can wait for their result without holding a thread, such as
+ * Device Code Flow commands waiting for the user to sign in on another device.
+ * The dispatcher starts these with {@link #executeAsync()} instead of {@link ICommand#execute()}.
+ */
+public interface IAsyncCommand<T> extends ICommand<T> {
+
+    /**
+     * Starts the command's operation.
+     *
+     * @return a future completed with what {@link ICommand#execute()} would return, or with what
+     * it would throw. Cancelling it stops the operation.
+     */
+    ResultFuture<T> executeAsync() throws Exception;
+}
@@ -86,6 +86,7 @@ import com.microsoft.identity.common.java.telemetry.Telemetry;
 import com.microsoft.identity.common.java.telemetry.events.CacheEndEvent;
 import com.microsoft.identity.common.java.ui.PreferredAuthMethod;
 import com.microsoft.identity.common.java.util.ObjectMapper;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.ResultUtil;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.PropertyBag;
@@ -164,6 +165,26 @@ public abstract class BaseController {
     public abstract AcquireTokenResult acquireDeviceCodeFlowToken(@SuppressWarnings(WarningType.rawtype_warning) final AuthorizationResult authorizationResult, final DeviceCodeFlowCommandParameters parameters)
             throws Exception;
 
+    /**
+     * Starts polling for the Device Code Flow token. The returned future completes with what
+     * {@link #acquireDeviceCodeFlowToken(AuthorizationResult, DeviceCodeFlowCommandParameters)}
+     * returns, or with what it throws; cancelling it stops polling.
+     * <p>
+     * This default implementation polls on the calling thread. Controllers that can wait for the
+     * user without holding a thread override it.
+     */
+    public ResultFuture<AcquireTokenResult> acquireDeviceCodeFlowTokenAsync(@SuppressWarnings(WarningType.rawtype_warning) final AuthorizationResult authorizationResult,
+                                                                           final DeviceCodeFlowCommandParameters parameters) {
+        final ResultFuture<AcquireTokenResult> resultFuture = new ResultFuture<>();
+        try {
+            resultFuture.setResult(acquireDeviceCodeFlowToken(authorizationResult, parameters));
+        } catch (final Exception e) {
+            resultFuture.setException(e);
+        }
+
+        return resultFuture;
+    }
+
     public AcquireTokenResult acquireTokenWithPassword(@NonNull final RopcTokenCommandParameters parameters) throws Exception {
         final String methodName = ":acquireToken";
 
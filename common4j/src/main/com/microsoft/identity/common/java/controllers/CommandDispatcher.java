@@ -45,11 +45,13 @@ import com.microsoft.identity.common.java.commands.BaseCommand;
 import com.microsoft.identity.common.java.commands.DeviceCodeFlowAuthResultCommand;
 import com.microsoft.identity.common.java.commands.DeviceCodeFlowCommand;
 import com.microsoft.identity.common.java.commands.DeviceCodeFlowTokenResultCommand;
+import com.microsoft.identity.common.java.commands.IAsyncCommand;
 import com.microsoft.identity.common.java.commands.ICommandResult;
 import com.microsoft.identity.common.java.commands.InteractiveTokenCommand;
 import com.microsoft.identity.common.java.commands.SilentTokenCommand;
 import com.microsoft.identity.common.java.commands.parameters.BrokerInteractiveTokenCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.CommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.RemoveAccountCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
 import com.microsoft.identity.common.java.configuration.LibraryConfiguration;
 import com.microsoft.identity.common.java.eststelemetry.EstsTelemetry;
@@ -76,18 +78,21 @@ import com.microsoft.identity.common.java.result.VoidResult;
 import com.microsoft.identity.common.java.telemetry.Telemetry;
 import com.microsoft.identity.common.java.util.BiConsumer;
 import com.microsoft.identity.common.java.util.IPlatformUtil;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.LocalBroadcaster;
 import com.microsoft.identity.common.java.util.ported.PropertyBag;
 
-import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -98,77 +103,194 @@ import lombok.NonNull;
 public class CommandDispatcher {
 
     private static final String TAG = CommandDispatcher.class.getSimpleName();
-    private static final int SILENT_REQUEST_THREAD_POOL_SIZE = 5;
-    private static final int DCF_REQUEST_THREAD_POOL_SIZE = 5;
-    private static ExecutorService sInteractiveExecutor = Executors.newSingleThreadExecutor();
-    private static ExecutorService sSilentExecutor = Executors.newFixedThreadPool(SILENT_REQUEST_THREAD_POOL_SIZE);
-    private static final ExecutorService sDCFExecutor = Executors.newFixedThreadPool(DCF_REQUEST_THREAD_POOL_SIZE);
+    private static volatile CommandExecutorConfiguration sExecutorConfiguration = CommandExecutorConfiguration.getDefault();
+    private static volatile ExecutorService sInteractiveExecutor = newInteractiveExecutor();
+    private static volatile ExecutorService sSilentExecutor = new MeteredExecutorService(sExecutorConfiguration.createSilentExecutor());
+    private static volatile ExecutorService sDCFExecutor = new MeteredExecutorService(sExecutorConfiguration.createDcfExecutor());
     private static final Object sLock = new Object();
     private static InteractiveTokenCommand sCommand = null;
     private static final CommandResultCache sCommandResultCache = new CommandResultCache();
 
-    private static final Object mapAccessLock = new Object();
-
-    //@GuardedBy("mapAccessLock")
-    //Suppressing rawtype warnings due to the generic type BaseCommand
-    @SuppressWarnings(WarningType.rawtype_warning)
-    private static ConcurrentMap<BaseCommand, FinalizableResultFuture<CommandResult>> sExecutingCommandMap = new ConcurrentHashMap<>();
+    /**
+     * Silent commands currently executing, keyed by their {@link CommandFingerprint}.
+     * The fingerprint is computed once at submit time, so entries can always be removed by key,
+     * even if the command has since mutated.
+     */
+    private static final ConcurrentMap<String, InFlightCommand> sExecutingCommandMap = new ConcurrentHashMap<>();
 
     /**
-     * Remove all keys that are the command reference from the executing command map.  Since if they key has
-     * been changed, remove will not work, construct a new map and add all keys that are not identically
-     * that key into the new map.  <strong>MUST</strong> only be used under the mapAccessLock.
-     *
-     * @param command the command whose identity to use to cleanse the map.
+     * A silent command in flight. Every caller it was coalesced with, the submitter included,
+     * waits on a future of its own, so that one caller cancelling does not cancel the others.
+     * The command itself is only cancelled once all of them have cancelled.
      */
-    // Suppressing rawtype warnings due to the generic type BaseCommand
-    @SuppressWarnings(WarningType.rawtype_warning)
-    private static void cleanMap(BaseCommand command) {
-        ConcurrentMap<BaseCommand, FinalizableResultFuture<CommandResult>> newMap = new ConcurrentHashMap<>();
-        for (Map.Entry<BaseCommand, FinalizableResultFuture<CommandResult>> e : sExecutingCommandMap.entrySet()) {
-            if (!(command == e.getKey())) {
-                newMap.put(e.getKey(), e.getValue());
+    private static final class InFlightCommand {
+        @SuppressWarnings(WarningType.rawtype_warning)
+        private final BaseCommand mCommand;
+        @Nullable
+        private final String mFingerprint;
+        private final FinalizableResultFuture<CommandResult> mFuture = new FinalizableResultFuture<>();
+
+        // Guarded by this.
+        private final List<FinalizableResultFuture<CommandResult>> mWaiters = new ArrayList<>();
+        private int mActiveWaiters = 0;
+        private boolean mAbandoned = false;
+        private boolean mCleanedUp = false;
+
+        /**
+         * @param fingerprint the key of this command in sExecutingCommandMap, or null if it is not in the map.
+         */
+        InFlightCommand(@SuppressWarnings(WarningType.rawtype_warning) @NonNull final BaseCommand command,
+                        @Nullable final String fingerprint) {
+            mCommand = command;
+            mFingerprint = fingerprint;
+        }
+
+        /**
+         * Adds a caller waiting for the result of this command.
+         *
+         * @return the future of the new caller, or null if every previous caller has cancelled.
+         */
+        @Nullable
+        FinalizableResultFuture<CommandResult> join() {
+            synchronized (this) {
+                if (mAbandoned) {
+                    return null;
+                }
+                mActiveWaiters++;
+            }
+
+            final FinalizableResultFuture<CommandResult> waiter = new FinalizableResultFuture<>();
+            waiter.whenComplete(new BiConsumer<CommandResult, Throwable>() {
+                @Override
+                public void accept(final CommandResult result, final Throwable throwable) {
+                    if (throwable instanceof CancellationException) {
+                        onWaiterCancelled();
+                    }
+                }
+            });
+            mFuture.whenComplete(new BiConsumer<CommandResult, Throwable>() {
+                @Override
+                public void accept(final CommandResult result, final Throwable throwable) {
+                    if (throwable instanceof CancellationException) {
+                        waiter.cancel(true);
+                    } else if (throwable != null) {
+                        waiter.setException(throwable);
+                    } else {
+                        waiter.setResult(result);
+                    }
+                }
+            });
+
+            synchronized (this) {
+                if (mCleanedUp) {
+                    waiter.setCleanedUp();
+                } else {
+                    mWaiters.add(waiter);
+                }
+            }
+            return waiter;
+        }
+
+        private void onWaiterCancelled() {
+            synchronized (this) {
+                if (mAbandoned || --mActiveWaiters > 0) {
+                    return;
+                }
+                mAbandoned = true;
+            }
+
+            // Nobody is waiting for the result anymore; later identical requests start afresh.
+            if (mFingerprint != null) {
+                sExecutingCommandMap.remove(mFingerprint, this);
+            }
+            mFuture.cancel(true);
+        }
+
+        /**
+         * Removes this command from sExecutingCommandMap and marks every caller's future as cleaned up.
+         */
+        void setCleanedUp() {
+            if (mFingerprint != null) {
+                sExecutingCommandMap.remove(mFingerprint, this);
+            }
+            mFuture.setCleanedUp();
+
+            final List<FinalizableResultFuture<CommandResult>> waiters;
+            synchronized (this) {
+                mCleanedUp = true;
+                waiters = new ArrayList<>(mWaiters);
+                mWaiters.clear();
+            }
+            for (final FinalizableResultFuture<CommandResult> waiter : waiters) {
+                waiter.setCleanedUp();
             }
         }
-        sExecutingCommandMap = newMap;
     }
 
     //@VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public static int outstandingCommands() {
-        synchronized (mapAccessLock) {
-            return sExecutingCommandMap.size();
-        }
+        return sExecutingCommandMap.size();
     }
 
     //@VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public static boolean isCommandOutstanding(BaseCommand c) {
-        synchronized (mapAccessLock) {
-            for (Map.Entry<BaseCommand, ?> e : sExecutingCommandMap.entrySet()) {
-                if (e.getKey() == c) {
-                    System.out.println("Command out there " + c);
-                    return true;
-                }
+        for (final InFlightCommand inFlightCommand : sExecutingCommandMap.values()) {
+            if (inFlightCommand.mCommand == c) {
+                System.out.println("Command out there " + c);
+                return true;
             }
-            return false;
         }
+        return false;
     }
 
     //@VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public static void clearState() throws Exception {
-        synchronized (mapAccessLock) {
-            sExecutingCommandMap.clear();
-        }
+        sExecutingCommandMap.clear();
         sSilentExecutor.shutdownNow();
         sInteractiveExecutor.shutdownNow();
-        Field f = CommandDispatcher.class.getDeclaredField("sSilentExecutor");
-        f.setAccessible(true);
-        f.set(null, Executors.newFixedThreadPool(SILENT_REQUEST_THREAD_POOL_SIZE));
-        f.setAccessible(false);
-
-        f = CommandDispatcher.class.getDeclaredField("sInteractiveExecutor");
-        f.setAccessible(true);
-        f.set(null, Executors.newSingleThreadExecutor());
-        f.setAccessible(false);
+        sSilentExecutor = new MeteredExecutorService(sExecutorConfiguration.createSilentExecutor());
+        sInteractiveExecutor = newInteractiveExecutor();
+    }
+
+    /**
+     * Replaces the silent and device code flow executors with ones built from the supplied
+     * configuration. Requests already submitted finish on the previous executors, which are
+     * then shut down.
+     *
+     * @param configuration the executor configuration to apply.
+     */
+    public static synchronized void setExecutorConfiguration(@NonNull final CommandExecutorConfiguration configuration) {
+        Logger.info(TAG + ":setExecutorConfiguration", "Applying executor configuration: " + configuration);
+        final ExecutorService silentExecutor = new MeteredExecutorService(configuration.createSilentExecutor());
+        final ExecutorService dcfExecutor = new MeteredExecutorService(configuration.createDcfExecutor());
+        final ExecutorService previousSilentExecutor = sSilentExecutor;
+        final ExecutorService previousDcfExecutor = sDCFExecutor;
+
+        sExecutorConfiguration = configuration;
+        sSilentExecutor = silentExecutor;
+        sDCFExecutor = dcfExecutor;
+
+        previousSilentExecutor.shutdown();
+        previousDcfExecutor.shutdown();
+    }
+
+    /**
+     * @return the executor configuration currently in use.
+     */
+    public static CommandExecutorConfiguration getExecutorConfiguration() {
+        return sExecutorConfiguration;
+    }
+
+    /**
+     * @return the executor currently running Device Code Flow commands.
+     */
+    static ExecutorService getDeviceCodeFlowExecutor() {
+        return sDCFExecutor;
+    }
+
+    private static ExecutorService newInteractiveExecutor() {
+        // Interactive requests must run one at a time, so this executor is not configurable.
+        return new MeteredExecutorService(Executors.newSingleThreadExecutor());
     }
 
     /**
@@ -191,6 +313,9 @@ public class CommandDispatcher {
         final CommandResult commandResult;
         try {
             commandResult = submitSilentReturningFuture(command).get();
+        } catch (final CancellationException e) {
+            throw new UserCancelException(ErrorStrings.USER_CANCELLED,
+                    "Request cancelled by user");
         } catch (final InterruptedException | ExecutionException e) {
             throw ExceptionAdapter.baseExceptionFromException(e);
         }
@@ -218,6 +343,9 @@ public class CommandDispatcher {
         final CommandResult commandResult;
         try {
             commandResult = submitSilentReturningFuture(command).get();
+        } catch (final CancellationException e) {
+            throw new UserCancelException(ErrorStrings.USER_CANCELLED,
+                    "Request cancelled by user");
         } catch (final InterruptedException | ExecutionException e) {
             throw ExceptionAdapter.baseExceptionFromException(e);
         }
@@ -305,43 +433,66 @@ public class CommandDispatcher {
 
         logParameters(TAG + methodName, correlationId, commandParameters, command.getPublicApiId());
 
-        synchronized (mapAccessLock) {
-            final FinalizableResultFuture<CommandResult> finalFuture;
+        final boolean useResultCache = isCommandResultCacheEnabled();
+        if (useResultCache) {
             if (command.isEligibleForCaching()) {
-                FinalizableResultFuture<CommandResult> future = sExecutingCommandMap.get(command);
-
-                if (null == future) {
-                    future = new FinalizableResultFuture<>();
-                    final FinalizableResultFuture<CommandResult> putValue = sExecutingCommandMap.putIfAbsent(command, future);
+                final CommandResult cachedResult = sCommandResultCache.get(command);
+                if (cachedResult != null) {
+                    Logger.info(TAG + methodName, "Returning cached result for correlation id : **"
+                            + correlationId + ", with the status : " + cachedResult.getStatus().getLogStatus());
+                    final FinalizableResultFuture<CommandResult> cachedFuture = new FinalizableResultFuture<>();
+                    cachedFuture.whenComplete(getCommandResultConsumer(command));
+                    cachedFuture.setResult(cachedResult);
+                    cachedFuture.setCleanedUp();
+                    return cachedFuture;
+                }
+            } else if (isAccountRemovalRequest(command)) {
+                // Removing an account (or signing out) changes the token cache; drop results that could be stale.
+                sCommandResultCache.clear();
+            }
+        }
 
-                    if (null == putValue) {
-                        // our value was inserted.
-                        future.whenComplete(getCommandResultConsumer(command));
-                    } else {
-                        // Our value was not inserted, grab the one that was and hang a new listener off it
-                        putValue.whenComplete(getCommandResultConsumer(command));
-                        return putValue;
+        final String commandFingerprint = command.isEligibleForCaching() ? CommandFingerprint.of(command) : null;
+        InFlightCommand newEntry = new InFlightCommand(command, commandFingerprint);
+        // Join before publishing the entry, so that other callers cancelling cannot abandon it first.
+        FinalizableResultFuture<CommandResult> submitterFuture = newEntry.join();
+        if (commandFingerprint != null) {
+            final InFlightCommand existingCommand = sExecutingCommandMap.putIfAbsent(commandFingerprint, newEntry);
+
+            if (existingCommand != null) {
+                if (existingCommand.mCommand.equals(command)) {
+                    // An identical request is already executing; wait for its result on a future of our own.
+                    final FinalizableResultFuture<CommandResult> waiterFuture = existingCommand.join();
+                    if (waiterFuture != null) {
+                        waiterFuture.whenComplete(getCommandResultConsumer(command));
+                        return waiterFuture;
                     }
-                } else {
-                    future.whenComplete(getCommandResultConsumer(command));
-                    return future;
                 }
 
-                finalFuture = future;
-            } else {
-                finalFuture = new FinalizableResultFuture<>();
-                finalFuture.whenComplete(getCommandResultConsumer(command));
+                // A different request happens to share the fingerprint, or every caller of the
+                // identical one has cancelled it; run this one on its own.
+                Logger.info(TAG + methodName, "In-flight request with the same fingerprint cannot be joined, "
+                        + "executing separately for correlation id : **" + correlationId);
+                newEntry = new InFlightCommand(command, null);
+                submitterFuture = newEntry.join();
             }
+        }
+        final InFlightCommand inFlightCommand = newEntry;
+        final FinalizableResultFuture<CommandResult> finalFuture = inFlightCommand.mFuture;
+        final FinalizableResultFuture<CommandResult> callerFuture = submitterFuture;
+        callerFuture.whenComplete(getCommandResultConsumer(command));
+
+        SpanExtension.current().setAttribute(
+                AttributeName.num_concurrent_silent_requests.name(),
+                sExecutingCommandMap.size()
+        );
 
-            SpanExtension.current().setAttribute(
-                    AttributeName.num_concurrent_silent_requests.name(),
-                    sExecutingCommandMap.size()
-            );
-
+        try {
             commandExecutor.execute(OtelContextExtension.wrap(new Runnable() {
                 @Override
                 public void run() {
                     codeMarkerManager.markCode(isDeviceCodeFlowRequest ? ACQUIRE_TOKEN_DCF_EXECUTOR_START : ACQUIRE_TOKEN_SILENT_EXECUTOR_START);
+                    boolean completesLater = false;
                     try {
                         //initializing again since the request is transferred to a different thread pool
                         initializeDiagnosticContext(correlationId, commandParameters.getSdkType() == null ?
@@ -360,43 +511,113 @@ public class CommandDispatcher {
                         }
 
                         codeMarkerManager.markCode(isDeviceCodeFlowRequest ? ACQUIRE_TOKEN_DCF_COMMAND_EXECUTION_START : ACQUIRE_TOKEN_SILENT_COMMAND_EXECUTION_START);
+                        if (command instanceof IAsyncCommand) {
+                            // Release this thread while the command waits; finish up on whichever thread completes it.
+                            final ResultFuture<CommandResult> commandResultFuture = executeCommandAsync(command);
+                            finalFuture.whenComplete(new BiConsumer<CommandResult, Throwable>() {
+                                @Override
+                                public void accept(final CommandResult result, final Throwable throwable) {
+                                    if (throwable instanceof CancellationException) {
+                                        commandResultFuture.cancel(true);
+                                    }
+                                }
+                            });
+                            commandResultFuture.whenComplete(new BiConsumer<CommandResult, Throwable>() {
+                                @Override
+                                public void accept(final CommandResult result, final Throwable throwable) {
+                                    codeMarkerManager.markCode(isDeviceCodeFlowRequest ? ACQUIRE_TOKEN_DCF_COMMAND_EXECUTION_END : ACQUIRE_TOKEN_SILENT_COMMAND_EXECUTION_END);
+                                    initializeDiagnosticContext(correlationId, commandParameters.getSdkType() == null ?
+                                                    SdkType.UNKNOWN.getProductName() : commandParameters.getSdkType().getProductName(),
+                                            commandParameters.getSdkVersion());
+                                    try {
+                                        if (throwable == null) {
+                                            completeCommand(command, result, methodName, useResultCache, finalFuture);
+                                        }
+                                    } catch (final Throwable t) {
+                                        Logger.info(TAG + methodName, "Request encountered an exception with correlation id : **" + correlationId);
+                                        finalFuture.setException(new ExecutionException(t));
+                                    } finally {
+                                        cleanUpCommand(inFlightCommand);
+                                    }
+                                    codeMarkerManager.markCode(isDeviceCodeFlowRequest ? ACQUIRE_TOKEN_DCF_FUTURE_OBJECT_CREATION_END : ACQUIRE_TOKEN_SILENT_FUTURE_OBJECT_CREATION_END);
+                                }
+                            });
+                            completesLater = true;
+                            return;
+                        }
+
                         try {
                             commandResult = executeCommand(command);
                         } finally {
                             codeMarkerManager.markCode(isDeviceCodeFlowRequest ? ACQUIRE_TOKEN_DCF_COMMAND_EXECUTION_END : ACQUIRE_TOKEN_SILENT_COMMAND_EXECUTION_END);
                         }
-                        Logger.info(TAG + methodName, "Completed silent request as owner for correlation id : **"
-                                + correlationId + ", with the status : " + commandResult.getStatus().getLogStatus()
-                                + " is cacheable : " + command.isEligibleForCaching());
-                        // TODO 1309671 : change required to stop the LocalAuthenticationResult object from mutating in cases of cached command.
-                        EstsTelemetry.getInstance().flush(command, commandResult);
-                        finalFuture.setResult(commandResult);
+                        completeCommand(command, commandResult, methodName, useResultCache, finalFuture);
                     } catch (final Throwable t) {
                         Logger.info(TAG + methodName, "Request encountered an exception with correlation id : **" + correlationId);
                         finalFuture.setException(new ExecutionException(t));
                     } finally {
-                        synchronized (mapAccessLock) {
-                            if (command.isEligibleForCaching()) {
-                                final FinalizableResultFuture mapFuture = sExecutingCommandMap.remove(command);
-                                if (mapFuture == null) {
-                                    // If this has happened, the command that we started with has mutated.  We will
-                                    // examine every entry in the map, find the one with the same object identity
-                                    // and remove it.
-                                    // ADO:TODO:1153495 - Rekey this map with stable string keys.
-                                    Logger.error(TAG, "The command in the map has mutated " + command.getClass().getCanonicalName()
-                                            + " the calling application was " + command.getParameters().getApplicationName(), null);
-                                    cleanMap(command);
-                                }
-                            }
-                            finalFuture.setCleanedUp();
+                        if (!completesLater) {
+                            cleanUpCommand(inFlightCommand);
                         }
-                        DiagnosticContext.INSTANCE.clear();
                     }
                     codeMarkerManager.markCode(isDeviceCodeFlowRequest ? ACQUIRE_TOKEN_DCF_FUTURE_OBJECT_CREATION_END : ACQUIRE_TOKEN_SILENT_FUTURE_OBJECT_CREATION_END);
                 }
             }));
-            return finalFuture;
+        } catch (final RejectedExecutionException e) {
+            // Don't leave an entry behind that later identical requests would wait on forever.
+            try {
+                onCommandRejected(commandExecutor, e, correlationId, methodName, finalFuture);
+            } finally {
+                inFlightCommand.setCleanedUp();
+            }
         }
+        return callerFuture;
+    }
+
+    /**
+     * Fails a command rejected because its executor is saturated through the command callback,
+     * rather than throwing to the submitter. Rejections by a stopped executor are still thrown.
+     */
+    private static void onCommandRejected(@NonNull final ExecutorService executor,
+                                          @NonNull final RejectedExecutionException exception,
+                                          @NonNull final String correlationId,
+                                          @NonNull final String methodName,
+                                          @NonNull final FinalizableResultFuture<CommandResult> finalFuture) {
+        if (executor.isShutdown()) {
+            throw exception;
+        }
+
+        Logger.warn(TAG + methodName, "Executor queue is full, failing request with correlation id : **" + correlationId);
+        finalFuture.setResult(CommandResult.of(
+                CommandResult.ResultStatus.ERROR,
+                new ClientException(ClientException.EXECUTOR_ERROR, "The command executor queue is full.", exception),
+                correlationId
+        ));
+        finalFuture.setCleanedUp();
+    }
+
+    /**
+     * Reports the result of a command run by {@link #submitSilentReturningFuture(BaseCommand)}.
+     */
+    private static void completeCommand(@SuppressWarnings(WarningType.rawtype_warning) @NonNull final BaseCommand command,
+                                        @SuppressWarnings(WarningType.rawtype_warning) @NonNull final CommandResult commandResult,
+                                        @NonNull final String methodName,
+                                        final boolean useResultCache,
+                                        @NonNull final FinalizableResultFuture<CommandResult> finalFuture) {
+        Logger.info(TAG + methodName, "Completed silent request as owner for correlation id : **"
+                + command.getParameters().getCorrelationId() + ", with the status : " + commandResult.getStatus().getLogStatus()
+                + " is cacheable : " + command.isEligibleForCaching());
+        // TODO 1309671 : change required to stop the LocalAuthenticationResult object from mutating in cases of cached command.
+        EstsTelemetry.getInstance().flush(command, commandResult);
+        if (useResultCache) {
+            cacheCommandResult(command, commandResult);
+        }
+        finalFuture.setResult(commandResult);
+    }
+
+    private static void cleanUpCommand(@NonNull final InFlightCommand inFlightCommand) {
+        inFlightCommand.setCleanedUp();
+        DiagnosticContext.INSTANCE.clear();
     }
 
     public static void submitAndForget(@NonNull final BaseCommand command){
@@ -422,10 +643,11 @@ public class CommandDispatcher {
                         + correlationId
         );
 
-        synchronized (mapAccessLock) {
-            final FinalizableResultFuture<CommandResult> finalFuture = new FinalizableResultFuture<>();
-            finalFuture.whenComplete(getCommandResultConsumer(command));
-            sSilentExecutor.execute(OtelContextExtension.wrap(new Runnable() {
+        final FinalizableResultFuture<CommandResult> finalFuture = new FinalizableResultFuture<>();
+        finalFuture.whenComplete(getCommandResultConsumer(command));
+        final ExecutorService silentExecutor = sSilentExecutor;
+        try {
+            silentExecutor.execute(OtelContextExtension.wrap(new Runnable() {
                 @Override
                 public void run() {
 
@@ -452,8 +674,10 @@ public class CommandDispatcher {
 
                 }
             }));
-            return finalFuture;
+        } catch (final RejectedExecutionException e) {
+            onCommandRejected(silentExecutor, e, correlationId, methodName, finalFuture);
         }
+        return finalFuture;
     }
 
     private static void initTelemetryForCommand(@NonNull final BaseCommand<?> command) {
@@ -483,6 +707,18 @@ public class CommandDispatcher {
         return new BiConsumer<CommandResult, Throwable>() {
             @Override
             public void accept(CommandResult result, final Throwable throwable) {
+                if (throwable instanceof CancellationException) {
+                    Logger.info(TAG + methodName, "Request was cancelled.");
+                    command.getParameters().getPlatformComponents().getPlatformUtil().postCommandResult(
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    command.getCallback().onCancel();
+                                }
+                            });
+                    return;
+                }
+
                 if (null != throwable) {
                     Logger.info(TAG + methodName, "Request encountered an exception " +
                             "(this maybe a duplicate request which caries the exception encountered by the original request)");
@@ -531,23 +767,75 @@ public class CommandDispatcher {
     private static CommandResult executeCommand(@SuppressWarnings(WarningType.rawtype_warning) BaseCommand command) {
 
         Object result = null;
-        BaseException baseException = null;
-        CommandResult<?> commandResult = null;
+        Exception exception = null;
 
         try {
             //Try executing request
             result = command.execute();
         } catch (final Exception e) {
-            if (e instanceof BaseException) {
-                baseException = (BaseException) e;
-            } else {
-                baseException = ExceptionAdapter.baseExceptionFromException(e);
+            exception = e;
+        }
+
+        return getCommandResult(command, result, exception);
+    }
+
+    /**
+     * Starts a command that can wait for its result without holding a thread.
+     * Cancelling the returned future cancels the command.
+     *
+     * @param command the command to start.
+     * @return a future completed with the command result once the command is done.
+     */
+    // Suppressing unchecked warnings as the result type of the command is not known here
+    @SuppressWarnings({WarningType.rawtype_warning, WarningType.unchecked_warning})
+    private static ResultFuture<CommandResult> executeCommandAsync(@NonNull final BaseCommand command) {
+        final ResultFuture<CommandResult> commandResultFuture = new ResultFuture<>();
+
+        final ResultFuture resultFuture;
+        try {
+            resultFuture = ((IAsyncCommand) command).executeAsync();
+        } catch (final Exception e) {
+            commandResultFuture.setResult(getCommandResult(command, null, e));
+            return commandResultFuture;
+        }
+
+        commandResultFuture.whenComplete(new BiConsumer<CommandResult, Throwable>() {
+            @Override
+            public void accept(final CommandResult commandResult, final Throwable throwable) {
+                if (throwable instanceof CancellationException) {
+                    resultFuture.cancel(true);
+                }
             }
+        });
+
+        resultFuture.whenComplete(new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept(final Object result, final Throwable throwable) {
+                commandResultFuture.setResult(getCommandResult(command, result, throwable));
+            }
+        });
+
+        return commandResultFuture;
+    }
+
+    /**
+     * Builds the result of a command from what it returned or threw.
+     */
+    private static CommandResult getCommandResult(@SuppressWarnings(WarningType.rawtype_warning) @NonNull final BaseCommand command,
+                                                  @Nullable final Object result,
+                                                  @Nullable final Throwable throwable) {
+        BaseException baseException = null;
+        CommandResult<?> commandResult = null;
+
+        if (throwable instanceof BaseException) {
+            baseException = (BaseException) throwable;
+        } else if (throwable != null) {
+            baseException = ExceptionAdapter.baseExceptionFromException(throwable);
         }
 
         final String correlationId = command.getParameters().getCorrelationId();
         if (baseException != null) {
-            if (baseException instanceof UserCancelException) {
+            if (baseException instanceof UserCancelException || throwable instanceof CancellationException) {
                 commandResult = CommandResult.ofNull(CommandResult.ResultStatus.CANCEL,
                         correlationId);
             } else {
@@ -653,7 +941,6 @@ public class CommandDispatcher {
          * @param command
          * @param commandResult
          */
-        @SuppressWarnings("unused")
         private static void cacheCommandResult
         (@SuppressWarnings(WarningType.rawtype_warning) BaseCommand command,
                 CommandResult commandResult){
@@ -707,6 +994,8 @@ public class CommandDispatcher {
 
         public static void beginInteractive (final InteractiveTokenCommand command) {
             final String methodName = ":beginInteractive";
+            // Interactive requests change the token cache; drop results that could be stale.
+            sCommandResultCache.clear();
             synchronized (sLock) {
 
                 //Cancel interactive request if authorizationInCurrentTask() returns true OR this is a broker request.
@@ -724,7 +1013,7 @@ public class CommandDispatcher {
                                 "The previous interactive request was queued but never got processed and is blocking the interactive thread. " +
                                         "Restarting the interactive executor service to enable processing interactive requests again.");
                         List<Runnable> cancelledRequests = sInteractiveExecutor.shutdownNow();
-                        sInteractiveExecutor = Executors.newSingleThreadExecutor();
+                        sInteractiveExecutor = newInteractiveExecutor();
                         Logger.info(TAG + methodName, "Cancelled execution of " + cancelledRequests.size() + " interactive requests.");
                     }
                 }
@@ -833,6 +1122,19 @@ public class CommandDispatcher {
             return sCommandResultCache.getSize();
         }
 
+        /**
+         * @return the ratio of silent command result cache lookups that returned a cached result.
+         */
+        public static double getCachedResultHitRate () {
+            return sCommandResultCache.getHitRate();
+        }
+
+        private static boolean isCommandResultCacheEnabled () {
+            return CommonFlightsManager.INSTANCE.getFlightsProvider().isFlightEnabled(
+                    CommonFlight.ENABLE_COMMAND_RESULT_CACHE
+            );
+        }
+
         private static void setCorrelationIdOnResult ( @NonNull final CommandResult commandResult,
         @NonNull final String correlationId){
             // set correlation id on Local Authentication Result
@@ -848,6 +1150,11 @@ public class CommandDispatcher {
             return ", with the status : " + status;
         }
 
+        private static boolean isAccountRemovalRequest(@SuppressWarnings(WarningType.rawtype_warning) BaseCommand command) {
+            // Remove-account and sign-out commands live outside common4j; they share these parameters.
+            return command.getParameters() instanceof RemoveAccountCommandParameters;
+        }
+
         private static boolean isDeviceCodeFlowRequest(BaseCommand command) {
             return (command instanceof DeviceCodeFlowCommand
                     || command instanceof DeviceCodeFlowAuthResultCommand
@@ -880,9 +1187,9 @@ public class CommandDispatcher {
      * This is expected to be called after global signout is performed in Shared Device mode.
      * This should be called if previously the Executor was stopped using 'stopSilentRequestExecutor'
      */
-    public static void resetSilentRequestExecutor() {
+    public static synchronized void resetSilentRequestExecutor() {
         Logger.info(TAG + ":resetSilentRequestExecutor", "Resetting silent Executor");
-        sSilentExecutor = Executors.newFixedThreadPool(SILENT_REQUEST_THREAD_POOL_SIZE);
+        sSilentExecutor = new MeteredExecutorService(sExecutorConfiguration.createSilentExecutor());
     }
 }
 
@@ -0,0 +1,145 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.java.logging.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Sizing and queueing configuration of the executors used by {@link CommandDispatcher} for
+ * silent and device code flow requests.
+ * <p>
+ * The defaults match the historical behavior: fixed pools of 5 threads with unbounded queues.
+ * When a bounded queue is full, the executor rejects the submission, and {@link CommandDispatcher}
+ * fails that command through its callback. Commands never run on the submitting thread, as
+ * they may make network calls.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class CommandExecutorConfiguration {
+
+    private static final String TAG = CommandExecutorConfiguration.class.getSimpleName();
+
+    /**
+     * Name of the JDK 21+ factory method used when {@link #useVirtualThreads} is set.
+     */
+    private static final String VIRTUAL_THREAD_EXECUTOR_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+    /**
+     * Number of threads used for silent requests.
+     */
+    @Builder.Default
+    private final int silentPoolSize = 5;
+
+    /**
+     * Maximum number of silent requests waiting for a thread. Unbounded by default.
+     */
+    @Builder.Default
+    private final int silentQueueCapacity = Integer.MAX_VALUE;
+
+    /**
+     * Number of threads used for device code flow requests.
+     */
+    @Builder.Default
+    private final int dcfPoolSize = 5;
+
+    /**
+     * Maximum number of device code flow requests waiting for a thread. Unbounded by default.
+     */
+    @Builder.Default
+    private final int dcfQueueCapacity = Integer.MAX_VALUE;
+
+    /**
+     * Run each silent and device code flow request on its own virtual thread, where the JVM
+     * supports it (Java 21+). Pool sizes and queue capacities do not apply to virtual thread
+     * executors. Falls back to the thread pools elsewhere (e.g. on Android).
+     */
+    @Builder.Default
+    private final boolean useVirtualThreads = false;
+
+    /**
+     * @return the default configuration.
+     */
+    public static CommandExecutorConfiguration getDefault() {
+        return CommandExecutorConfiguration.builder().build();
+    }
+
+    ExecutorService createSilentExecutor() {
+        return createExecutor(silentPoolSize, silentQueueCapacity);
+    }
+
+    ExecutorService createDcfExecutor() {
+        return createExecutor(dcfPoolSize, dcfQueueCapacity);
+    }
+
+    private ExecutorService createExecutor(final int poolSize, final int queueCapacity) {
+        if (poolSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Pool size and queue capacity must be positive.");
+        }
+
+        if (useVirtualThreads) {
+            final ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+        }
+
+        return new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(queueCapacity)
+        );
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor through reflection, as this library is
+     * compiled against Java 8.
+     *
+     * @return the executor, or null if virtual threads are not supported on this runtime.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        final String methodTag = TAG + ":createVirtualThreadExecutor";
+        try {
+            final Method factory = Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR_FACTORY);
+            return (ExecutorService) factory.invoke(null);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            Logger.warn(methodTag, "Virtual threads are not supported on this runtime, using a thread pool instead.");
+            return null;
+        }
+    }
+}
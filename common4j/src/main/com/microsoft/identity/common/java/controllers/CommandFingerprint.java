@@ -0,0 +1,149 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.java.WarningType;
+import com.microsoft.identity.common.java.authorities.Authority;
+import com.microsoft.identity.common.java.authscheme.AbstractAuthenticationScheme;
+import com.microsoft.identity.common.java.commands.BaseCommand;
+import com.microsoft.identity.common.java.commands.parameters.CommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.TokenCommandParameters;
+import com.microsoft.identity.common.java.dto.IAccountRecord;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Computes the immutable key used by {@link CommandDispatcher} to look up identical in-flight
+ * silent requests.
+ * <p>
+ * The fingerprint is computed once, at submit time, so that later mutation of the command
+ * (or its parameters) cannot orphan its entry in the in-flight map. It is made of the request
+ * identity (client, account, scopes, authority, claims and authentication scheme) followed by
+ * the command's {@link Object#hashCode()} at submit time. Commands that are not
+ * {@link Object#equals(Object) equal} can still share a fingerprint, so the dispatcher only
+ * coalesces a command with an in-flight one it is equal to.
+ */
+final class CommandFingerprint {
+
+    private static final char SEPARATOR = '|';
+
+    private CommandFingerprint() {
+        // Utility class.
+    }
+
+    /**
+     * Computes the fingerprint of the supplied command.
+     *
+     * @param command the command to fingerprint.
+     * @return an immutable fingerprint string.
+     */
+    static String of(@SuppressWarnings(WarningType.rawtype_warning) @NonNull final BaseCommand command) {
+        final CommandParameters parameters = command.getParameters();
+        final StringBuilder builder = new StringBuilder(256);
+
+        append(builder, parameters.getClass().getName());
+        append(builder, parameters.getClientId());
+        append(builder, parameters.getRedirectUri());
+        append(builder, parameters.getChildClientId());
+        append(builder, parameters.getCallerPackageName());
+
+        if (parameters instanceof TokenCommandParameters) {
+            final TokenCommandParameters tokenParameters = (TokenCommandParameters) parameters;
+            appendAccount(builder, tokenParameters.getAccount());
+            appendScopes(builder, tokenParameters.getScopes());
+            appendAuthority(builder, tokenParameters.getAuthority());
+            append(builder, tokenParameters.getClaimsRequestJson());
+            appendAuthenticationScheme(builder, tokenParameters.getAuthenticationScheme());
+            append(builder, tokenParameters.getMamEnrollmentId());
+            append(builder, String.valueOf(tokenParameters.isForceRefresh()));
+        }
+
+        builder.append(Integer.toHexString(command.hashCode()));
+        return builder.toString();
+    }
+
+    private static void append(@NonNull final StringBuilder builder, @Nullable final String value) {
+        if (value != null) {
+            builder.append(value);
+        }
+        builder.append(SEPARATOR);
+    }
+
+    private static void appendAccount(@NonNull final StringBuilder builder,
+                                      @Nullable final IAccountRecord account) {
+        if (account == null) {
+            append(builder, null);
+            return;
+        }
+
+        append(builder, account.getHomeAccountId());
+        append(builder, account.getEnvironment());
+        append(builder, account.getLocalAccountId());
+    }
+
+    private static void appendScopes(@NonNull final StringBuilder builder,
+                                     @Nullable final Set<String> scopes) {
+        if (scopes == null) {
+            append(builder, null);
+            return;
+        }
+
+        // Sorted so that the fingerprint does not depend on the iteration order of the set.
+        final Set<String> sortedScopes = new TreeSet<>();
+        for (final String scope : scopes) {
+            if (scope != null) {
+                sortedScopes.add(scope.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        for (final String scope : sortedScopes) {
+            builder.append(scope).append(' ');
+        }
+        builder.append(SEPARATOR);
+    }
+
+    private static void appendAuthority(@NonNull final StringBuilder builder,
+                                        @Nullable final Authority authority) {
+        if (authority == null) {
+            append(builder, null);
+            return;
+        }
+
+        String authorityUri;
+        try {
+            authorityUri = String.valueOf(authority.getAuthorityUri());
+        } catch (final IllegalArgumentException e) {
+            authorityUri = authority.getAuthorityTypeString();
+        }
+        append(builder, authorityUri);
+    }
+
+    private static void appendAuthenticationScheme(@NonNull final StringBuilder builder,
+                                                   @Nullable final AbstractAuthenticationScheme scheme) {
+        append(builder, scheme == null ? null : scheme.getName());
+    }
+}
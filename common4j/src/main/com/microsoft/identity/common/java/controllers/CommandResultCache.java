@@ -24,13 +24,28 @@ package com.microsoft.identity.common.java.controllers;
 
 import com.microsoft.identity.common.java.WarningType;
 import com.microsoft.identity.common.java.commands.BaseCommand;
+import com.microsoft.identity.common.java.exception.ServiceException;
+import com.microsoft.identity.common.java.util.ported.Supplier;
 
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
 
 /**
  * Name: CommandResultCache
  * Responsibilities: Caching results of commands on behalf of the command dispatcher
+ * <p>
+ * Entries are keyed by the {@link CommandFingerprint} of the command, and only returned to a
+ * command equal to the one that produced them, since the fingerprint may collide. They expire
+ * after a time to live that depends on the result: successful and cacheable error results use
+ * the default validity, while throttled (HTTP 429) and server error (HTTP 5xx) {@link ServiceException}s
+ * are only cached briefly, which is enough to absorb client retry loops without hiding a
+ * recovered service for long.
  */
 // Suppressing rawtype warnings due to the generic type BaseCommand
 @SuppressWarnings(WarningType.rawtype_warning)
@@ -38,58 +53,183 @@ public class CommandResultCache {
 
     private final static int DEFAULT_ITEM_COUNT = 250;
 
-    private final Object cacheLock = new Object();
+    /**
+     * Default time to live of throttled and server error results, in milliseconds.
+     */
+    static final long DEFAULT_THROTTLED_TIME_TO_LIVE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR_MIN = 500;
+    private static final int HTTP_SERVER_ERROR_MAX = 599;
+
+    private static final Supplier<Long> SYSTEM_CLOCK = new Supplier<Long>() {
+        @Override
+        public Long get() {
+            return System.currentTimeMillis();
+        }
+    };
+
     //Cache items allowed is still TBD... for now using default value of 250
-    private final Map<BaseCommand, CommandResultCacheItem> mCache;
+    private final int mMaxItemCount;
+    private final long mSuccessTimeToLiveMillis;
+    private final long mThrottledTimeToLiveMillis;
+    private final Supplier<Long> mClock;
+    private final ConcurrentMap<String, CommandResultCacheItem> mCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mEvictionCount = new AtomicLong();
 
     public CommandResultCache() {
         this(DEFAULT_ITEM_COUNT);
     }
 
     public CommandResultCache(final int maxItemCount) {
-        mCache = new LinkedHashMap<BaseCommand, CommandResultCacheItem>(maxItemCount + 1, .75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<BaseCommand, CommandResultCacheItem> eldest) {
-                return size() > maxItemCount;
-            }
-        };
+        this(maxItemCount, CommandResultCacheItem.DEFAULT_TIME_TO_LIVE_MILLIS, DEFAULT_THROTTLED_TIME_TO_LIVE_MILLIS);
+    }
+
+    /**
+     * Creates a cache with custom time to live values.
+     *
+     * @param maxItemCount              the maximum number of cached results.
+     * @param successTimeToLiveMillis   time to live of successful and cacheable error results.
+     * @param throttledTimeToLiveMillis time to live of HTTP 429 and 5xx service errors.
+     */
+    public CommandResultCache(final int maxItemCount,
+                              final long successTimeToLiveMillis,
+                              final long throttledTimeToLiveMillis) {
+        this(maxItemCount, successTimeToLiveMillis, throttledTimeToLiveMillis, SYSTEM_CLOCK);
+    }
+
+    //@VisibleForTesting
+    CommandResultCache(final int maxItemCount,
+                       final long successTimeToLiveMillis,
+                       final long throttledTimeToLiveMillis,
+                       @NonNull final Supplier<Long> clock) {
+        mMaxItemCount = maxItemCount;
+        mSuccessTimeToLiveMillis = successTimeToLiveMillis;
+        mThrottledTimeToLiveMillis = throttledTimeToLiveMillis;
+        mClock = clock;
     }
 
     public CommandResult get(@SuppressWarnings(WarningType.rawtype_warning) BaseCommand key) {
-        synchronized (cacheLock) {
-            CommandResultCacheItem item = mCache.get(key);
-            if (item != null) {
-                if (item.isExpired()) {
-                    mCache.remove(key);
-                    return null;
-                } else {
-                    return item.getValue();
-                }
-            } else {
-                return null;
+        final String fingerprint = CommandFingerprint.of(key);
+        final CommandResultCacheItem item = mCache.get(fingerprint);
+        if (item == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        if (item.isExpired(mClock.get())) {
+            if (mCache.remove(fingerprint, item)) {
+                mEvictionCount.incrementAndGet();
             }
+            mMissCount.incrementAndGet();
+            return null;
         }
+
+        if (!key.equals(item.getCommand())) {
+            // A different command with the same fingerprint; its result is not ours to return.
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        mHitCount.incrementAndGet();
+        return item.getValue();
     }
 
     public void put(@SuppressWarnings(WarningType.rawtype_warning) BaseCommand key, CommandResult value) {
-        synchronized (cacheLock) {
-            CommandResultCacheItem cacheItem = new CommandResultCacheItem(value);
-            //NOTE: If an existing item using this key already in the cache it will be replaced
-            mCache.put(key, cacheItem);
-            //Object old = mCache.put(key, cacheItem);
-            //We may want to log old if we see problems here, since the the old value is the value being replace with the new item.
+        final CommandResultCacheItem cacheItem = new CommandResultCacheItem(key, value, mClock.get(), getTimeToLiveMillis(value));
+        //NOTE: If an existing item using this key already in the cache it will be replaced
+        mCache.put(CommandFingerprint.of(key), cacheItem);
+
+        if (mCache.size() > mMaxItemCount) {
+            evict();
         }
     }
 
     public int getSize() {
-        synchronized (cacheLock) {
-            return this.mCache.size();
-        }
+        return mCache.size();
     }
 
     public void clear() {
-        synchronized (cacheLock) {
-            mCache.clear();
+        mCache.clear();
+    }
+
+    /**
+     * @return the number of lookups which returned a cached result.
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return the number of lookups which did not return a cached result.
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * @return the number of entries removed because they expired or the cache was full.
+     */
+    public long getEvictionCount() {
+        return mEvictionCount.get();
+    }
+
+    /**
+     * @return the ratio of lookups which returned a cached result, or 0 if there were none.
+     */
+    public double getHitRate() {
+        final long hits = mHitCount.get();
+        final long total = hits + mMissCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private long getTimeToLiveMillis(final CommandResult value) {
+        if (value != null
+                && value.getStatus() == CommandResult.ResultStatus.ERROR
+                && value.getResult() instanceof ServiceException) {
+            final int httpStatusCode = ((ServiceException) value.getResult()).getHttpStatusCode();
+            if (httpStatusCode == HTTP_TOO_MANY_REQUESTS
+                    || (httpStatusCode >= HTTP_SERVER_ERROR_MIN && httpStatusCode <= HTTP_SERVER_ERROR_MAX)) {
+                return mThrottledTimeToLiveMillis;
+            }
+        }
+
+        return mSuccessTimeToLiveMillis;
+    }
+
+    /**
+     * Removes expired entries, then the entries closest to expiry, until the cache is back within
+     * its size limit. Only runs when the cache overflows, so the linear scans stay off the
+     * lookup path.
+     */
+    private void evict() {
+        final long now = mClock.get();
+        final Iterator<Map.Entry<String, CommandResultCacheItem>> iterator = mCache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().isExpired(now)) {
+                iterator.remove();
+                mEvictionCount.incrementAndGet();
+            }
+        }
+
+        while (mCache.size() > mMaxItemCount) {
+            Map.Entry<String, CommandResultCacheItem> eldest = null;
+            for (final Map.Entry<String, CommandResultCacheItem> entry : mCache.entrySet()) {
+                if (eldest == null || entry.getValue().getExpiresOnMillis() < eldest.getValue().getExpiresOnMillis()) {
+                    eldest = entry;
+                }
+            }
+
+            if (eldest == null) {
+                return;
+            }
+
+            if (mCache.remove(eldest.getKey(), eldest.getValue())) {
+                mEvictionCount.incrementAndGet();
+            }
         }
     }
 }
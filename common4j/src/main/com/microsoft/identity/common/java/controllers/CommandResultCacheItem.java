@@ -22,32 +22,67 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.common.java.controllers;
 
-import java.util.Calendar;
-import java.util.Date;
+import com.microsoft.identity.common.java.WarningType;
+import com.microsoft.identity.common.java.commands.BaseCommand;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 public class CommandResultCacheItem {
 
     private final static int VALIDITY_DURATION = 30;
 
-    private CommandResult mValue;
-    private Date mExpiresOn;
+    /**
+     * Default time to live of a cache item, in milliseconds.
+     */
+    static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.SECONDS.toMillis(VALIDITY_DURATION);
+
+    @SuppressWarnings(WarningType.rawtype_warning)
+    private final BaseCommand mCommand;
+    private final CommandResult mValue;
+    private final long mExpiresOnMillis;
 
     public CommandResultCacheItem(CommandResult value){
-        mValue = value;
-        mExpiresOn = getExpiresOn();
+        this(null, value, System.currentTimeMillis(), DEFAULT_TIME_TO_LIVE_MILLIS);
     }
 
-    private Date getExpiresOn(){
-        final Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.SECOND, VALIDITY_DURATION);
-        return calendar.getTime();
+    /**
+     * Creates a cache item which expires after the supplied time to live.
+     *
+     * @param command          the command which produced the result.
+     * @param value            the cached result.
+     * @param nowMillis        the current time, in milliseconds.
+     * @param timeToLiveMillis how long the item remains valid, in milliseconds.
+     */
+    CommandResultCacheItem(@SuppressWarnings(WarningType.rawtype_warning) @Nullable final BaseCommand command,
+                           final CommandResult value,
+                           final long nowMillis,
+                           final long timeToLiveMillis) {
+        mCommand = command;
+        mValue = value;
+        mExpiresOnMillis = nowMillis + timeToLiveMillis;
     }
 
     public boolean isExpired(){
-        final Calendar calendar = Calendar.getInstance();
-        final Date now = calendar.getTime();
+        return isExpired(System.currentTimeMillis());
+    }
+
+    boolean isExpired(final long nowMillis) {
+        return nowMillis > mExpiresOnMillis;
+    }
+
+    long getExpiresOnMillis() {
+        return mExpiresOnMillis;
+    }
 
-        return now.after(mExpiresOn);
+    /**
+     * @return the command which produced the result, or null if it is not known.
+     */
+    @Nullable
+    @SuppressWarnings(WarningType.rawtype_warning)
+    BaseCommand getCommand() {
+        return mCommand;
     }
 
     public CommandResult getValue(){
@@ -0,0 +1,241 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.java.exception.ErrorStrings;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.providers.oauth2.TokenResult;
+import com.microsoft.identity.common.java.util.BiConsumer;
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.ThreadUtils;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Polls the token endpoint for Device Code Flow sessions (RFC 8628 section 3.4).
+ * <p>
+ * Instead of each session sleeping on a thread of its own between requests, a small shared
+ * scheduler times every poll and hands the token request over to the request executor, so a
+ * session only holds a thread while a token request is in flight, and a slow token endpoint never
+ * delays the polls of other sessions.
+ * A session keeps polling while the server answers authorization_pending, polls less often when it
+ * answers slow_down, and ends with the first other answer. Cancelling the future returned by
+ * {@link #poll(ITokenRequester, long)} stops the session.
+ */
+public class DeviceCodeFlowPoller {
+    private static final String TAG = DeviceCodeFlowPoller.class.getSimpleName();
+
+    /**
+     * Number of threads in the shared scheduler. It only times the polls, so one is enough.
+     */
+    public static final int DEFAULT_POOL_SIZE = 1;
+
+    /**
+     * How much a slow_down answer lengthens the polling interval of its session (RFC 8628 section 3.5).
+     */
+    public static final long SLOW_DOWN_INCREMENT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final class SchedulerHolder {
+        private static final ScheduledExecutorService INSTANCE =
+                ThreadUtils.getNamedScheduledThreadPoolExecutor(
+                        DEFAULT_POOL_SIZE, 60, TimeUnit.SECONDS, "dcf-poller");
+    }
+
+    private static final class DefaultHolder {
+        private static final DeviceCodeFlowPoller INSTANCE = new DeviceCodeFlowPoller(
+                SchedulerHolder.INSTANCE,
+                new Executor() {
+                    @Override
+                    public void execute(@NonNull final Runnable runnable) {
+                        // Looked up every time, as the executor is replaced when its configuration changes.
+                        CommandDispatcher.getDeviceCodeFlowExecutor().execute(runnable);
+                    }
+                },
+                SLOW_DOWN_INCREMENT_MILLIS
+        );
+    }
+
+    private static final class BlockingCallersHolder {
+        private static final DeviceCodeFlowPoller INSTANCE = new DeviceCodeFlowPoller(
+                SchedulerHolder.INSTANCE,
+                ThreadUtils.getNamedThreadPoolExecutor(
+                        0, Integer.MAX_VALUE, 0, 60, TimeUnit.SECONDS, "dcf-blocking-poller"),
+                SLOW_DOWN_INCREMENT_MILLIS
+        );
+    }
+
+    /**
+     * Sends one token request for a session.
+     */
+    public interface ITokenRequester {
+        /**
+         * @return the result of the token request.
+         * @throws Exception if the request could not be made; this ends the session.
+         */
+        TokenResult requestToken() throws Exception;
+    }
+
+    private final ScheduledExecutorService mScheduler;
+    private final Executor mRequestExecutor;
+    private final long mSlowDownIncrementMillis;
+
+    /**
+     * @param scheduler               times the polls; never runs a token request.
+     * @param requestExecutor         runs the token requests.
+     * @param slowDownIncrementMillis how much a slow_down answer lengthens the polling interval.
+     */
+    //@VisibleForTesting
+    DeviceCodeFlowPoller(@NonNull final ScheduledExecutorService scheduler,
+                         @NonNull final Executor requestExecutor,
+                         final long slowDownIncrementMillis) {
+        mScheduler = scheduler;
+        mRequestExecutor = requestExecutor;
+        mSlowDownIncrementMillis = slowDownIncrementMillis;
+    }
+
+    /**
+     * @return the poller shared by every Device Code Flow session, which sends its token requests
+     * on the Device Code Flow command executor. Do not block on its futures from a thread of that
+     * executor (use {@link #getForBlockingCallers()} instead), or the token requests may never run.
+     */
+    public static DeviceCodeFlowPoller getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * @return the poller for sessions whose caller waits for the result, which sends its token
+     * requests on threads of its own, so that it keeps polling even when every Device Code Flow
+     * command executor thread is blocked waiting.
+     */
+    public static DeviceCodeFlowPoller getForBlockingCallers() {
+        return BlockingCallersHolder.INSTANCE;
+    }
+
+    /**
+     * Starts a session. The first token request is sent after one interval.
+     *
+     * @param requester      sends the token requests of this session.
+     * @param intervalMillis the time to wait between token requests, as given by the server.
+     * @return a future completed with the first token result that is neither authorization_pending
+     * nor slow_down, or with the exception that ended the session. Cancel it to stop polling.
+     */
+    public ResultFuture<TokenResult> poll(@NonNull final ITokenRequester requester,
+                                          final long intervalMillis) {
+        final Session session = new Session(requester, intervalMillis);
+        session.scheduleNext();
+        return session.mResultFuture;
+    }
+
+    private final class Session implements Runnable {
+        private final ResultFuture<TokenResult> mResultFuture = new ResultFuture<>();
+        private final ITokenRequester mRequester;
+
+        // Runs on the scheduler when a poll is due.
+        private final Runnable mDispatchRequest = new Runnable() {
+            @Override
+            public void run() {
+                if (mResultFuture.isDone()) {
+                    return;
+                }
+
+                try {
+                    mRequestExecutor.execute(Session.this);
+                } catch (final RejectedExecutionException e) {
+                    mResultFuture.setException(e);
+                }
+            }
+        };
+
+        // Only touched by the polls of this session, which never overlap.
+        private long mIntervalMillis;
+
+        private volatile ScheduledFuture<?> mNextPoll;
+
+        Session(@NonNull final ITokenRequester requester, final long intervalMillis) {
+            mRequester = requester;
+            mIntervalMillis = intervalMillis;
+            mResultFuture.whenComplete(new BiConsumer<TokenResult, Throwable>() {
+                @Override
+                public void accept(final TokenResult tokenResult, final Throwable throwable) {
+                    final ScheduledFuture<?> nextPoll = mNextPoll;
+                    if (throwable instanceof CancellationException && nextPoll != null) {
+                        nextPoll.cancel(false);
+                    }
+                }
+            });
+        }
+
+        void scheduleNext() {
+            // A poll scheduled while the session is being cancelled returns as soon as it runs.
+            if (mResultFuture.isDone()) {
+                return;
+            }
+
+            try {
+                mNextPoll = mScheduler.schedule(mDispatchRequest, mIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (final RejectedExecutionException e) {
+                mResultFuture.setException(e);
+            }
+        }
+
+        /**
+         * Sends one token request. Runs on the request executor.
+         */
+        @Override
+        public void run() {
+            final String methodTag = TAG + ":run";
+            if (mResultFuture.isDone()) {
+                return;
+            }
+
+            final TokenResult tokenResult;
+            try {
+                tokenResult = mRequester.requestToken();
+            } catch (final Exception e) {
+                mResultFuture.setException(e);
+                return;
+            }
+
+            final String errorCode = tokenResult.getErrorResponse() == null
+                    ? null
+                    : tokenResult.getErrorResponse().getError();
+
+            if (ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE.equals(errorCode)) {
+                scheduleNext();
+            } else if (ErrorStrings.DEVICE_CODE_FLOW_SLOW_DOWN_ERROR_CODE.equals(errorCode)) {
+                mIntervalMillis += mSlowDownIncrementMillis;
+                Logger.info(methodTag, "Asked to slow down, polling every " + mIntervalMillis + " ms.");
+                scheduleNext();
+            } else {
+                mResultFuture.setResult(tokenResult);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.java.opentelemetry.AttributeName;
+import com.microsoft.identity.common.java.opentelemetry.OTelUtility;
+import com.microsoft.identity.common.java.opentelemetry.SpanExtension;
+import com.microsoft.identity.common.java.opentelemetry.SpanName;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import lombok.NonNull;
+
+/**
+ * An {@link ExecutorService} that tracks its queue depth and active task count, and records them
+ * on the submitter's current {@link Span} at submit time. Each task also gets a span of its own,
+ * a child of the submitter's, which records how long the task waited in the queue and how long
+ * it held an executor thread. This makes it possible to tell queueing latency apart from
+ * execution latency.
+ * <p>
+ * For commands that complete asynchronously, the execution time is only the time until they
+ * released the thread, not the time until they completed.
+ */
+class MeteredExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService mDelegate;
+    private final AtomicInteger mQueuedTasks = new AtomicInteger();
+    private final AtomicInteger mActiveTasks = new AtomicInteger();
+
+    MeteredExecutorService(@NonNull final ExecutorService delegate) {
+        mDelegate = delegate;
+    }
+
+    /**
+     * @return the number of submitted tasks that have not started running yet.
+     */
+    int getQueueDepth() {
+        return mQueuedTasks.get();
+    }
+
+    /**
+     * @return the number of tasks currently running.
+     */
+    int getActiveCount() {
+        return mActiveTasks.get();
+    }
+
+    @Override
+    public void execute(@NonNull final Runnable command) {
+        final Span submitterSpan = SpanExtension.current();
+        submitterSpan.setAttribute(AttributeName.command_executor_queue_depth.name(), mQueuedTasks.get());
+        submitterSpan.setAttribute(AttributeName.command_executor_active_count.name(), mActiveTasks.get());
+        final SpanContext parentSpanContext = submitterSpan.getSpanContext();
+
+        final long submittedAtNanos = System.nanoTime();
+        mQueuedTasks.incrementAndGet();
+        try {
+            mDelegate.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mQueuedTasks.decrementAndGet();
+                    mActiveTasks.incrementAndGet();
+                    final long startedAtNanos = System.nanoTime();
+                    final Span span = OTelUtility.createSpanFromParent(
+                            SpanName.CommandExecutorTask.name(), parentSpanContext
+                    );
+                    span.setAttribute(
+                            AttributeName.command_executor_wait_time.name(),
+                            TimeUnit.NANOSECONDS.toMillis(startedAtNanos - submittedAtNanos)
+                    );
+                    try {
+                        command.run();
+                    } finally {
+                        mActiveTasks.decrementAndGet();
+                        span.setAttribute(
+                                AttributeName.command_executor_execution_time.name(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos)
+                        );
+                        span.end();
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            mQueuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        mDelegate.shutdown();
+    }
+
+    @Override
+    @NonNull
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> cancelledTasks = mDelegate.shutdownNow();
+        mQueuedTasks.addAndGet(-cancelledTasks.size());
+        return cancelledTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return mDelegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return mDelegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, @NonNull final TimeUnit unit) throws InterruptedException {
+        return mDelegate.awaitTermination(timeout, unit);
+    }
+}
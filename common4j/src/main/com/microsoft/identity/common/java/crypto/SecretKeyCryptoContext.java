@@ -0,0 +1,121 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.crypto;
+
+import static com.microsoft.identity.common.java.AuthenticationConstants.ENCODING_UTF8;
+import static com.microsoft.identity.common.java.crypto.key.KeyUtil.HMAC_ALGORITHM;
+
+import com.microsoft.identity.common.java.crypto.key.AbstractSecretKeyLoader;
+import com.microsoft.identity.common.java.crypto.key.KeyUtil;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+
+import lombok.NonNull;
+
+/**
+ * Per-key state used by {@link StorageEncryptionManager}: the derived HMAC key, the encoded key
+ * identifier, and per-thread {@link Cipher}/{@link Mac} instances, so that they are not looked up
+ * and derived again for every value.
+ * <p>
+ * A context is bound to one {@link SecretKey} instance. When the key loader returns a different key
+ * (e.g. after key rotation), {@link #isValidFor} fails and a new context must be created, which
+ * discards the thread-local instances of the old key along with the old context.
+ */
+final class SecretKeyCryptoContext {
+
+    private final SecretKey mSecretKey;
+    private final SecretKey mHmacKey;
+    private final String mKeyTypeIdentifier;
+    private final byte[] mKeyIdentifierBytes;
+    private final String mCipherAlgorithm;
+    private final ThreadLocal<Cipher> mCipher = new ThreadLocal<>();
+    private final ThreadLocal<Mac> mMac = new ThreadLocal<>();
+
+    SecretKeyCryptoContext(@NonNull final AbstractSecretKeyLoader keyLoader,
+                           @NonNull final SecretKey secretKey) throws NoSuchAlgorithmException {
+        mSecretKey = secretKey;
+        mHmacKey = KeyUtil.getHMacKey(secretKey);
+        mKeyTypeIdentifier = keyLoader.getKeyTypeIdentifier();
+        mKeyIdentifierBytes = mKeyTypeIdentifier.getBytes(ENCODING_UTF8);
+        mCipherAlgorithm = keyLoader.getCipherAlgorithm();
+    }
+
+    /**
+     * @return true if this context was created for the given key and the loader's current settings.
+     */
+    boolean isValidFor(@NonNull final AbstractSecretKeyLoader keyLoader,
+                       @NonNull final SecretKey secretKey) {
+        return mSecretKey == secretKey
+                && mCipherAlgorithm.equals(keyLoader.getCipherAlgorithm())
+                && mKeyTypeIdentifier.equals(keyLoader.getKeyTypeIdentifier());
+    }
+
+    /**
+     * @return the encoded key type identifier. Callers must not modify the returned array.
+     */
+    byte[] getKeyIdentifierBytes() {
+        return mKeyIdentifierBytes;
+    }
+
+    /**
+     * @return this thread's {@link Cipher} for the key's algorithm. Callers must init it before use.
+     */
+    Cipher getCipher() throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Cipher cipher = mCipher.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(mCipherAlgorithm);
+            mCipher.set(cipher);
+        }
+        return cipher;
+    }
+
+    /**
+     * @return this thread's {@link Mac}, initialized with the derived HMAC key and reset.
+     */
+    Mac getMac() throws NoSuchAlgorithmException, InvalidKeyException {
+        Mac mac = mMac.get();
+        if (mac == null) {
+            mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(mHmacKey);
+            mMac.set(mac);
+        } else {
+            // Drops any partial state left behind by an operation that threw midway.
+            mac.reset();
+        }
+        return mac;
+    }
+
+    /**
+     * Drops this thread's instances, e.g. after an unexpected failure left them in an unknown state.
+     */
+    void discardThreadInstances() {
+        mCipher.remove();
+        mMac.remove();
+    }
+}
@@ -23,7 +23,6 @@
 package com.microsoft.identity.common.java.crypto;
 
 import static com.microsoft.identity.common.java.AuthenticationConstants.ENCODING_UTF8;
-import static com.microsoft.identity.common.java.crypto.key.KeyUtil.HMAC_ALGORITHM;
 import static com.microsoft.identity.common.java.exception.ClientException.BAD_PADDING;
 import static com.microsoft.identity.common.java.exception.ClientException.DATA_MALFORMED;
 import static com.microsoft.identity.common.java.exception.ClientException.HMAC_MISMATCH;
@@ -51,6 +50,8 @@ import java.security.SecureRandom;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -99,6 +100,11 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
      */
     private final IVGenerator mGenerator;
 
+    /**
+     * Derived HMAC keys and cached Cipher/Mac instances, by key alias.
+     */
+    private final ConcurrentMap<String, SecretKeyCryptoContext> mCryptoContexts = new ConcurrentHashMap<>();
+
     public StorageEncryptionManager() {
         mGenerator = new IVGenerator() {
             final SecureRandom mRandom = new SecureRandom();
@@ -134,24 +140,24 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             throw new IllegalStateException("Cannot find a matching Keyloader.");
         }
 
+        SecretKeyCryptoContext cryptoContext = null;
         try {
             final SecretKey encryptionKey = keyLoader.getKey();
-            final SecretKey encryptionHMACKey = KeyUtil.getHMacKey(encryptionKey);
-            final byte[] keyIdentifier = keyLoader.getKeyTypeIdentifier().getBytes(ENCODING_UTF8);
+            cryptoContext = getCryptoContext(keyLoader, encryptionKey);
+            final byte[] keyIdentifier = cryptoContext.getKeyIdentifierBytes();
 
             // IV: Initialization vector that is needed to start CBC
             final byte[] iv = mGenerator.generate();
             final IvParameterSpec ivSpec = new IvParameterSpec(iv);
 
             // Set to encrypt mode
-            final Cipher cipher = Cipher.getInstance(keyLoader.getCipherAlgorithm());
-            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            final Cipher cipher = cryptoContext.getCipher();
             cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, ivSpec);
 
             final byte[] encrypted = cipher.doFinal(plaintext);
 
             // Calculate digest from keyIdentifier+encryptedData+IV.
-            mac.init(encryptionHMACKey);
+            final Mac mac = cryptoContext.getMac();
             mac.update(keyIdentifier);
             mac.update(encrypted);
             mac.update(iv);
@@ -196,6 +202,9 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             exception = e;
         }
 
+        if (cryptoContext != null) {
+            cryptoContext.discardThreadInstances();
+        }
         throw new ClientException(errCode, exception.getMessage(), exception);
     }
 
@@ -282,22 +291,21 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             throws ClientException {
         final String errCode;
         final Throwable exception;
+        SecretKeyCryptoContext cryptoContext = null;
         try {
             final SecretKey secretKey = keyLoader.getKey();
-            final SecretKey hmacKey = KeyUtil.getHMacKey(secretKey);
+            cryptoContext = getCryptoContext(keyLoader, secretKey);
 
             // byte input array: [keyVersion][encryptedData][IV][macDigest]
             final int ivIndex = encryptedBlobWithoutEncodeVersion.length - IV_LENGTH - MAC_DIGEST_LENGTH;
             final int macDigestIndex = encryptedBlobWithoutEncodeVersion.length - MAC_DIGEST_LENGTH;
-            final int encryptedDataIndex = keyLoader.getKeyTypeIdentifier().getBytes(ENCODING_UTF8).length;
+            final int encryptedDataIndex = cryptoContext.getKeyIdentifierBytes().length;
             final int encryptedDataLength = ivIndex - encryptedDataIndex;
 
             // Calculate digest again and compare to the appended value
             // incoming message: version+encryptedData+IV+Digest
             // Digest of EncryptedData+IV excluding the digest itself.
-            final Cipher cipher = Cipher.getInstance(keyLoader.getCipherAlgorithm());
-            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-            mac.init(hmacKey);
+            final Mac mac = cryptoContext.getMac();
             mac.update(encryptedBlobWithoutEncodeVersion, 0, macDigestIndex);
             final byte[] macDigest = mac.doFinal();
 
@@ -310,6 +318,7 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             // Get IV related bytes from the end and set to decrypt mode with that IV.
             // It is using same cipher for different version since version# change
             // will mean upgrade to AndroidKeyStore and new Key.
+            final Cipher cipher = cryptoContext.getCipher();
             cipher.init(
                     Cipher.DECRYPT_MODE,
                     secretKey,
@@ -351,9 +360,32 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             exception = e;
         }
 
+        if (cryptoContext != null) {
+            cryptoContext.discardThreadInstances();
+        }
         throw new ClientException(errCode, exception.getMessage(), exception);
     }
 
+    /**
+     * Returns the crypto context of the given key, creating it if there is none yet or if the
+     * loader's key has changed since it was created (e.g. key rotation).
+     */
+    private SecretKeyCryptoContext getCryptoContext(@NonNull final AbstractSecretKeyLoader keyLoader,
+                                                    @NonNull final SecretKey secretKey)
+            throws NoSuchAlgorithmException {
+        final String alias = keyLoader.getAlias();
+        final SecretKeyCryptoContext cachedContext = alias == null ? null : mCryptoContexts.get(alias);
+        if (cachedContext != null && cachedContext.isValidFor(keyLoader, secretKey)) {
+            return cachedContext;
+        }
+
+        final SecretKeyCryptoContext context = new SecretKeyCryptoContext(keyLoader, secretKey);
+        if (alias != null) {
+            mCryptoContexts.put(alias, context);
+        }
+        return context;
+    }
+
     /**
      * Returns Key identifier which was used for cipherText encryption.
      *
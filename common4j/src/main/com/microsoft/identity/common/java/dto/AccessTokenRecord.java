@@ -36,9 +36,11 @@ import static com.microsoft.identity.common.java.dto.AccessTokenRecord.Serialize
 
 import com.google.gson.annotations.SerializedName;
 import com.microsoft.identity.common.java.crypto.IDevicePopManager;
+import com.microsoft.identity.common.java.util.ScopeUtil;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -161,6 +163,11 @@ public class AccessTokenRecord extends Credential {
     @SerializedName(TARGET)
     private String mTarget;
 
+    /**
+     * The scopes of {@link #mTarget}, normalized for matching. Computed lazily and never persisted.
+     */
+    private transient volatile Set<String> mNormalizedScopes;
+
     /**
      * Token expiry time. This value should be calculated based on the current UTC time measured
      * locally and the value expires_in returned from the service. Measured in milliseconds from
@@ -271,6 +278,22 @@ public class AccessTokenRecord extends Credential {
      */
     public void setTarget(final String target) {
         mTarget = target;
+        mNormalizedScopes = null;
+    }
+
+    /**
+     * Gets the scopes of the target, lower-cased and without the default OIDC scopes.
+     * Computed once and cached until the target changes.
+     *
+     * @return An immutable set of the normalized scopes.
+     */
+    public Set<String> getNormalizedScopes() {
+        Set<String> normalizedScopes = mNormalizedScopes;
+        if (null == normalizedScopes) {
+            normalizedScopes = ScopeUtil.getNormalizedScopesWithoutDefaults(mTarget);
+            mNormalizedScopes = normalizedScopes;
+        }
+        return normalizedScopes;
     }
 
     /**
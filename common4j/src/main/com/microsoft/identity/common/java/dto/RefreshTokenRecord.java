@@ -23,6 +23,9 @@
 package com.microsoft.identity.common.java.dto;
 
 import com.google.gson.annotations.SerializedName;
+import com.microsoft.identity.common.java.util.ScopeUtil;
+
+import java.util.Set;
 
 import static com.microsoft.identity.common.java.dto.RefreshTokenRecord.SerializedNames.FAMILY_ID;
 import static com.microsoft.identity.common.java.dto.RefreshTokenRecord.SerializedNames.TARGET;
@@ -55,6 +58,11 @@ public class RefreshTokenRecord extends Credential {
     @SerializedName(TARGET)
     private String mTarget;
 
+    /**
+     * The scopes of {@link #mTarget}, normalized for matching. Computed lazily and never persisted.
+     */
+    private transient volatile Set<String> mNormalizedScopes;
+
     /**
      * Gets the target.
      *
@@ -71,6 +79,22 @@ public class RefreshTokenRecord extends Credential {
      */
     public void setTarget(final String target) {
         mTarget = target;
+        mNormalizedScopes = null;
+    }
+
+    /**
+     * Gets the scopes of the target, lower-cased and without the default OIDC scopes.
+     * Computed once and cached until the target changes.
+     *
+     * @return An immutable set of the normalized scopes.
+     */
+    public Set<String> getNormalizedScopes() {
+        Set<String> normalizedScopes = mNormalizedScopes;
+        if (null == normalizedScopes) {
+            normalizedScopes = ScopeUtil.getNormalizedScopesWithoutDefaults(mTarget);
+            mNormalizedScopes = normalizedScopes;
+        }
+        return normalizedScopes;
     }
 
     /**
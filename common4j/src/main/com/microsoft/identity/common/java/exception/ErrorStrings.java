@@ -491,6 +491,12 @@ public final class ErrorStrings {
      */
     public final static String DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE = "authorization_pending";
 
+    /**
+     * Device Code Flow only.
+     * Authorization is still pending, and the client should poll less often.
+     */
+    public final static String DEVICE_CODE_FLOW_SLOW_DOWN_ERROR_CODE = "slow_down";
+
     /**
      * Device Code Flow only.
      * Authorization was declined by the user during Device Code Flow.
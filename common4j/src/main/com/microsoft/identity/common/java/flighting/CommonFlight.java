@@ -83,7 +83,37 @@ public enum CommonFlight implements IFlightConfig {
     /**
      * Flight to enable the legacy FIDO security key additional logic. Default is true for common.
      */
-    ENABLE_LEGACY_FIDO_SECURITY_KEY_LOGIC("EnableLegacyFidoSecurityKeyLogic", true);
+    ENABLE_LEGACY_FIDO_SECURITY_KEY_LOGIC("EnableLegacyFidoSecurityKeyLogic", true),
+
+    /**
+     * Flight to have the in-memory credential cache publish immutable copy-on-write snapshots,
+     * so that readers do not contend on the cache lock.
+     */
+    USE_COPY_ON_WRITE_IN_MEMORY_CREDENTIAL_CACHE("UseCopyOnWriteInMemoryCredentialCache", false),
+
+    /**
+     * Flight to write credential cache values in the compact, schema-versioned format instead of
+     * Gson JSON. Compact values are always readable, regardless of this flight.
+     */
+    WRITE_COMPACT_CREDENTIAL_CACHE_VALUES("WriteCompactCredentialCacheValues", false),
+
+    /**
+     * Flight to have CommandDispatcher serve eligible silent commands from its short-lived
+     * result cache, including brief negative caching of throttled and server error results.
+     */
+    ENABLE_COMMAND_RESULT_CACHE("EnableCommandResultCache", false),
+
+    /**
+     * Flight to persist instance discovery and OpenID provider configuration metadata across
+     * process restarts, instead of fetching it again on every cold start.
+     */
+    ENABLE_PERSISTENT_METADATA_CACHE("EnablePersistentMetadataCache", false),
+
+    /**
+     * Flight to serve identical broker silent requests from a short-lived, in-process cache of
+     * broker results, instead of calling the broker for each of them.
+     */
+    ENABLE_BROKER_SILENT_RESULT_CACHE("EnableBrokerSilentResultCache", false);
 
     private String key;
     private Object defaultValue;
@@ -22,11 +22,17 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.interfaces;
 
+import com.microsoft.identity.common.java.storage.AbstractNameValueStorageEditor;
+import com.microsoft.identity.common.java.storage.ParallelEntryMapper;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
@@ -80,5 +86,50 @@ public interface INameValueStorage<T> {
      *
      */
     Iterator<Map.Entry<String, T>> getAllFilteredByKey(Predicate<String> keyFilter);
-}
 
+    /**
+     * Reads all entries whose key matches the filter and maps them in bulk, e.g. to load a cache
+     * on startup. Decoding the stored values (decryption, deserialization) is spread across the
+     * given executor, and the result is fully materialized before this method returns.
+     *
+     * @param keyFilter   a predicate to use to evaluate the key, return true to include the entry.
+     * @param entryMapper maps an entry to its result, or to null to omit it. It is invoked
+     *                    concurrently, so it must be thread safe.
+     * @param executor    the bounded pool to decode entries on.
+     * @return a map of key to (non-null) mapped value.
+     */
+    @NonNull
+    default <R> Map<String, R> getAllFilteredByKey(@NonNull final Predicate<String> keyFilter,
+                                                   @NonNull final Function<Map.Entry<String, T>, R> entryMapper,
+                                                   @NonNull final ExecutorService executor) {
+        final List<Map.Entry<String, T>> entries = new ArrayList<>();
+        final Iterator<Map.Entry<String, T>> iterator = getAllFilteredByKey(keyFilter);
+        while (iterator != null && iterator.hasNext()) {
+            entries.add(iterator.next());
+        }
+
+        return ParallelEntryMapper.mapEntries(entries, entryMapper, executor);
+    }
+
+    /**
+     * Starts a batch of changes that are persisted together on
+     * {@link INameValueStorageEditor#commit()}. Storages that cannot write a batch at once apply
+     * the changes one by one.
+     *
+     * @return an editor for this storage.
+     */
+    @NonNull
+    default INameValueStorageEditor<T> edit() {
+        return new AbstractNameValueStorageEditor<T>() {
+            @Override
+            protected void onCommit(@NonNull final Set<String> removals, @NonNull final Map<String, T> puts) {
+                for (final String name : removals) {
+                    remove(name);
+                }
+                for (final Map.Entry<String, T> entry : puts.entrySet()) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.interfaces;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Batches changes to a name value storage so that they are persisted together, e.g. all the
+ * records of one token response. Nothing is written until {@link #commit()} is called.
+ * <p>
+ * An editor is not thread safe and is meant to be used by a single caller.
+ *
+ * @param <T> the type of the values in the storage.
+ */
+public interface INameValueStorageEditor<T> {
+
+    /**
+     * Queues a value to be put into the storage. Replaces any change queued for the same name.
+     *
+     * @param name  A name associated to the value.
+     * @param value value to be persisted.
+     * @return this editor.
+     */
+    @NonNull
+    INameValueStorageEditor<T> put(@NonNull String name, @Nullable T value);
+
+    /**
+     * Queues a value to be removed from the storage. Replaces any change queued for the same name.
+     *
+     * @param name A name associated to the value.
+     * @return this editor.
+     */
+    @NonNull
+    INameValueStorageEditor<T> remove(@NonNull String name);
+
+    /**
+     * Applies the queued changes to the storage, in a single write where the storage supports it,
+     * and resets this editor.
+     */
+    void commit();
+}
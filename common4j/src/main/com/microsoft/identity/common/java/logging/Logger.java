@@ -25,6 +25,7 @@ package com.microsoft.identity.common.java.logging;
 import com.microsoft.identity.common.java.nativeauth.util.ILoggable;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ThrowableUtil;
+import com.microsoft.identity.common.java.util.ported.Supplier;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -32,8 +33,12 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -46,7 +51,34 @@ import lombok.experimental.Accessors;
 
 public class Logger {
 
-    private static final ExecutorService sLogExecutor = Executors.newSingleThreadExecutor();
+    /**
+     * Maximum number of log lines waiting to be delivered to the logger callbacks. When full, the
+     * oldest pending line is dropped and counted in {@link #getDroppedLogCount()}.
+     */
+    static final int LOG_BUFFER_CAPACITY = 4096;
+
+    private static final AtomicLong sDroppedLogCount = new AtomicLong(0);
+
+    private static final ThreadPoolExecutor sLogExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(LOG_BUFFER_CAPACITY),
+            Executors.defaultThreadFactory(),
+            new RejectedExecutionHandler() {
+                @Override
+                public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+                    if (executor.isShutdown()) {
+                        return;
+                    }
+                    // Ring buffer semantics: make room by dropping the oldest pending line.
+                    if (executor.getQueue().poll() != null) {
+                        sDroppedLogCount.incrementAndGet();
+                    }
+                    if (!executor.getQueue().offer(runnable)) {
+                        sDroppedLogCount.incrementAndGet();
+                    }
+                }
+            }
+    );
     private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
     private static final String UNSET = "UNSET";
 
@@ -69,7 +101,11 @@ public class Logger {
 
     private static final Map<String, ILoggerCallback> sLoggers = new HashMap<>();
 
+    // Only accessed from the sLogExecutor thread.
     private static final SimpleDateFormat sDateTimeFormatter;
+    private static long sLastFormattedSecond = Long.MIN_VALUE;
+    private static String sLastFormattedTimestamp = "";
+    private static long sReportedDroppedLogCount = 0;
     static {
         sDateTimeFormatter = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
         sDateTimeFormatter.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -148,6 +184,38 @@ public class Logger {
         }
     }
 
+    /**
+     * Whether a message of the given level would currently be emitted. Use this to guard building
+     * expensive log messages, or use the lazy overloads such as {@link #infoLazy(String, Supplier)}.
+     *
+     * @param logLevel the level of the message.
+     * @return true if a non-PII message at this level would be emitted.
+     */
+    public static boolean isLoggable(@NonNull final LogLevel logLevel) {
+        return isLoggable(logLevel, false);
+    }
+
+    /**
+     * Whether a message of the given level and PII-ness would currently be emitted.
+     *
+     * @param logLevel    the level of the message.
+     * @param containsPII whether the message contains PII.
+     * @return true if the message would be emitted.
+     */
+    public static boolean isLoggable(@NonNull final LogLevel logLevel, final boolean containsPII) {
+        final LogLevel currentLevel = sLogLevel;
+        return currentLevel != LogLevel.NO_LOG
+                && logLevel.compareTo(currentLevel) <= 0
+                && (sAllowPii || !containsPII);
+    }
+
+    /**
+     * @return the number of log lines dropped because the pending log buffer was full.
+     */
+    public static long getDroppedLogCount() {
+        return sDroppedLogCount.get();
+    }
+
     /**
      * Get only the required metadata from the DiagnosticContext
      * to plug it in the log lines.
@@ -465,6 +533,106 @@ public class Logger {
         log(tag, LogLevel.VERBOSE, correlationID, message, null, null, true);
     }
 
+    /**
+     * Send a {@link LogLevel#WARN} log message without PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the class
+     *                        or activity where the log call occurs.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void warnLazy(final String tag,
+                                @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.WARN, null, messageSupplier, false);
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message without PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the class
+     *                        or activity where the log call occurs.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void infoLazy(final String tag,
+                                @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.INFO, null, messageSupplier, false);
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message without PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the
+     *                        class or activity where the log call occurs.
+     * @param correlationID   Unique identifier for a request or flow used to trace program execution.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void infoLazy(final String tag,
+                                final String correlationID,
+                                @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.INFO, correlationID, messageSupplier, false);
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message with PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the class
+     *                        or activity where the log call occurs.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void infoPIILazy(final String tag,
+                                   @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.INFO, null, messageSupplier, true);
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message without PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the class
+     *                        or activity where the log call occurs.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void verboseLazy(final String tag,
+                                   @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.VERBOSE, null, messageSupplier, false);
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message without PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the
+     *                        class or activity where the log call occurs.
+     * @param correlationID   Unique identifier for a request or flow used to trace program execution.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void verboseLazy(final String tag,
+                                   final String correlationID,
+                                   @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.VERBOSE, correlationID, messageSupplier, false);
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message with PII. The message is only built if it will be emitted.
+     *
+     * @param tag             Used to identify the source of a log message. It usually identifies the class
+     *                        or activity where the log call occurs.
+     * @param messageSupplier Builds the message to log.
+     */
+    public static void verbosePIILazy(final String tag,
+                                      @NonNull final Supplier<String> messageSupplier) {
+        logLazily(tag, LogLevel.VERBOSE, null, messageSupplier, true);
+    }
+
+    private static void logLazily(final String tag,
+                                  @NonNull final LogLevel logLevel,
+                                  final String correlationId,
+                                  @NonNull final Supplier<String> messageSupplier,
+                                  final boolean containsPII) {
+        if (!isLoggable(logLevel, containsPII)) {
+            return;
+        }
+
+        log(tag, logLevel, correlationId, messageSupplier.get(), null, null, containsPII);
+    }
+
     private static void log(final String tag,
                             @NonNull final LogLevel logLevel,
                             final String correlationId,
@@ -472,39 +640,83 @@ public class Logger {
                             @Nullable final String objectToLog,
                             final Throwable throwable,
                             final boolean containsPII) {
-        if ((sLogLevel == LogLevel.NO_LOG) || logLevel.compareTo(sLogLevel) > 0 || (!sAllowPii && containsPII)) {
+        if (!isLoggable(logLevel, containsPII)) {
             return;
         }
 
-        final Date now = new Date();
+        final long nowMillis = System.currentTimeMillis();
         final String diagnosticMetadata = getDiagnosticContextMetadata(correlationId);
 
         sLogExecutor.execute(new Runnable() {
             @Override
-            @SuppressFBWarnings(value = "DE_MIGHT_IGNORE",
-                    justification = "If logging throws, there is nothing left to do but swallow the exception and move on.")
             public void run() {
-                final String dateTimeStamp = sDateTimeFormatter.format(now);
+                final String dateTimeStamp = formatTimestamp(nowMillis);
+                reportDroppedLogs(dateTimeStamp);
+
                 //Format the log message.
                 final String logMessage = formatMessage(diagnosticMetadata, sPlatformString, message, objectToLog, dateTimeStamp, throwable);
+                dispatchToLoggers(tag, logLevel, logMessage, containsPII);
+            }
+        });
+    }
 
-                sLoggersLock.readLock().lock();
+    @SuppressFBWarnings(value = "DE_MIGHT_IGNORE",
+            justification = "If logging throws, there is nothing left to do but swallow the exception and move on.")
+    private static void dispatchToLoggers(final String tag,
+                                          @NonNull final LogLevel logLevel,
+                                          @NonNull final String logMessage,
+                                          final boolean containsPII) {
+        sLoggersLock.readLock().lock();
+        try {
+            for (final String loggerCallbackKey : sLoggers.keySet()) {
                 try {
-                    for (final String loggerCallbackKey : sLoggers.keySet()) {
-                        try {
-                            final ILoggerCallback callback = sLoggers.get(loggerCallbackKey);
-                            if (callback != null) {
-                                callback.log(tag, logLevel, logMessage, containsPII);
-                            }
-                        } catch (final Exception e) {
-                            // Do nothing.
-                        }
+                    final ILoggerCallback callback = sLoggers.get(loggerCallbackKey);
+                    if (callback != null) {
+                        callback.log(tag, logLevel, logMessage, containsPII);
                     }
-                } finally {
-                    sLoggersLock.readLock().unlock();
+                } catch (final Exception e) {
+                    // Do nothing.
                 }
             }
-        });
+        } finally {
+            sLoggersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Emits a warning line if log lines were dropped since the last report. Runs on the sLogExecutor thread.
+     */
+    private static void reportDroppedLogs(@NonNull final String dateTimeStamp) {
+        final long droppedLogCount = sDroppedLogCount.get();
+        if (droppedLogCount == sReportedDroppedLogCount) {
+            return;
+        }
+
+        final long newlyDropped = droppedLogCount - sReportedDroppedLogCount;
+        sReportedDroppedLogCount = droppedLogCount;
+        if (isLoggable(LogLevel.WARN)) {
+            dispatchToLoggers(
+                    Logger.class.getSimpleName(),
+                    LogLevel.WARN,
+                    formatMessage(null, sPlatformString,
+                            "Dropped " + newlyDropped + " log lines because the log buffer was full.",
+                            null, dateTimeStamp, null),
+                    false
+            );
+        }
+    }
+
+    /**
+     * Formats the timestamp, reusing the previous result for lines logged within the same second.
+     * Runs on the sLogExecutor thread, which is the only thread to use the formatter.
+     */
+    private static String formatTimestamp(final long timeMillis) {
+        final long second = timeMillis / 1000;
+        if (second != sLastFormattedSecond) {
+            sLastFormattedTimestamp = sDateTimeFormatter.format(new Date(timeMillis));
+            sLastFormattedSecond = second;
+        }
+        return sLastFormattedTimestamp;
     }
 
     /**
@@ -548,7 +760,7 @@ public class Logger {
             }
         }
 
-        return String.format("%s: %s, %s: %s",
-                DiagnosticContext.THREAD_ID, threadId, DiagnosticContext.CORRELATION_ID, correlationId);
+        return DiagnosticContext.THREAD_ID + ": " + threadId + ", "
+                + DiagnosticContext.CORRELATION_ID + ": " + correlationId;
     }
 }
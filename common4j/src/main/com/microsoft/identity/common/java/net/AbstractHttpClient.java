@@ -22,13 +22,23 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.net;
 
+import com.microsoft.identity.common.java.opentelemetry.SpanExtension;
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.ThreadUtils;
+
 import java.io.IOException;
 import java.net.URL;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import lombok.NonNull;
 
 /**
@@ -37,6 +47,117 @@ import lombok.NonNull;
  * */
 public abstract class AbstractHttpClient implements HttpClient {
 
+    /**
+     * Number of threads in the shared scheduler used by {@link #sendAsync(HttpRequest)}.  Each
+     * in-flight request holds one of these threads for its blocking socket I/O, so this also caps
+     * how many requests sent through the shared scheduler run at once, across every client.
+     */
+    public static final int DEFAULT_ASYNC_POOL_SIZE = 4;
+
+    private static final class AsyncSchedulerHolder {
+        private static final ScheduledExecutorService INSTANCE = ThreadUtils.getNamedScheduledThreadPoolExecutor(
+                DEFAULT_ASYNC_POOL_SIZE, 60, TimeUnit.SECONDS, "http-async");
+    }
+
+    /**
+     * @return the scheduler shared by every client for {@link #sendAsync(HttpRequest)}. Callers with
+     * long-running or high-volume traffic should pass their own scheduler to
+     * {@link #sendAsync(HttpRequest, ScheduledExecutorService)} rather than compete for this one.
+     */
+    public static ScheduledExecutorService getDefaultAsyncScheduler() {
+        return AsyncSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Sends the request without blocking the calling thread, on the shared scheduler.
+     *
+     * @param request the request to send.
+     * @return a future completed with the response, or with the exception that ended the request.
+     * @see #sendAsync(HttpRequest, ScheduledExecutorService)
+     */
+    public ResultFuture<HttpResponse> sendAsync(@NonNull final HttpRequest request) {
+        return sendAsync(request, getDefaultAsyncScheduler());
+    }
+
+    /**
+     * Sends the request without blocking the calling thread.  This is not non-blocking I/O: this
+     * default implementation runs the blocking {@link #method(HttpMethod, URL, Map, byte[])} on the
+     * scheduler, which holds one of its threads for the whole exchange.  Implementations with a
+     * retry policy should override it to wait out backoffs via the scheduler instead of sleeping.
+     *
+     * @param request   the request to send.
+     * @param scheduler the executor that runs the request, and delays retries if any.
+     * @return a future completed with the response, or with the exception that ended the request.
+     */
+    public ResultFuture<HttpResponse> sendAsync(@NonNull final HttpRequest request,
+                                                @NonNull final ScheduledExecutorService scheduler) {
+        final Callable<HttpResponse> call = withCurrentSpan(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() throws IOException {
+                return method(
+                        HttpMethod.validateAndNormalizeMethod(request.getRequestMethod()),
+                        request.getRequestUrl(),
+                        request.getRequestHeaders(),
+                        request.getRequestContent()
+                );
+            }
+        });
+
+        final ResultFuture<HttpResponse> future = new ResultFuture<>();
+        try {
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.setResult(call.call());
+                    } catch (final Exception e) {
+                        future.setException(e);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.setException(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs the attempts through the retry policy asynchronously if it supports it, otherwise
+     * runs the blocking policy on the scheduler.
+     */
+    protected static ResultFuture<HttpResponse> attemptAsync(@NonNull final IRetryPolicy<HttpResponse> retryPolicy,
+                                                             @NonNull final Callable<HttpResponse> attempt,
+                                                             @NonNull final ScheduledExecutorService scheduler) {
+        final Callable<HttpResponse> spanAwareAttempt = withCurrentSpan(attempt);
+        if (retryPolicy instanceof IAsyncRetryPolicy) {
+            @SuppressWarnings("unchecked")
+            final IAsyncRetryPolicy<HttpResponse> asyncRetryPolicy = (IAsyncRetryPolicy<HttpResponse>) retryPolicy;
+            return asyncRetryPolicy.attemptAsync(spanAwareAttempt, scheduler);
+        }
+
+        return new NoRetryPolicy().attemptAsync(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() throws IOException {
+                return retryPolicy.attempt(spanAwareAttempt);
+            }
+        }, scheduler);
+    }
+
+    /**
+     * Captures the caller's current span so it is current again on whichever thread runs the call.
+     */
+    private static Callable<HttpResponse> withCurrentSpan(@NonNull final Callable<HttpResponse> callable) {
+        final Span span = SpanExtension.current();
+        return new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() throws Exception {
+                try (final Scope scope = SpanExtension.makeCurrentSpan(span)) {
+                    return callable.call();
+                }
+            }
+        };
+    }
+
     @Override
     public HttpResponse method(@NonNull final String httpMethod,
                                @NonNull final URL requestUrl,
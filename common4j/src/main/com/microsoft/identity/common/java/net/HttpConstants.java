@@ -44,6 +44,11 @@ public final class HttpConstants {
          */
         public static final String CONTENT_LENGTH = "Content-Length";
 
+        /**
+         * @see <a href="https://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html">RFC-2616</a>
+         */
+        public static final String CONNECTION = "Connection";
+
         /**
          * Header used to track SPE Ring for telemetry.
          */
@@ -60,6 +65,17 @@ public final class HttpConstants {
         public static final String XMS_CCS_REQUEST_SEQUENCE = "x-ms-srs";
     }
 
+    /**
+     * HTTP header values.
+     */
+    public static final class HeaderValue {
+
+        /**
+         * @see <a href="https://www.w3.org/Protocols/rfc2616/rfc2616-sec8.html">RFC-2616</a>
+         */
+        public static final String KEEP_ALIVE = "keep-alive";
+    }
+
     /**
      * Identifiers for file formats and format contents.
      */
@@ -22,10 +22,13 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.net;
 
+import com.microsoft.identity.common.java.AuthenticationConstants;
 import com.microsoft.identity.common.java.util.StringUtil;
 
 import net.jcip.annotations.Immutable;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -41,7 +44,10 @@ import lombok.NonNull;
 public class HttpResponse {
 
     private final int mStatusCode;
-    private final String mResponseBody;
+    private final byte[] mResponseBodyBytes;
+    // Decoded from mResponseBodyBytes on first use. Every thread decodes the same value, so
+    // caching it does not change what the response exposes.
+    private volatile String mResponseBody;
     private final Map<String, List<String>> mResponseHeaders;
     private final Date mDate;
 
@@ -64,9 +70,48 @@ public class HttpResponse {
         mDate = new Date(date.getTime());
         mStatusCode = statusCode;
         mResponseBody = responseBody;
+        mResponseBodyBytes = null;
         mResponseHeaders = headerFields;
     }
 
+    /**
+     * Constructor for {@link HttpResponse} backed by the raw response bytes.
+     * The UTF-8 string form is only decoded if {@link #getBody()} is called.
+     *
+     * @param date            The date of the response.
+     * @param statusCode      The status code from the server response.
+     * @param responseBody    Raw response body bytes. Copied.
+     * @param headerFields    Response headers from the connection sent to the server.
+     */
+    public HttpResponse(@NonNull final Date date,
+                        final int statusCode,
+                        @NonNull final byte[] responseBody,
+                        final Map<String, List<String>> headerFields) {
+        this(date, statusCode, headerFields, responseBody.clone());
+    }
+
+    private HttpResponse(@NonNull final Date date,
+                         final int statusCode,
+                         final Map<String, List<String>> headerFields,
+                         @NonNull final byte[] ownedResponseBody) {
+        mDate = new Date(date.getTime());
+        mStatusCode = statusCode;
+        mResponseBody = null;
+        mResponseBodyBytes = ownedResponseBody;
+        mResponseHeaders = headerFields;
+    }
+
+    /**
+     * Creates a response that takes ownership of the body bytes without copying them, for
+     * clients in this package that read the body into an array nobody else holds.
+     */
+    static HttpResponse withOwnedBody(@NonNull final Date date,
+                                      final int statusCode,
+                                      @NonNull final byte[] ownedResponseBody,
+                                      final Map<String, List<String>> headerFields) {
+        return new HttpResponse(date, statusCode, headerFields, ownedResponseBody);
+    }
+
     public Date getDate() {
         return new Date(mDate.getTime());
     }
@@ -82,9 +127,37 @@ public class HttpResponse {
      * @return The raw server response.
      */
     public String getBody() {
+        if (mResponseBody == null && mResponseBodyBytes != null) {
+            mResponseBody = new String(mResponseBodyBytes, AuthenticationConstants.CHARSET_UTF8);
+        }
         return mResponseBody;
     }
 
+    /**
+     * @return A copy of the raw server response as UTF-8 bytes, or null if there is no body.
+     */
+    @Nullable
+    public byte[] getBodyBytes() {
+        if (mResponseBodyBytes != null) {
+            return mResponseBodyBytes.clone();
+        }
+        return mResponseBody == null ? null : mResponseBody.getBytes(AuthenticationConstants.CHARSET_UTF8);
+    }
+
+    /**
+     * @return A stream over the raw server response, for parsers that consume a stream/reader
+     * directly instead of a {@link String}. Reads the body without copying it.
+     */
+    @NonNull
+    public InputStream getBodyStream() {
+        if (mResponseBodyBytes != null) {
+            return new ByteArrayInputStream(mResponseBodyBytes);
+        }
+        return new ByteArrayInputStream(mResponseBody == null
+                ? new byte[0]
+                : mResponseBody.getBytes(AuthenticationConstants.CHARSET_UTF8));
+    }
+
     /**
      * @return The unmodified Map of response headers.
      * Response headers is set by {@link java.net.HttpURLConnection#getHeaderFields()} which is an unmodified Map.
@@ -138,7 +211,7 @@ public class HttpResponse {
     public String toString() {
         return "HttpResponse{" +
                 "mStatusCode=" + mStatusCode +
-                ", mResponseBody='" + mResponseBody + '\'' +
+                ", mResponseBody='" + getBody() + '\'' +
                 ", mResponseHeaders=" + mResponseHeaders +
                 '}';
     }
@@ -0,0 +1,47 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import com.microsoft.identity.common.java.util.ResultFuture;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+
+import lombok.NonNull;
+
+/**
+ * A retry policy that can run its attempts without blocking the caller.  Rather than sleeping
+ * between attempts, implementations schedule the next attempt on the provided executor, so no
+ * thread is held while waiting out a backoff.
+ * @param <T> the type of the object on return.
+ */
+public interface IAsyncRetryPolicy<T> {
+    /**
+     * Evaluate the object returned from a callable asynchronously.
+     * @param supplier an object to call for a result.  Each call runs on a thread of the scheduler.
+     * @param scheduler the executor used both to run attempts and to delay retries.
+     * @return a future completed with the accepted result, or the exception that ended the attempts.
+     */
+    ResultFuture<T> attemptAsync(@NonNull Callable<T> supplier,
+                                 @NonNull ScheduledExecutorService scheduler);
+}
@@ -0,0 +1,453 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import static com.microsoft.identity.common.java.AuthenticationConstants.AAD.CLIENT_REQUEST_ID;
+import static com.microsoft.identity.common.java.net.HttpConstants.HeaderField.CONTENT_TYPE;
+import static com.microsoft.identity.common.java.net.HttpConstants.HeaderField.XMS_CCS_REQUEST_ID;
+import static com.microsoft.identity.common.java.net.HttpConstants.HeaderField.XMS_CCS_REQUEST_SEQUENCE;
+
+import com.microsoft.identity.common.java.flighting.CommonFlight;
+import com.microsoft.identity.common.java.flighting.CommonFlightsManager;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.opentelemetry.AttributeName;
+import com.microsoft.identity.common.java.opentelemetry.SpanExtension;
+import com.microsoft.identity.common.java.util.BiConsumer;
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.ported.Consumer;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.opentelemetry.api.trace.Span;
+import lombok.Builder;
+import lombok.NonNull;
+
+/**
+ * An {@link AbstractHttpClient} that keeps connections to each authority host alive and reuses them
+ * across requests, instead of paying a new TCP + TLS handshake on every token request.
+ * <p>
+ * {@link HttpURLConnection} only returns a socket to the JVM keep-alive cache when the response
+ * stream has been read to the end and closed without calling {@link HttpURLConnection#disconnect()},
+ * and only reuses it for requests that share the same {@link SSLSocketFactory}. This client:
+ * <ul>
+ * <li>holds a single {@link SSLSocketFactoryWrapper} for its lifetime so TLS sessions and pooled
+ * sockets are shared by every request it sends,</li>
+ * <li>always drains and closes the response (or error) stream so the socket is released to the pool,</li>
+ * <li>limits the number of concurrent requests per authority host so that, with the default of
+ * {@link #DEFAULT_MAX_CONCURRENT_REQUESTS_PER_HOST} (matching the JVM's http.maxConnections
+ * default), every connection it opens can be kept alive rather than closed on release. Requests
+ * over the limit wait for a running one to finish, in the order they arrived; the connect and
+ * read timeouts still apply once they start. Blocking requests wait on the calling thread, while
+ * {@link #sendAsync(HttpRequest, ScheduledExecutorService)} requests are queued and only handed
+ * to the scheduler once they may run, so they never hold a scheduler thread while waiting,</li>
+ * <li>disables the {@link java.net.ResponseCache} and reads the body as bytes with a configurable
+ * buffer, exposing it through {@link HttpResponse#getBodyBytes()}/{@link HttpResponse#getBodyStream()}.</li>
+ * </ul>
+ * The sockets themselves are pooled by the JVM's keep-alive cache; this client does not hold
+ * connections of its own.
+ * <p>
+ * This client is opt-in: nothing in this library creates one, and {@link UrlConnectionHttpClient}
+ * remains the default. Callers that want it build one with {@link #builder()} and pass it wherever
+ * an {@link HttpClient} is accepted.
+ */
+@ThreadSafe
+public class KeepAliveUrlConnectionHttpClient extends AbstractHttpClient {
+    private static final String TAG = KeepAliveUrlConnectionHttpClient.class.getSimpleName();
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS_PER_HOST = 5;
+    public static final int DEFAULT_STREAM_BUFFER_SIZE_BYTE = 8192;
+
+    /**
+     * Upper bound for pre-sizing the response buffer from the Content-Length header.
+     */
+    private static final int MAX_INITIAL_BODY_CAPACITY_BYTE = 1024 * 1024;
+
+    private final IRetryPolicy<HttpResponse> mRetryPolicy;
+    private final int mStreamBufferSize;
+    private final int mConnectTimeoutMs;
+    private final int mReadTimeoutMs;
+    private final int mMaxConcurrentRequestsPerHost;
+    private final SSLSocketFactoryWrapper mSslSocketFactory;
+    private final ConcurrentMap<String, HostConcurrencyLimiter> mHostLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * Default Constructor, for constructing Lombok's Builder only. Do not expose.
+     */
+    @Builder
+    private KeepAliveUrlConnectionHttpClient(@Nullable final IRetryPolicy<HttpResponse> retryPolicy,
+                                          @Nullable final Integer streamBufferSize,
+                                          @Nullable final Integer connectTimeoutMs,
+                                          @Nullable final Integer readTimeoutMs,
+                                          @Nullable final Integer maxConcurrentRequestsPerHost,
+                                          @Nullable final List<String> supportedSslProtocols,
+                                          @Nullable final SSLContext sslContext) {
+        mRetryPolicy = retryPolicy != null ? retryPolicy : new NoRetryPolicy();
+        mStreamBufferSize = streamBufferSize != null ? streamBufferSize : DEFAULT_STREAM_BUFFER_SIZE_BYTE;
+        mConnectTimeoutMs = connectTimeoutMs != null ?
+                connectTimeoutMs : CommonFlightsManager.INSTANCE.getFlightsProvider().getIntValue(CommonFlight.URL_CONNECTION_CONNECT_TIME_OUT);
+        mReadTimeoutMs = readTimeoutMs != null ?
+                readTimeoutMs : CommonFlightsManager.INSTANCE.getFlightsProvider().getIntValue(CommonFlight.URL_CONNECTION_READ_TIME_OUT);
+        mMaxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost != null ? maxConcurrentRequestsPerHost : DEFAULT_MAX_CONCURRENT_REQUESTS_PER_HOST;
+
+        if (mStreamBufferSize <= 0) {
+            throw new IllegalArgumentException("streamBufferSize must be positive: " + mStreamBufferSize);
+        }
+        if (mMaxConcurrentRequestsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRequestsPerHost must be positive: " + mMaxConcurrentRequestsPerHost);
+        }
+
+        final List<String> protocol = supportedSslProtocols != null ?
+                supportedSslProtocols : SSLSocketFactoryWrapper.SUPPORTED_SSL_PROTOCOLS;
+        final SSLSocketFactory socketFactory = sslContext == null ?
+                (SSLSocketFactory) SSLSocketFactory.getDefault() : sslContext.getSocketFactory();
+        mSslSocketFactory = new SSLSocketFactoryWrapper(socketFactory, protocol);
+    }
+
+    @Override
+    public HttpResponse method(@NonNull final HttpMethod httpMethod,
+                               @NonNull final URL requestUrl,
+                               @NonNull final Map<String, String> requestHeaders,
+                               @Nullable final byte[] requestContent) throws IOException {
+        UrlConnectionHttpClient.recordHttpTelemetryEventStart(httpMethod.name(), requestUrl, requestHeaders.get(CLIENT_REQUEST_ID));
+        final HttpRequest request = UrlConnectionHttpClient.constructHttpRequest(httpMethod, requestUrl, requestHeaders, requestContent);
+        return mRetryPolicy.attempt(new Callable<HttpResponse>() {
+            public HttpResponse call() throws IOException {
+                return executeHttpSend(request, new Consumer<HttpResponse>() {
+                    @Override
+                    public void accept(HttpResponse httpResponse) {
+                        UrlConnectionHttpClient.recordHttpTelemetryEventEnd(httpResponse);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Sends the request on the scheduler once the host limit allows it; until then it is queued
+     * without holding a scheduler thread. Retries wait out their backoff on the scheduler rather
+     * than sleeping, so no thread is held between attempts either; the request keeps its place
+     * under the host limit until its last attempt ends.
+     */
+    @Override
+    public ResultFuture<HttpResponse> sendAsync(@NonNull final HttpRequest request,
+                                                @NonNull final ScheduledExecutorService scheduler) {
+        UrlConnectionHttpClient.recordHttpTelemetryEventStart(request.getRequestMethod(), request.getRequestUrl(), request.getRequestHeaders().get(CLIENT_REQUEST_ID));
+        final HttpRequest normalizedRequest = UrlConnectionHttpClient.constructHttpRequest(
+                HttpMethod.validateAndNormalizeMethod(request.getRequestMethod()),
+                request.getRequestUrl(),
+                request.getRequestHeaders(),
+                request.getRequestContent()
+        );
+        final Callable<HttpResponse> attempt = new Callable<HttpResponse>() {
+            public HttpResponse call() throws IOException {
+                return executeOnConnection(normalizedRequest, new Consumer<HttpResponse>() {
+                    @Override
+                    public void accept(HttpResponse httpResponse) {
+                        UrlConnectionHttpClient.recordHttpTelemetryEventEnd(httpResponse);
+                    }
+                });
+            }
+        };
+
+        final ResultFuture<HttpResponse> future = new ResultFuture<>();
+        final HostConcurrencyLimiter limiter = getHostLimiter(normalizedRequest.getRequestUrl());
+        limiter.whenPermitted(new Runnable() {
+            // Runs on the thread that frees the permit, or on the caller if one is free already.
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    limiter.release();
+                    return;
+                }
+
+                final ResultFuture<HttpResponse> attempts;
+                try {
+                    attempts = attemptAsync(mRetryPolicy, attempt, scheduler);
+                } catch (final RuntimeException e) {
+                    limiter.release();
+                    future.setException(e);
+                    return;
+                }
+
+                attempts.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                    @Override
+                    public void accept(final HttpResponse response, final Throwable throwable) {
+                        limiter.release();
+                        if (throwable != null) {
+                            future.setException(throwable);
+                        } else {
+                            future.setResult(response);
+                        }
+                    }
+                });
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns the number of requests currently running against the authority of the given URL.
+     */
+    public int getActiveRequestCount(@NonNull final URL url) {
+        final HostConcurrencyLimiter limiter = mHostLimiters.get(getAuthorityKey(url));
+        return limiter == null ? 0 : limiter.getActiveRequestCount();
+    }
+
+    private HttpResponse executeHttpSend(@NonNull final HttpRequest request,
+                                         @NonNull final Consumer<HttpResponse> completionCallback) throws IOException {
+        final HostConcurrencyLimiter limiter = getHostLimiter(request.getRequestUrl());
+        limiter.acquire();
+        try {
+            return executeOnConnection(request, completionCallback);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    private HttpResponse executeOnConnection(@NonNull final HttpRequest request,
+                                             @NonNull final Consumer<HttpResponse> completionCallback) throws IOException {
+        final HttpURLConnection urlConnection = setupConnection(request);
+
+        UrlConnectionHttpClient.sendRequest(urlConnection, request.getRequestContent(),
+                request.getRequestHeaders().get(HttpConstants.HeaderField.CONTENT_TYPE));
+
+        InputStream responseStream = null;
+        HttpResponse response = null;
+        try {
+            try {
+                responseStream = urlConnection.getInputStream();
+            } catch (final SocketTimeoutException socketTimeoutException) {
+                // Let the retry policy decide whether to retry a timeout.
+                throw socketTimeoutException;
+            } catch (final IOException ioException) {
+                // 4xx/5xx responses surface as an exception; the body is on the error stream.
+                responseStream = urlConnection.getErrorStream();
+            }
+
+            final int statusCode = urlConnection.getResponseCode();
+            final byte[] responseBody = responseStream == null
+                    ? new byte[0]
+                    : readFully(responseStream, urlConnection.getContentLength());
+
+            response = HttpResponse.withOwnedBody(
+                    new Date(urlConnection.getDate()),
+                    statusCode,
+                    responseBody,
+                    urlConnection.getHeaderFields()
+            );
+
+            final Span span = SpanExtension.current();
+            if (response.getHeaders() != null && response.getHeaders().size() > 0) {
+                span.setAttribute(AttributeName.response_content_type.name(), response.getHeaderValue(CONTENT_TYPE, 0));
+                span.setAttribute(AttributeName.ccs_request_id.name(), response.getHeaderValue(XMS_CCS_REQUEST_ID, 0));
+                span.setAttribute(AttributeName.ccs_request_sequence.name(), response.getHeaderValue(XMS_CCS_REQUEST_SEQUENCE, 0));
+            }
+            span.setAttribute(AttributeName.response_body_length.name(), responseBody.length);
+            span.setAttribute(AttributeName.http_status_code.name(), statusCode);
+        } finally {
+            completionCallback.accept(response);
+            // Closing (without disconnect()) after reaching EOF hands the socket back to the keep-alive cache.
+            UrlConnectionHttpClient.safeCloseStream(responseStream);
+        }
+
+        return response;
+    }
+
+    private HttpURLConnection setupConnection(@NonNull final HttpRequest request) throws IOException {
+        final String methodName = ":setupConnection";
+        final URL requestUrl = request.getRequestUrl();
+        final HttpURLConnection urlConnection = HttpUrlConnectionFactory.createHttpURLConnection(requestUrl);
+
+        for (final Map.Entry<String, String> entry : request.getRequestHeaders().entrySet()) {
+            urlConnection.setRequestProperty(entry.getKey(), entry.getValue());
+        }
+
+        if (urlConnection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) urlConnection).setSSLSocketFactory(mSslSocketFactory);
+        } else if ("https".equalsIgnoreCase(requestUrl.getProtocol())) {
+            throw new IllegalStateException("Trying to initiate a HTTPS request, but didn't get back HttpsURLConnection");
+        } else {
+            Logger.warn(TAG + methodName, "Making a request for non-https URL.");
+        }
+
+        urlConnection.setRequestMethod(request.getRequestMethod());
+        urlConnection.setRequestProperty(HttpConstants.HeaderField.CONNECTION, HttpConstants.HeaderValue.KEEP_ALIVE);
+        urlConnection.setConnectTimeout(mConnectTimeoutMs);
+        urlConnection.setReadTimeout(mReadTimeoutMs);
+        urlConnection.setInstanceFollowRedirects(true);
+        urlConnection.setUseCaches(false);
+        urlConnection.setDoInput(true);
+
+        return urlConnection;
+    }
+
+    /**
+     * Reads the stream to EOF into a byte array, pre-sizing the buffer from the Content-Length if known.
+     */
+    private byte[] readFully(@NonNull final InputStream inputStream, final int contentLength) throws IOException {
+        final int initialCapacity = contentLength > 0
+                ? Math.min(contentLength, MAX_INITIAL_BODY_CAPACITY_BYTE)
+                : mStreamBufferSize;
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(initialCapacity);
+        final byte[] buffer = new byte[mStreamBufferSize];
+        int bytesRead;
+
+        while ((bytesRead = inputStream.read(buffer)) > -1) {
+            outputStream.write(buffer, 0, bytesRead);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private HostConcurrencyLimiter getHostLimiter(@NonNull final URL url) {
+        final String key = getAuthorityKey(url);
+        HostConcurrencyLimiter limiter = mHostLimiters.get(key);
+        if (limiter == null) {
+            final HostConcurrencyLimiter newLimiter = new HostConcurrencyLimiter(key, mMaxConcurrentRequestsPerHost);
+            limiter = mHostLimiters.putIfAbsent(key, newLimiter);
+            if (limiter == null) {
+                limiter = newLimiter;
+            }
+        }
+        return limiter;
+    }
+
+    private static String getAuthorityKey(@NonNull final URL url) {
+        final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getProtocol().toLowerCase() + "://" + url.getHost().toLowerCase() + ":" + port;
+    }
+
+    /**
+     * Limits the number of requests concurrently running against one authority host. Requests over
+     * the limit are queued in arrival order, and a finishing request hands its permit straight to
+     * the first queued one.
+     */
+    private static final class HostConcurrencyLimiter {
+        private final String mAuthority;
+        private final int mMaxConcurrentRequests;
+
+        // Guarded by this.
+        private final Queue<Runnable> mWaiters = new ArrayDeque<>();
+        private int mActiveRequests;
+
+        HostConcurrencyLimiter(@NonNull final String authority, final int maxConcurrentRequests) {
+            mAuthority = authority;
+            mMaxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        /**
+         * Waits on the calling thread until fewer than the maximum number of requests are running
+         * against the host.
+         */
+        void acquire() throws IOException {
+            final CountDownLatch permitted = new CountDownLatch(1);
+            final Runnable waiter = new Runnable() {
+                @Override
+                public void run() {
+                    permitted.countDown();
+                }
+            };
+            if (tryAcquireOrEnqueue(waiter)) {
+                return;
+            }
+
+            try {
+                permitted.await();
+            } catch (final InterruptedException e) {
+                final boolean permitHandedOver;
+                synchronized (this) {
+                    permitHandedOver = !mWaiters.remove(waiter);
+                }
+                if (permitHandedOver) {
+                    // The permit was handed over while we were being interrupted; pass it on.
+                    release();
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to send a request to " + mAuthority);
+            }
+        }
+
+        /**
+         * Runs the task once fewer than the maximum number of requests are running against the
+         * host: right away on the calling thread if possible, otherwise on the thread whose
+         * {@link #release()} frees a permit. The task must not block, and owns the permit.
+         */
+        void whenPermitted(@NonNull final Runnable task) {
+            if (tryAcquireOrEnqueue(task)) {
+                task.run();
+            }
+        }
+
+        void release() {
+            final Runnable next;
+            synchronized (this) {
+                next = mWaiters.poll();
+                if (next == null) {
+                    mActiveRequests--;
+                    return;
+                }
+            }
+            next.run();
+        }
+
+        synchronized int getActiveRequestCount() {
+            return mActiveRequests;
+        }
+
+        /**
+         * @return true if a permit was taken, false if the waiter was queued for the next one.
+         */
+        private synchronized boolean tryAcquireOrEnqueue(@NonNull final Runnable waiter) {
+            if (mActiveRequests < mMaxConcurrentRequests) {
+                mActiveRequests++;
+                return true;
+            }
+
+            mWaiters.add(waiter);
+            return false;
+        }
+    }
+}
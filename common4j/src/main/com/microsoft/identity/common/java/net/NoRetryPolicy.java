@@ -25,9 +25,14 @@ package com.microsoft.identity.common.java.net;
 import net.jcip.annotations.Immutable;
 import net.jcip.annotations.ThreadSafe;
 
+import com.microsoft.identity.common.java.util.ResultFuture;
+
 import java.io.IOException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 
+import lombok.NonNull;
 import lombok.SneakyThrows;
 
 /**
@@ -35,10 +40,31 @@ import lombok.SneakyThrows;
  */
 @ThreadSafe
 @Immutable
-public class NoRetryPolicy implements IRetryPolicy<HttpResponse> {
+public class NoRetryPolicy implements IRetryPolicy<HttpResponse>, IAsyncRetryPolicy<HttpResponse> {
     @Override
     @SneakyThrows
     public HttpResponse attempt(Callable<HttpResponse> supplier) throws IOException {
         return supplier.call();
     }
+
+    @Override
+    public ResultFuture<HttpResponse> attemptAsync(@NonNull final Callable<HttpResponse> supplier,
+                                                   @NonNull final ScheduledExecutorService scheduler) {
+        final ResultFuture<HttpResponse> future = new ResultFuture<>();
+        try {
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.setResult(supplier.call());
+                    } catch (final Exception e) {
+                        future.setException(e);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.setException(e);
+        }
+        return future;
+    }
 }
@@ -22,27 +22,35 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.net;
 
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.ported.Function;
 import net.jcip.annotations.Immutable;
 import net.jcip.annotations.ThreadSafe;
 
 import java.io.IOException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.NonNull;
 
 /**
  * A retry policy that implements exponential backoff based around functions that operate on the
  * HttpResponse object and any Exception that might be thrown from that method.  By default, without
  * any setup, this class will not retry at all - any response is acceptable, and no exceptions are
  * retryable.
+ * <p>
+ * {@link #attemptAsync(Callable, ScheduledExecutorService)} applies the same policy, but schedules
+ * each retry after its backoff instead of sleeping on the calling thread.
  */
 @AllArgsConstructor
 @Builder
 @ThreadSafe
 @Immutable
-public class StatusCodeAndExceptionRetry implements IRetryPolicy<HttpResponse> {
+public class StatusCodeAndExceptionRetry implements IRetryPolicy<HttpResponse>, IAsyncRetryPolicy<HttpResponse> {
     @Builder.Default
     private final Function<Exception, Boolean> isRetryableException = new Function<Exception, Boolean>() {
         @Override
@@ -96,6 +104,50 @@ public class StatusCodeAndExceptionRetry implements IRetryPolicy<HttpResponse> {
         throw new IllegalStateException("This code should not be reachable");
     }
 
+    @Override
+    public ResultFuture<HttpResponse> attemptAsync(@NonNull final Callable<HttpResponse> supplier,
+                                                   @NonNull final ScheduledExecutorService scheduler) {
+        final ResultFuture<HttpResponse> future = new ResultFuture<>();
+        scheduleAttempt(supplier, scheduler, future, number, initialDelay, 0);
+        return future;
+    }
+
+    /**
+     * Schedules one attempt; on a retryable outcome the attempt schedules its successor.
+     * @param attemptsLeft number of retries remaining after this attempt.
+     * @param nextDelay delay, in milliseconds, before the retry following this attempt.
+     * @param delay delay, in milliseconds, before this attempt.
+     */
+    private void scheduleAttempt(@NonNull final Callable<HttpResponse> supplier,
+                                 @NonNull final ScheduledExecutorService scheduler,
+                                 @NonNull final ResultFuture<HttpResponse> future,
+                                 final int attemptsLeft,
+                                 final int nextDelay,
+                                 final int delay) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final HttpResponse response = supplier.call();
+                        if (attemptsLeft <= 0 || isAcceptable.apply(response) || !isRetryable.apply(response)) {
+                            future.setResult(response);
+                            return;
+                        }
+                    } catch (final Exception e) {
+                        if (attemptsLeft <= 0 || !isRetryableException.apply(e)) {
+                            future.setException(e instanceof IOException ? e : new RetryFailedException(e));
+                            return;
+                        }
+                    }
+                    scheduleAttempt(supplier, scheduler, future, attemptsLeft - 1, nextDelay * extensionFactor, nextDelay);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            future.setException(e);
+        }
+    }
+
     /**
      * Just a sleep function that allows for a return to break the loop.
      * @param cumulativeDelay How long, in milliseconds, to pause.
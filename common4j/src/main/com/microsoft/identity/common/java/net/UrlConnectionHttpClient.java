@@ -36,6 +36,7 @@ import com.microsoft.identity.common.java.opentelemetry.SpanExtension;
 import com.microsoft.identity.common.java.telemetry.Telemetry;
 import com.microsoft.identity.common.java.telemetry.events.HttpEndEvent;
 import com.microsoft.identity.common.java.telemetry.events.HttpStartEvent;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.Consumer;
 import com.microsoft.identity.common.java.util.ported.Function;
@@ -58,6 +59,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
@@ -208,9 +210,9 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
     /**
      * Record the beginning of an http request.
      */
-    private static void recordHttpTelemetryEventStart(@NonNull final String requestMethod,
-                                                      @NonNull final URL requestUrl,
-                                                      final String requestId) {
+    static void recordHttpTelemetryEventStart(@NonNull final String requestMethod,
+                                              @NonNull final URL requestUrl,
+                                              final String requestId) {
         Telemetry.emit(
                 new HttpStartEvent()
                         .putMethod(requestMethod)
@@ -224,7 +226,7 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
      *
      * @param response
      */
-    private static void recordHttpTelemetryEventEnd(final HttpResponse response) {
+    static void recordHttpTelemetryEventEnd(final HttpResponse response) {
         final HttpEndEvent httpEndEvent = new HttpEndEvent();
 
         if (null != response) {
@@ -264,6 +266,32 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
         });
     }
 
+    /**
+     * Sends the request on the scheduler; retries wait out their backoff on the scheduler rather
+     * than sleeping, so no thread is held between attempts.
+     */
+    @Override
+    public ResultFuture<HttpResponse> sendAsync(@NonNull final HttpRequest request,
+                                                @NonNull final ScheduledExecutorService scheduler) {
+        recordHttpTelemetryEventStart(request.getRequestMethod(), request.getRequestUrl(), request.getRequestHeaders().get(CLIENT_REQUEST_ID));
+        final HttpRequest normalizedRequest = constructHttpRequest(
+                HttpMethod.validateAndNormalizeMethod(request.getRequestMethod()),
+                request.getRequestUrl(),
+                request.getRequestHeaders(),
+                request.getRequestContent()
+        );
+        return attemptAsync(retryPolicy, new Callable<HttpResponse>() {
+            public HttpResponse call() throws IOException {
+                return executeHttpSend(normalizedRequest, new Consumer<HttpResponse>() {
+                    @Override
+                    public void accept(HttpResponse httpResponse) {
+                        recordHttpTelemetryEventEnd(httpResponse);
+                    }
+                });
+            }
+        }, scheduler);
+    }
+
     /**
      * Execute an HTTP PATCH request.
      * @param requestUrl the URL of the resource to operate on.
@@ -296,10 +324,10 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
         });
     }
 
-    private static HttpRequest constructHttpRequest(@NonNull HttpClient.HttpMethod httpMethod,
-                                                    @NonNull URL requestUrl,
-                                                    @NonNull Map<String, String> requestHeaders,
-                                                    byte[] requestContent) {
+    static HttpRequest constructHttpRequest(@NonNull HttpClient.HttpMethod httpMethod,
+                                            @NonNull URL requestUrl,
+                                            @NonNull Map<String, String> requestHeaders,
+                                            byte[] requestContent) {
 
         // Apply special backcompat behaviors for PATCH, if reqd
         if (HttpClient.HttpMethod.PATCH == httpMethod) {
@@ -351,7 +379,7 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
      *
      * @param stream stream to be closed
      */
-    private static void safeCloseStream(final Closeable stream) {
+    static void safeCloseStream(final Closeable stream) {
         final String methodName = ":safeCloseStream";
 
         if (stream == null) {
@@ -474,9 +502,9 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
         return connectTimeoutMsSupplier == null ? connectTimeoutMs : connectTimeoutMsSupplier.get();
     }
 
-    private static void sendRequest(@NonNull final HttpURLConnection connection,
-                                    final byte[] contentRequest,
-                                    final String requestContentType) throws IOException {
+    static void sendRequest(@NonNull final HttpURLConnection connection,
+                            final byte[] contentRequest,
+                            final String requestContentType) throws IOException {
         if (contentRequest == null) {
             return;
         }
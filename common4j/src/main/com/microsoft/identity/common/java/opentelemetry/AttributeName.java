@@ -149,6 +149,28 @@ public enum AttributeName {
      */
     num_concurrent_silent_requests,
 
+    /**
+     * The number of tasks waiting in the command executor queue when a command is submitted.
+     */
+    command_executor_queue_depth,
+
+    /**
+     * The number of tasks running on the command executor when a command is submitted.
+     */
+    command_executor_active_count,
+
+    /**
+     * The time (in milliseconds) a command spent queued before its executor started running it.
+     * Recorded on the command's executor task span.
+     */
+    command_executor_wait_time,
+
+    /**
+     * The time (in milliseconds) a command held an executor thread.
+     * Recorded on the command's executor task span.
+     */
+    command_executor_execution_time,
+
     /**
      * The time (in milliseconds) spent in executing the save method in OAuth2TokenCache.
      */
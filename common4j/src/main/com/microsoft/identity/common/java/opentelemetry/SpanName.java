@@ -67,4 +67,5 @@ public enum SpanName {
     OnUpgradeReceiver,
     UpgradeDeviceRegistration,
     RemoveBrokerAccount,
+    CommandExecutorTask,
 }
@@ -32,7 +32,6 @@ import static com.microsoft.identity.common.java.exception.ClientException.INVAL
 import static com.microsoft.identity.common.java.exception.ClientException.INVALID_KEY;
 import static com.microsoft.identity.common.java.exception.ClientException.INVALID_KEY_MISSING;
 import static com.microsoft.identity.common.java.exception.ClientException.INVALID_PROTECTION_PARAMS;
-import static com.microsoft.identity.common.java.exception.ClientException.JSON_CONSTRUCTION_FAILED;
 import static com.microsoft.identity.common.java.exception.ClientException.JWT_SIGNING_FAILURE;
 import static com.microsoft.identity.common.java.exception.ClientException.KEYSTORE_NOT_INITIALIZED;
 import static com.microsoft.identity.common.java.exception.ClientException.NO_SUCH_ALGORITHM;
@@ -61,14 +60,9 @@ import com.microsoft.identity.common.java.marker.CodeMarkerManager;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.TaskCompletedCallbackWithError;
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jose.util.Base64URL;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
@@ -92,7 +86,7 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -130,6 +124,11 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
      * Log message when private key material cannot be found.
      */
     private static final String PRIVATE_KEY_NOT_FOUND = "Not an instance of a PrivateKeyEntry";
+
+    /**
+     * Initial capacity of the SHR claims buffer, fits an access token of a few KB.
+     */
+    private static final int CLAIMS_INITIAL_CAPACITY = 4096;
     public static final Type MAP_STRING_STRING_TYPE = TypeToken.getParameterized(Map.class, String.class, String.class).getType();
     public static final Gson GSON = new Gson();
 
@@ -143,6 +142,18 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
      */
     protected final IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> mKeyManager;
 
+    /**
+     * Cache of the key entry of {@link #mKeyManager}; invalidated when the key is cleared or regenerated.
+     */
+    private final KeyEntryCache mKeyEntryCache;
+
+    /**
+     * Per-thread {@link Signature} instances, by algorithm. Signing and verifying use separate
+     * instances, as the provider of a Signature is bound to the first key it is initialized with.
+     */
+    private static final ThreadLocal<Map<SigningAlgorithm, Signature>> sSigningSignatures = newSignatureThreadLocal();
+    private static final ThreadLocal<Map<SigningAlgorithm, Signature>> sVerifyingSignatures = newSignatureThreadLocal();
+
     /**
      * The name of the KeyStore to use.
      */
@@ -260,7 +271,19 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
 
     public AbstractDevicePopManager(@NonNull final IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> keyManager) throws KeyStoreException, CertificateException,
             NoSuchAlgorithmException, IOException {
+        this(keyManager, null);
+    }
+
+    /**
+     * @param keyManager         the key manager of the PoP key.
+     * @param keyEntryCacheScope if non-null, the cached key entry is shared with all managers of the
+     *                           same scope and key alias. Use it when the KeyStore is process-wide.
+     */
+    protected AbstractDevicePopManager(@NonNull final IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> keyManager,
+                                       @Nullable final String keyEntryCacheScope) throws KeyStoreException, CertificateException,
+            NoSuchAlgorithmException, IOException {
         mKeyManager = keyManager;
+        mKeyEntryCache = KeyEntryCache.forScope(keyEntryCacheScope, keyManager.getKeyAlias());
     }
 
     @Override
@@ -275,7 +298,30 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
 
     @Override
     public String getAsymmetricKeyThumbprint() throws ClientException {
-        return new String(mKeyManager.getThumbprint(), UTF8);
+        final Exception exception;
+        final String errCode;
+
+        try {
+            return getKeyMaterial().getThumbprint();
+        } catch (final KeyStoreException e) {
+            exception = e;
+            errCode = KEYSTORE_NOT_INITIALIZED;
+        } catch (final NoSuchAlgorithmException e) {
+            exception = e;
+            errCode = NO_SUCH_ALGORITHM;
+        } catch (final UnrecoverableEntryException e) {
+            exception = e;
+            errCode = INVALID_PROTECTION_PARAMS;
+        } catch (final JOSEException e) {
+            exception = e;
+            errCode = THUMBPRINT_COMPUTATION_FAILURE;
+        }
+
+        throw new ClientException(
+                errCode,
+                exception.getMessage(),
+                exception
+        );
     }
 
     @Override
@@ -302,6 +348,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
 
         try {
             sCodeMarkerManager.markCode(GENERATE_AT_POP_ASYMMETRIC_KEYPAIR_START);
+            mKeyEntryCache.invalidate();
             final KeyPair keyPair = generateNewRsaKeyPair(RSA_KEY_SIZE);
             final RSAKey rsaKey = getRsaKeyForKeyPair(keyPair);
             return getThumbprintForRsaKey(rsaKey);
@@ -324,6 +371,8 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
             exception = e;
             errCode = KEYSTORE_NOT_INITIALIZED;
         } finally {
+            // Invalidate again, in case the old entry was read while the key was being replaced.
+            mKeyEntryCache.invalidate();
             sCodeMarkerManager.markCode(GENERATE_AT_POP_ASYMMETRIC_KEYPAIR_END);
         }
 
@@ -353,7 +402,11 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
 
     @Override
     public boolean clearAsymmetricKey() {
-        return mKeyManager.clear();
+        try {
+            return mKeyManager.clear();
+        } finally {
+            mKeyEntryCache.invalidate();
+        }
     }
 
     @Override
@@ -416,15 +469,20 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
                 final String errCode;
 
                 try {
-                    final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
-                    final KeyPair rsaKeyPair = getKeyPairForEntry(keyEntry);
-                    final RSAKey rsaKey = getRsaKeyForKeyPair(rsaKeyPair);
-                    final String base64UrlEncodedJwkJsonStr = getReqCnfForRsaKey(rsaKey);
+                    final String base64UrlEncodedJwkJsonStr = getKeyMaterial().getRequestConfirmation();
 
                     callback.onTaskCompleted(base64UrlEncodedJwkJsonStr);
 
                     // We're done.
                     return;
+                } catch (final ClientException e) {
+                    Logger.error(
+                            methodTag,
+                            e.getMessage(),
+                            e
+                    );
+                    callback.onError(e);
+                    return;
                 } catch (final KeyStoreException e) {
                     exception = e;
                     errCode = KEYSTORE_NOT_INITIALIZED;
@@ -437,9 +495,6 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
                 } catch (final JOSEException e) {
                     exception = e;
                     errCode = THUMBPRINT_COMPUTATION_FAILURE;
-                } catch (final JSONException e) {
-                    exception = e;
-                    errCode = JSON_CONSTRUCTION_FAILED;
                 }
 
                 final ClientException clientException = new ClientException(
@@ -473,9 +528,9 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         String errCode;
         final String methodTag = TAG + ":sign";
         try {
-            final KeyStore.Entry keyEntry = mKeyManager.getEntry();
+            final KeyStore.PrivateKeyEntry keyEntry = getKeyEntry();
 
-            if (!(keyEntry instanceof KeyStore.PrivateKeyEntry)) {
+            if (keyEntry == null) {
                 Logger.warn(
                         methodTag,
                         PRIVATE_KEY_NOT_FOUND
@@ -483,8 +538,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
                 throw new ClientException(INVALID_KEY_MISSING);
             }
 
-            final Signature signature = Signature.getInstance(alg.toString());
-            signature.initSign(((KeyStore.PrivateKeyEntry) keyEntry).getPrivateKey());
+            final Signature signature = getSigningSignature(alg, keyEntry.getPrivateKey());
             signature.update(inputBytesToSign);
             return signature.sign();
         } catch (final KeyStoreException e) {
@@ -504,6 +558,9 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
             errCode = SIGNING_FAILURE;
         }
 
+        // The key may have been removed or replaced behind our back, reload it next time.
+        mKeyEntryCache.invalidate();
+
         final ClientException clientException = new ClientException(
                 errCode,
                 exception.getMessage(),
@@ -535,7 +592,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         String errCode;
         Exception exception;
         try {
-            final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
+            final KeyStore.PrivateKeyEntry keyEntry = getKeyEntry();
 
             if (keyEntry == null) {
                 Logger.warn(
@@ -545,8 +602,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
                 return false;
             }
 
-            final Signature signature = Signature.getInstance(alg.toString());
-            signature.initVerify(keyEntry.getCertificate());
+            final Signature signature = getVerifyingSignature(alg, keyEntry.getCertificate());
             signature.update(inputBytesToVerify);
             return signature.verify(signatureBytes);
         } catch (final NoSuchAlgorithmException e) {
@@ -588,7 +644,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final String methodTag = TAG + ":encrypt";
         try {
             // Load our key material
-            final KeyStore.PrivateKeyEntry privateKeyEntry = mKeyManager.getEntry();
+            final KeyStore.PrivateKeyEntry privateKeyEntry = getKeyEntry();
 
             // Get a ref to our public key
             final PublicKey publicKey = privateKeyEntry.getCertificate().getPublicKey();
@@ -656,7 +712,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final String methodTag = TAG + ":decrypt";
         try {
             // Load our key material
-            final KeyStore.PrivateKeyEntry privateKeyEntry = mKeyManager.getEntry();
+            final KeyStore.PrivateKeyEntry privateKeyEntry = getKeyEntry();
 
             // Get a reference to our private key (will not be loaded into app process)
             final PrivateKey privateKey = privateKeyEntry.getPrivateKey();
@@ -719,7 +775,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final Exception exception;
 
         try {
-            final KeyPair rsaKeyPair = getKeyPairForEntry(mKeyManager.getEntry());
+            final KeyPair rsaKeyPair = getKeyPairForEntry(getKeyEntry());
             return getSecureHardwareState(rsaKeyPair);
         } catch (final KeyStoreException e) {
             errCode = KEYSTORE_NOT_INITIALIZED;
@@ -788,8 +844,10 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final String errCode;
 
         try {
-            final Map<String, Object> jwkMap = getDevicePopJwkMinifiedJson();
-            return GSON.toJson(jwkMap.get(SignedHttpRequestJwtClaims.JWK), MAP_STRING_STRING_TYPE);
+            return getKeyMaterial().getPublicJwkJson();
+        } catch (final JOSEException e) {
+            exception = e;
+            errCode = THUMBPRINT_COMPUTATION_FAILURE;
         } catch (final UnrecoverableEntryException e) {
             exception = e;
             errCode = INVALID_PROTECTION_PARAMS;
@@ -822,7 +880,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final String errCode;
 
         try {
-            final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
+            final KeyStore.PrivateKeyEntry keyEntry = getKeyEntry();
             final KeyPair rsaKeyPair = getKeyPairForEntry(keyEntry);
             final PublicKey publicKey = rsaKeyPair.getPublic();
             final byte[] publicKeybytes = publicKey.getEncoded();
@@ -914,75 +972,47 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final String errCode;
 
         try {
-            final JWTClaimsSet.Builder claimsBuilder = new JWTClaimsSet.Builder();
+            final DevicePopKeyMaterial key = getKeyMaterial();
+
+            // The claims are written directly, the cnf claim and the header are serialized once per key.
+            final StringBuilder claims = new StringBuilder(CLAIMS_INITIAL_CAPACITY).append('{');
 
             // This is supported/allowed only to support the generateShr API. By definition, all
             // AT/PoP requests will contain an access token, but an SPO signed-cookie will not.
             if (!StringUtil.isNullOrEmpty(accessToken)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.ACCESS_TOKEN,
-                        accessToken
-                );
+                appendStringClaim(claims, SignedHttpRequestJwtClaims.ACCESS_TOKEN, accessToken).append(',');
             }
 
-            claimsBuilder.claim(
-                    SignedHttpRequestJwtClaims.TIMESTAMP,
-                    timestamp
-            );
-            claimsBuilder.claim(
-                    SignedHttpRequestJwtClaims.HTTP_HOST,
-                    // Use Authority to include port number, if supplied
-                    requestUrl.getAuthority()
-            );
-            claimsBuilder.claim(
-                    SignedHttpRequestJwtClaims.CNF,
-                    getDevicePopJwkMinifiedJson()
-            );
+            claims.append('"').append(SignedHttpRequestJwtClaims.TIMESTAMP).append("\":").append(timestamp).append(',');
+            // Use Authority to include port number, if supplied
+            appendStringClaim(claims, SignedHttpRequestJwtClaims.HTTP_HOST, requestUrl.getAuthority()).append(',');
+            claims.append('"').append(SignedHttpRequestJwtClaims.CNF).append("\":{\"")
+                    .append(SignedHttpRequestJwtClaims.JWK).append("\":").append(key.getPublicJwkJson()).append('}');
 
             if (!StringUtil.isNullOrEmpty(requestUrl.getPath())) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.HTTP_PATH,
-                        requestUrl.getPath()
-                );
+                appendStringClaim(claims.append(','), SignedHttpRequestJwtClaims.HTTP_PATH, requestUrl.getPath());
             }
 
             if (!StringUtil.isNullOrEmpty(httpMethod)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.HTTP_METHOD,
-                        httpMethod
-                );
+                appendStringClaim(claims.append(','), SignedHttpRequestJwtClaims.HTTP_METHOD, httpMethod);
             }
 
             if (!StringUtil.isNullOrEmpty(nonce)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.NONCE,
-                        nonce
-                );
+                appendStringClaim(claims.append(','), SignedHttpRequestJwtClaims.NONCE, nonce);
             }
 
             if (!StringUtil.isNullOrEmpty(clientClaims)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.CLIENT_CLAIMS,
-                        clientClaims
-                );
+                appendStringClaim(claims.append(','), SignedHttpRequestJwtClaims.CLIENT_CLAIMS, clientClaims);
             }
 
-            final JWTClaimsSet claimsSet = claimsBuilder.build();
+            claims.append('}');
 
-            final KeyStore.PrivateKeyEntry entry = mKeyManager.getEntry();
-            final PrivateKey privateKey = entry.getPrivateKey();
-            final RSASSASigner signer = new RSASSASigner(privateKey);
+            final String signingInput = key.getEncodedShrHeader()
+                    + '.'
+                    + Base64URL.encode(claims.toString().getBytes(UTF8));
+            final Base64URL signature = key.getSigner().sign(key.getShrHeader(), signingInput.getBytes(UTF8));
 
-            final SignedJWT signedJWT = new SignedJWT(
-                    new JWSHeader.Builder(JWSAlgorithm.RS256)
-                            .keyID(getAsymmetricKeyThumbprint())
-                            .build(),
-                    claimsSet
-            );
-
-            signedJWT.sign(signer);
-
-            return signedJWT.serialize();
+            return signingInput + '.' + signature;
         } catch (final NoSuchAlgorithmException e) {
             exception = e;
             errCode = NO_SUCH_ALGORITHM;
@@ -1013,6 +1043,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
             errCode = INVALID_PROTECTION_PARAMS;
         }
 
+        mKeyEntryCache.invalidate();
         performCleanupIfMintShrFails(exception);
 
         final ClientException clientException = new ClientException(
@@ -1048,75 +1079,121 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
     //region Internal Functions
 
     /**
-     * Gets the current time as a {@link Date}.
+     * Returns the entry of the PoP key, from the cache if possible.
      *
-     * @param calendar The {@link Calendar} implementation to use.
-     * @return The current time.
+     * @return the entry, or null if the key does not exist.
      */
-    protected static Date getNow(@NonNull final Calendar calendar) {
-        return calendar.getTime();
+    @Nullable
+    private KeyStore.PrivateKeyEntry getKeyEntry()
+            throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
+        final DevicePopKeyMaterial key = mKeyEntryCache.get(mKeyManager);
+        return key == null ? null : key.getEntry();
     }
 
     /**
-     * @return the public key for this particular keyStore entry.
-     * @throws UnrecoverableEntryException
-     * @throws NoSuchAlgorithmException
-     * @throws KeyStoreException
+     * Returns the PoP key and its derived artifacts, from the cache if possible.
+     *
+     * @throws ClientException if the key does not exist.
      */
-    public PublicKey getPublicKey() throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
-        final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
-        return keyEntry.getCertificate().getPublicKey();
+    private DevicePopKeyMaterial getKeyMaterial()
+            throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException, ClientException {
+        final DevicePopKeyMaterial key = mKeyEntryCache.get(mKeyManager);
+        if (key == null) {
+            throw new ClientException(INVALID_KEY_MISSING, PRIVATE_KEY_NOT_FOUND);
+        }
+
+        return key;
     }
 
     /**
-     * Gets the base64url encoded public jwk for the supplied RSAKey.
-     *
-     * @param rsaKey The input key material.
-     * @return The base64url encoded jwk.
+     * Appends "name":"value" to a JSON object being written.
      */
-    private static String getReqCnfForRsaKey(@NonNull final RSAKey rsaKey)
-            throws JOSEException, JSONException {
-        final String thumbprintStr = getThumbprintForRsaKey(rsaKey);
-        final String thumbprintMinifiedJson =
-                new JSONObject()
-                        .put("kid", thumbprintStr)
-                        .toString();
-
-        return base64UrlEncode(thumbprintMinifiedJson);
+    private static StringBuilder appendStringClaim(@NonNull final StringBuilder json,
+                                                   @NonNull final String name,
+                                                   @NonNull final String value) {
+        return json.append('"').append(name).append("\":").append(JSONObject.quote(value));
+    }
+
+    //@VisibleForTesting
+    void invalidateKeyEntryCache() {
+        mKeyEntryCache.invalidate();
+    }
+
+    private static ThreadLocal<Map<SigningAlgorithm, Signature>> newSignatureThreadLocal() {
+        return new ThreadLocal<Map<SigningAlgorithm, Signature>>() {
+            @Override
+            protected Map<SigningAlgorithm, Signature> initialValue() {
+                return new EnumMap<>(SigningAlgorithm.class);
+            }
+        };
     }
 
     /**
-     * Encodes a String with Base64Url and no padding.
-     *
-     * @param input String to be encoded.
-     * @return Encoded result from input.
+     * Returns this thread's {@link Signature} for the algorithm, initialized for signing.
      */
-    private static String base64UrlEncode(@NonNull final String input) {
-        byte[] encodeBytes = input.getBytes(UTF8);
-        return Base64Util.encodeToString(
-                encodeBytes,
-                Base64Flags.NO_PADDING, Base64Flags.NO_WRAP, Base64Flags.URL_SAFE
-        );
+    private static Signature getSigningSignature(@NonNull final SigningAlgorithm alg,
+                                                 @NonNull final PrivateKey privateKey)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        final Map<SigningAlgorithm, Signature> signatures = sSigningSignatures.get();
+        final Signature cached = signatures.get(alg);
+        if (cached != null) {
+            try {
+                cached.initSign(privateKey);
+                return cached;
+            } catch (final InvalidKeyException e) {
+                // The provider picked for a previous key may not support this one, start over.
+                signatures.remove(alg);
+            }
+        }
+
+        final Signature signature = Signature.getInstance(alg.toString());
+        signature.initSign(privateKey);
+        signatures.put(alg, signature);
+        return signature;
+    }
+
+    /**
+     * Returns this thread's {@link Signature} for the algorithm, initialized for verification.
+     */
+    private static Signature getVerifyingSignature(@NonNull final SigningAlgorithm alg,
+                                                   @NonNull final Certificate certificate)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        final Map<SigningAlgorithm, Signature> signatures = sVerifyingSignatures.get();
+        final Signature cached = signatures.get(alg);
+        if (cached != null) {
+            try {
+                cached.initVerify(certificate);
+                return cached;
+            } catch (final InvalidKeyException e) {
+                // The provider picked for a previous key may not support this one, start over.
+                signatures.remove(alg);
+            }
+        }
+
+        final Signature signature = Signature.getInstance(alg.toString());
+        signature.initVerify(certificate);
+        signatures.put(alg, signature);
+        return signature;
     }
 
     /**
-     * Returns the cnf claim used in SHRs (Signed HTTP Requests); format is JSON.
+     * Gets the current time as a {@link Date}.
      *
-     * @return The cnf claim value.
-     * @throws UnrecoverableEntryException If the queried key cannot be found.
-     * @throws NoSuchAlgorithmException    If the KeyStore is unable to use the designated alg.
-     * @throws KeyStoreException           If the KeyStore experiences an error during read.
+     * @param calendar The {@link Calendar} implementation to use.
+     * @return The current time.
      */
-    private Map<String, Object> getDevicePopJwkMinifiedJson()
-            throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
-        final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
-        final KeyPair rsaKeyPair = getKeyPairForEntry(keyEntry);
-        final RSAKey rsaKey = getRsaKeyForKeyPair(rsaKeyPair);
-        final RSAKey publicRsaKey = rsaKey.toPublicJWK();
-        final Map<String, Object> jwkContents = publicRsaKey.toJSONObject();
-        final Map<String, Object> wrappedJwk = new HashMap<>();
-        wrappedJwk.put(SignedHttpRequestJwtClaims.JWK, jwkContents);
-
-        return wrappedJwk;
+    protected static Date getNow(@NonNull final Calendar calendar) {
+        return calendar.getTime();
+    }
+
+    /**
+     * @return the public key for this particular keyStore entry.
+     * @throws UnrecoverableEntryException
+     * @throws NoSuchAlgorithmException
+     * @throws KeyStoreException
+     */
+    public PublicKey getPublicKey() throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
+        final KeyStore.PrivateKeyEntry keyEntry = getKeyEntry();
+        return keyEntry.getCertificate().getPublicKey();
     }
 }
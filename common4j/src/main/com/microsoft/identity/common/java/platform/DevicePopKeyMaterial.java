@@ -0,0 +1,146 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.platform;
+
+import static com.microsoft.identity.common.java.platform.AbstractKeyStoreKeyManager.getKeyPairForEntry;
+import static com.microsoft.identity.common.java.platform.AbstractKeyStoreKeyManager.getRsaKeyForKeyPair;
+import static com.microsoft.identity.common.java.platform.AbstractKeyStoreKeyManager.getThumbprintForRsaKey;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.nio.charset.Charset;
+import java.security.KeyStore;
+import java.util.Collections;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * The entry of a device PoP key, along with the artifacts derived from its public key (JWK,
+ * thumbprint, req_cnf, SHR header). They are computed once per key, on first use, and go away
+ * with the entry when the key is cleared or rotated.
+ */
+final class DevicePopKeyMaterial {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final KeyStore.PrivateKeyEntry mEntry;
+
+    @Nullable
+    private volatile Derived mDerived;
+
+    DevicePopKeyMaterial(@NonNull final KeyStore.PrivateKeyEntry entry) {
+        mEntry = entry;
+    }
+
+    KeyStore.PrivateKeyEntry getEntry() {
+        return mEntry;
+    }
+
+    /**
+     * @return the RFC 7638 thumbprint of the public key.
+     */
+    String getThumbprint() throws JOSEException {
+        return derive().mThumbprint;
+    }
+
+    /**
+     * @return the base64url encoded {"kid":"thumbprint"} request confirmation.
+     */
+    String getRequestConfirmation() throws JOSEException {
+        return derive().mRequestConfirmation;
+    }
+
+    /**
+     * @return the minified JSON of the public JWK.
+     */
+    String getPublicJwkJson() throws JOSEException {
+        return derive().mPublicJwkJson;
+    }
+
+    /**
+     * @return the JWS header of SHRs signed by this key.
+     */
+    JWSHeader getShrHeader() throws JOSEException {
+        return derive().mShrHeader;
+    }
+
+    /**
+     * @return the base64url encoded JWS header of SHRs signed by this key.
+     */
+    String getEncodedShrHeader() throws JOSEException {
+        return derive().mEncodedShrHeader;
+    }
+
+    /**
+     * @return a signer for this key.
+     */
+    RSASSASigner getSigner() throws JOSEException {
+        return derive().mSigner;
+    }
+
+    private Derived derive() throws JOSEException {
+        Derived derived = mDerived;
+        if (derived == null) {
+            synchronized (this) {
+                derived = mDerived;
+                if (derived == null) {
+                    derived = new Derived(mEntry);
+                    mDerived = derived;
+                }
+            }
+        }
+        return derived;
+    }
+
+    private static final class Derived {
+        private final String mThumbprint;
+        private final String mRequestConfirmation;
+        private final String mPublicJwkJson;
+        private final JWSHeader mShrHeader;
+        private final String mEncodedShrHeader;
+        private final RSASSASigner mSigner;
+
+        Derived(@NonNull final KeyStore.PrivateKeyEntry entry) throws JOSEException {
+            final RSAKey rsaKey = getRsaKeyForKeyPair(getKeyPairForEntry(entry));
+            mThumbprint = getThumbprintForRsaKey(rsaKey);
+            mRequestConfirmation = Base64URL.encode(
+                    AbstractDevicePopManager.GSON.toJson(Collections.singletonMap("kid", mThumbprint)).getBytes(UTF8)
+            ).toString();
+            mPublicJwkJson = AbstractDevicePopManager.GSON.toJson(
+                    rsaKey.toPublicJWK().toJSONObject(),
+                    AbstractDevicePopManager.MAP_STRING_STRING_TYPE
+            );
+            mShrHeader = new JWSHeader.Builder(JWSAlgorithm.RS256)
+                    .keyID(mThumbprint)
+                    .build();
+            mEncodedShrHeader = mShrHeader.toBase64URL().toString();
+            mSigner = new RSASSASigner(entry.getPrivateKey());
+        }
+    }
+}
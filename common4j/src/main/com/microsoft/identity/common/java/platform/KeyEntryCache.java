@@ -0,0 +1,124 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.platform;
+
+import com.microsoft.identity.common.java.crypto.IKeyStoreKeyManager;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableEntryException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Caches the {@link KeyStore.PrivateKeyEntry} of a device PoP key, so that every operation on the
+ * key does not go back to the KeyStore. Retrieving an entry is expensive, especially on
+ * hardware-backed stores. The entry is held in a {@link DevicePopKeyMaterial}, which also caches
+ * the artifacts derived from it.
+ * <p>
+ * Device PoP managers are usually created per operation. When their KeyStore is process-wide
+ * (e.g. the AndroidKeyStore), they should share a cache through {@link #forScope(String, String)},
+ * so that clearing or regenerating the key through any of them invalidates it for all.
+ */
+final class KeyEntryCache {
+
+    private static final ConcurrentMap<String, KeyEntryCache> sSharedCaches = new ConcurrentHashMap<>();
+
+    private final Object mLock = new Object();
+
+    // Bumped on every invalidation, so that a read racing with it does not cache an outdated entry.
+    private long mGeneration;
+
+    @Nullable
+    private volatile DevicePopKeyMaterial mKey;
+
+    /**
+     * Returns the cache to use for a key.
+     *
+     * @param scope the scope in which the cache is shared, typically the KeyStore type, or null
+     *              for a cache that is not shared.
+     * @param alias the alias of the key.
+     */
+    static KeyEntryCache forScope(@Nullable final String scope, @NonNull final String alias) {
+        if (scope == null) {
+            return new KeyEntryCache();
+        }
+
+        final String key = scope + "/" + alias;
+        final KeyEntryCache cache = sSharedCaches.get(key);
+        if (cache != null) {
+            return cache;
+        }
+
+        final KeyEntryCache newCache = new KeyEntryCache();
+        final KeyEntryCache existing = sSharedCaches.putIfAbsent(key, newCache);
+        return existing != null ? existing : newCache;
+    }
+
+    /**
+     * Returns the cached key, or loads its entry from the key manager.
+     *
+     * @return the key, or null if it does not exist. A missing key is not cached.
+     */
+    @Nullable
+    DevicePopKeyMaterial get(@NonNull final IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> keyManager)
+            throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
+        final DevicePopKeyMaterial cached = mKey;
+        if (cached != null) {
+            return cached;
+        }
+
+        final long generation;
+        synchronized (mLock) {
+            generation = mGeneration;
+        }
+
+        final KeyStore.PrivateKeyEntry entry = keyManager.getEntry();
+        if (entry == null) {
+            return null;
+        }
+
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(entry);
+        synchronized (mLock) {
+            if (generation == mGeneration) {
+                mKey = key;
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Drops the cached entry. Must be called whenever the key is cleared or replaced.
+     */
+    void invalidate() {
+        synchronized (mLock) {
+            mGeneration++;
+            mKey = null;
+        }
+    }
+}
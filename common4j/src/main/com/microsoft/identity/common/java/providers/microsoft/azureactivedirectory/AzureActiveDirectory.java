@@ -28,6 +28,7 @@ import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.microsoft.identity.common.java.authorities.Environment;
 import com.microsoft.identity.common.java.cache.HttpCache;
+import com.microsoft.identity.common.java.cache.MetadataCache;
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.exception.ClientException;
@@ -39,9 +40,12 @@ import com.microsoft.identity.common.java.providers.oauth2.OAuth2StrategyParamet
 import com.microsoft.identity.common.java.util.ObjectMapper;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.CommonURIBuilder;
+import com.microsoft.identity.common.java.util.ported.Function;
 
 import org.json.JSONException;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
+
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
@@ -49,13 +53,13 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implements the IdentityProvider base class...
@@ -74,10 +78,31 @@ public class AzureActiveDirectory
     private static final String AUTHORIZATION_ENDPOINT = "authorization_endpoint";
     private static final String AUTHORIZATION_ENDPOINT_VALUE = "https://login.microsoftonline.com/common/oauth2/v2.0/authorize";
 
-    private static ConcurrentMap<String, AzureActiveDirectoryCloud> sAadClouds = new ConcurrentHashMap<>();
-    private static boolean sIsInitialized = false;
-    private static Environment sEnvironment = Environment.Production;
+    /**
+     * Guards publication of a new {@link CloudMetadataSnapshot}. Readers never take this lock,
+     * and it is never held across a network call.
+     */
+    private static final Object sPublishLock = new Object();
+    private static final AtomicReference<CloudMetadataSnapshot> sSnapshot = new AtomicReference<>(
+            new CloudMetadataSnapshot(
+                    Collections.<String, AzureActiveDirectoryCloud>emptyMap(),
+                    false,
+                    Environment.Production
+            )
+    );
     private static final HttpClient httpClient = UrlConnectionHttpClient.getDefaultInstance();
+    private static final MetadataCache<AzureActiveDirectoryInstanceResponse> sInstanceDiscoveryCache = new MetadataCache<>(
+            "instance_discovery",
+            new Function<String, AzureActiveDirectoryInstanceResponse>() {
+                @Override
+                public AzureActiveDirectoryInstanceResponse apply(@NonNull final String body) {
+                    return ObjectMapper.deserializeJsonStringToObject(
+                            body,
+                            AzureActiveDirectoryInstanceResponse.class
+                    );
+                }
+            }
+    );
 
     @Override
     public AzureActiveDirectoryOAuth2Strategy createOAuth2Strategy(@NonNull final AzureActiveDirectoryOAuth2Configuration config,
@@ -89,54 +114,56 @@ public class AzureActiveDirectory
         return new AzureActiveDirectoryOAuth2Strategy(config, parameters);
     }
 
-    public static synchronized boolean hasCloudHost(@NonNull final URL authorityUrl) {
-        return sAadClouds.containsKey(authorityUrl.getHost().toLowerCase(Locale.US));
+    public static boolean hasCloudHost(@NonNull final URL authorityUrl) {
+        return sSnapshot.get().mClouds.containsKey(authorityUrl.getHost().toLowerCase(Locale.US));
     }
 
-    static synchronized boolean isValidCloudHost(@NonNull final URL authorityUrl) {
-        return hasCloudHost(authorityUrl) && getAzureActiveDirectoryCloud(authorityUrl).isValidated();
+    static boolean isValidCloudHost(@NonNull final URL authorityUrl) {
+        final AzureActiveDirectoryCloud cloud = getAzureActiveDirectoryCloud(authorityUrl);
+        return cloud != null && cloud.isValidated();
     }
 
-    public static synchronized boolean isInitialized() {
-        return sIsInitialized;
+    public static boolean isInitialized() {
+        return sSnapshot.get().mIsInitialized;
     }
 
-    public static synchronized void setEnvironment(@NonNull final Environment environment) {
-        if (environment != sEnvironment) {
-            // Environment changed, so mark sIsInitialized to false
-            // to make a instance discovery network request for this environment.
-            sIsInitialized = false;
-            sEnvironment = environment;
+    public static void setEnvironment(@NonNull final Environment environment) {
+        synchronized (sPublishLock) {
+            final CloudMetadataSnapshot current = sSnapshot.get();
+            if (environment != current.mEnvironment) {
+                // Environment changed, so mark the snapshot as not initialized
+                // to make a instance discovery network request for this environment.
+                sSnapshot.set(new CloudMetadataSnapshot(current.mClouds, false, environment));
+            }
         }
-
     }
 
-    public static synchronized Environment getEnvironment() {
-        return sEnvironment;
+    public static Environment getEnvironment() {
+        return sSnapshot.get().mEnvironment;
     }
 
     /**
      * @param authorityUrl URL
      * @return AzureActiveDirectoryCloud
      */
-    public static synchronized AzureActiveDirectoryCloud getAzureActiveDirectoryCloud(@NonNull final URL authorityUrl) {
-        return sAadClouds.get(authorityUrl.getHost().toLowerCase(Locale.US));
+    public static AzureActiveDirectoryCloud getAzureActiveDirectoryCloud(@NonNull final URL authorityUrl) {
+        return sSnapshot.get().mClouds.get(authorityUrl.getHost().toLowerCase(Locale.US));
     }
 
     /**
      * @param preferredCacheHostName String
      * @return AzureActiveDirectoryCloud
      */
-    public static synchronized AzureActiveDirectoryCloud getAzureActiveDirectoryCloudFromHostName(@NonNull final String preferredCacheHostName) {
-        return sAadClouds.get(preferredCacheHostName.toLowerCase(Locale.US));
+    public static AzureActiveDirectoryCloud getAzureActiveDirectoryCloudFromHostName(@NonNull final String preferredCacheHostName) {
+        return sSnapshot.get().mClouds.get(preferredCacheHostName.toLowerCase(Locale.US));
     }
 
     /**
      * @param host  String
      * @param cloud AzureActiveDirectoryCloud
      */
-    public static synchronized void putCloud(@NonNull final String host, final AzureActiveDirectoryCloud cloud) {
-        sAadClouds.put(host.toLowerCase(Locale.US), cloud);
+    public static void putCloud(@NonNull final String host, final AzureActiveDirectoryCloud cloud) {
+        publish(null, Collections.singletonMap(host.toLowerCase(Locale.US), cloud), false);
     }
 
     /**
@@ -146,95 +173,149 @@ public class AzureActiveDirectory
      * @param discoveryResponse The response JSON serialized into a Map.
      * @throws JSONException If a parsing error is encountered.
      */
-    public static synchronized void initializeCloudMetadata(@NonNull final String authorityHost,
-                                                            @NonNull final Map<String, String> discoveryResponse) throws JSONException {
+    public static void initializeCloudMetadata(@NonNull final String authorityHost,
+                                               @NonNull final Map<String, String> discoveryResponse) throws JSONException {
         final boolean tenantDiscoveryEndpointReturned = discoveryResponse.containsKey(TENANT_DISCOVERY_ENDPOINT);
         final String metadata = discoveryResponse.get(METADATA);
 
         if (!tenantDiscoveryEndpointReturned) {
-            sAadClouds.put(authorityHost, new AzureActiveDirectoryCloud(false));
+            publish(null, Collections.singletonMap(authorityHost, new AzureActiveDirectoryCloud(false)), false);
             return;
         }
 
         if (StringUtil.isNullOrEmpty(metadata)) {
-            sAadClouds.put(authorityHost, new AzureActiveDirectoryCloud(authorityHost, authorityHost));
+            publish(null, Collections.singletonMap(authorityHost, new AzureActiveDirectoryCloud(authorityHost, authorityHost)), false);
             return;
         }
 
-        final List<AzureActiveDirectoryCloud> clouds = deserializeClouds(metadata);
-
-        for (final AzureActiveDirectoryCloud cloud : clouds) {
-            cloud.setIsValidated(true); // Mark the deserialized Clouds as validated
-            for (final String alias : cloud.getHostAliases()) {
-                sAadClouds.put(alias.toLowerCase(Locale.US), cloud);
-            }
-        }
+        publish(null, indexByAlias(deserializeClouds(metadata)), true);
+    }
 
-        sIsInitialized = true;
+    public static String getDefaultCloudUrl() {
+        return getDefaultCloudUrl(sSnapshot.get().mEnvironment);
     }
 
-    public static synchronized String getDefaultCloudUrl() {
-        if (sEnvironment == Environment.PreProduction) {
+    private static String getDefaultCloudUrl(@NonNull final Environment environment) {
+        if (environment == Environment.PreProduction) {
             return AzureActiveDirectoryEnvironment.PREPRODUCTION_CLOUD_URL;
         } else {
             return AzureActiveDirectoryEnvironment.PRODUCTION_CLOUD_URL;
         }
     }
 
-    public static synchronized void performCloudDiscovery()
+    /**
+     * Loads the instance discovery metadata of the current environment and publishes it.
+     * <p>
+     * No lock is held while the metadata is fetched, so concurrent lookups keep being served
+     * from the current snapshot. Concurrent callers share a single request through
+     * {@link MetadataCache}.
+     */
+    public static void performCloudDiscovery()
             throws IOException, URISyntaxException {
         final String methodName = ":performCloudDiscovery";
-        final URI instanceDiscoveryRequestUri = new CommonURIBuilder(getDefaultCloudUrl() + AAD_INSTANCE_DISCOVERY_ENDPOINT)
+        final Environment environment = sSnapshot.get().mEnvironment;
+        final URI instanceDiscoveryRequestUri = new CommonURIBuilder(getDefaultCloudUrl(environment) + AAD_INSTANCE_DISCOVERY_ENDPOINT)
                 .setParameter(API_VERSION, API_VERSION_VALUE)
                 .setParameter(AUTHORIZATION_ENDPOINT, AUTHORIZATION_ENDPOINT_VALUE)
                 .build();
 
-        final HttpResponse response =
-                httpClient.get(new URL(instanceDiscoveryRequestUri.toString()),
-                        new HashMap<String, String>());
-
-        if (response.getStatusCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
-            Logger.warn(TAG + methodName, "Error getting cloud information");
-        } else {
-            // Our request was successful. Flush the HTTP cache to disk. Should only happen once
-            // per app launch. Instance Discovery Metadata will be cached in-memory
-            // until the app is killed.
-            HttpCache.flush();
-
-            final AzureActiveDirectoryInstanceResponse instanceResponse =
-                    ObjectMapper.deserializeJsonStringToObject(
-                            response.getBody(),
-                            AzureActiveDirectoryInstanceResponse.class
-                    );
+        // Served from the metadata cache unless it has not been fetched yet, or is too stale.
+        final AzureActiveDirectoryInstanceResponse instanceResponse = sInstanceDiscoveryCache.get(
+                instanceDiscoveryRequestUri.toString(),
+                new MetadataCache.IMetadataFetcher<IOException>() {
+                    @Override
+                    public String fetch() throws IOException {
+                        return fetchInstanceDiscoveryMetadata(instanceDiscoveryRequestUri);
+                    }
+                }
+        );
 
+        if (instanceResponse != null) {
             Logger.verbose(TAG + methodName, "Discovered ["
                     + instanceResponse.getClouds().size() + "] clouds.");
 
-            for (final AzureActiveDirectoryCloud cloud : instanceResponse.getClouds()) {
-                cloud.setIsValidated(true); // Mark the deserialized Clouds as validated
-                for (final String alias : cloud.getHostAliases()) {
-                    sAadClouds.put(alias.toLowerCase(Locale.US), cloud);
-                }
+            if (!publish(environment, indexByAlias(instanceResponse.getClouds()), true)) {
+                Logger.info(TAG + methodName, "Environment changed during discovery, "
+                        + "discarding metadata of [" + environment + "].");
             }
-
-            sIsInitialized = true;
         }
     }
 
-    public static synchronized Set<String> getHosts() {
-        if (null != sAadClouds) {
-            return sAadClouds.keySet();
+    /**
+     * Publishes a new snapshot containing the current clouds plus the supplied ones.
+     *
+     * @param expectedEnvironment if non-null, the clouds are only published if the environment
+     *                            has not changed since they were requested.
+     * @param clouds              clouds to add, keyed by lower-cased host.
+     * @param markInitialized     whether the new snapshot should be marked as initialized.
+     * @return true if the snapshot was published.
+     */
+    private static boolean publish(@Nullable final Environment expectedEnvironment,
+                                   @NonNull final Map<String, AzureActiveDirectoryCloud> clouds,
+                                   final boolean markInitialized) {
+        synchronized (sPublishLock) {
+            final CloudMetadataSnapshot current = sSnapshot.get();
+            if (expectedEnvironment != null && expectedEnvironment != current.mEnvironment) {
+                return false;
+            }
+
+            final Map<String, AzureActiveDirectoryCloud> merged = new HashMap<>(current.mClouds);
+            merged.putAll(clouds);
+            sSnapshot.set(new CloudMetadataSnapshot(
+                    Collections.unmodifiableMap(merged),
+                    current.mIsInitialized || markInitialized,
+                    current.mEnvironment
+            ));
+            return true;
         }
+    }
 
-        return null;
+    /**
+     * Marks the supplied clouds as validated and indexes them by each of their host aliases.
+     */
+    private static Map<String, AzureActiveDirectoryCloud> indexByAlias(@NonNull final List<AzureActiveDirectoryCloud> clouds) {
+        final Map<String, AzureActiveDirectoryCloud> result = new HashMap<>();
+        for (final AzureActiveDirectoryCloud cloud : clouds) {
+            cloud.setIsValidated(true); // Mark the deserialized Clouds as validated
+            for (final String alias : cloud.getHostAliases()) {
+                result.put(alias.toLowerCase(Locale.US), cloud);
+            }
+        }
+        return result;
     }
 
-    public static synchronized List<AzureActiveDirectoryCloud> getClouds() {
-        if (null != sAadClouds) {
-            return new ArrayList<>(sAadClouds.values());
+    /**
+     * Fetches the instance discovery document.
+     *
+     * @return the response body, or null if the request failed.
+     */
+    private static String fetchInstanceDiscoveryMetadata(@NonNull final URI instanceDiscoveryRequestUri)
+            throws IOException {
+        final String methodName = ":fetchInstanceDiscoveryMetadata";
+        final HttpResponse response =
+                httpClient.get(new URL(instanceDiscoveryRequestUri.toString()),
+                        new HashMap<String, String>());
+
+        if (response.getStatusCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            Logger.warn(TAG + methodName, "Error getting cloud information");
+            return null;
         }
 
-        return new ArrayList<>();
+        // Our request was successful. Flush the HTTP cache to disk. Should only happen once
+        // per app launch. Instance Discovery Metadata is then served from the metadata cache.
+        HttpCache.flush();
+        return response.getBody();
+    }
+
+    /**
+     * @return an unmodifiable view of the hosts known at the time of the call.
+     */
+    public static Set<String> getHosts() {
+        return sSnapshot.get().mClouds.keySet();
+    }
+
+    public static List<AzureActiveDirectoryCloud> getClouds() {
+        return new ArrayList<>(sSnapshot.get().mClouds.values());
     }
 
     /**
@@ -249,4 +330,21 @@ public class AzureActiveDirectory
         return new Gson().fromJson(jsonCloudArray, listType);
     }
 
+    /**
+     * Immutable view of the cloud metadata. A new instance is published on every change so that
+     * readers only need a single volatile read.
+     */
+    private static final class CloudMetadataSnapshot {
+        private final Map<String, AzureActiveDirectoryCloud> mClouds;
+        private final boolean mIsInitialized;
+        private final Environment mEnvironment;
+
+        CloudMetadataSnapshot(@NonNull final Map<String, AzureActiveDirectoryCloud> clouds,
+                              final boolean isInitialized,
+                              @NonNull final Environment environment) {
+            mClouds = clouds;
+            mIsInitialized = isInitialized;
+            mEnvironment = environment;
+        }
+    }
 }
@@ -67,8 +67,10 @@ import com.microsoft.identity.common.java.providers.oauth2.OpenIdProviderConfigu
 import com.microsoft.identity.common.java.providers.oauth2.OpenIdProviderConfigurationClient;
 import com.microsoft.identity.common.java.providers.oauth2.TokenRequest;
 import com.microsoft.identity.common.java.providers.oauth2.TokenResult;
+import com.microsoft.identity.common.java.util.BiConsumer;
 import com.microsoft.identity.common.java.util.CommonURIBuilder;
 import com.microsoft.identity.common.java.util.ObjectMapper;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
 
 import java.io.IOException;
@@ -538,6 +540,41 @@ public class MicrosoftStsOAuth2Strategy
         return response;
     }
 
+    /**
+     * Asynchronous variant of {@link #performTokenRequest(MicrosoftStsTokenRequest)}. A device
+     * certificate challenge is answered the same way, on the thread that completed the first request.
+     */
+    @Override
+    protected ResultFuture<HttpResponse> performTokenRequestAsync(final MicrosoftStsTokenRequest request)
+            throws IOException, ClientException {
+        final String methodName = ":performTokenRequestAsync";
+        final ResultFuture<HttpResponse> result = new ResultFuture<>();
+        super.performTokenRequestAsync(request).whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+            @Override
+            public void accept(final HttpResponse response, final Throwable error) {
+                if (error != null) {
+                    result.setException(error);
+                    return;
+                }
+
+                if (response.getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED
+                        && response.getHeaders() != null
+                        && response.getHeaders().containsKey(CHALLENGE_REQUEST_HEADER)) {
+                    Logger.info(TAG + methodName, "Receiving device certificate challenge request. ");
+                    try {
+                        result.setResult(performPKeyAuthRequest(response, request));
+                    } catch (final IOException | ClientException | RuntimeException e) {
+                        result.setException(e);
+                    }
+                    return;
+                }
+
+                result.setResult(response);
+            }
+        });
+        return result;
+    }
+
     private HttpResponse performPKeyAuthRequest(
             @NonNull final HttpResponse response,
             @NonNull final MicrosoftStsTokenRequest request)
@@ -36,9 +36,12 @@ import com.microsoft.identity.common.java.exception.ClientException;
 import com.microsoft.identity.common.java.logging.DiagnosticContext;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.logging.LibraryInfoHelper;
+import com.microsoft.identity.common.java.net.AbstractHttpClient;
 import com.microsoft.identity.common.java.net.HttpClient;
 import com.microsoft.identity.common.java.net.HttpConstants;
+import com.microsoft.identity.common.java.net.HttpRequest;
 import com.microsoft.identity.common.java.net.HttpResponse;
+import com.microsoft.identity.common.java.net.NoRetryPolicy;
 import com.microsoft.identity.common.java.net.UrlConnectionHttpClient;
 import com.microsoft.identity.common.java.opentelemetry.AttributeName;
 import com.microsoft.identity.common.java.opentelemetry.SpanExtension;
@@ -53,10 +56,12 @@ import com.microsoft.identity.common.java.providers.microsoft.microsoftsts.Micro
 import com.microsoft.identity.common.java.telemetry.Telemetry;
 import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
 import com.microsoft.identity.common.java.telemetry.events.UiShownEvent;
+import com.microsoft.identity.common.java.util.BiConsumer;
 import com.microsoft.identity.common.java.util.ClientExtraSku;
 import com.microsoft.identity.common.java.util.CommonURIBuilder;
 import com.microsoft.identity.common.java.util.IClockSkewManager;
 import com.microsoft.identity.common.java.util.ObjectMapper;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
 
 import java.io.IOException;
@@ -68,10 +73,12 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
 import javax.net.ssl.HttpsURLConnection;
 
+import io.opentelemetry.api.trace.Span;
 import lombok.NonNull;
 
 import static com.microsoft.identity.common.java.AuthenticationConstants.AAD.CLIENT_REQUEST_ID;
@@ -187,6 +194,66 @@ public abstract class OAuth2Strategy
         validateTokenRequest(request);
 
         final HttpResponse response = performTokenRequest(request);
+        return handleTokenResponse(request, response, tokenResponseHandler);
+    }
+
+    /**
+     * Asynchronous variant of {@link #requestToken(TokenRequest)}, using the default token response handler.
+     * @param request generic token request.
+     * @return a future completed with the GenericTokenResult, or with the exception that ended the request.
+     * @throws IOException thrown when the request could not be constructed.
+     */
+    public ResultFuture<GenericTokenResult> requestTokenAsync(final GenericTokenRequest request) throws IOException, ClientException {
+        return requestTokenAsync(request, this::getTokenResultFromHttpResponse);
+    }
+
+    /**
+     * Asynchronous variant of {@link #requestToken(TokenRequest, ITokenResponseHandler)}. The token request
+     * is sent via {@link AbstractHttpClient#sendAsync(HttpRequest)}, so no thread is held while the
+     * http client waits out a retry backoff, and the caller may compose on the returned future.
+     * The exchange itself still blocks a thread of the shared http scheduler.
+     * @param request generic token request.
+     * @param tokenResponseHandler handler invoked on the response, on the http client's thread.
+     * @return a future completed with the GenericTokenResult, or with the exception that ended the request.
+     * @throws IOException thrown when the request could not be constructed.
+     */
+    public ResultFuture<GenericTokenResult> requestTokenAsync(
+            @NonNull final GenericTokenRequest request,
+            @NonNull final ITokenResponseHandler<GenericTokenResult> tokenResponseHandler
+    ) throws IOException, ClientException {
+        final String methodName = ":requestTokenAsync";
+
+        Logger.verbose(
+                TAG + methodName,
+                "Requesting token asynchronously..."
+        );
+
+        validateTokenRequest(request);
+
+        final ResultFuture<GenericTokenResult> resultFuture = new ResultFuture<>();
+        performTokenRequestAsync(request).whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+            @Override
+            public void accept(final HttpResponse response, final Throwable error) {
+                if (error != null) {
+                    resultFuture.setException(error);
+                    return;
+                }
+
+                try {
+                    resultFuture.setResult(handleTokenResponse(request, response, tokenResponseHandler));
+                } catch (final Exception e) {
+                    resultFuture.setException(e);
+                }
+            }
+        });
+        return resultFuture;
+    }
+
+    private GenericTokenResult handleTokenResponse(
+            @NonNull final GenericTokenRequest request,
+            @NonNull final HttpResponse response,
+            @NonNull final ITokenResponseHandler<GenericTokenResult> tokenResponseHandler
+    ) throws ClientException {
         final GenericTokenResult result = tokenResponseHandler.handleTokenResponse(response);
         if (result.getTokenResponse() != null) {
             result.getTokenResponse().setAuthority(mTokenEndpoint);
@@ -215,6 +282,66 @@ public abstract class OAuth2Strategy
         );
 
         final String requestBody = getRequestBody(request);
+        final Map<String, String> headers = getTokenRequestHeaders(request);
+        final URL requestUrl = new URL(getTokenEndpoint());
+        final long networkStartTime = System.currentTimeMillis();
+        final HttpResponse response = httpClient.post(
+                requestUrl,
+                headers,
+                requestBody.getBytes(ObjectMapper.ENCODING_SCHEME)
+        );
+        onTokenResponseReceived(SpanExtension.current(), response, networkStartTime);
+        return response;
+    }
+
+    /**
+     * Asynchronous variant of {@link #performTokenRequest(TokenRequest)}. Subclasses overriding
+     * performTokenRequest should override this as well.
+     */
+    protected ResultFuture<HttpResponse> performTokenRequestAsync(final GenericTokenRequest request) throws IOException, ClientException {
+        final String methodName = ":performTokenRequestAsync";
+
+        Logger.verbose(
+                TAG + methodName,
+                "Performing token request asynchronously..."
+        );
+
+        final byte[] requestBody = getRequestBody(request).getBytes(ObjectMapper.ENCODING_SCHEME);
+        final Map<String, String> headers = getTokenRequestHeaders(request);
+        final URL requestUrl = new URL(getTokenEndpoint());
+        final Span span = SpanExtension.current();
+        final long networkStartTime = System.currentTimeMillis();
+
+        final ResultFuture<HttpResponse> responseFuture;
+        if (httpClient instanceof AbstractHttpClient) {
+            responseFuture = ((AbstractHttpClient) httpClient).sendAsync(
+                    new HttpRequest(requestUrl, headers, HttpClient.HttpMethod.POST.name(), requestBody, null)
+            );
+        } else {
+            responseFuture = new NoRetryPolicy().attemptAsync(new Callable<HttpResponse>() {
+                @Override
+                public HttpResponse call() throws IOException {
+                    return httpClient.post(requestUrl, headers, requestBody);
+                }
+            }, AbstractHttpClient.getDefaultAsyncScheduler());
+        }
+
+        final ResultFuture<HttpResponse> result = new ResultFuture<>();
+        responseFuture.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+            @Override
+            public void accept(final HttpResponse response, final Throwable error) {
+                if (error != null) {
+                    result.setException(error);
+                    return;
+                }
+                onTokenResponseReceived(span, response, networkStartTime);
+                result.setResult(response);
+            }
+        });
+        return result;
+    }
+
+    private Map<String, String> getTokenRequestHeaders(final GenericTokenRequest request) {
         final Map<String, String> headers = new TreeMap<>();
         headers.put(CLIENT_REQUEST_ID, DiagnosticContext.INSTANCE.getRequestContext().get(DiagnosticContext.CORRELATION_ID));
 
@@ -256,23 +383,20 @@ public abstract class OAuth2Strategy
             }
         }
 
-        final URL requestUrl = new URL(getTokenEndpoint());
-        final long networkStartTime = System.currentTimeMillis();
-        final HttpResponse response = httpClient.post(
-                requestUrl,
-                headers,
-                requestBody.getBytes(ObjectMapper.ENCODING_SCHEME)
-        );
+        return headers;
+    }
+
+    private void onTokenResponseReceived(@NonNull final Span span,
+                                         @NonNull final HttpResponse response,
+                                         final long networkStartTime) {
         final long networkEndTime = System.currentTimeMillis();
         final long networkTime = networkEndTime - networkStartTime;
-        SpanExtension.current().setAttribute(AttributeName.elapsed_time_network_acquire_at.name(), networkTime);
-
+        span.setAttribute(AttributeName.elapsed_time_network_acquire_at.name(), networkTime);
 
         // Record the clock skew between *this device* and EVO...
         if (null != response.getDate()) {
             recordClockSkew(response.getDate().getTime());
         }
-        return response;
     }
 
     protected String getTokenEndpoint() {
@@ -25,6 +25,7 @@ package com.microsoft.identity.common.java.providers.oauth2;
 import static com.microsoft.identity.common.java.exception.ServiceException.OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD;
 
 import com.google.gson.Gson;
+import com.microsoft.identity.common.java.cache.MetadataCache;
 import com.microsoft.identity.common.java.exception.ServiceException;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.net.HttpClient;
@@ -33,13 +34,13 @@ import com.microsoft.identity.common.java.net.UrlConnectionHttpClient;
 import com.microsoft.identity.common.java.util.CommonURIBuilder;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.TaskCompletedCallbackWithError;
+import com.microsoft.identity.common.java.util.ported.Function;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -55,7 +56,6 @@ public class OpenIdProviderConfigurationClient {
     private static final String WELL_KNOWN_CONFIG_HOST = "login.microsoftonline.com";
     private static final String WELL_KNOWN_CONFIG_PATH = "/v2.0/.well-known/openid-configuration";
     private static final ExecutorService sBackgroundExecutor = Executors.newCachedThreadPool();
-    private static final Map<URI, OpenIdProviderConfiguration> sConfigCache = new HashMap<>();
     private static final HttpClient httpClient = UrlConnectionHttpClient.getDefaultInstance();
 
     public interface OpenIdProviderConfigurationCallback
@@ -64,6 +64,16 @@ public class OpenIdProviderConfigurationClient {
 
     private static final Gson GSON = new Gson();
 
+    private static final MetadataCache<OpenIdProviderConfiguration> sConfigCache = new MetadataCache<>(
+            "openid_configuration",
+            new Function<String, OpenIdProviderConfiguration>() {
+                @Override
+                public OpenIdProviderConfiguration apply(@NonNull final String body) {
+                    return parseMetadata(body);
+                }
+            }
+    );
+
     private String sanitize(@NonNull final String issuer) {
         String sanitizedIssuer = issuer.trim();
 
@@ -93,7 +103,7 @@ public class OpenIdProviderConfigurationClient {
      *
      * @return OpenIdProviderConfiguration
      */
-    public synchronized OpenIdProviderConfiguration loadOpenIdProviderConfigurationFromTenant(@NonNull final String tenantIdentifier)
+    public OpenIdProviderConfiguration loadOpenIdProviderConfigurationFromTenant(@NonNull final String tenantIdentifier)
             throws ServiceException {
         try {
             final String tenantedAuthorityUrl = new CommonURIBuilder()
@@ -116,7 +126,7 @@ public class OpenIdProviderConfigurationClient {
      *
      * @return OpenIdProviderConfiguration
      */
-    public synchronized OpenIdProviderConfiguration loadOpenIdProviderConfigurationFromAuthority(@NonNull final String authorityUrl)
+    public OpenIdProviderConfiguration loadOpenIdProviderConfigurationFromAuthority(@NonNull final String authorityUrl)
             throws ServiceException {
         return loadOpenIdProviderConfigurationInternal(authorityUrl, null);
     }
@@ -126,7 +136,7 @@ public class OpenIdProviderConfigurationClient {
      *
      * @return OpenIdProviderConfiguration
      */
-    public synchronized OpenIdProviderConfiguration loadOpenIdProviderConfigurationFromAuthorityWithExtraParams(@NonNull final String authorityUrl, @NonNull final String extraParams)
+    public OpenIdProviderConfiguration loadOpenIdProviderConfigurationFromAuthorityWithExtraParams(@NonNull final String authorityUrl, @NonNull final String extraParams)
             throws ServiceException {
         return loadOpenIdProviderConfigurationInternal(authorityUrl, extraParams);
     }
@@ -136,7 +146,7 @@ public class OpenIdProviderConfigurationClient {
      *
      * @return OpenIdProviderConfiguration
      */
-    private synchronized OpenIdProviderConfiguration loadOpenIdProviderConfigurationInternal(@NonNull final String tenantedAuthorityString, final String extraParams)
+    private OpenIdProviderConfiguration loadOpenIdProviderConfigurationInternal(@NonNull final String tenantedAuthorityString, final String extraParams)
             throws ServiceException {
         final String methodName = ":loadOpenIdProviderConfiguration";
 
@@ -149,18 +159,6 @@ public class OpenIdProviderConfigurationClient {
             }
             final URI configUrl = new URI(uriString);
 
-            // Check first for a cached copy...
-            final OpenIdProviderConfiguration cacheResult = sConfigCache.get(configUrl);
-
-            // If we found a result, return it...
-            if (null != cacheResult) {
-                Logger.info(
-                        TAG + methodName,
-                        "Using cached metadata result."
-                );
-                return cacheResult;
-            }
-
             Logger.verbose(
                     TAG + methodName,
                     "Config URL is valid."
@@ -171,44 +169,51 @@ public class OpenIdProviderConfigurationClient {
                     "Using request URL: " + configUrl
             );
 
-            final HttpResponse providerConfigResponse = httpClient.get(configUrl.toURL(),
-                    new HashMap<String, String>());
-
-            final int statusCode = providerConfigResponse.getStatusCode();
-
-            if (HttpURLConnection.HTTP_OK != statusCode
-                    || StringUtil.isNullOrEmpty(providerConfigResponse.getBody())) {
-                throw new ServiceException(
-                        OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
-                        "OpenId Provider Configuration metadata failed to load with status: "
-                                + statusCode,
-                        null
-                );
-            }
-
-            final OpenIdProviderConfiguration parsedConfig = parseMetadata(
-                    providerConfigResponse.getBody()
+            // Served from the metadata cache unless it has not been fetched yet, or is too stale.
+            return sConfigCache.get(configUrl.toString(), new MetadataCache.IMetadataFetcher<ServiceException>() {
+                @Override
+                public String fetch() throws ServiceException {
+                    return fetchConfiguration(configUrl);
+                }
+            });
+        } catch (final URISyntaxException e) {
+            throw new ServiceException(
+                    OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                    "IOException while requesting metadata",
+                    e
             );
+        }
+    }
 
-            // Cache our config in memory for later
-            cacheConfiguration(configUrl, parsedConfig);
-
-            return parsedConfig;
-        } catch (final IOException | URISyntaxException e) {
+    private static String fetchConfiguration(@NonNull final URI configUrl) throws ServiceException {
+        final HttpResponse providerConfigResponse;
+        try {
+            providerConfigResponse = httpClient.get(configUrl.toURL(),
+                    new HashMap<String, String>());
+        } catch (final IOException e) {
             throw new ServiceException(
                     OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
                     "IOException while requesting metadata",
                     e
             );
         }
-    }
 
-    private void cacheConfiguration(@NonNull final URI configUrl,
-                                    @NonNull final OpenIdProviderConfiguration parsedConfig) {
-        sConfigCache.put(configUrl, parsedConfig);
+        final int statusCode = providerConfigResponse.getStatusCode();
+
+        if (HttpURLConnection.HTTP_OK != statusCode
+                || StringUtil.isNullOrEmpty(providerConfigResponse.getBody())) {
+            throw new ServiceException(
+                    OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                    "OpenId Provider Configuration metadata failed to load with status: "
+                            + statusCode,
+                    null
+            );
+        }
+
+        return providerConfigResponse.getBody();
     }
 
-    private OpenIdProviderConfiguration parseMetadata(@NonNull final String body) {
+    private static OpenIdProviderConfiguration parseMetadata(@NonNull final String body) {
         return GSON.fromJson(body, OpenIdProviderConfiguration.class);
     }
 
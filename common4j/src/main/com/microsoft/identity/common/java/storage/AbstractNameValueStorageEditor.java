@@ -0,0 +1,87 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Collects the changes of an {@link INameValueStorageEditor}, keeping only the last change per
+ * name, and hands them to {@link #onCommit(Set, Map)} in one go.
+ *
+ * @param <T> the type of the values in the storage.
+ */
+public abstract class AbstractNameValueStorageEditor<T> implements INameValueStorageEditor<T> {
+
+    private final Set<String> mRemovals = new LinkedHashSet<>();
+    private final Map<String, T> mPuts = new LinkedHashMap<>();
+
+    @Override
+    @NonNull
+    public INameValueStorageEditor<T> put(@NonNull final String name, @Nullable final T value) {
+        mRemovals.remove(name);
+        mPuts.put(name, value);
+        return this;
+    }
+
+    @Override
+    @NonNull
+    public INameValueStorageEditor<T> remove(@NonNull final String name) {
+        mPuts.remove(name);
+        mRemovals.add(name);
+        return this;
+    }
+
+    @Override
+    public final void commit() {
+        if (mRemovals.isEmpty() && mPuts.isEmpty()) {
+            return;
+        }
+
+        try {
+            onCommit(
+                    Collections.unmodifiableSet(new LinkedHashSet<>(mRemovals)),
+                    Collections.unmodifiableMap(new LinkedHashMap<>(mPuts))
+            );
+        } finally {
+            mRemovals.clear();
+            mPuts.clear();
+        }
+    }
+
+    /**
+     * Applies the queued changes to the storage. Names are either removed or put, never both.
+     *
+     * @param removals the names to remove.
+     * @param puts     the values to put, in the order they were queued.
+     */
+    protected abstract void onCommit(@NonNull Set<String> removals, @NonNull Map<String, T> puts);
+}
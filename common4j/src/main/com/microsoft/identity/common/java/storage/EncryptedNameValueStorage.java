@@ -26,14 +26,20 @@ import com.microsoft.identity.common.java.crypto.IKeyAccessor;
 import com.microsoft.identity.common.java.crypto.KeyAccessorStringAdapter;
 import com.microsoft.identity.common.java.exception.ClientException;
 import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Function;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
@@ -124,29 +130,56 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
 
     @Override
     public void put(@NonNull final String name, @Nullable final T value) {
-        final String methodTag = TAG + ":put";
+        mRawNameValueStorage.put(name, encrypt(value));
+    }
+
+    /**
+     * Encrypts the values as they are queued, and writes them to the raw storage as one batch.
+     */
+    @Override
+    public @NonNull INameValueStorageEditor<T> edit() {
+        final INameValueStorageEditor<String> rawEditor = mRawNameValueStorage.edit();
+        return new INameValueStorageEditor<T>() {
+            @Override
+            public @NonNull INameValueStorageEditor<T> put(@NonNull final String name, @Nullable final T value) {
+                rawEditor.put(name, encrypt(value));
+                return this;
+            }
+
+            @Override
+            public @NonNull INameValueStorageEditor<T> remove(@NonNull final String name) {
+                rawEditor.remove(name);
+                return this;
+            }
+
+            @Override
+            public void commit() {
+                rawEditor.commit();
+            }
+        };
+    }
+
+    @Nullable
+    private String encrypt(@Nullable final T value) {
+        final String methodTag = TAG + ":encrypt";
 
         if (value == null) {
-            mRawNameValueStorage.put(name, null);
-            return;
+            return null;
         }
 
         final String adaptedValue = mStringAdapter.adapt(value);
         if (StringUtil.isNullOrEmpty(adaptedValue)) {
-            mRawNameValueStorage.put(name, adaptedValue);
-            return;
+            return adaptedValue;
         }
 
         // If the encryption fails, write null to the storage.
         // This might not be the right behavior, but it's possible that PROD relies on this.
-        String encryptedValue = null;
         try {
-            encryptedValue = mEncryptionManager.encrypt(adaptedValue);
+            return mEncryptionManager.encrypt(adaptedValue);
         } catch (final ClientException e) {
             Logger.error(methodTag, "Failed to store encrypted value", null);
+            return null;
         }
-
-        mRawNameValueStorage.put(name, encryptedValue);
     }
 
     @Override
@@ -174,4 +207,51 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
         }
         return newMap.entrySet().iterator();
     }
+
+    /**
+     * Decrypts, adapts and maps the matching entries in parallel. Unlike {@link #getAll()}, the raw
+     * storage is read only once, and entries are not decrypted one at a time on the calling thread.
+     */
+    @Override
+    public @NonNull <R> Map<String, R> getAllFilteredByKey(@NonNull final Predicate<String> keyFilter,
+                                                           @NonNull final Function<Map.Entry<String, T>, R> entryMapper,
+                                                           @NonNull final ExecutorService executor) {
+        final String methodTag = TAG + ":getAllFilteredByKey";
+
+        final List<Map.Entry<String, String>> encryptedEntries = new ArrayList<>();
+        final List<String> emptyKeys = new ArrayList<>();
+        for (final Map.Entry<String, String> entry : mRawNameValueStorage.getAll().entrySet()) {
+            if (!keyFilter.test(entry.getKey())) {
+                continue;
+            }
+
+            if (StringUtil.isNullOrEmpty(entry.getValue())) {
+                emptyKeys.add(entry.getKey());
+            } else {
+                encryptedEntries.add(entry);
+            }
+        }
+
+        if (!emptyKeys.isEmpty()) {
+            Logger.info(methodTag, "Removing " + emptyKeys.size() + " null or empty entries");
+            for (final String name : emptyKeys) {
+                remove(name);
+            }
+        }
+
+        return ParallelEntryMapper.mapEntries(encryptedEntries, new Function<Map.Entry<String, String>, R>() {
+            @Override
+            public R apply(@NonNull final Map.Entry<String, String> entry) {
+                final T value;
+                try {
+                    value = mStringAdapter.adapt(mEncryptionManager.decrypt(entry.getValue()));
+                } catch (final ClientException e) {
+                    Logger.error(methodTag, "Failed to read encrypted value", null);
+                    return null;
+                }
+
+                return entryMapper.apply(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), value));
+            }
+        }, executor);
+    }
 }
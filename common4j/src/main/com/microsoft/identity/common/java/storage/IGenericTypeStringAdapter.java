@@ -65,4 +65,14 @@ public interface IGenericTypeStringAdapter<T> {
             return Long.parseLong(value);
         }
     };
+
+    /**
+     * An {@link IGenericTypeStringAdapter} for {@link String}, which leaves values unchanged.
+     */
+    IGenericTypeStringAdapter<String> StringAdapter = new IGenericTypeStringAdapter<String>() {
+        @Override
+        public String adapt(final String value) {
+            return value;
+        }
+    };
 }
@@ -0,0 +1,615 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.ported.Predicate;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * A file backed {@link INameValueStorage} of Strings, persisted as an append-only log in a
+ * memory-mapped file. Unlike a SharedPreferences XML file, a write only appends its own record
+ * rather than rewriting every entry.
+ * <p>
+ * Each record carries a CRC32 of its payload. When the log is replayed on open, it is cut at the
+ * first record that is torn or corrupt, so a crash mid-write loses at most the writes that were
+ * in flight. Once superseded records outweigh live ones, the live entries are compacted into a
+ * new generation of the log, which only becomes valid once fully written and synced.
+ * <p>
+ * All values are also held in memory, and reads never touch the file. A store must only be
+ * opened once per file, by a single process.
+ */
+public class MappedLogNameValueStorage implements INameValueStorage<String>, Closeable {
+
+    private static final String TAG = MappedLogNameValueStorage.class.getSimpleName();
+
+    /**
+     * The log size under which superseded records are never compacted away.
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 256 * 1024;
+
+    private static final String FILE_EXTENSION = ".mlog";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // File header: magic, format version, generation.
+    private static final int MAGIC = 0x4D4C4F47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    // Record: payload length, CRC32 of the payload, then the payload:
+    // op, key length, key, and for puts, value length and value.
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final File mDirectory;
+    private final String mStoreName;
+    private final int mCompactionThreshold;
+    private final boolean mSyncOnWrite;
+
+    private final ConcurrentMap<String, String> mValues = new ConcurrentHashMap<>();
+
+    // Guards everything below, and the order of writes to mValues.
+    private final Object mWriteLock = new Object();
+    // Size of the latest record of each key, to tell live bytes from superseded ones.
+    private final Map<String, Integer> mRecordSizes = new HashMap<>();
+    private long mLiveBytes;
+    private long mGeneration;
+    private File mFile;
+    private RandomAccessFile mRandomAccessFile;
+    private FileChannel mChannel;
+    private MappedByteBuffer mBuffer;
+    private int mWriteOffset;
+    private boolean mClosed;
+
+    /**
+     * Opens the store, creating it if it does not exist.
+     *
+     * @param directory the directory of the log files.
+     * @param storeName the name of the store, used as the prefix of its log files.
+     * @throws IOException if the log cannot be opened or created.
+     */
+    public MappedLogNameValueStorage(@NonNull final File directory,
+                                     @NonNull final String storeName) throws IOException {
+        this(directory, storeName, DEFAULT_COMPACTION_THRESHOLD, false);
+    }
+
+    /**
+     * Opens the store, creating it if it does not exist.
+     *
+     * @param directory           the directory of the log files.
+     * @param storeName           the name of the store, used as the prefix of its log files.
+     * @param compactionThreshold the log size under which superseded records are kept.
+     * @param syncOnWrite         true to sync the log to the device on every write. Otherwise
+     *                            writes survive a crash of the process, but not of the device.
+     * @throws IOException if the log cannot be opened or created.
+     */
+    public MappedLogNameValueStorage(@NonNull final File directory,
+                                     @NonNull final String storeName,
+                                     final int compactionThreshold,
+                                     final boolean syncOnWrite) throws IOException {
+        mDirectory = directory;
+        mStoreName = storeName;
+        mCompactionThreshold = compactionThreshold;
+        mSyncOnWrite = syncOnWrite;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+
+        synchronized (mWriteLock) {
+            open();
+        }
+    }
+
+    @Nullable
+    @Override
+    public String get(@NonNull final String name) {
+        return mValues.get(name);
+    }
+
+    @Override
+    public @NonNull Map<String, String> getAll() {
+        return new HashMap<>(mValues);
+    }
+
+    @Override
+    public void put(@NonNull final String name, @Nullable final String value) {
+        if (value == null) {
+            remove(name);
+            return;
+        }
+
+        write(Collections.<String>emptySet(), Collections.singletonMap(name, value));
+    }
+
+    @Override
+    public void remove(@NonNull final String name) {
+        write(Collections.singleton(name), Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Appends the queued changes to the log as one write.
+     */
+    @Override
+    public @NonNull INameValueStorageEditor<String> edit() {
+        return new AbstractNameValueStorageEditor<String>() {
+            @Override
+            protected void onCommit(@NonNull final Set<String> removals,
+                                    @NonNull final Map<String, String> puts) {
+                write(removals, puts);
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mWriteLock) {
+            write(new ArrayList<>(mValues.keySet()), Collections.<String, String>emptyMap());
+            compact();
+        }
+    }
+
+    @Override
+    public @NonNull Set<String> keySet() {
+        return Collections.unmodifiableSet(mValues.keySet());
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> getAllFilteredByKey(@NonNull final Predicate<String> keyFilter) {
+        final Map<String, String> filtered = new HashMap<>();
+        for (final Map.Entry<String, String> entry : mValues.entrySet()) {
+            if (keyFilter.test(entry.getKey())) {
+                filtered.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return filtered.entrySet().iterator();
+    }
+
+    /**
+     * Rewrites the live entries into a new generation of the log, dropping superseded records.
+     * This happens automatically once they outweigh the live entries.
+     */
+    public void compact() {
+        final String methodTag = TAG + ":compact";
+
+        synchronized (mWriteLock) {
+            ensureOpen();
+
+            final long generation = mGeneration + 1;
+            final File file = logFile(generation);
+            final Map<String, Integer> recordSizes = new HashMap<>();
+            RandomAccessFile randomAccessFile = null;
+            try {
+                final List<byte[]> records = new ArrayList<>(mValues.size());
+                int size = 0;
+                for (final Map.Entry<String, String> entry : mValues.entrySet()) {
+                    final byte[] record = encode(OP_PUT, entry.getKey(), entry.getValue());
+                    records.add(record);
+                    recordSizes.put(entry.getKey(), record.length);
+                    size += record.length;
+                }
+
+                randomAccessFile = new RandomAccessFile(file, "rw");
+                randomAccessFile.setLength(0);
+                final FileChannel channel = randomAccessFile.getChannel();
+                final MappedByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_WRITE,
+                        0,
+                        Math.max(INITIAL_CAPACITY, HEADER_SIZE + 2L * size)
+                );
+
+                // The header goes last: until it is synced, the new generation is not valid.
+                buffer.position(HEADER_SIZE);
+                for (final byte[] record : records) {
+                    buffer.put(record);
+                }
+                buffer.force();
+                writeHeader(buffer, generation);
+                buffer.force();
+
+                final File previousFile = mFile;
+                closeFile();
+                mFile = file;
+                mRandomAccessFile = randomAccessFile;
+                mChannel = channel;
+                mBuffer = buffer;
+                mGeneration = generation;
+                mWriteOffset = HEADER_SIZE + size;
+                mRecordSizes.clear();
+                mRecordSizes.putAll(recordSizes);
+                mLiveBytes = size;
+
+                if (!previousFile.delete()) {
+                    Logger.warn(methodTag, "Failed to delete the previous generation, it will be deleted on next open.");
+                }
+            } catch (final IOException e) {
+                Logger.error(methodTag, "Failed to compact " + mStoreName + ", keeping the current log.", e);
+                closeQuietly(randomAccessFile);
+                if (!file.delete()) {
+                    Logger.warn(methodTag, "Failed to delete the incomplete generation.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the log file. The store cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (mWriteLock) {
+            if (!mClosed) {
+                mClosed = true;
+                closeFile();
+            }
+        }
+    }
+
+    /**
+     * @return the size of the log, in bytes, including superseded records.
+     */
+    public int getLogSize() {
+        synchronized (mWriteLock) {
+            return mWriteOffset;
+        }
+    }
+
+    private void write(@NonNull final Iterable<String> removals, @NonNull final Map<String, String> puts) {
+        final String methodTag = TAG + ":write";
+
+        synchronized (mWriteLock) {
+            ensureOpen();
+
+            final Map<String, byte[]> records = new LinkedHashMap<>();
+            for (final String name : removals) {
+                if (mValues.containsKey(name)) {
+                    records.put(name, encode(OP_REMOVE, name, null));
+                }
+            }
+            for (final Map.Entry<String, String> entry : puts.entrySet()) {
+                if (entry.getValue() == null) {
+                    if (mValues.containsKey(entry.getKey())) {
+                        records.put(entry.getKey(), encode(OP_REMOVE, entry.getKey(), null));
+                    }
+                } else {
+                    records.put(entry.getKey(), encode(OP_PUT, entry.getKey(), entry.getValue()));
+                }
+            }
+
+            if (records.isEmpty()) {
+                return;
+            }
+
+            try {
+                append(records.values());
+            } catch (final IOException e) {
+                // As with SharedPreferences.apply(), the change is kept in memory.
+                Logger.error(methodTag, "Failed to append to " + mStoreName, e);
+            }
+
+            for (final String name : removals) {
+                applyRemove(name);
+            }
+            for (final Map.Entry<String, String> entry : puts.entrySet()) {
+                if (entry.getValue() == null) {
+                    applyRemove(entry.getKey());
+                } else {
+                    applyPut(entry.getKey(), entry.getValue(), records.get(entry.getKey()).length);
+                }
+            }
+
+            final long supersededBytes = (mWriteOffset - HEADER_SIZE) - mLiveBytes;
+            if (mWriteOffset > mCompactionThreshold && supersededBytes > mLiveBytes) {
+                compact();
+            }
+        }
+    }
+
+    private void append(@NonNull final Iterable<byte[]> records) throws IOException {
+        int size = 0;
+        for (final byte[] record : records) {
+            size += record.length;
+        }
+
+        if ((long) mWriteOffset + size > mBuffer.capacity()) {
+            final long capacity = Math.max(2L * mBuffer.capacity(), (long) mWriteOffset + size);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IOException("The log of " + mStoreName + " is too large.");
+            }
+            mBuffer = mChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        mBuffer.position(mWriteOffset);
+        for (final byte[] record : records) {
+            mBuffer.put(record);
+        }
+        mWriteOffset += size;
+
+        if (mSyncOnWrite) {
+            mBuffer.force();
+        }
+    }
+
+    private void applyPut(@NonNull final String name, @NonNull final String value, final int recordSize) {
+        final Integer previousSize = mRecordSizes.put(name, recordSize);
+        if (previousSize != null) {
+            mLiveBytes -= previousSize;
+        }
+        mLiveBytes += recordSize;
+        mValues.put(name, value);
+    }
+
+    private void applyRemove(@NonNull final String name) {
+        final Integer previousSize = mRecordSizes.remove(name);
+        if (previousSize != null) {
+            mLiveBytes -= previousSize;
+        }
+        mValues.remove(name);
+    }
+
+    /**
+     * Opens the latest valid generation of the log, deleting the others, or creates a new log.
+     */
+    private void open() throws IOException {
+        final String methodTag = TAG + ":open";
+
+        final TreeMap<Long, File> logFiles = new TreeMap<>(Collections.<Long>reverseOrder());
+        final File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final Long generation = parseGeneration(file.getName());
+                if (generation != null) {
+                    logFiles.put(generation, file);
+                }
+            }
+        }
+
+        for (final Map.Entry<Long, File> logFile : logFiles.entrySet()) {
+            if (mFile == null && load(logFile.getValue(), logFile.getKey())) {
+                continue;
+            }
+
+            Logger.info(methodTag, "Deleting stale or incomplete log generation " + logFile.getKey());
+            if (!logFile.getValue().delete()) {
+                Logger.warn(methodTag, "Failed to delete a stale log generation.");
+            }
+        }
+
+        if (mFile == null) {
+            createEmptyLog(1);
+        }
+    }
+
+    private boolean load(@NonNull final File file, final long generation) throws IOException {
+        final String methodTag = TAG + ":load";
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        final FileChannel channel = randomAccessFile.getChannel();
+        final long length = channel.size();
+        if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+            closeQuietly(randomAccessFile);
+            return false;
+        }
+
+        final MappedByteBuffer buffer = channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                0,
+                Math.max(INITIAL_CAPACITY, length)
+        );
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != generation) {
+            closeQuietly(randomAccessFile);
+            return false;
+        }
+
+        mFile = file;
+        mRandomAccessFile = randomAccessFile;
+        mChannel = channel;
+        mBuffer = buffer;
+        mGeneration = generation;
+
+        int offset = HEADER_SIZE;
+        final CRC32 crc = new CRC32();
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            final int payloadLength = buffer.getInt(offset);
+            if (payloadLength <= 0 || payloadLength > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+
+            final byte[] payload = new byte[payloadLength];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(offset + RECORD_HEADER_SIZE);
+            view.get(payload);
+            crc.reset();
+            crc.update(payload, 0, payloadLength);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4) || !replay(payload)) {
+                break;
+            }
+
+            offset += RECORD_HEADER_SIZE + payloadLength;
+        }
+        mWriteOffset = offset;
+
+        if (offset + RECORD_HEADER_SIZE <= buffer.capacity() && buffer.getLong(offset) != 0) {
+            // A torn or corrupt record: drop it and whatever follows, so that it can't be
+            // mistaken for a record once appends overwrite its beginning.
+            Logger.warn(methodTag, "Truncated a torn or corrupt record at offset " + offset);
+            for (int i = offset; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+
+        Logger.info(methodTag, "Loaded " + mValues.size() + " entries of " + mStoreName);
+        return true;
+    }
+
+    private boolean replay(@NonNull final byte[] payload) {
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(payload);
+            final byte op = buffer.get();
+            final String name = readString(buffer);
+            if (op == OP_PUT) {
+                applyPut(name, readString(buffer), RECORD_HEADER_SIZE + payload.length);
+            } else if (op == OP_REMOVE) {
+                applyRemove(name);
+            } else {
+                return false;
+            }
+            return !buffer.hasRemaining();
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void createEmptyLog(final long generation) throws IOException {
+        final File file = logFile(generation);
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(0);
+            final FileChannel channel = randomAccessFile.getChannel();
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_CAPACITY);
+            writeHeader(buffer, generation);
+            buffer.force();
+
+            mFile = file;
+            mRandomAccessFile = randomAccessFile;
+            mChannel = channel;
+            mBuffer = buffer;
+            mGeneration = generation;
+            mWriteOffset = HEADER_SIZE;
+        } catch (final IOException e) {
+            closeQuietly(randomAccessFile);
+            throw e;
+        }
+    }
+
+    private static void writeHeader(@NonNull final MappedByteBuffer buffer, final long generation) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, generation);
+    }
+
+    private static byte[] encode(final byte op, @NonNull final String name, @Nullable final String value) {
+        final byte[] nameBytes = name.getBytes(UTF8);
+        final byte[] valueBytes = value == null ? null : value.getBytes(UTF8);
+        final int payloadLength = 1 + 4 + nameBytes.length + (valueBytes == null ? 0 : 4 + valueBytes.length);
+
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadLength);
+        record.putInt(payloadLength);
+        record.putInt(0);
+        record.put(op);
+        record.putInt(nameBytes.length);
+        record.put(nameBytes);
+        if (valueBytes != null) {
+            record.putInt(valueBytes.length);
+            record.put(valueBytes);
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, payloadLength);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    private static String readString(@NonNull final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        final String value = new String(buffer.array(), buffer.position(), length, UTF8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private File logFile(final long generation) {
+        return new File(mDirectory, mStoreName + "." + generation + FILE_EXTENSION);
+    }
+
+    @Nullable
+    private Long parseGeneration(@NonNull final String fileName) {
+        final String prefix = mStoreName + ".";
+        if (!fileName.startsWith(prefix) || !fileName.endsWith(FILE_EXTENSION)) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(fileName.substring(prefix.length(), fileName.length() - FILE_EXTENSION.length()));
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (mClosed) {
+            throw new IllegalStateException(mStoreName + " is closed.");
+        }
+    }
+
+    private void closeFile() {
+        closeQuietly(mRandomAccessFile);
+        mRandomAccessFile = null;
+        mChannel = null;
+        mBuffer = null;
+    }
+
+    private static void closeQuietly(@Nullable final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+
+        try {
+            closeable.close();
+        } catch (final IOException e) {
+            Logger.warn(TAG + ":closeQuietly", "Failed to close a log file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.cache.IMultiTypeNameValueStorage;
+import com.microsoft.identity.common.java.crypto.IKeyAccessor;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.IStorageSupplier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * An {@link IStorageSupplier} whose stores are {@link MappedLogNameValueStorage} logs in a given
+ * directory, for hosts without SharedPreferences, or with caches too large to rewrite as a whole
+ * on every write.
+ * <p>
+ * Only String values are supported. Encrypted stores keep each value encrypted in the log.
+ */
+public class MappedLogStorageSupplier implements IStorageSupplier {
+
+    private final File mDirectory;
+
+    @Nullable
+    private final IKeyAccessor mEncryptionManager;
+
+    // A log must only be opened once, so stores are shared by name.
+    private final Map<String, MappedLogNameValueStorage> mStores = new HashMap<>();
+
+    /**
+     * @param directory         the directory of the log files.
+     * @param encryptionManager the {@link IKeyAccessor} of the encrypted stores, or null if
+     *                          encrypted stores are not supported.
+     */
+    public MappedLogStorageSupplier(@NonNull final File directory,
+                                    @Nullable final IKeyAccessor encryptionManager) {
+        mDirectory = directory;
+        mEncryptionManager = encryptionManager;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NonNull <T> INameValueStorage<T> getUnencryptedNameValueStore(@NonNull final String storeName,
+                                                                          @NonNull final Class<T> clazz) {
+        checkStringType(clazz);
+        return (INameValueStorage<T>) getStore(storeName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NonNull <T> INameValueStorage<T> getEncryptedNameValueStore(@NonNull final String storeName,
+                                                                        @NonNull final Class<T> clazz) {
+        checkStringType(clazz);
+        return (INameValueStorage<T>) getEncryptedStore(storeName);
+    }
+
+    @Override
+    public @NonNull IMultiTypeNameValueStorage getUnencryptedFileStore(@NonNull final String storeName) {
+        return new MultiTypeNameValueStorage(getStore(storeName));
+    }
+
+    @Override
+    public @NonNull IMultiTypeNameValueStorage getEncryptedFileStore(@NonNull final String storeName) {
+        return new MultiTypeNameValueStorage(getEncryptedStore(storeName));
+    }
+
+    private INameValueStorage<String> getEncryptedStore(@NonNull final String storeName) {
+        if (mEncryptionManager == null) {
+            throw new UnsupportedOperationException("No encryption manager was provided.");
+        }
+
+        return new EncryptedNameValueStorage<>(
+                getStore(storeName),
+                mEncryptionManager,
+                IGenericTypeStringAdapter.StringAdapter
+        );
+    }
+
+    private MappedLogNameValueStorage getStore(@NonNull final String storeName) {
+        synchronized (mStores) {
+            MappedLogNameValueStorage store = mStores.get(storeName);
+            if (store == null) {
+                try {
+                    store = new MappedLogNameValueStorage(mDirectory, storeName);
+                } catch (final IOException e) {
+                    throw new IllegalStateException("Failed to open store " + storeName, e);
+                }
+                mStores.put(storeName, store);
+            }
+            return store;
+        }
+    }
+
+    private static void checkStringType(@NonNull final Class<?> clazz) {
+        if (!String.class.isAssignableFrom(clazz)) {
+            throw new UnsupportedOperationException("Only String is supported as a type");
+        }
+    }
+}
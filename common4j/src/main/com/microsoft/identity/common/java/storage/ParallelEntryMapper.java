@@ -0,0 +1,175 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.ThreadUtils;
+import com.microsoft.identity.common.java.util.ported.Function;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Maps a batch of stored entries (e.g. decrypts and deserializes them) on a bounded pool, and
+ * returns the fully materialized results.
+ * <p>
+ * The entries are split into one contiguous chunk per worker. The calling thread maps the first
+ * chunk itself, so a batch is never slower than mapping it inline when the pool is busy, and small
+ * batches are not split at all.
+ */
+public final class ParallelEntryMapper {
+
+    private static final String TAG = ParallelEntryMapper.class.getSimpleName();
+
+    /**
+     * Batches smaller than this (per worker) are cheaper to map inline than to hand off.
+     */
+    static final int MIN_ENTRIES_PER_TASK = 32;
+
+    private static final long DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS = 30;
+
+    private ParallelEntryMapper() {
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final ExecutorService INSTANCE = createDefaultExecutor();
+
+        private static ExecutorService createDefaultExecutor() {
+            final int poolSize = getParallelism();
+            final ThreadPoolExecutor executor = (ThreadPoolExecutor) ThreadUtils.getNamedThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    -1,
+                    DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    "storage-bulk-read"
+            );
+            // Bulk reads mostly happen once, on a cold start. Don't hold the threads afterwards.
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * @return the shared pool used for bulk reads, sized to the number of available cores.
+     */
+    @NonNull
+    public static ExecutorService getDefaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Applies the mapper to every entry, spreading the work across the given executor.
+     *
+     * @param entries  the entries to map.
+     * @param mapper   maps an entry to its result, or to null to omit it. Invoked concurrently.
+     * @param executor the bounded pool to run on.
+     * @return a map of entry key to (non-null) mapped value.
+     * @throws RuntimeException any exception thrown by the mapper.
+     */
+    @NonNull
+    public static <V, R> Map<String, R> mapEntries(@NonNull final List<Map.Entry<String, V>> entries,
+                                                   @NonNull final Function<Map.Entry<String, V>, R> mapper,
+                                                   @NonNull final ExecutorService executor) {
+        final String methodTag = TAG + ":mapEntries";
+        final int taskCount = Math.min(getParallelism(), entries.size() / MIN_ENTRIES_PER_TASK);
+        if (taskCount <= 1) {
+            return mapChunk(entries, mapper);
+        }
+
+        final int chunkSize = (entries.size() + taskCount - 1) / taskCount;
+        final List<Future<Map<String, R>>> futures = new ArrayList<>(taskCount - 1);
+        final List<List<Map.Entry<String, V>>> inlineChunks = new ArrayList<>();
+        inlineChunks.add(entries.subList(0, chunkSize));
+
+        for (int start = chunkSize; start < entries.size(); start += chunkSize) {
+            final List<Map.Entry<String, V>> chunk = entries.subList(start, Math.min(start + chunkSize, entries.size()));
+            try {
+                futures.add(executor.submit(new Callable<Map<String, R>>() {
+                    @Override
+                    public Map<String, R> call() {
+                        return mapChunk(chunk, mapper);
+                    }
+                }));
+            } catch (final RejectedExecutionException e) {
+                Logger.warn(methodTag, "Executor rejected a chunk, mapping it on the calling thread.");
+                inlineChunks.add(chunk);
+            }
+        }
+
+        final Map<String, R> result = new HashMap<>(entries.size() * 4 / 3 + 1);
+        try {
+            for (final List<Map.Entry<String, V>> chunk : inlineChunks) {
+                result.putAll(mapChunk(chunk, mapper));
+            }
+
+            for (final Future<Map<String, R>> future : futures) {
+                result.putAll(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while mapping entries", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to map entries", cause);
+        } finally {
+            for (final Future<Map<String, R>> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        return result;
+    }
+
+    private static <V, R> Map<String, R> mapChunk(@NonNull final List<Map.Entry<String, V>> chunk,
+                                                  @NonNull final Function<Map.Entry<String, V>, R> mapper) {
+        final Map<String, R> result = new HashMap<>(chunk.size() * 4 / 3 + 1);
+        for (final Map.Entry<String, V> entry : chunk) {
+            final R mappedValue = mapper.apply(entry);
+            if (mappedValue != null) {
+                result.put(entry.getKey(), mappedValue);
+            }
+        }
+        return result;
+    }
+
+    private static int getParallelism() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -23,12 +23,12 @@
 package com.microsoft.identity.common.java.telemetry;
 
 import static com.microsoft.identity.common.java.logging.DiagnosticContext.CORRELATION_ID;
-import static com.microsoft.identity.common.java.telemetry.TelemetryEventStrings.Key;
 
 import com.microsoft.identity.common.java.WarningType;
 import com.microsoft.identity.common.java.logging.DiagnosticContext;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.telemetry.adapter.BrokerTelemetryAdapter;
+import com.microsoft.identity.common.java.telemetry.adapter.ITelemetryAdapter;
 import com.microsoft.identity.common.java.telemetry.adapter.TelemetryAggregationAdapter;
 import com.microsoft.identity.common.java.telemetry.adapter.TelemetryDefaultAdapter;
 import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
@@ -46,9 +46,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
 
 /**
@@ -64,7 +67,12 @@ public class Telemetry {
     @SuppressWarnings(WarningType.rawtype_warning)
     private static Queue<ITelemetryObserver> mObservers;
 
-    private Queue<Map<String, String>> mTelemetryRawDataMap;
+    // Adapters are stateless apart from their observer, so one is kept per registered observer.
+    @SuppressWarnings(WarningType.rawtype_warning)
+    private static final ConcurrentMap<ITelemetryObserver, ITelemetryAdapter<List<Map<String, String>>>> sAdapters =
+            new ConcurrentHashMap<>();
+
+    private TelemetryEventBuffer mEventBuffer;
     private TelemetryConfiguration mDefaultConfiguration;
     private AbstractTelemetryContext mTelemetryContext;
     private boolean mIsDebugging;
@@ -93,7 +101,7 @@ public class Telemetry {
             mDefaultConfiguration = builder.mDefaultConfiguration;
             mTelemetryContext = builder.mTelemetryContext;
             mIsDebugging = builder.mIsDebugging;
-            mTelemetryRawDataMap = new ConcurrentLinkedQueue<>();
+            mEventBuffer = new TelemetryEventBuffer();
         }
     }
 
@@ -111,17 +119,20 @@ public class Telemetry {
     /**
      * This is for getting instance of Telemetry
      **/
-    public synchronized static Telemetry getInstance() {
-        // If sTelemetryInstance is not initialized, telemetry will be disabled.
-        if (sTelemetryInstance == null) {
-            new Builder().build();
+    public static Telemetry getInstance() {
+        final Telemetry instance = sTelemetryInstance;
+        if (instance != null) {
+            return instance;
         }
 
-        return sTelemetryInstance;
-    }
+        synchronized (Telemetry.class) {
+            // If sTelemetryInstance is not initialized, telemetry will be disabled.
+            if (sTelemetryInstance == null) {
+                new Builder().build();
+            }
 
-    private synchronized Queue<Map<String, String>> getRequestMap() {
-        return mTelemetryRawDataMap;
+            return sTelemetryInstance;
+        }
     }
 
     /**
@@ -163,9 +174,11 @@ public class Telemetry {
         @SuppressWarnings(WarningType.rawtype_warning) final Iterator<ITelemetryObserver> observerIterator = mObservers.iterator();
 
         while (observerIterator.hasNext()) {
-            if (observerIterator.next().getClass() == cls) {
+            @SuppressWarnings(WarningType.rawtype_warning) final ITelemetryObserver observer = observerIterator.next();
+            if (observer.getClass() == cls) {
                 Logger.verbose(TAG, "The [" + cls.getSimpleName() + "] observer is removed.");
                 observerIterator.remove();
+                sAdapters.remove(observer);
             }
         }
     }
@@ -187,6 +200,7 @@ public class Telemetry {
         }
 
         mObservers.remove(observer);
+        sAdapters.remove(observer);
     }
 
     // Visible for testing.
@@ -196,6 +210,7 @@ public class Telemetry {
         }
 
         mObservers.clear();
+        sAdapters.clear();
     }
 
     /**
@@ -225,7 +240,7 @@ public class Telemetry {
         final Telemetry instance = getInstance();
         if (instance.mIsTelemetryEnabled) {
             //only enqueue the telemetry properties when the telemetry is enabled.
-            instance.getRequestMap().add(event.getProperties());
+            instance.mEventBuffer.add(event.getProperties());
         }
     }
 
@@ -259,44 +274,69 @@ public class Telemetry {
             return;
         }
 
-        final List<Map<String, String>> finalRawMap = new CopyOnWriteArrayList<>();
-
-        for (Iterator<Map<String, String>> iterator = mTelemetryRawDataMap.iterator(); iterator.hasNext(); ) {
-            Map<String, String> event = iterator.next();
-            if (correlationId.equalsIgnoreCase(event.get(Key.CORRELATION_ID))) {
-                finalRawMap.add(applyPiiOiiRule(event));
-                iterator.remove();
-            }
+        final List<Map<String, String>> events = mEventBuffer.take(correlationId);
+        // Suppressing unchecked warnings due to the generic array, which is only read by CopyOnWriteArrayList
+        @SuppressWarnings({WarningType.rawtype_warning, WarningType.unchecked_warning})
+        final Map<String, String>[] finalRawMap = new Map[events.size() + 1];
+        int index = 0;
+        for (final Map<String, String> event : events) {
+            finalRawMap[index++] = applyPiiOiiRule(event);
         }
 
-        processRawMap(finalRawMap);
+        //Add the telemetry context to the telemetry data
+        finalRawMap[index] = applyPiiOiiRule(mTelemetryContext.getProperties());
+
+        // Copied once, into the list handed to the observers.
+        processRawMap(new CopyOnWriteArrayList<>(finalRawMap));
     }
 
     /**
      * Pass the final raw map to the observers.
      */
     private void processRawMap(final List<Map<String, String>> finalRawMap) {
-        //Add the telemetry context to the telemetry data
-        finalRawMap.add(applyPiiOiiRule(mTelemetryContext.getProperties()));
-
         if (null == mObservers) {
             Logger.warn(TAG, "No telemetry observer set.");
             return;
         }
 
         for (@SuppressWarnings(WarningType.rawtype_warning) ITelemetryObserver observer : mObservers) {
-            if (observer instanceof IBrokerTelemetryObserver) {
-                new BrokerTelemetryAdapter((IBrokerTelemetryObserver) observer).process(finalRawMap);
-            } else if (observer instanceof ITelemetryAggregatedObserver) {
-                new TelemetryAggregationAdapter((ITelemetryAggregatedObserver) observer).process(finalRawMap);
-            } else if (observer instanceof ITelemetryDefaultObserver) {
-                new TelemetryDefaultAdapter((ITelemetryDefaultObserver) observer).process(finalRawMap);
+            final ITelemetryAdapter<List<Map<String, String>>> adapter = getAdapter(observer);
+            if (adapter != null) {
+                adapter.process(finalRawMap);
             } else {
                 Logger.warn(TAG, "Unknown observer type: " + observer.getClass());
             }
         }
     }
 
+    /**
+     * Returns the adapter of an observer, creating it on first use.
+     *
+     * @return the adapter, or null if the observer type is not supported.
+     */
+    @Nullable
+    private static ITelemetryAdapter<List<Map<String, String>>> getAdapter(
+            @SuppressWarnings(WarningType.rawtype_warning) @NonNull final ITelemetryObserver observer) {
+        final ITelemetryAdapter<List<Map<String, String>>> cached = sAdapters.get(observer);
+        if (cached != null) {
+            return cached;
+        }
+
+        final ITelemetryAdapter<List<Map<String, String>>> adapter;
+        if (observer instanceof IBrokerTelemetryObserver) {
+            adapter = new BrokerTelemetryAdapter((IBrokerTelemetryObserver) observer);
+        } else if (observer instanceof ITelemetryAggregatedObserver) {
+            adapter = new TelemetryAggregationAdapter((ITelemetryAggregatedObserver) observer);
+        } else if (observer instanceof ITelemetryDefaultObserver) {
+            adapter = new TelemetryDefaultAdapter((ITelemetryDefaultObserver) observer);
+        } else {
+            return null;
+        }
+
+        final ITelemetryAdapter<List<Map<String, String>>> existing = sAdapters.putIfAbsent(observer, adapter);
+        return existing != null ? existing : adapter;
+    }
+
     /**
      * Get telemetry data of current correlation id.
      */
@@ -329,13 +369,9 @@ public class Telemetry {
             return Collections.emptyList();
         }
 
-        List<Map<String, String>> finalRawMap = new ArrayList<>();
-
-        for (final Iterator<Map<String, String>> iterator = mTelemetryRawDataMap.iterator(); iterator.hasNext(); ) {
-            final Map<String, String> event = iterator.next();
-            if (correlationId.equalsIgnoreCase(event.get(Key.CORRELATION_ID))) {
-                finalRawMap.add(applyPiiOiiRule(event));
-            }
+        final List<Map<String, String>> finalRawMap = new ArrayList<>();
+        for (final Map<String, String> event : mEventBuffer.peek(correlationId)) {
+            finalRawMap.add(applyPiiOiiRule(event));
         }
         return finalRawMap;
     }
@@ -0,0 +1,314 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.telemetry;
+
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Buffers telemetry events until the request they belong to is flushed.
+ * <p>
+ * Events are bucketed by correlation id (compared case-insensitively), so that flushing a request
+ * only touches its own events. Memory is bounded: each bucket keeps at most
+ * {@link #DEFAULT_MAX_EVENTS_PER_CORRELATION} events, at most
+ * {@link #DEFAULT_MAX_CORRELATIONS} buckets are kept, and buckets that are never flushed are
+ * evicted after {@link #DEFAULT_MAX_AGE_MILLIS}. Whatever is dropped is counted.
+ */
+final class TelemetryEventBuffer {
+
+    private static final String TAG = TelemetryEventBuffer.class.getSimpleName();
+
+    static final int DEFAULT_MAX_CORRELATIONS = 256;
+    static final int DEFAULT_MAX_EVENTS_PER_CORRELATION = 512;
+    static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final Supplier<Long> SYSTEM_CLOCK = new Supplier<Long>() {
+        @Override
+        public Long get() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private final int mMaxCorrelations;
+    private final int mMaxEventsPerCorrelation;
+    private final long mMaxAgeMillis;
+    private final Supplier<Long> mClock;
+    private final ConcurrentMap<String, Bucket> mBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * Guards bucket creation and eviction. Appending to an existing bucket does not take it.
+     */
+    private final Object mEvictionLock = new Object();
+
+    private final AtomicLong mDroppedEventCount = new AtomicLong();
+    private final AtomicLong mEvictedBucketCount = new AtomicLong();
+    private final AtomicLong mEvictedEventCount = new AtomicLong();
+
+    TelemetryEventBuffer() {
+        this(DEFAULT_MAX_CORRELATIONS, DEFAULT_MAX_EVENTS_PER_CORRELATION, DEFAULT_MAX_AGE_MILLIS, SYSTEM_CLOCK);
+    }
+
+    //@VisibleForTesting
+    TelemetryEventBuffer(final int maxCorrelations,
+                         final int maxEventsPerCorrelation,
+                         final long maxAgeMillis,
+                         @NonNull final Supplier<Long> clock) {
+        if (maxCorrelations <= 0 || maxEventsPerCorrelation <= 0 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Telemetry buffer bounds must be positive.");
+        }
+
+        mMaxCorrelations = maxCorrelations;
+        mMaxEventsPerCorrelation = maxEventsPerCorrelation;
+        mMaxAgeMillis = maxAgeMillis;
+        mClock = clock;
+    }
+
+    /**
+     * Buffers an event under its {@link TelemetryEventStrings.Key#CORRELATION_ID}.
+     * Events without a correlation id can never be flushed, so they are dropped.
+     *
+     * @param event the event properties.
+     */
+    void add(@NonNull final Map<String, String> event) {
+        final String key = toKey(event.get(TelemetryEventStrings.Key.CORRELATION_ID));
+        if (key == null) {
+            mDroppedEventCount.incrementAndGet();
+            return;
+        }
+
+        while (true) {
+            Bucket bucket = mBuckets.get(key);
+            if (bucket == null) {
+                bucket = createBucket(key);
+            }
+
+            switch (bucket.add(event, mMaxEventsPerCorrelation)) {
+                case ADDED:
+                    return;
+                case FULL:
+                    mDroppedEventCount.incrementAndGet();
+                    return;
+                case CLOSED:
+                default:
+                    // Flushed or evicted concurrently, start a new bucket.
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the events of a correlation id, in the order they were added.
+     *
+     * @param correlationId the correlation id.
+     * @return the events, or an empty list if there are none.
+     */
+    List<Map<String, String>> take(@Nullable final String correlationId) {
+        final String key = toKey(correlationId);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+
+        final Bucket bucket = mBuckets.remove(key);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+
+        return bucket.close();
+    }
+
+    /**
+     * Returns a copy of the events of a correlation id without removing them.
+     *
+     * @param correlationId the correlation id.
+     * @return the events, or an empty list if there are none.
+     */
+    List<Map<String, String>> peek(@Nullable final String correlationId) {
+        final String key = toKey(correlationId);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+
+        final Bucket bucket = mBuckets.get(key);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+
+        return bucket.copy();
+    }
+
+    /**
+     * @return the number of correlation ids currently buffered.
+     */
+    int getCorrelationCount() {
+        return mBuckets.size();
+    }
+
+    /**
+     * @return the number of events dropped because their bucket was full or they had no
+     * correlation id.
+     */
+    long getDroppedEventCount() {
+        return mDroppedEventCount.get();
+    }
+
+    /**
+     * @return the number of buckets evicted before being flushed.
+     */
+    long getEvictedBucketCount() {
+        return mEvictedBucketCount.get();
+    }
+
+    /**
+     * @return the number of events discarded together with evicted buckets.
+     */
+    long getEvictedEventCount() {
+        return mEvictedEventCount.get();
+    }
+
+    private Bucket createBucket(@NonNull final String key) {
+        synchronized (mEvictionLock) {
+            final Bucket existing = mBuckets.get(key);
+            if (existing != null) {
+                return existing;
+            }
+
+            final long now = mClock.get();
+            evictLocked(now);
+
+            final Bucket bucket = new Bucket(now);
+            mBuckets.put(key, bucket);
+            return bucket;
+        }
+    }
+
+    /**
+     * Evicts expired buckets, then the oldest ones until there is room for a new bucket.
+     * Only called when a new correlation id is seen, so the linear scan is not on the hot path.
+     */
+    private void evictLocked(final long now) {
+        final String methodTag = TAG + ":evictLocked";
+        int evicted = 0;
+
+        for (final Iterator<Map.Entry<String, Bucket>> iterator = mBuckets.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<String, Bucket> entry = iterator.next();
+            if (now - entry.getValue().mCreatedAtMillis >= mMaxAgeMillis) {
+                iterator.remove();
+                onEvicted(entry.getValue());
+                evicted++;
+            }
+        }
+
+        while (mBuckets.size() >= mMaxCorrelations) {
+            Map.Entry<String, Bucket> oldest = null;
+            for (final Map.Entry<String, Bucket> entry : mBuckets.entrySet()) {
+                if (oldest == null || entry.getValue().mCreatedAtMillis < oldest.getValue().mCreatedAtMillis) {
+                    oldest = entry;
+                }
+            }
+
+            if (oldest == null) {
+                break;
+            }
+
+            if (mBuckets.remove(oldest.getKey(), oldest.getValue())) {
+                onEvicted(oldest.getValue());
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            Logger.warn(methodTag, "Evicted [" + evicted + "] unflushed telemetry buckets. "
+                    + "Total evicted: [" + mEvictedBucketCount.get() + "]");
+        }
+    }
+
+    private void onEvicted(@NonNull final Bucket bucket) {
+        mEvictedBucketCount.incrementAndGet();
+        mEvictedEventCount.addAndGet(bucket.close().size());
+    }
+
+    @Nullable
+    private static String toKey(@Nullable final String correlationId) {
+        if (StringUtil.isNullOrEmpty(correlationId)) {
+            return null;
+        }
+
+        return correlationId.toLowerCase(Locale.ROOT);
+    }
+
+    private enum AddResult {
+        ADDED,
+        FULL,
+        CLOSED
+    }
+
+    /**
+     * The events of one correlation id. Once closed (flushed or evicted), no event can be added.
+     */
+    private static final class Bucket {
+        private final long mCreatedAtMillis;
+        private final List<Map<String, String>> mEvents = new ArrayList<>();
+        private boolean mClosed;
+
+        Bucket(final long createdAtMillis) {
+            mCreatedAtMillis = createdAtMillis;
+        }
+
+        synchronized AddResult add(@NonNull final Map<String, String> event, final int maxEvents) {
+            if (mClosed) {
+                return AddResult.CLOSED;
+            }
+
+            if (mEvents.size() >= maxEvents) {
+                return AddResult.FULL;
+            }
+
+            mEvents.add(event);
+            return AddResult.ADDED;
+        }
+
+        synchronized List<Map<String, String>> copy() {
+            return new ArrayList<>(mEvents);
+        }
+
+        synchronized List<Map<String, String>> close() {
+            mClosed = true;
+            return mEvents;
+        }
+    }
+}
@@ -41,6 +41,8 @@ public class BrokerProtocolVersionUtil {
 
     public static final String MSAL_TO_BROKER_PROTOCOL_NAA_MINIMUM_VERSION = "15.0";
 
+    public static final String MSAL_TO_BROKER_PROTOCOL_COMPRESSION_DICTIONARY_MINIMUM_VERSION = "17.0";
+
     /**
      * Verifies if negotiated broker protocol version allows to support MSA accounts in the broker.
      *
@@ -67,6 +69,20 @@ public class BrokerProtocolVersionUtil {
                 MSAL_TO_BROKER_PROTOCOL_COMPRESSION_CHANGES_MINIMUM_VERSION);
     }
 
+    /**
+     * Verifies if negotiated broker protocol version allows compressing broker payloads with the
+     * preset deflate dictionary.
+     *
+     * @param negotiatedBrokerProtocol negotiated protocol version, result of hello handshake.
+     * @return true if the negotiated protocol version is larger or equal than
+     * the {@link BrokerProtocolVersionUtil#MSAL_TO_BROKER_PROTOCOL_COMPRESSION_DICTIONARY_MINIMUM_VERSION}.
+     */
+    public static boolean canUseBrokerPayloadCompressionDictionary(@Nullable String negotiatedBrokerProtocol) {
+        return isProvidedBrokerProtocolLargerOrEqualThanRequiredBrokerProtocol(
+                negotiatedBrokerProtocol,
+                MSAL_TO_BROKER_PROTOCOL_COMPRESSION_DICTIONARY_MINIMUM_VERSION);
+    }
+
     /**
      * Verifies if client required broker protocol version allows FOCI apps to construct accounts from PRT Id token.
      *
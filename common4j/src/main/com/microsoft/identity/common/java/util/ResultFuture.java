@@ -30,6 +30,7 @@ import lombok.NonNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -44,15 +45,45 @@ public class ResultFuture<T> implements Future<T> {
     private T mResult = null;
     private Throwable mException = null;
     private final List<BiConsumer<T, Throwable>> mConsumers = new ArrayList<>();
+    private volatile boolean mCancelled = false;
 
+    /**
+     * Cancels this ResultFuture if it has not completed yet. Waiters are released with a
+     * {@link CancellationException}, and the whenComplete callbacks are invoked with one, so that
+     * whoever is producing the result can stop. A result or exception set afterwards is ignored.
+     *
+     * @param mayInterruptIfRunning Ignored; the producer decides how to stop.
+     * @return true if this call cancelled the ResultFuture.
+     */
     @Override
-    public boolean cancel(boolean b) {
-        return false;
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final Throwable exception;
+        final List<BiConsumer<T, Throwable>> consumers;
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+
+            mCancelled = true;
+            mException = new CancellationException("The operation was cancelled.");
+            exception = mException;
+            mCountDownLatch.countDown();
+            consumers = new ArrayList<>(mConsumers);
+            mConsumers.clear();
+        }
+
+        // Invoked outside of the lock, so that cancellation can be passed on to the futures this
+        // one waits on without taking their locks in the opposite order to their completion.
+        for (final BiConsumer<T, Throwable> consumer : consumers) {
+            consumer.accept(null, exception);
+        }
+
+        return true;
     }
 
     @Override
     public boolean isCancelled() {
-        return false;
+        return mCancelled;
     }
 
     @Override
@@ -64,6 +95,10 @@ public class ResultFuture<T> implements Future<T> {
     public T get() throws InterruptedException, ExecutionException {
         mCountDownLatch.await();
 
+        if (mCancelled) {
+            throw (CancellationException) mException;
+        }
+
         if (null != mException) {
             throw new ExecutionException(mException);
         }
@@ -74,6 +109,10 @@ public class ResultFuture<T> implements Future<T> {
     @Override
     public T get(final long l, @NonNull final TimeUnit timeUnit) throws InterruptedException, TimeoutException, ExecutionException {
         if (mCountDownLatch.await(l, timeUnit)) {
+            if (mCancelled) {
+                throw (CancellationException) mException;
+            }
+
             if (null != mException) {
                 throw new ExecutionException(mException);
             }
@@ -94,6 +133,10 @@ public class ResultFuture<T> implements Future<T> {
      * @param exception The Exception to set.
      */
     public synchronized void setException(@NonNull final Throwable exception) {
+        if (mCancelled) {
+            return;
+        }
+
         mException = exception;
         mCountDownLatch.countDown();
 
@@ -108,6 +151,10 @@ public class ResultFuture<T> implements Future<T> {
      * @param result The Result to set.
      */
     public synchronized void setResult(@Nullable final T result) {
+        if (mCancelled) {
+            return;
+        }
+
         mResult = result;
         mCountDownLatch.countDown();
 
@@ -118,6 +165,31 @@ public class ResultFuture<T> implements Future<T> {
         mConsumers.clear();
     }
 
+    /**
+     * Waits for this ResultFuture, and throws the exception it completed with as-is rather than
+     * wrapped in an {@link ExecutionException}.
+     *
+     * @return The Result.
+     * @throws Exception The exception this ResultFuture completed with, or a
+     *                   {@link CancellationException} if it was cancelled.
+     */
+    public T getResultOrThrow() throws Exception {
+        try {
+            return get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+
     /**
      * Sets the whenComplete {@link BiConsumer} callback. Invoked upon completion
      * (either success/error).
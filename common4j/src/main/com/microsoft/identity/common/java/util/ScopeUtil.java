@@ -0,0 +1,130 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.util;
+
+import static com.microsoft.identity.common.java.AuthenticationConstants.DEFAULT_SCOPES;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Utilities for matching whitespace-delimited targets (scopes) of cached credentials.
+ */
+public final class ScopeUtil {
+
+    /**
+     * Upper bound on the number of distinct targets whose parsed scopes are interned.
+     * Apps use a handful of distinct targets, so this is only a guard against unbounded growth.
+     */
+    private static final int MAX_INTERNED_TARGETS = 512;
+
+    private static final Map<String, Set<String>> sInternedScopes = new ConcurrentHashMap<>();
+
+    private ScopeUtil() {
+    }
+
+    /**
+     * Splits the supplied target into its scopes, lower-cased and with MSAL's default scopes
+     * ({@link com.microsoft.identity.common.java.AuthenticationConstants#DEFAULT_SCOPES}) removed.
+     * <p>
+     * Results are interned, so credentials which share a target also share the returned set.
+     *
+     * @param target A whitespace-delimited target. May be null.
+     * @return An immutable set of normalized scopes. Empty if the target is null or blank.
+     */
+    @NonNull
+    public static Set<String> getNormalizedScopesWithoutDefaults(@Nullable final String target) {
+        if (null == target) {
+            return Collections.emptySet();
+        }
+
+        Set<String> scopes = sInternedScopes.get(target);
+        if (null == scopes) {
+            scopes = parseNormalizedScopesWithoutDefaults(target);
+            if (sInternedScopes.size() < MAX_INTERNED_TARGETS) {
+                sInternedScopes.put(target, scopes);
+            }
+        }
+
+        return scopes;
+    }
+
+    /**
+     * Checks whether the credential scopes contain every sought scope, both normalized by
+     * {@link #getNormalizedScopesWithoutDefaults(String)}. Does not allocate.
+     *
+     * @param credentialScopes The normalized scopes of the credential.
+     * @param soughtScopes     The normalized scopes the cache-query is looking for.
+     * @return True, if credentialScopes contains all of soughtScopes. False otherwise.
+     */
+    public static boolean containsAllScopes(@NonNull final Set<String> credentialScopes,
+                                            @NonNull final Set<String> soughtScopes) {
+        if (soughtScopes.size() > credentialScopes.size()) {
+            return false;
+        }
+
+        for (final String scope : soughtScopes) {
+            if (!credentialScopes.contains(scope)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @NonNull
+    private static Set<String> parseNormalizedScopesWithoutDefaults(@NonNull final String target) {
+        final Set<String> scopes = new HashSet<>();
+        final int length = target.length();
+        int start = -1;
+
+        for (int i = 0; i <= length; i++) {
+            final boolean isDelimiter = i == length || isWhitespace(target.charAt(i));
+            if (isDelimiter && start >= 0) {
+                final String scope = target.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!DEFAULT_SCOPES.contains(scope)) {
+                    scopes.add(scope);
+                }
+                start = -1;
+            } else if (!isDelimiter && start < 0) {
+                start = i;
+            }
+        }
+
+        return Collections.unmodifiableSet(scopes);
+    }
+
+    /**
+     * Mirrors the regex whitespace class ({@code \s}) that targets have historically been split on.
+     */
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
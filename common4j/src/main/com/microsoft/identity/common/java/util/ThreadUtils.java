@@ -29,6 +29,8 @@ import com.microsoft.identity.common.java.logging.Logger;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -90,6 +92,28 @@ public class ThreadUtils {
         }
     }
 
+    /**
+     * Construct a named scheduled thread pool whose threads exit after being idle for the keep alive time,
+     * so that a lazily created shared scheduler does not hold threads (or keep the JVM alive) when unused.
+     *
+     * @param corePool      The number of threads in the pool.
+     * @param keepAliveTime The amount of time to keep idle threads alive before terminating them.
+     * @param keepAliveUnit The time unit on that time.
+     * @param poolName      The name of the thread pool in use.
+     * @return A scheduled executor service with the specified properties.
+     */
+    public static ScheduledExecutorService getNamedScheduledThreadPoolExecutor(final int corePool,
+                                                                               final long keepAliveTime,
+                                                                               @NonNull final TimeUnit keepAliveUnit,
+                                                                               @NonNull final String poolName) {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(corePool,
+                getNamedThreadFactory(poolName, System.getSecurityManager()));
+        executor.setKeepAliveTime(keepAliveTime, keepAliveUnit);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
     //Nice thought, but if you're using executors, you're using ThreadGroup whether you want to or not.
     @SuppressWarnings("PMD.AvoidThreadGroup")
     private static ThreadFactory getNamedThreadFactory(@NonNull final String poolName, final SecurityManager securityManager) {
@@ -0,0 +1,196 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.PrimaryRefreshTokenRecord;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class CompactCacheValueCodecTest {
+
+    private static final String HOME_ACCOUNT_ID = "uid.utid";
+    private static final String ENVIRONMENT = "login.microsoftonline.com";
+    private static final String CLIENT_ID = "client-id";
+    private static final String REALM = "utid";
+
+    private final CacheKeyValueDelegate mCompactDelegate = new CacheKeyValueDelegate(true);
+    private final CacheKeyValueDelegate mJsonDelegate = new CacheKeyValueDelegate(false);
+
+    @Test
+    public void testAccessTokenRoundTrip() {
+        final AccessTokenRecord accessToken = createAccessToken();
+
+        final String cacheValue = mCompactDelegate.generateCacheValue(accessToken);
+        assertTrue(CompactCacheValueCodec.isCompactValue(cacheValue));
+
+        final AccessTokenRecord restored = mCompactDelegate.fromCacheValue(cacheValue, AccessTokenRecord.class);
+        assertEquals(accessToken, restored);
+        assertEquals(accessToken.getTarget(), restored.getTarget());
+        assertEquals(accessToken.getRefreshOn(), restored.getRefreshOn());
+        assertTrue(restored.getAdditionalFields().isEmpty());
+    }
+
+    @Test
+    public void testAccountRecordRoundTrip() {
+        final AccountRecord account = new AccountRecord();
+        account.setHomeAccountId(HOME_ACCOUNT_ID);
+        account.setEnvironment(ENVIRONMENT);
+        account.setRealm(REALM);
+        account.setLocalAccountId("uid");
+        account.setUsername("user@contoso.com");
+        account.setAuthorityType("MSSTS");
+        account.setName("Some:User 12:34");
+
+        final String cacheValue = mCompactDelegate.generateCacheValue(account);
+        final AccountRecord restored = mCompactDelegate.fromCacheValue(cacheValue, AccountRecord.class);
+
+        assertEquals(account, restored);
+        assertEquals("Some:User 12:34", restored.getName());
+        assertNull(restored.getFirstName());
+    }
+
+    @Test
+    public void testPrimaryRefreshTokenRoundTrip() {
+        final PrimaryRefreshTokenRecord prt = new PrimaryRefreshTokenRecord();
+        prt.setHomeAccountId(HOME_ACCOUNT_ID);
+        prt.setEnvironment(ENVIRONMENT);
+        prt.setClientId(CLIENT_ID);
+        prt.setCredentialType(CredentialType.PrimaryRefreshToken.name());
+        prt.setSecret("prt-secret");
+        prt.setSessionKey("session-key");
+        prt.setPrtProtocolVersion("3.0");
+
+        final String cacheValue = mCompactDelegate.generateCacheValue(prt);
+        final PrimaryRefreshTokenRecord restored = mCompactDelegate.fromCacheValue(cacheValue, PrimaryRefreshTokenRecord.class);
+
+        assertEquals(prt, restored);
+        assertEquals("session-key", restored.getSessionKey());
+        assertEquals("3.0", restored.getPrtProtocolVersion());
+    }
+
+    @Test
+    public void testAdditionalFieldsArePreserved() {
+        final RefreshTokenRecord refreshToken = createRefreshToken();
+        final Map<String, JsonElement> additionalFields = new HashMap<>();
+        additionalFields.put("unknown_field", new JsonPrimitive("value:with:separators"));
+        additionalFields.put("unknown_number", new JsonPrimitive(42));
+        refreshToken.setAdditionalFields(additionalFields);
+
+        final String cacheValue = mCompactDelegate.generateCacheValue(refreshToken);
+        final RefreshTokenRecord restored = mCompactDelegate.fromCacheValue(cacheValue, RefreshTokenRecord.class);
+
+        assertEquals(refreshToken, restored);
+        assertEquals(additionalFields, restored.getAdditionalFields());
+    }
+
+    @Test
+    public void testUnknownTagIsPreservedAcrossRoundTrip() {
+        final String newerSchemaValue = mCompactDelegate.generateCacheValue(createRefreshToken()) + "99:5:hello";
+
+        final RefreshTokenRecord restored = mCompactDelegate.fromCacheValue(newerSchemaValue, RefreshTokenRecord.class);
+        assertEquals(new JsonPrimitive("hello"), restored.getAdditionalFields().get("#99"));
+
+        final String rewritten = mCompactDelegate.generateCacheValue(restored);
+        assertTrue(rewritten.endsWith("99:5:hello"));
+        assertFalse(rewritten.contains("#99"));
+    }
+
+    @Test
+    public void testLegacyJsonIsReadableByCompactDelegate() {
+        final AccessTokenRecord accessToken = createAccessToken();
+        final String json = mJsonDelegate.generateCacheValue(accessToken);
+        assertFalse(CompactCacheValueCodec.isCompactValue(json));
+
+        assertEquals(accessToken, mCompactDelegate.fromCacheValue(json, AccessTokenRecord.class));
+    }
+
+    @Test
+    public void testCompactValueIsReadableByJsonDelegate() {
+        final AccessTokenRecord accessToken = createAccessToken();
+        final String cacheValue = mCompactDelegate.generateCacheValue(accessToken);
+
+        assertEquals(accessToken, mJsonDelegate.fromCacheValue(cacheValue, AccessTokenRecord.class));
+    }
+
+    @Test
+    public void testCompactValueIsSmallerThanJson() {
+        final AccessTokenRecord accessToken = createAccessToken();
+
+        assertTrue(mCompactDelegate.generateCacheValue(accessToken).length()
+                < mJsonDelegate.generateCacheValue(accessToken).length());
+    }
+
+    @Test
+    public void testMalformedCompactValueReturnsNull() {
+        assertNull(mCompactDelegate.fromCacheValue(CompactCacheValueCodec.PREFIX + "1:500:short", AccessTokenRecord.class));
+        assertNull(mCompactDelegate.fromCacheValue(CompactCacheValueCodec.PREFIX + "x:1:a", AccessTokenRecord.class));
+        assertNull(mCompactDelegate.fromCacheValue(CompactCacheValueCodec.PREFIX + "0:4:9:ab", AccessTokenRecord.class));
+    }
+
+    private static AccessTokenRecord createAccessToken() {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        accessToken.setEnvironment(ENVIRONMENT);
+        accessToken.setClientId(CLIENT_ID);
+        accessToken.setRealm(REALM);
+        accessToken.setCredentialType(CredentialType.AccessToken.name());
+        accessToken.setTarget("user.read openid profile");
+        accessToken.setSecret("secret");
+        accessToken.setCachedAt("1700000000");
+        accessToken.setExpiresOn("1700003600");
+        accessToken.setExtendedExpiresOn("1700007200");
+        accessToken.setRefreshOn("1700001800");
+        accessToken.setAccessTokenType("Bearer");
+        accessToken.setAuthority("https://login.microsoftonline.com/utid");
+        return accessToken;
+    }
+
+    private static RefreshTokenRecord createRefreshToken() {
+        final RefreshTokenRecord refreshToken = new RefreshTokenRecord();
+        refreshToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        refreshToken.setEnvironment(ENVIRONMENT);
+        refreshToken.setClientId(CLIENT_ID);
+        refreshToken.setCredentialType(CredentialType.RefreshToken.name());
+        refreshToken.setTarget("user.read openid profile");
+        refreshToken.setSecret("refresh-secret");
+        refreshToken.setFamilyId("1");
+        return refreshToken;
+    }
+}
@@ -0,0 +1,162 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class CredentialIndexTest {
+
+    private static final String HOME_ACCOUNT_ID = "uid.utid";
+    private static final String ENVIRONMENT = "login.microsoftonline.com";
+    private static final String CLIENT_ID = "client-id";
+    private static final String REALM = "utid";
+    private static final String AT_KEY = "at-key";
+    private static final String RT_KEY = "rt-key";
+
+    private CredentialIndex mIndex;
+    private AccessTokenRecord mAccessToken;
+    private RefreshTokenRecord mRefreshToken;
+
+    @Before
+    public void setUp() {
+        mIndex = new CredentialIndex();
+
+        mAccessToken = new AccessTokenRecord();
+        mAccessToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        mAccessToken.setEnvironment(ENVIRONMENT);
+        mAccessToken.setCredentialType(CredentialType.AccessToken.name());
+        mAccessToken.setClientId(CLIENT_ID);
+        mAccessToken.setRealm(REALM);
+
+        mRefreshToken = new RefreshTokenRecord();
+        mRefreshToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        mRefreshToken.setEnvironment(ENVIRONMENT);
+        mRefreshToken.setCredentialType(CredentialType.RefreshToken.name());
+        mRefreshToken.setClientId(CLIENT_ID);
+
+        mIndex.add(AT_KEY, mAccessToken);
+        mIndex.add(RT_KEY, mRefreshToken);
+    }
+
+    @Test
+    public void testLookupByPrimaryKey() {
+        final Set<String> candidates = mIndex.getCandidateCacheKeys(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.RefreshToken,
+                CLIENT_ID,
+                null
+        );
+
+        assertEquals(Collections.singleton(RT_KEY), candidates);
+    }
+
+    @Test
+    public void testLookupIsCaseInsensitiveAndTrimmed() {
+        final Set<String> candidates = mIndex.getCandidateCacheKeys(
+                " " + HOME_ACCOUNT_ID.toUpperCase() + " ",
+                ENVIRONMENT.toUpperCase(),
+                CredentialType.AccessToken,
+                CLIENT_ID.toUpperCase(),
+                null
+        );
+
+        assertEquals(Collections.singleton(AT_KEY), candidates);
+    }
+
+    @Test
+    public void testLookupByRealmOnly() {
+        final Set<String> candidates = mIndex.getCandidateCacheKeys(
+                null,
+                null,
+                CredentialType.AccessToken,
+                null,
+                REALM
+        );
+
+        assertEquals(Collections.singleton(AT_KEY), candidates);
+    }
+
+    @Test
+    public void testRealmIsIgnoredForRefreshTokens() {
+        assertNull(mIndex.getCandidateCacheKeys(
+                null,
+                null,
+                CredentialType.RefreshToken,
+                null,
+                REALM
+        ));
+    }
+
+    @Test
+    public void testWildcardLookupIsNotIndexed() {
+        assertNull(mIndex.getCandidateCacheKeys(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                null,
+                CLIENT_ID,
+                null
+        ));
+    }
+
+    @Test
+    public void testRemove() {
+        mIndex.remove(AT_KEY, mAccessToken);
+
+        assertTrue(mIndex.getCandidateCacheKeys(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                REALM
+        ).isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        mIndex.clear();
+
+        assertTrue(mIndex.getCandidateCacheKeys(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.RefreshToken,
+                CLIENT_ID,
+                null
+        ).isEmpty());
+    }
+}
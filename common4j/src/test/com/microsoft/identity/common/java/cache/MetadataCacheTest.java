@@ -0,0 +1,307 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.util.ported.Function;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+
+/**
+ * Tests for {@link MetadataCache}.
+ */
+@RunWith(JUnit4.class)
+public class MetadataCacheTest {
+
+    private static final String KEY = "https://login.microsoftonline.com/common/discovery/instance";
+    private static final long TTL = TimeUnit.HOURS.toMillis(1);
+    private static final long MAX_STALENESS = TimeUnit.HOURS.toMillis(10);
+
+    private static final Function<String, String> PARSER = new Function<String, String>() {
+        @Override
+        public String apply(String body) {
+            if (body.startsWith("invalid")) {
+                throw new IllegalArgumentException("Cannot parse " + body);
+            }
+            return "parsed:" + body;
+        }
+    };
+
+    private final AtomicLong mNow = new AtomicLong(1_000_000L);
+    private final List<Runnable> mPendingRefreshes = new ArrayList<>();
+    private final InMemoryStorage<String> mStorage = new InMemoryStorage<>();
+
+    private MetadataCache<String> mCache;
+
+    @Before
+    public void setUp() {
+        mCache = newCache(mStorage);
+    }
+
+    @Test
+    public void testFreshDocumentIsNotFetchedAgain() throws IOException {
+        final CountingFetcher fetcher = new CountingFetcher("v1");
+
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, fetcher));
+        mNow.addAndGet(TTL - 1);
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, fetcher));
+
+        Assert.assertEquals(1, fetcher.mFetchCount.get());
+        Assert.assertTrue(mPendingRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testStaleDocumentIsServedWhileRefreshing() throws IOException {
+        mCache.get(KEY, new CountingFetcher("v1"));
+        mNow.addAndGet(TTL + 1);
+
+        final CountingFetcher refreshFetcher = new CountingFetcher("v2");
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, refreshFetcher));
+        // A second stale read does not start a second refresh.
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, refreshFetcher));
+        Assert.assertEquals(1, mPendingRefreshes.size());
+        Assert.assertEquals(0, refreshFetcher.mFetchCount.get());
+
+        mPendingRefreshes.remove(0).run();
+
+        Assert.assertEquals(1, refreshFetcher.mFetchCount.get());
+        Assert.assertEquals("parsed:v2", mCache.get(KEY, refreshFetcher));
+        Assert.assertEquals(1, refreshFetcher.mFetchCount.get());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsServingStaleDocument() throws IOException {
+        mCache.get(KEY, new CountingFetcher("v1"));
+        mNow.addAndGet(TTL + 1);
+
+        final FailingFetcher failingFetcher = new FailingFetcher();
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, failingFetcher));
+        mPendingRefreshes.remove(0).run();
+
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, failingFetcher));
+    }
+
+    @Test
+    public void testTooStaleDocumentIsFetchedBeforeReturning() throws IOException {
+        mCache.get(KEY, new CountingFetcher("v1"));
+        mNow.addAndGet(MAX_STALENESS);
+
+        final CountingFetcher fetcher = new CountingFetcher("v2");
+        Assert.assertEquals("parsed:v2", mCache.get(KEY, fetcher));
+        Assert.assertEquals(1, fetcher.mFetchCount.get());
+        Assert.assertTrue(mPendingRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testPersistedDocumentIsUsedAfterRestart() throws IOException {
+        mCache.get(KEY, new CountingFetcher("v1"));
+
+        // A new cache over the same storage simulates a process restart.
+        final MetadataCache<String> restartedCache = newCache(mStorage);
+        final CountingFetcher fetcher = new CountingFetcher("v2");
+
+        Assert.assertEquals("parsed:v1", restartedCache.get(KEY, fetcher));
+        Assert.assertEquals(0, fetcher.mFetchCount.get());
+    }
+
+    @Test
+    public void testUnparseableDocumentIsNotCached() throws IOException {
+        try {
+            mCache.get(KEY, new CountingFetcher("invalid"));
+            Assert.fail("Expected the parser to fail");
+        } catch (final IllegalArgumentException e) {
+            // Expected.
+        }
+
+        Assert.assertEquals(0, mStorage.size());
+        Assert.assertEquals("parsed:v1", mCache.get(KEY, new CountingFetcher("v1")));
+    }
+
+    @Test
+    public void testCorruptedPersistedDocumentIsDropped() throws IOException {
+        mCache.get(KEY, new CountingFetcher("v1"));
+        for (final String name : mStorage.keySet()) {
+            mStorage.put(name, "{not json");
+        }
+
+        final CountingFetcher fetcher = new CountingFetcher("v2");
+        Assert.assertEquals("parsed:v2", newCache(mStorage).get(KEY, fetcher));
+        Assert.assertEquals(1, fetcher.mFetchCount.get());
+    }
+
+    @Test
+    public void testNullDocumentIsNotCached() throws IOException {
+        final CountingFetcher fetcher = new CountingFetcher(null);
+
+        Assert.assertNull(mCache.get(KEY, fetcher));
+        Assert.assertNull(mCache.get(KEY, fetcher));
+
+        Assert.assertEquals(2, fetcher.mFetchCount.get());
+        Assert.assertEquals(0, mStorage.size());
+    }
+
+    @Test
+    public void testClearRemovesPersistedDocuments() throws IOException {
+        mCache.get(KEY, new CountingFetcher("v1"));
+        mStorage.put("unrelated", "value");
+
+        mCache.clear();
+
+        final CountingFetcher fetcher = new CountingFetcher("v2");
+        Assert.assertEquals("parsed:v2", mCache.get(KEY, fetcher));
+        Assert.assertEquals("value", mStorage.get("unrelated"));
+    }
+
+    @Test
+    public void testConcurrentFetchesAreDeduplicated() throws Exception {
+        final int callerCount = 8;
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFetch = new CountDownLatch(1);
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final MetadataCache.IMetadataFetcher<IOException> blockingFetcher = new MetadataCache.IMetadataFetcher<IOException>() {
+            @Override
+            public String fetch() throws IOException {
+                fetchCount.incrementAndGet();
+                fetchStarted.countDown();
+                try {
+                    releaseFetch.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return "v1";
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(callerCount);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callerCount; i++) {
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return mCache.get(KEY, blockingFetcher);
+                    }
+                }));
+            }
+
+            Assert.assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            // Give the other callers time to join the in-flight fetch.
+            Thread.sleep(100);
+            releaseFetch.countDown();
+
+            for (final Future<String> result : results) {
+                Assert.assertEquals("parsed:v1", result.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, fetchCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFetchFailureIsPropagated() {
+        try {
+            mCache.get(KEY, new FailingFetcher());
+            Assert.fail("Expected an IOException");
+        } catch (final IOException e) {
+            Assert.assertEquals(FailingFetcher.MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTimeToLive() {
+        new MetadataCache<>("test", TTL, TTL - 1, PARSER);
+    }
+
+    private MetadataCache<String> newCache(@NonNull final INameValueStorage<String> storage) {
+        return new MetadataCache<>(
+                "test",
+                TTL,
+                MAX_STALENESS,
+                PARSER,
+                new Supplier<INameValueStorage<String>>() {
+                    @Override
+                    public INameValueStorage<String> get() {
+                        return storage;
+                    }
+                },
+                new Executor() {
+                    @Override
+                    public void execute(@NonNull final Runnable command) {
+                        mPendingRefreshes.add(command);
+                    }
+                },
+                new Supplier<Long>() {
+                    @Override
+                    public Long get() {
+                        return mNow.get();
+                    }
+                }
+        );
+    }
+
+    private static final class CountingFetcher implements MetadataCache.IMetadataFetcher<IOException> {
+        private final String mValue;
+        private final AtomicInteger mFetchCount = new AtomicInteger();
+
+        CountingFetcher(final String value) {
+            mValue = value;
+        }
+
+        @Override
+        public String fetch() {
+            mFetchCount.incrementAndGet();
+            return mValue;
+        }
+    }
+
+    private static final class FailingFetcher implements MetadataCache.IMetadataFetcher<IOException> {
+        static final String MESSAGE = "network unavailable";
+
+        @Override
+        public String fetch() throws IOException {
+            throw new IOException(MESSAGE);
+        }
+    }
+}
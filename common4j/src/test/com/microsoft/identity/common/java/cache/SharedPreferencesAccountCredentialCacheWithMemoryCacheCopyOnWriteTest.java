@@ -0,0 +1,213 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class SharedPreferencesAccountCredentialCacheWithMemoryCacheCopyOnWriteTest {
+
+    private static final String HOME_ACCOUNT_ID = "29f3807a-4fb0-42f2-a44a-236aa0cb3f97.0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String ENVIRONMENT = "login.microsoftonline.com";
+    private static final String CLIENT_ID = "0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String REALM = "3c62ac97-29eb-4aed-a3c8-add0298508d";
+    private static final String TARGET = "user.read user.write https://graph.windows.net";
+
+    private InMemoryStorage<String> mStorage;
+    private SharedPreferencesAccountCredentialCacheWithMemoryCache mCache;
+
+    @Before
+    public void setUp() {
+        mStorage = new InMemoryStorage<>();
+        mCache = new SharedPreferencesAccountCredentialCacheWithMemoryCache(
+                new CacheKeyValueDelegate(),
+                mStorage,
+                true
+        );
+    }
+
+    @Test
+    public void testSaveAndGetAccount() {
+        final AccountRecord account = new AccountRecord();
+        account.setHomeAccountId(HOME_ACCOUNT_ID);
+        account.setEnvironment(ENVIRONMENT);
+        account.setRealm(REALM);
+
+        mCache.saveAccount(account);
+
+        final List<AccountRecord> accounts = mCache.getAccounts();
+        assertEquals(1, accounts.size());
+        assertEquals(account, accounts.get(0));
+        assertNotSame(accounts.get(0), mCache.getAccounts().get(0));
+    }
+
+    @Test
+    public void testSaveFilterAndRemoveCredential() {
+        final AccessTokenRecord accessToken = createAccessToken(TARGET);
+        mCache.saveCredential(accessToken);
+
+        final List<Credential> matches = mCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                null,
+                null,
+                REALM,
+                "user.read",
+                null
+        );
+        assertEquals(1, matches.size());
+        assertEquals(accessToken, matches.get(0));
+
+        assertTrue(mCache.removeCredential(accessToken));
+        assertTrue(mCache.getCredentials().isEmpty());
+        assertNull(mCache.getCredential(new CacheKeyValueDelegate().generateCacheKey(accessToken)));
+    }
+
+    @Test
+    public void testReturnedRecordsDoNotAffectSnapshot() {
+        mCache.saveCredential(createAccessToken(TARGET));
+
+        final Credential returned = mCache.getCredentials().get(0);
+        returned.setSecret("modified");
+
+        assertEquals("secret", mCache.getCredentials().get(0).getSecret());
+    }
+
+    @Test
+    public void testClearAll() {
+        mCache.saveCredential(createAccessToken(TARGET));
+
+        mCache.clearAll();
+
+        assertTrue(mCache.getCredentials().isEmpty());
+        assertTrue(mStorage.keySet().isEmpty());
+    }
+
+    @Test
+    public void testLoadsExistingEntries() {
+        final AccessTokenRecord accessToken = createAccessToken(TARGET);
+        mCache.saveCredential(accessToken);
+
+        final SharedPreferencesAccountCredentialCacheWithMemoryCache reloaded =
+                new SharedPreferencesAccountCredentialCacheWithMemoryCache(
+                        new CacheKeyValueDelegate(),
+                        mStorage,
+                        true
+                );
+
+        assertEquals(1, reloaded.getCredentials().size());
+        assertEquals(accessToken, reloaded.getCredentials().get(0));
+    }
+
+    @Test
+    public void testConcurrentReadsDuringWrites() throws Exception {
+        final int writes = 200;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            final Future<?> writer = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    awaitQuietly(start);
+                    for (int i = 0; i < writes; i++) {
+                        mCache.saveCredential(createAccessToken("scope" + i));
+                    }
+                }
+            });
+
+            final List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        awaitQuietly(start);
+                        int lastSize = 0;
+                        while (lastSize < writes) {
+                            final int size = mCache.getCredentials().size();
+                            // Snapshots are published atomically, so the cache never appears to shrink.
+                            assertTrue(size >= lastSize);
+                            lastSize = size;
+                        }
+                    }
+                }));
+            }
+
+            start.countDown();
+            writer.get(30, TimeUnit.SECONDS);
+            for (final Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writes, mCache.getCredentials().size());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static AccessTokenRecord createAccessToken(final String target) {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        accessToken.setEnvironment(ENVIRONMENT);
+        accessToken.setCredentialType(CredentialType.AccessToken.name());
+        accessToken.setClientId(CLIENT_ID);
+        accessToken.setRealm(REALM);
+        accessToken.setTarget(target);
+        accessToken.setSecret("secret");
+        accessToken.setCachedAt("0");
+        accessToken.setExpiresOn("0");
+        return accessToken;
+    }
+}
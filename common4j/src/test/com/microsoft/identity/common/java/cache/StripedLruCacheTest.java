@@ -0,0 +1,158 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link StripedLruCache}.
+ */
+@RunWith(JUnit4.class)
+public class StripedLruCacheTest {
+
+    @Test
+    public void testGetCountsHitsAndMisses() {
+        final StripedLruCache<String> cache = new StripedLruCache<>(100);
+        cache.put("a", "1", 1);
+
+        Assert.assertEquals("1", cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByWeight() {
+        final StripedLruCache<String> cache = new StripedLruCache<>(10, 1);
+        cache.put("a", "1", 4);
+        cache.put("b", "2", 4);
+        // Use "a", so that "b" is the least recently used.
+        cache.get("a");
+
+        cache.put("c", "3", 4);
+
+        Assert.assertEquals("1", cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("3", cache.get("c"));
+        Assert.assertEquals(8, cache.weight());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testReplacingValueUpdatesWeight() {
+        final StripedLruCache<String> cache = new StripedLruCache<>(10, 1);
+        cache.put("a", "1", 4);
+        cache.put("a", "2", 6);
+
+        Assert.assertEquals(6, cache.weight());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testValueHeavierThanStripeIsNotCached() {
+        final StripedLruCache<String> cache = new StripedLruCache<>(10, 1);
+        cache.put("a", "1", 4);
+
+        cache.put("a", "2", 11);
+
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        final StripedLruCache<String> cache = new StripedLruCache<>(100);
+
+        Assert.assertTrue(cache.putIfAbsent("a", "1", 1));
+        Assert.assertFalse(cache.putIfAbsent("a", "2", 1));
+        Assert.assertEquals("1", cache.get("a"));
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        final StripedLruCache<String> cache = new StripedLruCache<>(100);
+        cache.put("a", "1", 3);
+        cache.put("b", "2", 5);
+
+        cache.remove("a");
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(5, cache.weight());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testConcurrentAccessStaysWithinBudget() throws InterruptedException {
+        final int threadCount = 8;
+        final long maxWeight = 1600;
+        final StripedLruCache<String> cache = new StripedLruCache<>(maxWeight);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 10000; i++) {
+                            final String key = "key-" + ((i * 31 + threadIndex) % 500);
+                            if (cache.get(key) == null) {
+                                cache.put(key, key, 10);
+                            }
+                        }
+                    } catch (final Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertNull(failure.get());
+        Assert.assertTrue(cache.weight() <= maxWeight);
+        Assert.assertEquals(cache.size() * 10L, cache.weight());
+        Assert.assertEquals(threadCount * 10000L, cache.getHitCount() + cache.getMissCount());
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+    }
+}
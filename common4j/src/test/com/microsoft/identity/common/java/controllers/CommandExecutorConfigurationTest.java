@@ -0,0 +1,124 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnit4.class)
+public class CommandExecutorConfigurationTest {
+
+    @Test
+    public void testDefaultConfigurationMatchesLegacyPools() {
+        final ExecutorService executor = CommandExecutorConfiguration.getDefault().createSilentExecutor();
+        try {
+            Assert.assertTrue(executor instanceof ThreadPoolExecutor);
+            final ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executor;
+            Assert.assertEquals(5, threadPoolExecutor.getCorePoolSize());
+            Assert.assertEquals(5, threadPoolExecutor.getMaximumPoolSize());
+            Assert.assertEquals(Integer.MAX_VALUE, threadPoolExecutor.getQueue().remainingCapacity());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBoundedQueueRejectsWhenFull() throws Exception {
+        final CommandExecutorConfiguration configuration = CommandExecutorConfiguration.builder()
+                .silentPoolSize(1)
+                .silentQueueCapacity(1)
+                .build();
+        final MeteredExecutorService executor = new MeteredExecutorService(configuration.createSilentExecutor());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(blockingTask(started, release));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.execute(blockingTask(new CountDownLatch(1), release));
+
+            Assert.assertEquals(1, executor.getActiveCount());
+            Assert.assertEquals(1, executor.getQueueDepth());
+
+            try {
+                executor.execute(blockingTask(new CountDownLatch(1), release));
+                Assert.fail("Expected the third task to be rejected.");
+            } catch (final RejectedExecutionException e) {
+                // expected
+            }
+            Assert.assertEquals(1, executor.getQueueDepth());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(0, executor.getActiveCount());
+        Assert.assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    public void testVirtualThreadsFallBackOrRun() throws Exception {
+        final CommandExecutorConfiguration configuration = CommandExecutorConfiguration.builder()
+                .useVirtualThreads(true)
+                .build();
+        final ExecutorService executor = configuration.createSilentExecutor();
+        final CountDownLatch ran = new CountDownLatch(1);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ran.countDown();
+                }
+            });
+            Assert.assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPoolSizeThrows() {
+        CommandExecutorConfiguration.builder().silentPoolSize(0).build().createSilentExecutor();
+    }
+
+    private static Runnable blockingTask(final CountDownLatch started, final CountDownLatch release) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
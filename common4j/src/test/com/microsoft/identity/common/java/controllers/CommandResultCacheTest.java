@@ -0,0 +1,192 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.components.MockPlatformComponentsFactory;
+import com.microsoft.identity.common.java.commands.EmptyCommandCallback;
+import com.microsoft.identity.common.java.commands.SilentTokenCommand;
+import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
+import com.microsoft.identity.common.java.exception.ServiceException;
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RunWith(JUnit4.class)
+public class CommandResultCacheTest {
+
+    private static final long SUCCESS_TTL_MILLIS = 30_000;
+    private static final long THROTTLED_TTL_MILLIS = 5_000;
+
+    private final AtomicLong mNow = new AtomicLong(1_000_000);
+    private CommandResultCache mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new CommandResultCache(3, SUCCESS_TTL_MILLIS, THROTTLED_TTL_MILLIS, new Supplier<Long>() {
+            @Override
+            public Long get() {
+                return mNow.get();
+            }
+        });
+    }
+
+    @Test
+    public void testSuccessfulResultIsCachedForSuccessTtl() {
+        final SilentTokenCommand command = createCommand("user.read");
+        final CommandResult result = CommandResult.of(CommandResult.ResultStatus.COMPLETED, "token", null);
+        mCache.put(command, result);
+
+        mNow.addAndGet(SUCCESS_TTL_MILLIS);
+        Assert.assertSame(result, mCache.get(command));
+        // An equal command submitted later finds the same result.
+        Assert.assertSame(result, mCache.get(createCommand("user.read")));
+
+        mNow.addAndGet(1);
+        Assert.assertNull(mCache.get(command));
+        Assert.assertEquals(0, mCache.getSize());
+        Assert.assertEquals(2, mCache.getHitCount());
+        Assert.assertEquals(1, mCache.getMissCount());
+        Assert.assertEquals(1, mCache.getEvictionCount());
+    }
+
+    @Test
+    public void testThrottledAndServerErrorsUseShortTtl() {
+        final SilentTokenCommand throttled = createCommand("throttled");
+        final SilentTokenCommand serverError = createCommand("server.error");
+        final SilentTokenCommand badRequest = createCommand("bad.request");
+        mCache.put(throttled, errorResult(429));
+        mCache.put(serverError, errorResult(503));
+        mCache.put(badRequest, errorResult(400));
+
+        mNow.addAndGet(THROTTLED_TTL_MILLIS + 1);
+
+        Assert.assertNull(mCache.get(throttled));
+        Assert.assertNull(mCache.get(serverError));
+        Assert.assertNotNull(mCache.get(badRequest));
+    }
+
+    @Test
+    public void testOverflowEvictsEntryClosestToExpiry() {
+        final List<SilentTokenCommand> commands = Arrays.asList(
+                createCommand("a"), createCommand("b"), createCommand("c"), createCommand("d"));
+
+        mCache.put(commands.get(0), errorResult(429));
+        for (int i = 1; i < commands.size(); i++) {
+            mNow.addAndGet(1);
+            mCache.put(commands.get(i), CommandResult.of(CommandResult.ResultStatus.COMPLETED, "token" + i, null));
+        }
+
+        Assert.assertEquals(3, mCache.getSize());
+        Assert.assertEquals(1, mCache.getEvictionCount());
+        Assert.assertNull(mCache.get(commands.get(0)));
+        Assert.assertNotNull(mCache.get(commands.get(1)));
+        Assert.assertNotNull(mCache.get(commands.get(3)));
+    }
+
+    @Test
+    public void testHitRate() {
+        Assert.assertEquals(0, mCache.getHitRate(), 0);
+
+        final SilentTokenCommand command = createCommand("user.read");
+        Assert.assertNull(mCache.get(command));
+        mCache.put(command, CommandResult.of(CommandResult.ResultStatus.COMPLETED, "token", null));
+        Assert.assertNotNull(mCache.get(command));
+
+        Assert.assertEquals(0.5, mCache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testResultIsNotReturnedToUnequalCommandWithSameFingerprint() {
+        final SilentTokenCommand command = createCollidingCommand("User.Read");
+        final SilentTokenCommand collidingCommand = createCollidingCommand("user.read");
+        Assert.assertEquals(CommandFingerprint.of(command), CommandFingerprint.of(collidingCommand));
+        Assert.assertNotEquals(command, collidingCommand);
+
+        final CommandResult result = CommandResult.of(CommandResult.ResultStatus.COMPLETED, "token", null);
+        mCache.put(command, result);
+
+        Assert.assertNull(mCache.get(collidingCommand));
+        Assert.assertSame(result, mCache.get(command));
+        Assert.assertEquals(1, mCache.getHitCount());
+        Assert.assertEquals(1, mCache.getMissCount());
+    }
+
+    private static CommandResult errorResult(final int httpStatusCode) {
+        return CommandResult.of(
+                CommandResult.ResultStatus.ERROR,
+                new ServiceException("error", "message", httpStatusCode, null),
+                null
+        );
+    }
+
+    private static SilentTokenCommand createCommand(final String scope) {
+        final SilentTokenCommandParameters parameters = SilentTokenCommandParameters.builder()
+                .platformComponents(MockPlatformComponentsFactory.getNonFunctionalBuilder().build())
+                .clientId("client-id")
+                .scopes(Collections.singleton(scope))
+                .build();
+        return new SilentTokenCommand(
+                parameters,
+                new IControllerFactory() {
+                    @Override
+                    public BaseController getDefaultController() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public List<BaseController> getAllControllers() {
+                        throw new UnsupportedOperationException();
+                    }
+                },
+                new EmptyCommandCallback<>(),
+                "public-api-id"
+        );
+    }
+
+    /**
+     * Commands whose scopes differ only by case, so that they are not equal but share a fingerprint.
+     */
+    private static SilentTokenCommand createCollidingCommand(final String scope) {
+        final SilentTokenCommand command = createCommand(scope);
+        return new SilentTokenCommand(
+                (SilentTokenCommandParameters) command.getParameters(),
+                command.getControllerFactory(),
+                new EmptyCommandCallback<>(),
+                "public-api-id"
+        ) {
+            @Override
+            public int hashCode() {
+                return 42;
+            }
+        };
+    }
+}
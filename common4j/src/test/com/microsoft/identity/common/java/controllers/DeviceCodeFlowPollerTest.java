@@ -0,0 +1,305 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.microsoft.identity.common.java.exception.ErrorStrings;
+import com.microsoft.identity.common.java.providers.oauth2.TokenErrorResponse;
+import com.microsoft.identity.common.java.providers.oauth2.TokenResponse;
+import com.microsoft.identity.common.java.providers.oauth2.TokenResult;
+import com.microsoft.identity.common.java.util.ResultFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(JUnit4.class)
+public class DeviceCodeFlowPollerTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final String REQUEST_THREAD_PREFIX = "dcf-request-";
+    private static final long SLOW_DOWN_INCREMENT_MILLIS = 50;
+
+    private ScheduledExecutorService mScheduler;
+    private ExecutorService mRequestExecutor;
+    private DeviceCodeFlowPoller mPoller;
+
+    @Before
+    public void setUp() {
+        mScheduler = Executors.newScheduledThreadPool(1);
+        final AtomicInteger threadCount = new AtomicInteger();
+        mRequestExecutor = Executors.newFixedThreadPool(POOL_SIZE, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(runnable, REQUEST_THREAD_PREFIX + threadCount.incrementAndGet());
+            }
+        });
+        mPoller = new DeviceCodeFlowPoller(mScheduler, mRequestExecutor, SLOW_DOWN_INCREMENT_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+        mRequestExecutor.shutdownNow();
+    }
+
+    private static TokenResult errorResult(final String error) {
+        final TokenErrorResponse errorResponse = new TokenErrorResponse();
+        errorResponse.setError(error);
+        return new TokenResult(errorResponse);
+    }
+
+    /**
+     * Stands in for the token endpoint: answers with the given results in order, then keeps
+     * answering with the last one.
+     */
+    private static class FakeTokenEndpoint implements DeviceCodeFlowPoller.ITokenRequester {
+        private final TokenResult[] mResults;
+        final AtomicInteger mRequestCount = new AtomicInteger();
+        final List<Long> mRequestTimes = Collections.synchronizedList(new ArrayList<Long>());
+        final Set<String> mThreadNames;
+
+        FakeTokenEndpoint(final Set<String> threadNames, final TokenResult... results) {
+            mThreadNames = threadNames;
+            mResults = results;
+        }
+
+        FakeTokenEndpoint(final TokenResult... results) {
+            this(Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>()), results);
+        }
+
+        @Override
+        public TokenResult requestToken() {
+            mRequestTimes.add(System.nanoTime());
+            mThreadNames.add(Thread.currentThread().getName());
+            final int request = mRequestCount.getAndIncrement();
+            return mResults[Math.min(request, mResults.length - 1)];
+        }
+    }
+
+    @Test
+    public void testPollsUntilAuthorized() throws Exception {
+        final TokenResult success = new TokenResult(new TokenResponse());
+        final TokenResult pending = errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE);
+        final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(pending, pending, pending, success);
+
+        final TokenResult result = mPoller.poll(endpoint, 5).get(10, TimeUnit.SECONDS);
+
+        assertEquals(success, result);
+        assertEquals(4, endpoint.mRequestCount.get());
+    }
+
+    @Test
+    public void testOtherErrorEndsSession() throws Exception {
+        final TokenResult expired = errorResult(ErrorStrings.DEVICE_CODE_FLOW_EXPIRED_TOKEN_ERROR_CODE);
+        final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(
+                errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE), expired);
+
+        final TokenResult result = mPoller.poll(endpoint, 5).get(10, TimeUnit.SECONDS);
+
+        assertEquals(expired, result);
+        Thread.sleep(50);
+        assertEquals(2, endpoint.mRequestCount.get());
+    }
+
+    @Test
+    public void testSlowDownLengthensInterval() throws Exception {
+        final TokenResult pending = errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE);
+        final TokenResult slowDown = errorResult(ErrorStrings.DEVICE_CODE_FLOW_SLOW_DOWN_ERROR_CODE);
+        final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(
+                pending, slowDown, pending, new TokenResult(new TokenResponse()));
+
+        mPoller.poll(endpoint, 10).get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, endpoint.mRequestCount.get());
+        // Every request after the slow_down waits the original interval plus the increment.
+        for (int i = 2; i < 4; i++) {
+            final long gapMillis = TimeUnit.NANOSECONDS.toMillis(
+                    endpoint.mRequestTimes.get(i) - endpoint.mRequestTimes.get(i - 1));
+            assertTrue("Gap was " + gapMillis + " ms", gapMillis >= 10 + SLOW_DOWN_INCREMENT_MILLIS);
+        }
+    }
+
+    @Test
+    public void testRequestFailureEndsSession() throws Exception {
+        final IOException failure = new IOException("network down");
+        final ResultFuture<TokenResult> future = mPoller.poll(new DeviceCodeFlowPoller.ITokenRequester() {
+            @Override
+            public TokenResult requestToken() throws Exception {
+                throw failure;
+            }
+        }, 5);
+
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Expected the request failure");
+        } catch (final ExecutionException e) {
+            assertEquals(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void testSlowRequestDoesNotDelayOtherSessions() throws Exception {
+        final CountDownLatch slowRequestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseSlowRequest = new CountDownLatch(1);
+        final TokenResult success = new TokenResult(new TokenResponse());
+        final ResultFuture<TokenResult> slowFuture = mPoller.poll(new DeviceCodeFlowPoller.ITokenRequester() {
+            @Override
+            public TokenResult requestToken() throws Exception {
+                slowRequestStarted.countDown();
+                releaseSlowRequest.await();
+                return success;
+            }
+        }, 5);
+        assertTrue(slowRequestStarted.await(10, TimeUnit.SECONDS));
+
+        // The scheduler is free while the slow request holds a request thread.
+        final TokenResult pending = errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE);
+        final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(pending, pending, success);
+        assertEquals(success, mPoller.poll(endpoint, 5).get(10, TimeUnit.SECONDS));
+        assertFalse(slowFuture.isDone());
+
+        releaseSlowRequest.countDown();
+        assertEquals(success, slowFuture.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBlockingCallersDoNotNeedARequestThread() throws Exception {
+        final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final TokenResult pending = errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE);
+        final TokenResult success = new TokenResult(new TokenResponse());
+
+        // Every request thread waits for a session, as blocking Device Code Flow commands would.
+        final List<Future<TokenResult>> callers = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(threadNames, pending, pending, success);
+            callers.add(mRequestExecutor.submit(new Callable<TokenResult>() {
+                @Override
+                public TokenResult call() throws Exception {
+                    return DeviceCodeFlowPoller.getForBlockingCallers().poll(endpoint, 5).get(10, TimeUnit.SECONDS);
+                }
+            }));
+        }
+
+        for (final Future<TokenResult> caller : callers) {
+            assertEquals(success, caller.get(10, TimeUnit.SECONDS));
+        }
+        for (final String threadName : threadNames) {
+            assertFalse(threadName, threadName.startsWith(REQUEST_THREAD_PREFIX));
+        }
+    }
+
+    @Test
+    public void testCancelStopsPolling() throws Exception {
+        final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(
+                errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE));
+        final ResultFuture<TokenResult> future = mPoller.poll(endpoint, 5);
+
+        while (endpoint.mRequestCount.get() < 3) {
+            Thread.sleep(5);
+        }
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+
+        // A request already in flight when cancelling may still finish, but none follow it.
+        Thread.sleep(20);
+        final int requestCount = endpoint.mRequestCount.get();
+        Thread.sleep(100);
+        assertEquals(requestCount, endpoint.mRequestCount.get());
+
+        try {
+            future.get();
+            fail("Expected the session to be cancelled");
+        } catch (final CancellationException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testHundredConcurrentSessionsShareThePool() throws Exception {
+        final int sessionCount = 100;
+        final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final TokenResult pending = errorResult(ErrorStrings.DEVICE_CODE_FLOW_AUTHORIZATION_PENDING_ERROR_CODE);
+        final TokenResult slowDown = errorResult(ErrorStrings.DEVICE_CODE_FLOW_SLOW_DOWN_ERROR_CODE);
+
+        final List<FakeTokenEndpoint> endpoints = new ArrayList<>();
+        final List<TokenResult> expectedResults = new ArrayList<>();
+        final List<ResultFuture<TokenResult>> futures = new ArrayList<>();
+        int expectedRequestCount = 0;
+        for (int i = 0; i < sessionCount; i++) {
+            // Each session is pending for a few polls, and every tenth is asked to slow down once.
+            final List<TokenResult> results = new ArrayList<>();
+            for (int j = 0; j < i % 5; j++) {
+                results.add(pending);
+            }
+            if (i % 10 == 0) {
+                results.add(slowDown);
+            }
+            final TokenResult success = new TokenResult(new TokenResponse());
+            results.add(success);
+
+            final FakeTokenEndpoint endpoint = new FakeTokenEndpoint(threadNames, results.toArray(new TokenResult[0]));
+            endpoints.add(endpoint);
+            expectedResults.add(success);
+            expectedRequestCount += results.size();
+            futures.add(mPoller.poll(endpoint, 5));
+        }
+
+        int requestCount = 0;
+        for (int i = 0; i < sessionCount; i++) {
+            assertEquals(expectedResults.get(i), futures.get(i).get(10, TimeUnit.SECONDS));
+            requestCount += endpoints.get(i).mRequestCount.get();
+        }
+
+        assertEquals(expectedRequestCount, requestCount);
+        assertTrue("Polled on " + threadNames, threadNames.size() <= POOL_SIZE);
+        assertFalse(threadNames.isEmpty());
+        for (final String threadName : threadNames) {
+            assertTrue("Polled on " + threadName, threadName.startsWith(REQUEST_THREAD_PREFIX));
+        }
+    }
+}
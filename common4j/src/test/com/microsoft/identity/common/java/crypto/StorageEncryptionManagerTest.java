@@ -33,6 +33,16 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import lombok.NonNull;
 
 import static com.microsoft.identity.common.java.AuthenticationConstants.ENCODING_UTF8;
 import static com.microsoft.identity.common.java.crypto.MockData.PREDEFINED_KEY;
@@ -207,4 +217,97 @@ public class StorageEncryptionManagerTest {
             Assert.assertEquals(DATA_MALFORMED, e.getErrorCode());
         }
     }
+
+    @Test
+    public void testRepeatedEncryptDecryptReusesCryptoContext() throws ClientException {
+        final StorageEncryptionManager manager = new MockStorageEncryptionManager(PREDEFINED_KEY_IV, new MockAES256KeyLoader(PREDEFINED_KEY, PREDEFINED_KEY_IDENTIFIER));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertArrayEquals(TEXT_ENCRYPTED_BY_PREDEFINED_KEY, manager.encrypt(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY));
+            Assert.assertArrayEquals(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY, manager.decrypt(TEXT_ENCRYPTED_BY_PREDEFINED_KEY));
+        }
+    }
+
+    @Test
+    public void testDecryptAfterHmacMismatchStillSucceeds() throws ClientException {
+        final StorageEncryptionManager manager = new MockStorageEncryptionManager(PREDEFINED_KEY_IV, new MockAES256KeyLoader(PREDEFINED_KEY, PREDEFINED_KEY_IDENTIFIER));
+        try {
+            manager.decrypt(Arrays.copyOf(TEXT_ENCRYPTED_BY_PREDEFINED_KEY, TEXT_ENCRYPTED_BY_PREDEFINED_KEY.length / 2));
+            Assert.fail("decrypt() should throw an exception but it succeeds.");
+        } catch (final ClientException e) {
+            Assert.assertEquals(HMAC_MISMATCH, e.getErrorCode());
+        }
+
+        Assert.assertArrayEquals(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY, manager.decrypt(TEXT_ENCRYPTED_BY_PREDEFINED_KEY));
+    }
+
+    @Test
+    public void testKeyRotationInvalidatesCryptoContext() throws ClientException {
+        final RotatingKeyLoader keyLoader = new RotatingKeyLoader();
+        final StorageEncryptionManager manager = new MockStorageEncryptionManager(PREDEFINED_KEY_IV, keyLoader);
+
+        final byte[] encryptedWithFirstKey = manager.encrypt(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY);
+        Assert.assertArrayEquals(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY, manager.decrypt(encryptedWithFirstKey));
+
+        keyLoader.rotate();
+        final byte[] encryptedWithSecondKey = manager.encrypt(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY);
+        Assert.assertFalse(Arrays.equals(encryptedWithFirstKey, encryptedWithSecondKey));
+        Assert.assertArrayEquals(TEXT_TO_BE_ENCRYPTED_WITH_PREDEFINED_KEY, manager.decrypt(encryptedWithSecondKey));
+
+        try {
+            manager.decrypt(encryptedWithFirstKey);
+            Assert.fail("decrypt() with a rotated key should fail.");
+        } catch (final ClientException e) {
+            Assert.assertEquals(HMAC_MISMATCH, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testConcurrentEncryptDecrypt() throws Exception {
+        final StorageEncryptionManager manager = new MockStorageEncryptionManager(PREDEFINED_KEY_IV, new MockAES256KeyLoader());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final byte[] plainText = ("value-" + i).getBytes(ENCODING_UTF8);
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return Arrays.equals(plainText, manager.decrypt(manager.encrypt(plainText)));
+                    }
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class RotatingKeyLoader extends AES256KeyLoader {
+        private SecretKey mKey;
+
+        RotatingKeyLoader() throws ClientException {
+            mKey = generateRandomKey();
+        }
+
+        void rotate() throws ClientException {
+            mKey = generateRandomKey();
+        }
+
+        @Override
+        public @NonNull String getAlias() {
+            return "ROTATING_ALIAS";
+        }
+
+        @Override
+        public @NonNull SecretKey getKey() {
+            return mKey;
+        }
+
+        @Override
+        public @NonNull String getKeyTypeIdentifier() {
+            return PREDEFINED_KEY_IDENTIFIER;
+        }
+    }
 }
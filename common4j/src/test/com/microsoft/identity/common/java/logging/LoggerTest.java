@@ -25,13 +25,18 @@ package com.microsoft.identity.common.java.logging;
 
 import com.microsoft.identity.common.java.nativeauth.controllers.results.ResetPasswordCommandResult;
 import com.microsoft.identity.common.java.nativeauth.controllers.results.ResetPasswordStartCommandResult;
+import com.microsoft.identity.common.java.util.ported.Supplier;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.SneakyThrows;
 
@@ -448,6 +453,115 @@ public class LoggerTest {
         Assert.assertNotEquals(threadId_2[0], threadId_1);
     }
 
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void logWithVerboseSupplier() throws InterruptedException {
+        final Logger.LogLevel logLevel = Logger.LogLevel.VERBOSE;
+
+        Logger.setLogLevel(logLevel);
+        testLogger(tag, logLevel, correlationId, message, false, new IOperationToTest() {
+            @Override
+            public void execute() {
+                Logger.verboseLazy(tag, correlationId, new Supplier<String>() {
+                    @Override
+                    public String get() {
+                        return message;
+                    }
+                });
+            }
+        }, false);
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void logWithFilteredSupplier_DoesNotBuildMessage() throws InterruptedException {
+        final AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        Logger.setLogLevel(Logger.LogLevel.WARN);
+        testLogger(tag, Logger.LogLevel.INFO, correlationId, message, false, new IOperationToTest() {
+            @Override
+            public void execute() {
+                Logger.infoLazy(tag, correlationId, new Supplier<String>() {
+                    @Override
+                    public String get() {
+                        supplierCalls.incrementAndGet();
+                        return message;
+                    }
+                });
+            }
+        }, true);
+        Assert.assertEquals(0, supplierCalls.get());
+    }
+
+    @Test
+    public void testIsLoggable() {
+        Logger.setLogLevel(Logger.LogLevel.INFO);
+        Assert.assertTrue(Logger.isLoggable(Logger.LogLevel.ERROR));
+        Assert.assertTrue(Logger.isLoggable(Logger.LogLevel.INFO));
+        Assert.assertFalse(Logger.isLoggable(Logger.LogLevel.VERBOSE));
+
+        Logger.setAllowPii(false);
+        Assert.assertFalse(Logger.isLoggable(Logger.LogLevel.INFO, true));
+        Logger.setAllowPii(true);
+        Assert.assertTrue(Logger.isLoggable(Logger.LogLevel.INFO, true));
+
+        Logger.setLogLevel(Logger.LogLevel.NO_LOG);
+        Assert.assertFalse(Logger.isLoggable(Logger.LogLevel.ERROR));
+    }
+
+    @Test(timeout = 10000)
+    public void logWithFullBuffer_DropsOldestAndCountsThem() throws InterruptedException {
+        final int overflow = 10;
+        final CountDownLatch flushed = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch drained = new CountDownLatch(1);
+        final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+
+        Logger.setLogger("TEST", new ILoggerCallback() {
+            @Override
+            public void log(String tag, Logger.LogLevel logLevel, String message, boolean containsPII) {
+                if (message.contains("flush;")) {
+                    flushed.countDown();
+                } else if (message.contains("block;")) {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else if (blocked.getCount() == 0) {
+                    delivered.add(message);
+                    if (message.contains("queued-" + (Logger.LOG_BUFFER_CAPACITY + overflow - 1) + ";")) {
+                        drained.countDown();
+                    }
+                }
+            }
+        });
+
+        // Deliver anything still pending from earlier tests, including any dropped-line report.
+        Logger.info(tag, "flush;");
+        flushed.await();
+
+        // Hold the single log thread so that every following line waits in the buffer.
+        Logger.info(tag, "block;");
+        blocked.await();
+
+        final long droppedBefore = Logger.getDroppedLogCount();
+        for (int i = 0; i < Logger.LOG_BUFFER_CAPACITY + overflow; i++) {
+            Logger.info(tag, "queued-" + i + ";");
+        }
+        Assert.assertEquals(overflow, Logger.getDroppedLogCount() - droppedBefore);
+
+        release.countDown();
+        drained.await();
+
+        // The first delivered line reports the drops, followed by the newest LOG_BUFFER_CAPACITY lines in order.
+        Assert.assertEquals(Logger.LOG_BUFFER_CAPACITY + 1, delivered.size());
+        Assert.assertTrue(delivered.get(0).contains("Dropped " + overflow + " log lines"));
+        for (int i = 0; i < Logger.LOG_BUFFER_CAPACITY; i++) {
+            Assert.assertTrue(delivered.get(i + 1).contains("queued-" + (i + overflow) + ";"));
+        }
+    }
+
     private interface IOperationToTest {
         void execute();
     }
@@ -0,0 +1,182 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.ported.Function;
+import com.microsoft.identity.http.MockConnection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the asynchronous retry path of {@link StatusCodeAndExceptionRetry} and
+ * {@link AbstractHttpClient#sendAsync(HttpRequest, ScheduledExecutorService)}.
+ */
+@RunWith(JUnit4.class)
+public class AsyncRetryPolicyTest {
+
+    private ScheduledExecutorService mScheduler;
+
+    @Before
+    public void setUp() {
+        mScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+        HttpUrlConnectionFactory.clearMockedConnectionQueue();
+    }
+
+    private static StatusCodeAndExceptionRetry retryOn5xx(final int retries, final int initialDelay) {
+        return StatusCodeAndExceptionRetry.builder()
+                .number(retries)
+                .initialDelay(initialDelay)
+                .extensionFactor(2)
+                .isAcceptable(new Function<HttpResponse, Boolean>() {
+                    @Override
+                    public Boolean apply(HttpResponse response) {
+                        return response.getStatusCode() < 400;
+                    }
+                })
+                .isRetryable(new Function<HttpResponse, Boolean>() {
+                    @Override
+                    public Boolean apply(HttpResponse response) {
+                        return UrlConnectionHttpClient.isRetryableError(response.getStatusCode());
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void testRetriesUntilAcceptable() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final ResultFuture<HttpResponse> future = retryOn5xx(2, 10).attemptAsync(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+                final int code = calls.incrementAndGet() < 3 ? HttpURLConnection.HTTP_UNAVAILABLE : HttpURLConnection.HTTP_OK;
+                return new HttpResponse(code, "", null);
+            }
+        }, mScheduler);
+
+        assertEquals(HttpURLConnection.HTTP_OK, future.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testReturnsLastResponseWhenRetriesExhausted() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final ResultFuture<HttpResponse> future = retryOn5xx(1, 10).attemptAsync(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+                calls.incrementAndGet();
+                return new HttpResponse(HttpURLConnection.HTTP_INTERNAL_ERROR, "", null);
+            }
+        }, mScheduler);
+
+        assertEquals(HttpURLConnection.HTTP_INTERNAL_ERROR, future.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testNonRetryableExceptionCompletesExceptionally() throws Exception {
+        final ResultFuture<HttpResponse> future = retryOn5xx(3, 10).attemptAsync(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() throws IOException {
+                throw new IOException("boom");
+            }
+        }, mScheduler);
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the future to complete exceptionally.");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testBackoffDoesNotHoldSchedulerThread() throws Exception {
+        final ResultFuture<HttpResponse> future = retryOn5xx(1, 1000).attemptAsync(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+                return new HttpResponse(HttpURLConnection.HTTP_UNAVAILABLE, "", null);
+            }
+        }, mScheduler);
+
+        // The only scheduler thread must be free to run other work while the retry is pending.
+        final CountDownLatch otherWorkRan = new CountDownLatch(1);
+        mScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                otherWorkRan.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(otherWorkRan.await(500, TimeUnit.MILLISECONDS));
+        assertFalse(future.isDone());
+        assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, future.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    public void testUrlConnectionHttpClientSendAsyncRetries() throws Exception {
+        HttpUrlConnectionFactory.addMockedConnection(
+                MockConnection.getMockedConnectionWithFailureResponse(HttpURLConnection.HTTP_UNAVAILABLE));
+        HttpUrlConnectionFactory.addMockedConnection(MockConnection.getMockedConnectionWithSuccessResponse());
+
+        final UrlConnectionHttpClient client = UrlConnectionHttpClient.builder()
+                .retryPolicy(retryOn5xx(1, 10))
+                .build();
+        final HttpRequest request = new HttpRequest(
+                new URL("https://login.microsoftonline.com/common/discovery/instance"),
+                Collections.<String, String>emptyMap(),
+                HttpClient.HttpMethod.GET.name(),
+                null,
+                null
+        );
+
+        MockConnection.verifySuccessHttpResponse(client.sendAsync(request, mScheduler).get(5, TimeUnit.SECONDS));
+        assertEquals(0, HttpUrlConnectionFactory.getMockedConnectionCountInQueue());
+    }
+}
@@ -0,0 +1,237 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.http.MockConnection;
+import com.microsoft.identity.http.ResponseBody;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+/**
+ * Tests for {@link KeepAliveUrlConnectionHttpClient}.
+ */
+@RunWith(JUnit4.class)
+public class KeepAliveUrlConnectionHttpClientTest {
+
+    private static final String TEST_URL = "https://login.microsoftonline.com/common/oauth2/v2.0/token";
+
+    @After
+    public void tearDown() {
+        HttpUrlConnectionFactory.clearMockedConnectionQueue();
+    }
+
+    @Test
+    public void testGetSucceeds_ReadsBodyAsBytesWithoutCaches() throws Exception {
+        final HttpsURLConnection connection = MockConnection.getMockedConnectionWithSuccessResponse();
+        HttpUrlConnectionFactory.addMockedConnection(connection);
+
+        final KeepAliveUrlConnectionHttpClient client = KeepAliveUrlConnectionHttpClient.builder()
+                .streamBufferSize(4)
+                .build();
+        final HttpResponse response = client.get(new URL(TEST_URL), Collections.<String, String>emptyMap());
+
+        MockConnection.verifySuccessHttpResponse(response);
+        assertArrayEquals(ResponseBody.SUCCESS.getBytes(StandardCharsets.UTF_8), response.getBodyBytes());
+        Mockito.verify(connection).setUseCaches(false);
+        Mockito.verify(connection).setRequestProperty(
+                HttpConstants.HeaderField.CONNECTION, HttpConstants.HeaderValue.KEEP_ALIVE);
+        Mockito.verify(connection, Mockito.never()).disconnect();
+        assertEquals(0, client.getActiveRequestCount(new URL(TEST_URL)));
+    }
+
+    @Test
+    public void testErrorResponse_ReadsErrorStream() throws Exception {
+        final HttpsURLConnection connection =
+                MockConnection.getMockedConnectionWithFailureResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+        Mockito.when(connection.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        HttpUrlConnectionFactory.addMockedConnection(connection);
+
+        final KeepAliveUrlConnectionHttpClient client = KeepAliveUrlConnectionHttpClient.builder().build();
+        final HttpResponse response = client.post(
+                new URL(TEST_URL), Collections.<String, String>emptyMap(), "grant_type=x".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, response.getStatusCode());
+        assertEquals(ResponseBody.GENERIC_ERROR, response.getBody());
+        assertEquals(0, client.getActiveRequestCount(new URL(TEST_URL)));
+    }
+
+    @Test
+    public void testRequestOverHostLimit_WaitsForRunningRequest() throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        final HttpsURLConnection blockingConnection = MockConnection.getCommonHttpUrlConnection();
+        Mockito.when(blockingConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        Mockito.when(blockingConnection.getInputStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(final InvocationOnMock invocation) throws Throwable {
+                requestStarted.countDown();
+                releaseRequest.await();
+                return new ByteArrayInputStream(ResponseBody.SUCCESS.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        HttpUrlConnectionFactory.addMockedConnection(blockingConnection);
+        HttpUrlConnectionFactory.addMockedConnection(MockConnection.getMockedConnectionWithSuccessResponse());
+
+        final KeepAliveUrlConnectionHttpClient client = KeepAliveUrlConnectionHttpClient.builder()
+                .maxConcurrentRequestsPerHost(1)
+                .connectTimeoutMs(100)
+                .readTimeoutMs(100)
+                .build();
+        final URL url = new URL(TEST_URL);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<HttpResponse> first = executor.submit(new Callable<HttpResponse>() {
+                @Override
+                public HttpResponse call() throws Exception {
+                    return client.get(url, Collections.<String, String>emptyMap());
+                }
+            });
+            assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+            assertEquals(1, client.getActiveRequestCount(url));
+
+            // Same authority, so the second request waits for the first rather than failing,
+            // even past the connect timeout.
+            final Future<HttpResponse> second = executor.submit(new Callable<HttpResponse>() {
+                @Override
+                public HttpResponse call() throws Exception {
+                    return client.get(new URL("https://LOGIN.microsoftonline.com:443/other"),
+                            Collections.<String, String>emptyMap());
+                }
+            });
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+
+            releaseRequest.countDown();
+            MockConnection.verifySuccessHttpResponse(first.get(5, TimeUnit.SECONDS));
+            MockConnection.verifySuccessHttpResponse(second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, client.getActiveRequestCount(url));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncRequestOverHostLimit_DoesNotHoldSchedulerThread() throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        final HttpsURLConnection blockingConnection = MockConnection.getCommonHttpUrlConnection();
+        Mockito.when(blockingConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        Mockito.when(blockingConnection.getInputStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(final InvocationOnMock invocation) throws Throwable {
+                requestStarted.countDown();
+                releaseRequest.await();
+                return new ByteArrayInputStream(ResponseBody.SUCCESS.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        HttpUrlConnectionFactory.addMockedConnection(blockingConnection);
+        HttpUrlConnectionFactory.addMockedConnection(MockConnection.getMockedConnectionWithSuccessResponse());
+
+        final KeepAliveUrlConnectionHttpClient client = KeepAliveUrlConnectionHttpClient.builder()
+                .maxConcurrentRequestsPerHost(1)
+                .build();
+        final URL url = new URL(TEST_URL);
+        final HttpRequest request = new HttpRequest(url, Collections.<String, String>emptyMap(),
+                HttpClient.HttpMethod.GET.name(), null, null);
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        try {
+            final ResultFuture<HttpResponse> first = client.sendAsync(request, scheduler);
+            assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+
+            // The second request is queued for the host, leaving the other scheduler thread free.
+            final ResultFuture<HttpResponse> second = client.sendAsync(request, scheduler);
+            final Future<Boolean> otherWork = scheduler.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return true;
+                }
+            });
+            assertTrue(otherWork.get(5, TimeUnit.SECONDS));
+            assertFalse(second.isDone());
+            assertEquals(1, client.getActiveRequestCount(url));
+
+            releaseRequest.countDown();
+            MockConnection.verifySuccessHttpResponse(first.get(5, TimeUnit.SECONDS));
+            MockConnection.verifySuccessHttpResponse(second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, client.getActiveRequestCount(url));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testByteBackedResponse_DoesNotShareBody() {
+        final byte[] body = "{\"k\":\"v\"}".getBytes(StandardCharsets.UTF_8);
+        final HttpResponse response = new HttpResponse(new Date(), 200, body, null);
+
+        body[0] = 'x';
+        response.getBodyBytes()[1] = 'x';
+
+        assertEquals("{\"k\":\"v\"}", response.getBody());
+        assertArrayEquals("{\"k\":\"v\"}".getBytes(StandardCharsets.UTF_8), response.getBodyBytes());
+    }
+
+    @Test
+    public void testByteBackedResponse_DecodesBodyLazily() {
+        final byte[] body = "{\"k\":\"\u00e9\"}".getBytes(StandardCharsets.UTF_8);
+        final HttpResponse response = new HttpResponse(new Date(), 200, body, null);
+
+        assertEquals("{\"k\":\"\u00e9\"}", response.getBody());
+        assertArrayEquals(body, response.getBodyBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBufferSize_Throws() {
+        KeepAliveUrlConnectionHttpClient.builder().streamBufferSize(0).build();
+    }
+}
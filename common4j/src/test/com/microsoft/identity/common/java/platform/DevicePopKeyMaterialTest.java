@@ -0,0 +1,190 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.platform;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.microsoft.identity.common.java.crypto.IKeyStoreKeyManager;
+import com.microsoft.identity.common.java.crypto.SecureHardwareState;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+
+/**
+ * Tests for {@link DevicePopKeyMaterial}.
+ */
+@RunWith(JUnit4.class)
+public class DevicePopKeyMaterialTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static KeyPair sKeyPair;
+    private static KeyStore.PrivateKeyEntry sEntry;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        sKeyPair = generator.generateKeyPair();
+
+        final Certificate certificate = mock(Certificate.class);
+        when(certificate.getPublicKey()).thenReturn(sKeyPair.getPublic());
+        sEntry = new KeyStore.PrivateKeyEntry(sKeyPair.getPrivate(), new Certificate[]{certificate});
+    }
+
+    @Test
+    public void testThumbprintMatchesKeyManager() throws Exception {
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(sEntry);
+
+        Assert.assertEquals(AbstractKeyStoreKeyManager.getRsaThumbprint(sEntry), key.getThumbprint());
+    }
+
+    @Test
+    public void testRequestConfirmationContainsThumbprint() throws Exception {
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(sEntry);
+
+        final String reqCnf = new Base64URL(key.getRequestConfirmation()).decodeToString();
+
+        Assert.assertEquals("{\"kid\":\"" + key.getThumbprint() + "\"}", reqCnf);
+    }
+
+    @Test
+    public void testPublicJwkJsonIsPublicKey() throws Exception {
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(sEntry);
+
+        final RSAKey jwk = RSAKey.parse(key.getPublicJwkJson());
+
+        Assert.assertFalse(jwk.isPrivate());
+        Assert.assertEquals(sKeyPair.getPublic(), jwk.toRSAPublicKey());
+    }
+
+    @Test
+    public void testShrHeaderAndSigner() throws Exception {
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(sEntry);
+
+        Assert.assertEquals(JWSAlgorithm.RS256, key.getShrHeader().getAlgorithm());
+        Assert.assertEquals(key.getThumbprint(), key.getShrHeader().getKeyID());
+        Assert.assertEquals(key.getShrHeader().toBase64URL().toString(), key.getEncodedShrHeader());
+
+        final byte[] signingInput = "header.payload".getBytes(UTF8);
+        final Base64URL signature = key.getSigner().sign(key.getShrHeader(), signingInput);
+        Assert.assertTrue(new RSASSAVerifier((RSAPublicKey) sKeyPair.getPublic())
+                .verify(key.getShrHeader(), signingInput, signature));
+    }
+
+    @Test
+    public void testDerivedArtifactsAreComputedOnce() throws Exception {
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(sEntry);
+
+        Assert.assertSame(key.getShrHeader(), key.getShrHeader());
+        Assert.assertSame(key.getSigner(), key.getSigner());
+        Assert.assertSame(key.getPublicJwkJson(), key.getPublicJwkJson());
+    }
+
+    @Test
+    public void testMintedShrVerifiesAndEscapesClaims() throws Exception {
+        @SuppressWarnings("unchecked")
+        final IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> keyManager = mock(IKeyStoreKeyManager.class);
+        when(keyManager.getKeyAlias()).thenReturn("shr-test");
+        when(keyManager.getEntry()).thenReturn(sEntry);
+        final AbstractDevicePopManager popManager = new TestDevicePopManager(keyManager);
+
+        final String accessToken = "at \"quoted\" \\ back\\slash";
+        final String nonce = "nonce-\u00e9\u4e2d\n\"";
+        final String clientClaims = "{\"path\":\"C:\\\\dir\",\"name\":\"\u00fcber\"}";
+        final String shr = popManager.mintSignedAccessToken(
+                "POST",
+                1700000000L,
+                new URL("https://graph.microsoft.com:8443/v1.0/me"),
+                accessToken,
+                nonce,
+                clientClaims
+        );
+
+        final SignedJWT jwt = SignedJWT.parse(shr);
+        final DevicePopKeyMaterial key = new DevicePopKeyMaterial(sEntry);
+        final RSAPublicKey cachedPublicKey = RSAKey.parse(key.getPublicJwkJson()).toRSAPublicKey();
+        Assert.assertTrue(jwt.verify(new RSASSAVerifier(cachedPublicKey)));
+        Assert.assertEquals(key.getThumbprint(), jwt.getHeader().getKeyID());
+
+        final JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        Assert.assertEquals(accessToken, claims.getStringClaim("at"));
+        Assert.assertEquals(Long.valueOf(1700000000L), claims.getLongClaim("ts"));
+        Assert.assertEquals("graph.microsoft.com:8443", claims.getStringClaim("u"));
+        Assert.assertEquals("/v1.0/me", claims.getStringClaim("p"));
+        Assert.assertEquals("POST", claims.getStringClaim("m"));
+        Assert.assertEquals(nonce, claims.getStringClaim("nonce"));
+        Assert.assertEquals(clientClaims, claims.getStringClaim("client_claims"));
+
+        final Map<String, Object> cnf = claims.getJSONObjectClaim("cnf");
+        @SuppressWarnings("unchecked")
+        final RSAKey jwk = RSAKey.parse((Map<String, Object>) cnf.get("jwk"));
+        Assert.assertFalse(jwk.isPrivate());
+        Assert.assertEquals(cachedPublicKey, jwk.toRSAPublicKey());
+    }
+
+    private static final class TestDevicePopManager extends AbstractDevicePopManager {
+
+        TestDevicePopManager(final IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> keyManager)
+                throws KeyStoreException, CertificateException, NoSuchAlgorithmException, IOException {
+            super(keyManager);
+        }
+
+        @Override
+        public KeyPair generateNewRsaKeyPair(final int keySize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SecureHardwareState getSecureHardwareState(final KeyPair kp) {
+            return SecureHardwareState.FALSE;
+        }
+
+        @Override
+        protected void performCleanupIfMintShrFails(final Exception e) {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.platform;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.microsoft.identity.common.java.crypto.IKeyStoreKeyManager;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.security.KeyStore;
+
+/**
+ * Tests for {@link KeyEntryCache}.
+ */
+@RunWith(JUnit4.class)
+public class KeyEntryCacheTest {
+
+    private IKeyStoreKeyManager<KeyStore.PrivateKeyEntry> mKeyManager;
+    private KeyStore.PrivateKeyEntry mEntry;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        mKeyManager = mock(IKeyStoreKeyManager.class);
+        mEntry = mock(KeyStore.PrivateKeyEntry.class);
+    }
+
+    @Test
+    public void testEntryIsLoadedOnce() throws Exception {
+        when(mKeyManager.getEntry()).thenReturn(mEntry);
+        final KeyEntryCache cache = KeyEntryCache.forScope(null, "alias");
+
+        final DevicePopKeyMaterial key = cache.get(mKeyManager);
+        Assert.assertSame(mEntry, key.getEntry());
+        Assert.assertSame(key, cache.get(mKeyManager));
+        verify(mKeyManager, times(1)).getEntry();
+    }
+
+    @Test
+    public void testMissingKeyIsNotCached() throws Exception {
+        when(mKeyManager.getEntry()).thenReturn(null, mEntry);
+        final KeyEntryCache cache = KeyEntryCache.forScope(null, "alias");
+
+        Assert.assertNull(cache.get(mKeyManager));
+        Assert.assertSame(mEntry, cache.get(mKeyManager).getEntry());
+    }
+
+    @Test
+    public void testInvalidateReloadsEntry() throws Exception {
+        final KeyStore.PrivateKeyEntry newEntry = mock(KeyStore.PrivateKeyEntry.class);
+        when(mKeyManager.getEntry()).thenReturn(mEntry, newEntry);
+        final KeyEntryCache cache = KeyEntryCache.forScope(null, "alias");
+        cache.get(mKeyManager);
+
+        cache.invalidate();
+
+        Assert.assertSame(newEntry, cache.get(mKeyManager).getEntry());
+    }
+
+    @Test
+    public void testScopedCachesAreShared() {
+        Assert.assertSame(
+                KeyEntryCache.forScope("KeyEntryCacheTest", "alias"),
+                KeyEntryCache.forScope("KeyEntryCacheTest", "alias")
+        );
+        Assert.assertNotSame(
+                KeyEntryCache.forScope("KeyEntryCacheTest", "alias"),
+                KeyEntryCache.forScope("KeyEntryCacheTest", "other-alias")
+        );
+        Assert.assertNotSame(
+                KeyEntryCache.forScope(null, "alias"),
+                KeyEntryCache.forScope(null, "alias")
+        );
+    }
+}
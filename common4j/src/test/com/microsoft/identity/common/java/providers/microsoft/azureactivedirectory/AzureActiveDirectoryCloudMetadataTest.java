@@ -0,0 +1,112 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.providers.microsoft.azureactivedirectory;
+
+import com.microsoft.identity.common.java.authorities.Environment;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for the cloud metadata snapshot published by {@link AzureActiveDirectory}.
+ */
+@RunWith(JUnit4.class)
+public class AzureActiveDirectoryCloudMetadataTest {
+
+    private static final String AUTHORITY_HOST = "login.contoso-cloud.test";
+    private static final String ALIAS_HOST = "login.contoso-alias.test";
+
+    @After
+    public void tearDown() {
+        AzureActiveDirectory.setEnvironment(Environment.Production);
+    }
+
+    @Test
+    public void testInitializeCloudMetadataPublishesAllAliases() throws Exception {
+        AzureActiveDirectory.initializeCloudMetadata(AUTHORITY_HOST, discoveryResponse());
+
+        Assert.assertTrue(AzureActiveDirectory.isInitialized());
+        Assert.assertTrue(AzureActiveDirectory.hasCloudHost(new URL("https://" + ALIAS_HOST + "/common")));
+        Assert.assertTrue(AzureActiveDirectory.isValidCloudHost(new URL("https://LOGIN.Contoso-Cloud.test/common")));
+        Assert.assertSame(
+                AzureActiveDirectory.getAzureActiveDirectoryCloudFromHostName(AUTHORITY_HOST),
+                AzureActiveDirectory.getAzureActiveDirectoryCloudFromHostName(ALIAS_HOST)
+        );
+    }
+
+    @Test
+    public void testHostsAreAStableView() throws Exception {
+        AzureActiveDirectory.initializeCloudMetadata(AUTHORITY_HOST, discoveryResponse());
+        final Set<String> hosts = AzureActiveDirectory.getHosts();
+
+        AzureActiveDirectory.putCloud("login.added-later.test", new AzureActiveDirectoryCloud(false));
+
+        Assert.assertFalse(hosts.contains("login.added-later.test"));
+        Assert.assertTrue(AzureActiveDirectory.getHosts().contains("login.added-later.test"));
+        Assert.assertFalse(AzureActiveDirectory.isValidCloudHost(new URL("https://login.added-later.test/common")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testHostsCannotBeModified() {
+        AzureActiveDirectory.getHosts().clear();
+    }
+
+    @Test
+    public void testChangingEnvironmentRequiresNewDiscovery() throws Exception {
+        AzureActiveDirectory.initializeCloudMetadata(AUTHORITY_HOST, discoveryResponse());
+
+        AzureActiveDirectory.setEnvironment(Environment.PreProduction);
+
+        Assert.assertFalse(AzureActiveDirectory.isInitialized());
+        Assert.assertEquals(Environment.PreProduction, AzureActiveDirectory.getEnvironment());
+        Assert.assertEquals(AzureActiveDirectoryEnvironment.PREPRODUCTION_CLOUD_URL, AzureActiveDirectory.getDefaultCloudUrl());
+        // Previously discovered clouds are still served until the new discovery completes.
+        Assert.assertTrue(AzureActiveDirectory.hasCloudHost(new URL("https://" + AUTHORITY_HOST + "/common")));
+    }
+
+    @Test
+    public void testUnknownHostIsNotValid() throws Exception {
+        Assert.assertFalse(AzureActiveDirectory.isValidCloudHost(new URL("https://login.unknown.test/common")));
+        Assert.assertNull(AzureActiveDirectory.getAzureActiveDirectoryCloud(new URL("https://login.unknown.test/common")));
+    }
+
+    private static Map<String, String> discoveryResponse() {
+        final Map<String, String> response = new HashMap<>();
+        response.put("tenant_discovery_endpoint",
+                "https://" + AUTHORITY_HOST + "/common/v2.0/.well-known/openid-configuration");
+        response.put("metadata", "[{"
+                + "\"preferred_network\":\"" + AUTHORITY_HOST + "\","
+                + "\"preferred_cache\":\"" + ALIAS_HOST + "\","
+                + "\"aliases\":[\"" + AUTHORITY_HOST + "\",\"" + ALIAS_HOST + "\"]"
+                + "}]");
+        return response;
+    }
+}
@@ -23,19 +23,29 @@
 package com.microsoft.identity.common.java.providers.microsoft.microsoftsts;
 
 import com.microsoft.identity.common.components.MockPlatformComponentsFactory;
+import com.microsoft.identity.common.java.AuthenticationConstants;
 import com.microsoft.identity.common.java.authscheme.BearerAuthenticationSchemeInternal;
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.net.HttpResponse;
+import com.microsoft.identity.common.java.net.HttpUrlConnectionFactory;
 import com.microsoft.identity.common.java.providers.oauth2.OAuth2StrategyParameters;
 import com.microsoft.identity.common.java.providers.oauth2.TokenResult;
 import com.microsoft.identity.common.java.util.ObjectMapper;
+import com.microsoft.identity.http.MockConnection;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
 
+import java.io.ByteArrayOutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
 
 import lombok.NonNull;
 import lombok.SneakyThrows;
@@ -133,4 +143,46 @@ public class MicrosoftStsOAuth2StrategyTest {
         Assert.assertTrue(tokenResult.getSuccess());
         Assert.assertNotNull(tokenResult.getSuccessResponse().getAuthority());
     }
+
+    @SneakyThrows
+    @Test
+    public void testPerformTokenRequestAsync_AnswersDeviceCertificateChallenge() {
+        final IPlatformComponents mockPlatformComponents = MockPlatformComponentsFactory.getNonFunctionalBuilder().build();
+        final MicrosoftStsOAuth2Configuration mockConfig = new MicrosoftStsOAuth2Configuration();
+        mockConfig.setAuthorityUrl(new URL("https://login.microsoftonline.com/common"));
+        final OAuth2StrategyParameters parameters = OAuth2StrategyParameters.builder()
+                .platformComponents(mockPlatformComponents)
+                .usingOpenIdConfiguration(false)
+                .build();
+        final MicrosoftStsOAuth2Strategy microsoftStsOAuth2Strategy = new MicrosoftStsOAuth2Strategy(mockConfig, parameters);
+
+        final HttpsURLConnection challengeConnection =
+                MockConnection.getMockedConnectionWithFailureResponse(HttpURLConnection.HTTP_UNAUTHORIZED);
+        Mockito.when(challengeConnection.getHeaderFields()).thenReturn(
+                Collections.singletonMap(
+                        AuthenticationConstants.Broker.CHALLENGE_REQUEST_HEADER,
+                        Collections.singletonList("PKeyAuth Context=\"mock_context\", Version=\"1.0\", nonce=\"mock_nonce\"")
+                )
+        );
+        Mockito.when(challengeConnection.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        final HttpsURLConnection successConnection = MockConnection.getMockedConnectionWithSuccessResponse();
+        Mockito.when(successConnection.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        HttpUrlConnectionFactory.clearMockedConnectionQueue();
+        HttpUrlConnectionFactory.addMockedConnection(challengeConnection);
+        HttpUrlConnectionFactory.addMockedConnection(successConnection);
+
+        try {
+            final HttpResponse response = microsoftStsOAuth2Strategy
+                    .performTokenRequestAsync(new MicrosoftStsTokenRequest())
+                    .get(5, TimeUnit.SECONDS);
+
+            MockConnection.verifySuccessHttpResponse(response);
+            Mockito.verify(successConnection).setRequestProperty(
+                    Mockito.eq(AuthenticationConstants.Broker.CHALLENGE_RESPONSE_HEADER),
+                    Mockito.contains("mock_context")
+            );
+        } finally {
+            HttpUrlConnectionFactory.clearMockedConnectionQueue();
+        }
+    }
 }
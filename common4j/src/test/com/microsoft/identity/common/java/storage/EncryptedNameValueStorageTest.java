@@ -0,0 +1,268 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.crypto.StorageEncryptionManager;
+import com.microsoft.identity.common.java.crypto.key.AbstractSecretKeyLoader;
+import com.microsoft.identity.common.java.crypto.key.PredefinedKeyLoader;
+import com.microsoft.identity.common.java.interfaces.INameValueStorageEditor;
+import com.microsoft.identity.common.java.util.ported.Function;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+import com.microsoft.identity.common.java.util.ported.Predicate;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Tests for the bulk read and batched write paths of {@link EncryptedNameValueStorage}.
+ */
+@RunWith(JUnit4.class)
+public class EncryptedNameValueStorageTest {
+
+    private static final int ENTRY_COUNT = 1000;
+    private static final String KEY_PREFIX = "key-";
+
+    private static final Predicate<String> ALL_KEYS = new Predicate<String>() {
+        @Override
+        public boolean test(String value) {
+            return true;
+        }
+    };
+
+    private static final Function<Map.Entry<String, String>, String> IDENTITY = new Function<Map.Entry<String, String>, String>() {
+        @Override
+        public String apply(Map.Entry<String, String> entry) {
+            return entry.getValue();
+        }
+    };
+
+    private InMemoryStorage<String> mRawStorage;
+    private EncryptedNameValueStorage<String> mStorage;
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mRawStorage = new InMemoryStorage<>();
+        mStorage = new EncryptedNameValueStorage<>(mRawStorage, new TestStorageEncryptionManager(), new IdentityStringAdapter());
+        mExecutor = Executors.newFixedThreadPool(4);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            mStorage.put(KEY_PREFIX + i, "value-" + i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testBulkReadMatchesGetAll() {
+        final Map<String, String> result = mStorage.getAllFilteredByKey(ALL_KEYS, IDENTITY, mExecutor);
+
+        Assert.assertEquals(ENTRY_COUNT, result.size());
+        Assert.assertEquals(mStorage.getAll(), result);
+    }
+
+    @Test
+    public void testBulkReadAppliesKeyFilterAndMapper() {
+        final Map<String, Integer> result = mStorage.getAllFilteredByKey(
+                new Predicate<String>() {
+                    @Override
+                    public boolean test(String value) {
+                        return value.endsWith("0");
+                    }
+                },
+                new Function<Map.Entry<String, String>, Integer>() {
+                    @Override
+                    public Integer apply(Map.Entry<String, String> entry) {
+                        return Integer.parseInt(entry.getValue().substring("value-".length()));
+                    }
+                },
+                mExecutor
+        );
+
+        Assert.assertEquals(ENTRY_COUNT / 10, result.size());
+        for (final Map.Entry<String, Integer> entry : result.entrySet()) {
+            Assert.assertEquals(KEY_PREFIX + entry.getValue(), entry.getKey());
+        }
+    }
+
+    @Test
+    public void testBulkReadSkipsUndecryptableAndNullMappedEntries() {
+        // Flip a character of a valid blob so that its HMAC no longer matches.
+        final char[] corrupted = mRawStorage.get(KEY_PREFIX + "0").toCharArray();
+        corrupted[10] = corrupted[10] == 'A' ? 'B' : 'A';
+        mRawStorage.put(KEY_PREFIX + "corrupted", new String(corrupted));
+        mRawStorage.put(KEY_PREFIX + "empty", "");
+
+        final Map<String, String> result = mStorage.getAllFilteredByKey(
+                ALL_KEYS,
+                new Function<Map.Entry<String, String>, String>() {
+                    @Override
+                    public String apply(Map.Entry<String, String> entry) {
+                        return entry.getKey().equals(KEY_PREFIX + "1") ? null : entry.getValue();
+                    }
+                },
+                mExecutor
+        );
+
+        Assert.assertEquals(ENTRY_COUNT - 1, result.size());
+        Assert.assertFalse(result.containsKey(KEY_PREFIX + "1"));
+        Assert.assertFalse(result.containsKey(KEY_PREFIX + "corrupted"));
+        // Null or empty values are removed, as with get().
+        Assert.assertFalse(mRawStorage.keySet().contains(KEY_PREFIX + "empty"));
+    }
+
+    @Test
+    public void testBulkReadFallsBackToCallingThreadWhenExecutorRejects() {
+        final ExecutorService shutDownExecutor = Executors.newSingleThreadExecutor();
+        shutDownExecutor.shutdown();
+
+        final Map<String, String> result = mStorage.getAllFilteredByKey(ALL_KEYS, IDENTITY, shutDownExecutor);
+
+        Assert.assertEquals(ENTRY_COUNT, result.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkReadPropagatesMapperException() {
+        mStorage.getAllFilteredByKey(
+                ALL_KEYS,
+                new Function<Map.Entry<String, String>, String>() {
+                    @Override
+                    public String apply(Map.Entry<String, String> entry) {
+                        throw new IllegalArgumentException(entry.getKey());
+                    }
+                },
+                mExecutor
+        );
+    }
+
+    @Test
+    public void testBulkReadUsesExecutor() {
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+        try {
+            mStorage.getAllFilteredByKey(ALL_KEYS, IDENTITY, executor);
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            if (Runtime.getRuntime().availableProcessors() > 1) {
+                Assert.assertTrue(executor.getCompletedTaskCount() > 0);
+            }
+        } catch (final InterruptedException e) {
+            Assert.fail(e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEditorWritesNothingBeforeCommit() {
+        final INameValueStorageEditor<String> editor = mStorage.edit()
+                .put("batch-a", "a")
+                .remove(KEY_PREFIX + "0");
+
+        Assert.assertNull(mRawStorage.get("batch-a"));
+        Assert.assertEquals("value-0", mStorage.get(KEY_PREFIX + "0"));
+
+        editor.commit();
+
+        Assert.assertEquals("a", mStorage.get("batch-a"));
+        Assert.assertFalse(mRawStorage.keySet().contains(KEY_PREFIX + "0"));
+    }
+
+    @Test
+    public void testEditorEncryptsValues() {
+        mStorage.edit()
+                .put("batch-a", "a")
+                .put("batch-b", "b")
+                .commit();
+
+        Assert.assertNotEquals("a", mRawStorage.get("batch-a"));
+        Assert.assertEquals("a", mStorage.get("batch-a"));
+        Assert.assertEquals("b", mStorage.get("batch-b"));
+    }
+
+    @Test
+    public void testEditorKeepsLastChangePerName() {
+        mStorage.edit()
+                .put("batch-a", "a")
+                .remove("batch-a")
+                .put("batch-a", "a2")
+                .put("batch-b", "b")
+                .remove("batch-b")
+                .commit();
+
+        Assert.assertEquals("a2", mStorage.get("batch-a"));
+        Assert.assertFalse(mRawStorage.keySet().contains("batch-b"));
+    }
+
+    @Test
+    public void testEditorIsResetOnCommit() {
+        final INameValueStorageEditor<String> editor = mStorage.edit().put("batch-a", "a");
+        editor.commit();
+        mStorage.put("batch-a", "changed");
+
+        editor.commit();
+
+        Assert.assertEquals("changed", mStorage.get("batch-a"));
+    }
+
+    private static final class IdentityStringAdapter implements IGenericTypeStringAdapter<String> {
+        @Override
+        public String adapt(String value) {
+            return value;
+        }
+    }
+
+    private static final class TestStorageEncryptionManager extends StorageEncryptionManager {
+        private final AbstractSecretKeyLoader mKeyLoader = new PredefinedKeyLoader(
+                "TEST_ALIAS",
+                new byte[]{22, 78, -69, -66, 84, -65, 119, -9, -34, -80, 60, 67, -12, -117, 86, -47, -84,
+                        -24, -18, 121, 70, 32, -110, 51, -93, -10, -93, -72, -78, -60, 79, 21}
+        );
+
+        @Override
+        public @NonNull AbstractSecretKeyLoader getKeyLoaderForEncryption() {
+            return mKeyLoader;
+        }
+
+        @Override
+        public @NonNull List<AbstractSecretKeyLoader> getKeyLoaderForDecryption(@NonNull final byte[] cipherText) {
+            return Collections.singletonList(mKeyLoader);
+        }
+    }
+}
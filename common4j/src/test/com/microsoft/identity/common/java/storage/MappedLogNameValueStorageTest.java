@@ -0,0 +1,265 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.util.ported.Predicate;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Tests for {@link MappedLogNameValueStorage}.
+ */
+@RunWith(JUnit4.class)
+public class MappedLogNameValueStorageTest {
+
+    private static final String STORE_NAME = "store";
+    private static final int COMPACTION_THRESHOLD = 4 * 1024;
+
+    private File mDirectory;
+    private MappedLogNameValueStorage mStorage;
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = File.createTempFile("mlog", "");
+        Assert.assertTrue(mDirectory.delete());
+        mStorage = open();
+    }
+
+    @After
+    public void tearDown() {
+        mStorage.close();
+        final File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    @Test
+    public void testValuesSurviveReopen() throws IOException {
+        mStorage.put("a", "1");
+        mStorage.put("b", "2");
+        mStorage.put("a", "3");
+        mStorage.remove("b");
+        mStorage.put("c", "\u00e9\u4e2d");
+
+        final MappedLogNameValueStorage reopened = reopen();
+
+        Assert.assertEquals(2, reopened.getAll().size());
+        Assert.assertEquals("3", reopened.get("a"));
+        Assert.assertNull(reopened.get("b"));
+        Assert.assertEquals("\u00e9\u4e2d", reopened.get("c"));
+    }
+
+    @Test
+    public void testPutNullRemoves() throws IOException {
+        mStorage.put("a", "1");
+        mStorage.put("a", null);
+
+        Assert.assertNull(mStorage.get("a"));
+        Assert.assertNull(reopen().get("a"));
+    }
+
+    @Test
+    public void testRemovingAnAbsentKeyDoesNotWrite() {
+        final int logSize = mStorage.getLogSize();
+
+        mStorage.remove("a");
+
+        Assert.assertEquals(logSize, mStorage.getLogSize());
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws IOException {
+        mStorage.put("a", "1");
+        final int intactSize = mStorage.getLogSize();
+        mStorage.put("b", "2");
+        mStorage.close();
+
+        // Cut the last record in half, as if the process had died while writing it.
+        final int tornSize = intactSize + (mStorage.getLogSize() - intactSize) / 2;
+        final RandomAccessFile file = new RandomAccessFile(onlyLogFile(), "rw");
+        try {
+            for (long i = tornSize; i < file.length(); i++) {
+                file.seek(i);
+                file.write(0);
+            }
+        } finally {
+            file.close();
+        }
+
+        mStorage = open();
+        Assert.assertEquals("1", mStorage.get("a"));
+        Assert.assertNull(mStorage.get("b"));
+        Assert.assertEquals(intactSize, mStorage.getLogSize());
+
+        // The log can still be appended to past the dropped record.
+        mStorage.put("c", "3");
+        Assert.assertEquals("3", reopen().get("c"));
+    }
+
+    @Test
+    public void testCorruptRecordIsDropped() throws IOException {
+        mStorage.put("a", "1");
+        final int intactSize = mStorage.getLogSize();
+        mStorage.put("b", "2");
+        mStorage.put("c", "3");
+        mStorage.close();
+
+        // Flip the last byte of the value of b, so that its checksum no longer matches.
+        final RandomAccessFile file = new RandomAccessFile(onlyLogFile(), "rw");
+        try {
+            final long position = intactSize + (mStorage.getLogSize() - intactSize) / 2 - 1;
+            file.seek(position);
+            final int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        } finally {
+            file.close();
+        }
+
+        mStorage = open();
+        Assert.assertEquals("1", mStorage.get("a"));
+        Assert.assertNull(mStorage.get("b"));
+        Assert.assertNull(mStorage.get("c"));
+    }
+
+    @Test
+    public void testCompactionKeepsLiveEntries() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            mStorage.put("key-" + (i % 10), "value-" + i);
+        }
+
+        Assert.assertTrue(mStorage.getLogSize() < COMPACTION_THRESHOLD * 2);
+        Assert.assertEquals(1, mDirectory.listFiles().length);
+
+        final MappedLogNameValueStorage reopened = reopen();
+        Assert.assertEquals(10, reopened.getAll().size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("value-" + (990 + i), reopened.get("key-" + i));
+        }
+    }
+
+    @Test
+    public void testIncompleteGenerationIsIgnored() throws IOException {
+        mStorage.put("a", "1");
+        mStorage.close();
+
+        // A newer generation whose header was never written, as if compaction had been interrupted.
+        final File incomplete = new File(mDirectory, STORE_NAME + ".2.mlog");
+        final RandomAccessFile file = new RandomAccessFile(incomplete, "rw");
+        try {
+            file.setLength(1024);
+        } finally {
+            file.close();
+        }
+
+        mStorage = open();
+        Assert.assertEquals("1", mStorage.get("a"));
+        Assert.assertFalse(incomplete.exists());
+    }
+
+    @Test
+    public void testEditAppliesAllChanges() throws IOException {
+        mStorage.put("a", "1");
+        mStorage.put("b", "2");
+
+        mStorage.edit()
+                .put("a", "3")
+                .remove("b")
+                .put("c", "4")
+                .commit();
+
+        final MappedLogNameValueStorage reopened = reopen();
+        Assert.assertEquals("3", reopened.get("a"));
+        Assert.assertNull(reopened.get("b"));
+        Assert.assertEquals("4", reopened.get("c"));
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        mStorage.put("a", "1");
+        mStorage.put("b", "2");
+
+        mStorage.clear();
+
+        Assert.assertTrue(mStorage.getAll().isEmpty());
+        Assert.assertTrue(reopen().keySet().isEmpty());
+    }
+
+    @Test
+    public void testGetAllFilteredByKey() {
+        mStorage.put("a-1", "1");
+        mStorage.put("b-1", "2");
+        mStorage.put("a-2", "3");
+
+        final Iterator<Map.Entry<String, String>> iterator = mStorage.getAllFilteredByKey(new Predicate<String>() {
+            @Override
+            public boolean test(String value) {
+                return value.startsWith("a-");
+            }
+        });
+
+        int count = 0;
+        while (iterator.hasNext()) {
+            Assert.assertTrue(iterator.next().getKey().startsWith("a-"));
+            count++;
+        }
+        Assert.assertEquals(2, count);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteAfterCloseThrows() {
+        mStorage.close();
+        mStorage.put("a", "1");
+    }
+
+    private MappedLogNameValueStorage open() throws IOException {
+        return new MappedLogNameValueStorage(mDirectory, STORE_NAME, COMPACTION_THRESHOLD, false);
+    }
+
+    private MappedLogNameValueStorage reopen() throws IOException {
+        mStorage.close();
+        mStorage = open();
+        return mStorage;
+    }
+
+    private File onlyLogFile() {
+        final File[] files = mDirectory.listFiles();
+        Assert.assertEquals(1, files.length);
+        return files[0];
+    }
+}
@@ -0,0 +1,157 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.telemetry;
+
+import com.microsoft.identity.common.java.util.ported.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link TelemetryEventBuffer}.
+ */
+@RunWith(JUnit4.class)
+public class TelemetryEventBufferTest {
+
+    private static final long MAX_AGE = 1000;
+
+    private final AtomicLong mNow = new AtomicLong(0);
+    private final Supplier<Long> mClock = new Supplier<Long>() {
+        @Override
+        public Long get() {
+            return mNow.get();
+        }
+    };
+
+    @Test
+    public void testTakeReturnsOnlyEventsOfCorrelationInOrder() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(10, 10, MAX_AGE, mClock);
+        final Map<String, String> first = event("ABC", "first");
+        final Map<String, String> second = event("abc", "second");
+        buffer.add(first);
+        buffer.add(event("other", "third"));
+        buffer.add(second);
+
+        final List<Map<String, String>> events = buffer.take("aBc");
+
+        Assert.assertEquals(2, events.size());
+        Assert.assertSame(first, events.get(0));
+        Assert.assertSame(second, events.get(1));
+        Assert.assertTrue(buffer.take("abc").isEmpty());
+        Assert.assertEquals(1, buffer.getCorrelationCount());
+    }
+
+    @Test
+    public void testPeekDoesNotRemoveEvents() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(10, 10, MAX_AGE, mClock);
+        buffer.add(event("abc", "first"));
+
+        Assert.assertEquals(1, buffer.peek("abc").size());
+        Assert.assertEquals(1, buffer.peek("abc").size());
+        Assert.assertEquals(1, buffer.take("abc").size());
+    }
+
+    @Test
+    public void testEventsWithoutCorrelationIdAreDropped() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(10, 10, MAX_AGE, mClock);
+        buffer.add(Collections.singletonMap("name", "uncorrelated"));
+
+        Assert.assertEquals(0, buffer.getCorrelationCount());
+        Assert.assertEquals(1, buffer.getDroppedEventCount());
+        Assert.assertTrue(buffer.take(null).isEmpty());
+    }
+
+    @Test
+    public void testFullBucketDropsNewEvents() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(10, 2, MAX_AGE, mClock);
+        buffer.add(event("abc", "first"));
+        buffer.add(event("abc", "second"));
+        buffer.add(event("abc", "third"));
+
+        Assert.assertEquals(2, buffer.take("abc").size());
+        Assert.assertEquals(1, buffer.getDroppedEventCount());
+    }
+
+    @Test
+    public void testOldestBucketIsEvictedWhenFull() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(2, 10, MAX_AGE, mClock);
+        buffer.add(event("first", "a"));
+        buffer.add(event("first", "b"));
+        mNow.set(10);
+        buffer.add(event("second", "c"));
+        mNow.set(20);
+        buffer.add(event("third", "d"));
+
+        Assert.assertEquals(2, buffer.getCorrelationCount());
+        Assert.assertTrue(buffer.take("first").isEmpty());
+        Assert.assertEquals(1, buffer.take("second").size());
+        Assert.assertEquals(1, buffer.take("third").size());
+        Assert.assertEquals(1, buffer.getEvictedBucketCount());
+        Assert.assertEquals(2, buffer.getEvictedEventCount());
+    }
+
+    @Test
+    public void testExpiredBucketsAreEvicted() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(10, 10, MAX_AGE, mClock);
+        buffer.add(event("never-flushed", "a"));
+        mNow.set(MAX_AGE);
+        buffer.add(event("abc", "b"));
+
+        Assert.assertEquals(1, buffer.getCorrelationCount());
+        Assert.assertTrue(buffer.take("never-flushed").isEmpty());
+        Assert.assertEquals(1, buffer.getEvictedBucketCount());
+    }
+
+    @Test
+    public void testEventAddedAfterFlushStartsNewBucket() {
+        final TelemetryEventBuffer buffer = new TelemetryEventBuffer(10, 10, MAX_AGE, mClock);
+        buffer.add(event("abc", "first"));
+        Assert.assertEquals(1, buffer.take("abc").size());
+
+        buffer.add(event("abc", "second"));
+
+        final List<Map<String, String>> events = buffer.take("abc");
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("second", events.get(0).get("name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveBoundsAreRejected() {
+        new TelemetryEventBuffer(0, 10, MAX_AGE, mClock);
+    }
+
+    private static Map<String, String> event(final String correlationId, final String name) {
+        final Map<String, String> event = new HashMap<>();
+        event.put(TelemetryEventStrings.Key.CORRELATION_ID, correlationId);
+        event.put("name", name);
+        return event;
+    }
+}
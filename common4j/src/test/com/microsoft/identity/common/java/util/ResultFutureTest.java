@@ -0,0 +1,89 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(JUnit4.class)
+public class ResultFutureTest {
+
+    @Test
+    public void testCancelNotifiesConsumersAndIgnoresLaterResult() throws Exception {
+        final ResultFuture<String> future = new ResultFuture<>();
+        final AtomicReference<Throwable> notified = new AtomicReference<>();
+        future.whenComplete(new BiConsumer<String, Throwable>() {
+            @Override
+            public void accept(final String result, final Throwable throwable) {
+                notified.set(throwable);
+            }
+        });
+
+        assertTrue(future.cancel(true));
+        future.setResult("too late");
+
+        assertTrue(future.isCancelled());
+        assertTrue(future.isDone());
+        assertTrue(notified.get() instanceof CancellationException);
+        try {
+            future.get();
+            fail("Expected the future to be cancelled");
+        } catch (final CancellationException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testCancelAfterCompletionHasNoEffect() throws Exception {
+        final ResultFuture<String> future = new ResultFuture<>();
+        future.setResult("done");
+
+        assertFalse(future.cancel(true));
+        assertFalse(future.isCancelled());
+        assertEquals("done", future.get());
+    }
+
+    @Test
+    public void testGetResultOrThrowUnwrapsException() throws Exception {
+        final ResultFuture<String> future = new ResultFuture<>();
+        final IOException failure = new IOException("failed");
+        future.setException(failure);
+
+        try {
+            future.getResultOrThrow();
+            fail("Expected the exception the future completed with");
+        } catch (final IOException e) {
+            assertEquals(failure, e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ScopeUtilTest {
+
+    private static final String GRAPH_TARGET =
+            "https://graph.microsoft.com/User.Read https://graph.microsoft.com/Mail.Read offline_access openid profile";
+
+    @Test
+    public void testNormalizedScopesAreLowerCasedWithoutDefaults() {
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        "https://graph.microsoft.com/user.read",
+                        "https://graph.microsoft.com/mail.read"
+                )),
+                ScopeUtil.getNormalizedScopesWithoutDefaults(GRAPH_TARGET)
+        );
+    }
+
+    @Test
+    public void testNormalizedScopesIgnoreRepeatedWhitespace() {
+        assertEquals(
+                new HashSet<>(Arrays.asList("a", "b")),
+                ScopeUtil.getNormalizedScopesWithoutDefaults("  A \t\n b  OPENID ")
+        );
+    }
+
+    @Test
+    public void testNullOrBlankTargetIsEmpty() {
+        assertTrue(ScopeUtil.getNormalizedScopesWithoutDefaults(null).isEmpty());
+        assertTrue(ScopeUtil.getNormalizedScopesWithoutDefaults("   ").isEmpty());
+    }
+
+    @Test
+    public void testNormalizedScopesAreInterned() {
+        assertSame(
+                ScopeUtil.getNormalizedScopesWithoutDefaults(GRAPH_TARGET),
+                ScopeUtil.getNormalizedScopesWithoutDefaults(GRAPH_TARGET)
+        );
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testNormalizedScopesAreImmutable() {
+        ScopeUtil.getNormalizedScopesWithoutDefaults(GRAPH_TARGET).add("scope");
+    }
+
+    @Test
+    public void testContainsAllScopes() {
+        final Set<String> credentialScopes = ScopeUtil.getNormalizedScopesWithoutDefaults(GRAPH_TARGET);
+
+        assertTrue(ScopeUtil.containsAllScopes(
+                credentialScopes,
+                ScopeUtil.getNormalizedScopesWithoutDefaults("https://graph.microsoft.com/user.read openid")
+        ));
+        assertTrue(ScopeUtil.containsAllScopes(
+                credentialScopes,
+                ScopeUtil.getNormalizedScopesWithoutDefaults("offline_access")
+        ));
+        assertFalse(ScopeUtil.containsAllScopes(
+                credentialScopes,
+                ScopeUtil.getNormalizedScopesWithoutDefaults("https://graph.microsoft.com/Files.Read")
+        ));
+    }
+}